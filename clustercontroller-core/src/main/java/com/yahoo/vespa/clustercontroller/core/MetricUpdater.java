@@ -110,6 +110,14 @@ public class MetricUpdater {
         metricReporter.set("remote-task-queue.size", size);
     }
 
+    public void addClusterStateBundleEncodeTime(Duration encodeTime) {
+        metricReporter.set("cluster-state-bundle.encode-time-ms", encodeTime.toNanos() / 1e6);
+    }
+
+    public void addClusterStateBundleSent(int bytes) {
+        metricReporter.set("cluster-state-bundle.bytes-sent", bytes);
+    }
+
     public boolean forWork(String workId, BooleanSupplier work) {
         long startNanos = System.nanoTime();
         boolean didWork = work.getAsBoolean();
@@ -19,11 +19,15 @@ import com.yahoo.vespa.clustercontroller.core.ClusterStateBundle;
 import com.yahoo.vespa.clustercontroller.core.Communicator;
 import com.yahoo.vespa.clustercontroller.core.FleetControllerOptions;
 import com.yahoo.vespa.clustercontroller.core.GetNodeStateRequest;
+import com.yahoo.vespa.clustercontroller.core.MetricUpdater;
 import com.yahoo.vespa.clustercontroller.core.NodeInfo;
 import com.yahoo.vespa.clustercontroller.core.SetClusterStateRequest;
 import com.yahoo.vespa.clustercontroller.core.Timer;
+import com.yahoo.vespa.clustercontroller.utils.util.NoMetricReporter;
 
 import java.time.Duration;
+import java.util.IdentityHashMap;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -49,6 +53,9 @@ public class RPCCommunicator implements Communicator {
     public static final int SET_DISTRIBUTION_STATES_RPC_VERSION = 3;
     public static final String SET_DISTRIBUTION_STATES_RPC_METHOD_NAME = "setdistributionstates";
 
+    /** The max number of encoded bundles of the same version to keep, as some nodes are sent a modified bundle */
+    private static final int maxEncodedBundles = 4;
+
     private final Timer timer;
     private final Supervisor supervisor;
     private Duration nodeStateRequestTimeoutIntervalMax;
@@ -56,6 +63,12 @@ public class RPCCommunicator implements Communicator {
     private int nodeStateRequestTimeoutIntervalStopPercentage;
     private Duration nodeStateRequestRoundTripTimeMax;
     private final int fleetControllerIndex;
+    private final MetricUpdater metricUpdater;
+    private final SlimeClusterStateBundleCodec codec = new SlimeClusterStateBundleCodec();
+
+    /** Encodings of bundles of the version most recently sent, by bundle identity, as the same bundle is sent to all nodes */
+    private final Map<ClusterStateBundle, EncodedClusterStateBundle> encodedBundles = new IdentityHashMap<>();
+    private int encodedBundlesVersion = -1;
 
     public static Supervisor createRealSupervisor() {
         return new Supervisor(new Transport("rpc-communicator")).setDropEmptyBuffers(true);
@@ -68,6 +81,19 @@ public class RPCCommunicator implements Communicator {
                            int nodeStateRequestTimeoutIntervalStartPercentage,
                            int nodeStateRequestTimeoutIntervalStopPercentage,
                            int nodeStateRequestRoundTripTimeMaxSeconds) {
+        this(supervisor, t, index, nodeStateRequestTimeoutIntervalMaxMs, nodeStateRequestTimeoutIntervalStartPercentage,
+             nodeStateRequestTimeoutIntervalStopPercentage, nodeStateRequestRoundTripTimeMaxSeconds,
+             new MetricUpdater(new NoMetricReporter(), index, ""));
+    }
+
+    public RPCCommunicator(Supervisor supervisor,
+                           Timer t,
+                           int index,
+                           int nodeStateRequestTimeoutIntervalMaxMs,
+                           int nodeStateRequestTimeoutIntervalStartPercentage,
+                           int nodeStateRequestTimeoutIntervalStopPercentage,
+                           int nodeStateRequestRoundTripTimeMaxSeconds,
+                           MetricUpdater metricUpdater) {
         this.timer = t;
         this.fleetControllerIndex = index;
         checkArgument(nodeStateRequestTimeoutIntervalMaxMs > 0);
@@ -81,6 +107,7 @@ public class RPCCommunicator implements Communicator {
         this.nodeStateRequestTimeoutIntervalStopPercentage = nodeStateRequestTimeoutIntervalStopPercentage;
         this.nodeStateRequestRoundTripTimeMax = Duration.ofSeconds(nodeStateRequestRoundTripTimeMaxSeconds);
         this.supervisor = supervisor;
+        this.metricUpdater = metricUpdater;
     }
 
     public void shutdown() {
@@ -144,8 +171,7 @@ public class RPCCommunicator implements Communicator {
             return;
         }
         Request req = new Request(SET_DISTRIBUTION_STATES_RPC_METHOD_NAME);
-        SlimeClusterStateBundleCodec codec = new SlimeClusterStateBundleCodec();
-        EncodedClusterStateBundle encodedBundle = codec.encode(stateBundle);
+        EncodedClusterStateBundle encodedBundle = encode(stateBundle);
         Values v = req.parameters();
         v.add(new Int8Value(encodedBundle.getCompression().type().getCode()));
         v.add(new Int32Value(encodedBundle.getCompression().uncompressedSize()));
@@ -158,6 +184,23 @@ public class RPCCommunicator implements Communicator {
 
         connection.invokeAsync(req, Duration.ofSeconds(60), waiter);
         node.setClusterStateVersionBundleSent(stateBundle);
+        metricUpdater.addClusterStateBundleSent(encodedBundle.getCompression().data().length);
+    }
+
+    /** Returns the encoding of the given bundle, which is only computed the first time it is sent */
+    private EncodedClusterStateBundle encode(ClusterStateBundle stateBundle) {
+        if (stateBundle.getVersion() != encodedBundlesVersion || encodedBundles.size() >= maxEncodedBundles) {
+            encodedBundles.clear();
+            encodedBundlesVersion = stateBundle.getVersion();
+        }
+        EncodedClusterStateBundle encodedBundle = encodedBundles.get(stateBundle);
+        if (encodedBundle == null) {
+            long startNanos = System.nanoTime();
+            encodedBundle = codec.encode(stateBundle);
+            metricUpdater.addClusterStateBundleEncodeTime(Duration.ofNanos(System.nanoTime() - startNanos));
+            encodedBundles.put(stateBundle, encodedBundle);
+        }
+        return encodedBundle;
     }
 
     @Override
@@ -30,6 +30,8 @@ import java.util.concurrent.atomic.AtomicReference;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -158,6 +160,22 @@ public class RPCCommunicatorTest {
         assertEquals(receivedBundle, sentBundle);
     }
 
+    @Test
+    void setSystemState_encodes_each_bundle_once() {
+        var f = new Fixture<SetClusterStateRequest>();
+        var cf = ClusterFixture.forFlatCluster(3).bringEntireClusterUp().assignDummyRpcAddresses();
+        var sentBundle = ClusterStateBundleUtil.makeBundle("version:2 distributor:3 storage:3");
+        f.communicator.setSystemState(sentBundle, cf.cluster().getNodeInfo(Node.ofStorage(1)), f.mockWaiter);
+        byte[] firstPayload = f.receivedRequest.get().parameters().get(2).asData();
+        f.communicator.setSystemState(sentBundle, cf.cluster().getNodeInfo(Node.ofDistributor(2)), f.mockWaiter);
+        assertSame(firstPayload, f.receivedRequest.get().parameters().get(2).asData());
+
+        var nextBundle = ClusterStateBundleUtil.makeBundle("version:3 distributor:3 storage:3 .0.s:d");
+        f.communicator.setSystemState(nextBundle, cf.cluster().getNodeInfo(Node.ofStorage(1)), f.mockWaiter);
+        assertNotSame(firstPayload, f.receivedRequest.get().parameters().get(2).asData());
+        assertEquals(nextBundle, RPCUtil.decodeStateBundleFromSetDistributionStatesRequest(f.receivedRequest.get()));
+    }
+
     @Test
     void activateClusterStateVersion_sends_version_activation_rpc() {
         var f = new Fixture<ActivateClusterStateVersionRequest>();
@@ -153,6 +153,7 @@ public class PlatformBundles {
             "com.yahoo.search.searchchain.example.ExampleSearcher",
             "com.yahoo.search.searchers.CacheControlSearcher",
             "com.yahoo.search.searchers.RateLimitingSearcher",
+            "com.yahoo.search.searchers.ResultCacheSearcher",
             "com.yahoo.vespa.streamingvisitors.MetricsSearcher",
             "com.yahoo.vespa.streamingvisitors.VdsStreamingSearcher"
     );
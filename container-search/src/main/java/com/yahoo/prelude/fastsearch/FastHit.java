@@ -332,6 +332,26 @@ public class FastHit extends Hit {
         return null;
     }
 
+    /**
+     * Returns a copy of this which shares no mutable state with it: Summaries added to, and fields removed
+     * from, either hit are not visible in the other. The summary data itself is immutable and shared.
+     */
+    @Override
+    public FastHit clone() {
+        FastHit clone = (FastHit) super.clone();
+        if ( ! summaries.isEmpty()) {
+            clone.summaries = new ArrayList<>(Math.max(8, summaries.size()));
+            for (SummaryData summaryData : summaries)
+                clone.summaries.add(new SummaryData(clone, summaryData.type, summaryData.data, summaryData.index));
+        }
+        else {
+            clone.summaries = Collections.emptyList();
+        }
+        if (removedFields != null)
+            clone.removedFields = new HashSet<>(removedFields);
+        return clone;
+    }
+
     @Override
     public String toString() {
         return super.toString() + " [fasthit, globalid: " + new GlobalId(globalId).toString() + ", partId: " +
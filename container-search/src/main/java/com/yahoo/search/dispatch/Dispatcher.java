@@ -5,6 +5,7 @@ import com.yahoo.component.AbstractComponent;
 import com.yahoo.component.ComponentId;
 import com.yahoo.component.annotation.Inject;
 import com.yahoo.compress.Compressor;
+import com.yahoo.concurrent.Timer;
 import com.yahoo.container.handler.VipStatus;
 import com.yahoo.prelude.fastsearch.VespaBackEndSearcher;
 import com.yahoo.processing.request.CompoundName;
@@ -32,6 +33,7 @@ import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -61,6 +63,7 @@ public class Dispatcher extends AbstractComponent {
     private final RpcConnectionPool rpcResourcePool;
     private final SearchCluster searchCluster;
     private final ClusterMonitor<Node> clusterMonitor;
+    private final HedgingPolicy hedgingPolicy;
     private volatile VolatileItems volatileItems;
 
     private static class VolatileItems {
@@ -137,6 +140,7 @@ public class Dispatcher extends AbstractComponent {
         this.searchCluster = searchCluster;
         this.invokerFactories = invokerFactories;
         this.clusterMonitor = clusterMonitor;
+        this.hedgingPolicy = HedgingPolicy.from(dispatchConfig);
         this.volatileItems = update();
         searchCluster.addMonitoring(clusterMonitor);
     }
@@ -266,7 +270,7 @@ public class Dispatcher extends AbstractComponent {
         try (var items = volatileItems()) { // Take a snapshot, and release it when we're done.
             int maxHitsPerNode = dispatchConfig.maxHitsPerNode();
             SearchInvoker invoker = getSearchPathInvoker(query, searcher, searchCluster.groupList(), items.get().invokerFactory, maxHitsPerNode)
-                    .orElseGet(() -> getInternalInvoker(query, searcher, searchCluster, items.get().loadBalancer, items.get().invokerFactory, maxHitsPerNode));
+                    .orElseGet(() -> getInternalInvoker(query, searcher, searchCluster, items.get().loadBalancer, items.get().invokerFactory, maxHitsPerNode, hedgingPolicy));
 
             if (query.properties().getBoolean(com.yahoo.search.query.Model.ESTIMATE)) {
                 query.setHits(0);
@@ -298,7 +302,8 @@ public class Dispatcher extends AbstractComponent {
     }
 
     private static SearchInvoker getInternalInvoker(Query query, VespaBackEndSearcher searcher, SearchCluster cluster,
-                                                    LoadBalancer loadBalancer, InvokerFactory invokerFactory, int maxHitsPerNode) {
+                                                    LoadBalancer loadBalancer, InvokerFactory invokerFactory, int maxHitsPerNode,
+                                                    HedgingPolicy hedgingPolicy) {
         Optional<Node> directNode = cluster.localCorpusDispatchTarget();
         if (directNode.isPresent()) {
             Node node = directNode.get();
@@ -330,6 +335,8 @@ public class Dispatcher extends AbstractComponent {
                 query.trace(false, 2, "Dispatching to group ", group.id(), " after retries = ", i);
                 query.getModel().setSearchPath("/" + group.id());
                 invoker.get().teardown((success, time) -> loadBalancer.releaseGroup(group, success, time));
+                if (hedgingPolicy != null && groups > 1)
+                    return withHedging(invoker.get(), group, query, searcher, cluster, loadBalancer, invokerFactory, maxHitsPerNode, hedgingPolicy);
                 return invoker.get();
             } else {
                 loadBalancer.releaseGroup(group, false, RequestDuration.of(Duration.ZERO));
@@ -342,6 +349,47 @@ public class Dispatcher extends AbstractComponent {
         throw new IllegalStateException("No suitable groups to dispatch query. Rejected: " + rejected);
     }
 
+    /**
+     * Returns an invoker which hedges the query to another group if the given one does not answer in time,
+     * or the given invoker if the query cannot be hedged, as the hedge delay is unknown or the budget is spent.
+     */
+    private static SearchInvoker withHedging(SearchInvoker invoker, Group group, Query query, VespaBackEndSearcher searcher,
+                                             SearchCluster cluster, LoadBalancer loadBalancer, InvokerFactory invokerFactory,
+                                             int maxHitsPerNode, HedgingPolicy hedgingPolicy) {
+        OptionalLong delay = hedgingPolicy.dispatched();
+        if (delay.isEmpty() || ! hedgingPolicy.hasBudget()) {
+            invoker.setMonitor(hedgingPolicy.latencyRecorder(Timer.monotonic));
+            return invoker;
+        }
+        return new HedgedSearchInvoker(Timer.monotonic, invoker, delay.getAsLong(),
+                                       () -> hedgeTarget(query, searcher, cluster, loadBalancer, invokerFactory, maxHitsPerNode, group),
+                                       hedgingPolicy);
+    }
+
+    /** Takes another group than the given one with sufficient coverage, and returns an invoker for it, if possible */
+    private static Optional<HedgedSearchInvoker.Target> hedgeTarget(Query query, VespaBackEndSearcher searcher, SearchCluster cluster,
+                                                                    LoadBalancer loadBalancer, InvokerFactory invokerFactory,
+                                                                    int maxHitsPerNode, Group primary) {
+        Set<Integer> rejected = rejectGroupBlockingFeed(cluster.groupList().groups());
+        if (rejected == null) {
+            rejected = new HashSet<>();
+        }
+        rejected.add(primary.id());
+        Optional<Group> groupInCluster = loadBalancer.takeGroup(rejected);
+        if (groupInCluster.isEmpty()) return Optional.empty();
+
+        Group group = groupInCluster.get();
+        Optional<SearchInvoker> invoker = group.hasSufficientCoverage()
+                                          ? invokerFactory.createSearchInvoker(searcher, query, group.nodes(), false, maxHitsPerNode)
+                                          : Optional.empty();
+        if (invoker.isEmpty()) {
+            loadBalancer.releaseGroup(group, false, RequestDuration.of(Duration.ZERO));
+            return Optional.empty();
+        }
+        invoker.get().teardown((success, time) -> loadBalancer.releaseGroup(group, success, time));
+        return Optional.of(new HedgedSearchInvoker.Target(group, invoker.get()));
+    }
+
     /**
      * We want to avoid groups blocking feed because their data may be out of date.
      * If there is a single group blocking feed, we want to reject it.
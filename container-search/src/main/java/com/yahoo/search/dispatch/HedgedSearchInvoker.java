@@ -0,0 +1,122 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.dispatch;
+
+import com.yahoo.concurrent.Timer;
+import com.yahoo.search.Query;
+import com.yahoo.search.dispatch.searchcluster.Group;
+import com.yahoo.search.searchchain.Execution;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * HedgedSearchInvoker sends a query to a group, and if the group has not answered completely within the delay
+ * given by a {@link HedgingPolicy}, sends the same query to another group. The result of the group answering first
+ * is used, and the invoker of the other group is closed, such that its answer is discarded.
+ * If neither group has answered completely within another delay, the result of the first group is used,
+ * such that it may time out and degrade coverage as usual.
+ *
+ * @author agent
+ */
+class HedgedSearchInvoker extends SearchInvoker implements ResponseMonitor<SearchInvoker> {
+
+    private final Timer timer;
+    private final SearchInvoker primary;
+    private final long hedgeDelayMillis;
+    private final Supplier<Optional<Target>> hedgeTargets;
+    private final HedgingPolicy policy;
+    private final LinkedBlockingQueue<SearchInvoker> answered = new LinkedBlockingQueue<>();
+
+    private Query query;
+    private volatile long sentAt;
+    private Target hedge = null;
+    private volatile long hedgedAt;
+
+    /**
+     * Creates a hedging invoker
+     *
+     * @param primary the invoker of the group the query is dispatched to first
+     * @param hedgeDelayMillis the time to wait for the primary group before hedging the query, and then for either group
+     * @param hedgeTargets creates invokers of another group to hedge to, if one is available
+     * @param policy the policy to record the latencies of groups answering completely to
+     */
+    HedgedSearchInvoker(Timer timer, SearchInvoker primary, long hedgeDelayMillis,
+                        Supplier<Optional<Target>> hedgeTargets, HedgingPolicy policy) {
+        super(Optional.empty());
+        this.timer = timer;
+        this.primary = primary;
+        this.hedgeDelayMillis = hedgeDelayMillis;
+        this.hedgeTargets = hedgeTargets;
+        this.policy = policy;
+    }
+
+    @Override
+    protected Object sendSearchRequest(Query query, Object context) throws IOException {
+        this.query = query;
+        primary.setMonitor(this);
+        sentAt = timer.milliTime();
+        return primary.sendSearchRequest(query, context);
+    }
+
+    @Override
+    protected InvokerResult getSearchResult(Execution execution) throws IOException {
+        try {
+            SearchInvoker first = answered.poll(Math.min(hedgeDelayMillis, query.getTimeLeft()), TimeUnit.MILLISECONDS);
+            if (first == null && query.getTimeLeft() > 0 && policy.tryHedge()) {
+                sendHedge();
+                if (hedge != null)
+                    first = answered.poll(Math.min(hedgeDelayMillis, query.getTimeLeft()), TimeUnit.MILLISECONDS);
+            }
+
+            SearchInvoker winner = first == null ? primary : first;
+            if (hedge != null) {
+                if (winner == primary) {
+                    hedge.invoker().close();
+                }
+                else {
+                    primary.close();
+                    query.trace(false, 2, "Using the result of group ", hedge.group().id());
+                    query.getModel().setSearchPath("/" + hedge.group().id());
+                }
+            }
+            InvokerResult result = winner.getSearchResult(execution);
+            winner.setFinalStatus(result.getResult().hits().getError() == null);
+            return result;
+        } catch (InterruptedException e) {
+            throw new RuntimeException("Interrupted while waiting for search results", e);
+        }
+    }
+
+    private void sendHedge() throws IOException {
+        hedge = hedgeTargets.get().orElse(null);
+        if (hedge == null) return;
+
+        hedgedAt = timer.milliTime();
+        query.trace(false, 2, "Hedging query to group ", hedge.group().id(), " after ", hedgedAt - sentAt, " ms");
+        hedge.invoker().setMonitor(this);
+        hedge.invoker().sendSearchRequest(query, null);
+    }
+
+    @Override
+    public void responseAvailable(SearchInvoker from) {
+        policy.record(timer.milliTime() - (from == primary ? sentAt : hedgedAt));
+        answered.add(from);
+    }
+
+    @Override
+    protected void release() {
+        primary.close();
+        if (hedge != null)
+            hedge.invoker().close();
+    }
+
+    // For testing
+    Optional<Target> hedge() { return Optional.ofNullable(hedge); }
+
+    /** An invoker of a group to hedge to */
+    record Target(Group group, SearchInvoker invoker) { }
+
+}
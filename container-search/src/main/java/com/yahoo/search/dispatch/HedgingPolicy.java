@@ -0,0 +1,111 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.dispatch;
+
+import com.yahoo.concurrent.Timer;
+import com.yahoo.vespa.config.search.DispatchConfig;
+
+import java.util.Arrays;
+import java.util.OptionalLong;
+
+/**
+ * Decides when a query dispatched to a group should also be sent to another group, such that a slow node
+ * in one group does not delay the query: The query is hedged when the first group has not answered within
+ * a percentile of the recent search latencies of groups.
+ * <p>
+ * Hedges are limited by a budget which earns a fraction of a hedge for each query dispatched, such that
+ * hedging adds a bounded amount of load, also when groups are slow because the content nodes are overloaded.
+ * <p>
+ * This class is multithread safe.
+ *
+ * @author agent
+ */
+class HedgingPolicy {
+
+    /** The number of recent latencies the percentile is computed from */
+    static final int sampleCount = 1024;
+
+    /** The number of new latencies recorded before the percentile is computed again */
+    private static final int recomputeInterval = 64;
+
+    /** The max number of hedges which may be saved up while no queries are hedged */
+    private static final double maxSavedHedges = 10;
+
+    private final double percentile;
+    private final long minDelayMillis;
+    private final double budget;
+
+    private final long[] latencies = new long[sampleCount];
+    private int recorded = 0;
+    private long delayMillis = -1;
+    private double savedHedges = 0;
+
+    /**
+     * Creates a hedging policy
+     *
+     * @param percentile the percentile of recent latencies after which to hedge, in the range (0, 100)
+     * @param minDelayMillis the min time to wait for the first group before hedging
+     * @param budget the max fraction of queries to hedge
+     */
+    HedgingPolicy(double percentile, long minDelayMillis, double budget) {
+        if (percentile <= 0 || percentile >= 100)
+            throw new IllegalArgumentException("Hedging percentile must be larger than 0 and less than 100, but was " + percentile);
+        if (budget < 0 || budget > 1)
+            throw new IllegalArgumentException("Hedging budget must be in [0, 1], but was " + budget);
+        this.percentile = percentile;
+        this.minDelayMillis = minDelayMillis;
+        this.budget = budget;
+    }
+
+    /** Returns the hedging policy specified by the given config, or null if hedging is disabled */
+    static HedgingPolicy from(DispatchConfig config) {
+        if (config.hedgingPercentile() <= 0 || config.hedgingBudget() <= 0) return null;
+        return new HedgingPolicy(config.hedgingPercentile(), (long)(config.hedgingMinDelay() * 1000), config.hedgingBudget());
+    }
+
+    /**
+     * Registers that a query is dispatched, adding to the hedging budget.
+     *
+     * @return the time in milliseconds to wait for the group the query is dispatched to before hedging it,
+     *         or empty if there are too few recorded latencies to tell
+     */
+    synchronized OptionalLong dispatched() {
+        savedHedges = Math.min(maxSavedHedges, savedHedges + budget);
+        return delayMillis < 0 ? OptionalLong.empty() : OptionalLong.of(delayMillis);
+    }
+
+    /** Returns whether the budget has at least one hedge left, without using it */
+    synchronized boolean hasBudget() {
+        return savedHedges >= 1;
+    }
+
+    /** Uses the budget of one hedge and returns true, or returns false if the budget is spent */
+    synchronized boolean tryHedge() {
+        if (savedHedges < 1) return false;
+        savedHedges -= 1;
+        return true;
+    }
+
+    /** Records the time a group used to answer a query completely */
+    synchronized void record(long latencyMillis) {
+        latencies[recorded++ % sampleCount] = latencyMillis;
+        if (recorded % recomputeInterval == 0 && recorded >= recomputeInterval)
+            delayMillis = Math.max(minDelayMillis, computePercentile());
+        if (recorded == 2 * sampleCount) // keep the count bounded while remembering that all samples are set
+            recorded = sampleCount;
+    }
+
+    /** Returns a monitor which records the time from now until the group it monitors has answered completely */
+    ResponseMonitor<SearchInvoker> latencyRecorder(Timer timer) {
+        long startMillis = timer.milliTime();
+        return __ -> record(timer.milliTime() - startMillis);
+    }
+
+    private long computePercentile() {
+        int samples = Math.min(recorded, sampleCount);
+        long[] sorted = Arrays.copyOf(latencies, samples);
+        Arrays.sort(sorted);
+        int index = (int)Math.ceil(percentile / 100 * samples) - 1;
+        return sorted[Math.max(0, Math.min(samples - 1, index))];
+    }
+
+}
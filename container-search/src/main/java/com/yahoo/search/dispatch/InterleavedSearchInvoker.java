@@ -21,6 +21,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
@@ -43,6 +44,7 @@ public class InterleavedSearchInvoker extends SearchInvoker implements ResponseM
     private final Set<Integer> alreadyFailedNodes;
     private final CoverageAggregator coverageAggregator;
     private final TopKEstimator hitEstimator;
+    private final AtomicInteger pendingResponses;
     private Query query;
 
     private TimeoutHandler timeoutHandler;
@@ -61,6 +63,7 @@ public class InterleavedSearchInvoker extends SearchInvoker implements ResponseM
         this.alreadyFailedNodes = alreadyFailedNodes;
         this.coverageAggregator = new CoverageAggregator(invokers.size());
         this.hitEstimator = hitEstimator;
+        this.pendingResponses = new AtomicInteger(this.invokers.size());
     }
 
     private int estimateHitsToFetch(int wantedHits, int numPartitions) {
@@ -248,11 +251,9 @@ public class InterleavedSearchInvoker extends SearchInvoker implements ResponseM
         if (availableForProcessing != null) {
             availableForProcessing.add(from);
         }
-    }
-
-    @Override
-    protected void setMonitor(ResponseMonitor<SearchInvoker> monitor) {
-        // never to be called
+        if (pendingResponses.decrementAndGet() == 0) {
+            responseAvailable(); // All nodes have answered: Tell any monitor of this that the group has answered
+        }
     }
 
     // For overriding in tests
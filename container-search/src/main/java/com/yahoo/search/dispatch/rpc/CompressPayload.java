@@ -4,6 +4,8 @@ package com.yahoo.search.dispatch.rpc;
 import com.yahoo.compress.Compressor;
 import com.yahoo.search.Query;
 
+import java.nio.ByteBuffer;
+
 /**
  * Interface for compressing and decompressing request/response
  *
@@ -12,4 +14,12 @@ import com.yahoo.search.Query;
 public interface CompressPayload {
     Compressor.Compression compress(Query query, byte[] payload);
     byte[] decompress(Client.ProtobufResponse response);
+
+    /**
+     * Decompresses the payload of the given response into the given buffer, if it is large enough, and returns
+     * a buffer with a backing array which holds the payload from index 0 to its limit.
+     */
+    default ByteBuffer decompress(Client.ProtobufResponse response, byte[] buffer) {
+        return ByteBuffer.wrap(decompress(response));
+    }
 }
@@ -6,6 +6,8 @@ import com.yahoo.compress.Compressor;
 import com.yahoo.processing.request.CompoundName;
 import com.yahoo.search.Query;
 
+import java.nio.ByteBuffer;
+
 /**
  * Implement interface to compress/decompress request/response
  *
@@ -28,5 +30,20 @@ public class CompressService implements CompressPayload {
         CompressionType compression = CompressionType.valueOf(response.compression());
         return compressor.decompress(response.compressedPayload(), compression, response.uncompressedSize());
     }
+
+    @Override
+    public ByteBuffer decompress(Client.ProtobufResponse response, byte[] buffer) {
+        return switch (CompressionType.valueOf(response.compression())) {
+            case NONE, INCOMPRESSIBLE -> ByteBuffer.wrap(response.compressedPayload());
+            case LZ4 -> {
+                if (response.uncompressedSize() > buffer.length) yield ByteBuffer.wrap(decompress(response));
+                ByteBuffer output = ByteBuffer.wrap(buffer, 0, response.uncompressedSize());
+                compressor.decompressUnconditionally(ByteBuffer.wrap(response.compressedPayload()), output);
+                yield output.flip();
+            }
+            default -> ByteBuffer.wrap(decompress(response));
+        };
+    }
+
     Compressor compressor() { return compressor; }
 }
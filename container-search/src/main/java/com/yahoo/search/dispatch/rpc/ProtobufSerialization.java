@@ -5,7 +5,10 @@ import ai.vespa.searchlib.searchprotocol.protobuf.SearchProtocol;
 import ai.vespa.searchlib.searchprotocol.protobuf.SearchProtocol.StringProperty;
 import ai.vespa.searchlib.searchprotocol.protobuf.SearchProtocol.TensorProperty;
 import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.ExtensionRegistryLite;
 import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.WireFormat;
 import com.yahoo.data.access.helpers.MatchFeatureData;
 import com.yahoo.data.access.simple.Value;
 import com.yahoo.data.access.slime.SlimeAdapter;
@@ -210,6 +213,33 @@ public class ProtobufSerialization {
         return builder.build().toByteArray();
     }
 
+    /**
+     * The parts of a docsum reply, where the slime summaries are the given range of the serialized reply,
+     * rather than a copy of it, as {@link SearchProtocol.DocsumReply#parseFrom(byte[])} would make.
+     */
+    record DocsumReplyView(byte[] data, int summariesOffset, int summariesLength, List<SearchProtocol.Error> errors) { }
+
+    static DocsumReplyView deserializeDocsumReply(byte[] payload, int length) throws InvalidProtocolBufferException {
+        CodedInputStream input = CodedInputStream.newInstance(payload, 0, length);
+        int summariesOffset = 0;
+        int summariesLength = 0;
+        List<SearchProtocol.Error> errors = new ArrayList<>();
+        for (int tag = input.readTag(); tag != 0; tag = input.readTag()) {
+            int field = WireFormat.getTagFieldNumber(tag);
+            boolean delimited = WireFormat.getTagWireType(tag) == WireFormat.WIRETYPE_LENGTH_DELIMITED;
+            if (delimited && field == SearchProtocol.DocsumReply.SLIME_SUMMARIES_FIELD_NUMBER) {
+                summariesLength = input.readRawVarint32();
+                summariesOffset = input.getTotalBytesRead();
+                input.skipRawBytes(summariesLength);
+            } else if (delimited && field == SearchProtocol.DocsumReply.ERRORS_FIELD_NUMBER) {
+                errors.add(input.readMessage(SearchProtocol.Error.parser(), ExtensionRegistryLite.getEmptyRegistry()));
+            } else {
+                input.skipField(tag);
+            }
+        }
+        return new DocsumReplyView(payload, summariesOffset, summariesLength, errors);
+    }
+
     private static void mergeQueryDataToDocsumRequest(Query query, GrowableByteBuffer scratchPad, SearchProtocol.DocsumRequest.Builder builder) {
         var ranking = query.getRanking();
         var featureMap = ranking.getFeatures().asMap();
@@ -23,6 +23,7 @@ import com.yahoo.slime.ArrayTraverser;
 import com.yahoo.slime.BinaryFormat;
 import com.yahoo.slime.BinaryView;
 
+import java.nio.ByteBuffer;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.BlockingQueue;
@@ -45,6 +46,15 @@ public class RpcProtobufFillInvoker extends FillInvoker {
 
     enum DecodePolicy {EAGER, ONDEMAND}
 
+    /** Replies larger than this are decompressed into new arrays, to bound the memory held by each thread */
+    private static final int maxPooledBufferSize = 1 << 20;
+
+    /**
+     * Buffer for decompressing replies which are decoded eagerly, as the decoded summaries do not refer to it.
+     * Summaries decoded on demand refer to the decompressed reply for as long as they live, so these can not be pooled.
+     */
+    private static final ThreadLocal<byte[]> decompressBuffer = ThreadLocal.withInitial(() -> new byte[0]);
+
     private final DocumentDatabase documentDb;
     private final RpcConnectionPool resourcePool;
     private final boolean summaryNeedsQuery;
@@ -192,12 +202,22 @@ public class RpcProtobufFillInvoker extends FillInvoker {
             hasReportedError = true;
         } else {
             Client.ProtobufResponse response = responseOrError.response().get();
-            byte[] responseBytes = compressor.decompress(response);
-            return fill(result, hitsContext, summaryClass, responseBytes);
+            ByteBuffer payload = compressor.decompress(response, decompressBuffer(response.uncompressedSize()));
+            return fill(result, hitsContext, summaryClass, payload.array(), payload.limit());
         }
         return 0;
     }
 
+    private byte[] decompressBuffer(int size) {
+        if (decodePolicy != DecodePolicy.EAGER || size > maxPooledBufferSize) return new byte[0];
+        byte[] buffer = decompressBuffer.get();
+        if (buffer.length < size) {
+            buffer = new byte[Math.min(Math.max(size, 2 * buffer.length), maxPooledBufferSize)];
+            decompressBuffer.set(buffer);
+        }
+        return buffer;
+    }
+
     private void addErrors(Result result, com.yahoo.slime.Inspector errors) {
         errors.traverse((ArrayTraverser) (index, value) -> {
             int errorCode = ("timeout".equalsIgnoreCase(value.field("type").asString())) ? Error.TIMEOUT.code : Error.UNSPECIFIED.code;
@@ -211,18 +231,18 @@ public class RpcProtobufFillInvoker extends FillInvoker {
         }
     }
 
-    private int fill(Result result, List<FastHit> hits, String summaryClass, byte[] payload) {
+    private int fill(Result result, List<FastHit> hits, String summaryClass, byte[] payload, int length) {
         try {
-            var protobuf = SearchProtocol.DocsumReply.parseFrom(payload);
+            var reply = ProtobufSerialization.deserializeDocsumReply(payload, length);
             var root = (decodePolicy == DecodePolicy.ONDEMAND)
-                    ? BinaryView.inspect(protobuf.getSlimeSummaries().toByteArray())
-                    : BinaryFormat.decode(protobuf.getSlimeSummaries().toByteArray()).get();
+                    ? BinaryView.inspect(payload, reply.summariesOffset(), reply.summariesLength())
+                    : BinaryFormat.decode(payload, reply.summariesOffset(), reply.summariesLength()).get();
             var errors = root.field("errors");
             boolean hasErrors = errors.valid() && (errors.entries() > 0);
             if (hasErrors) {
                 addErrors(result, errors);
             }
-            convertErrorsFromDocsumReply(result, protobuf.getErrorsList());
+            convertErrorsFromDocsumReply(result, reply.errors());
 
             Inspector summaries = new SlimeAdapter(root.field("docsums"));
             if (!summaries.valid()) {
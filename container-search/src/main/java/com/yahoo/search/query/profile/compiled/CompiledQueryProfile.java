@@ -133,9 +133,7 @@ public class CompiledQueryProfile extends AbstractComponent implements Cloneable
      */
     public Map<String, Object> listValues(CompoundName prefix, Map<String, String> context, Properties substitution) {
         Map<String, Object> values = new HashMap<>();
-        for (Map.Entry<CompoundName, DimensionalValue<ValueWithSource>> entry : entries.entrySet()) {
-            if ( ! entry.getKey().hasPrefix(prefix)) continue;
-
+        for (Map.Entry<CompoundName, DimensionalValue<ValueWithSource>> entry : entries.entriesWithPrefix(prefix)) {
             ValueWithSource valueWithSource = entry.getValue().get(context);
             if (valueWithSource == null) continue;
 
@@ -153,9 +151,8 @@ public class CompiledQueryProfile extends AbstractComponent implements Cloneable
                                                               Map<String, String> context,
                                                               Properties substitution) {
         Map<String, ValueWithSource> values = new HashMap<>();
-        for (Map.Entry<CompoundName, DimensionalValue<ValueWithSource>> entry : entries.entrySet()) {
+        for (Map.Entry<CompoundName, DimensionalValue<ValueWithSource>> entry : entries.entriesWithPrefix(prefix)) {
             if ( entry.getKey().size() <= prefix.size()) continue;
-            if ( ! entry.getKey().hasPrefix(prefix)) continue;
 
             ValueWithSource valueWithSource = entry.getValue().get(context);
             if (valueWithSource == null) continue;
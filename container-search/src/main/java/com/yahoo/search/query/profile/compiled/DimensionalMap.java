@@ -5,7 +5,9 @@ import com.google.common.collect.ImmutableMap;
 import com.yahoo.processing.request.CompoundName;
 import com.yahoo.search.query.profile.DimensionBinding;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -21,8 +23,17 @@ public class DimensionalMap<VALUE> {
 
     private final Map<CompoundName, DimensionalValue<VALUE>> values;
 
+    /** The entries of this in a trie over the components of their keys, to find those with a given prefix */
+    private final Node<VALUE> root = new Node<>();
+
     private DimensionalMap(Map<CompoundName, DimensionalValue<VALUE>> values) {
         this.values = ImmutableMap.copyOf(values);
+        for (Map.Entry<CompoundName, DimensionalValue<VALUE>> entry : this.values.entrySet()) {
+            Node<VALUE> node = root;
+            for (String component : entry.getKey().asList())
+                node = node.children.computeIfAbsent(component, __ -> new Node<>());
+            node.entry = entry;
+        }
     }
 
     /** Returns the value for this key matching a context, or null if none */
@@ -42,6 +53,34 @@ public class DimensionalMap<VALUE> {
         return values.isEmpty();
     }
 
+    /** Returns the entries having the given prefix, including any entry having the prefix as its key */
+    List<Map.Entry<CompoundName, DimensionalValue<VALUE>>> entriesWithPrefix(CompoundName prefix) {
+        Node<VALUE> node = root;
+        for (int i = 0; i < prefix.size() && node != null; i++)
+            node = node.children.get(prefix.get(i));
+        if (node == null) return List.of();
+
+        List<Map.Entry<CompoundName, DimensionalValue<VALUE>>> entries = new ArrayList<>();
+        node.addEntriesTo(entries);
+        return entries;
+    }
+
+    private static class Node<VALUE> {
+
+        private final Map<String, Node<VALUE>> children = new HashMap<>();
+
+        /** The entry having the key leading to this node, or null if none */
+        private Map.Entry<CompoundName, DimensionalValue<VALUE>> entry = null;
+
+        void addEntriesTo(List<Map.Entry<CompoundName, DimensionalValue<VALUE>>> entries) {
+            if (entry != null)
+                entries.add(entry);
+            for (Node<VALUE> child : children.values())
+                child.addEntriesTo(entries);
+        }
+
+    }
+
     public static class Builder<VALUE> {
 
         private final Map<CompoundName, DimensionalValue.Builder<VALUE>> entries = new HashMap<>();
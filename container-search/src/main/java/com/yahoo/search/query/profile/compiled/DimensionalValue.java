@@ -25,6 +25,9 @@ public class DimensionalValue<VALUE> {
     private final Map<Binding, VALUE> indexedVariants;
     private final List<BindingSpec> bindingSpecs;
 
+    /** The value for the binding with no dimensions, which is looked up here without creating a binding, or null if none */
+    private final VALUE nullBindingValue;
+
     private DimensionalValue(List<Value<VALUE>> variants) {
         Collections.sort(variants);
 
@@ -39,6 +42,7 @@ public class DimensionalValue<VALUE> {
             if ( ! bindingSpecs.contains(spec))
                 bindingSpecs.add(spec);
         }
+        this.nullBindingValue = indexedVariants.get(Binding.nullBinding);
     }
 
     /** Returns the value matching this context, or null if none */
@@ -47,6 +51,11 @@ public class DimensionalValue<VALUE> {
             context = Collections.emptyMap();
 
         for (BindingSpec spec : bindingSpecs) {
+            if (spec.dimensions().length == 0) { // Matches any context, and is the most common case
+                if (nullBindingValue != null)
+                    return nullBindingValue;
+                continue;
+            }
             if ( ! spec.matches(context)) continue;
             VALUE value = indexedVariants.get(new Binding(spec, context));
             if (value != null)
@@ -9,13 +9,11 @@ import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.StreamReadConstraints;
 import com.fasterxml.jackson.core.TreeNode;
 import com.google.common.base.Preconditions;
+import com.google.common.io.CountingOutputStream;
 import com.yahoo.container.logging.TraceRenderer;
 import com.yahoo.data.JsonProducer;
 import com.yahoo.data.access.Inspectable;
 import com.yahoo.data.access.Inspector;
-import com.yahoo.data.access.Type;
-import com.yahoo.data.access.simple.JsonRender;
-import com.yahoo.data.access.simple.Value;
 import com.yahoo.document.datatypes.FieldValue;
 import com.yahoo.document.datatypes.StringFieldValue;
 import com.yahoo.document.datatypes.TensorFieldValue;
@@ -121,6 +119,9 @@ public class JsonRenderer extends AsynchronousSectionedRenderer<Result> {
 
     private static final JsonFactory generatorFactory = createGeneratorFactory();
 
+    /** Rendered hits are flushed to the network each time at least this many bytes are rendered since the last flush */
+    private static final int flushChunkBytes = 1 << 16;
+
     private volatile JsonGenerator generator;
     private volatile FieldConsumer fieldConsumer;
     private volatile Deque<Integer> renderedChildren;
@@ -163,6 +164,8 @@ public class JsonRenderer extends AsynchronousSectionedRenderer<Result> {
     private volatile FieldConsumerSettings fieldConsumerSettings;
     private volatile LongSupplier timeSource;
     private volatile OutputStream stream;
+    private volatile CountingOutputStream output;
+    private volatile long flushedBytes;
 
     public JsonRenderer() {
         this(null);
@@ -191,13 +194,16 @@ public class JsonRenderer extends AsynchronousSectionedRenderer<Result> {
         renderedChildren = null;
         timeSource = System::currentTimeMillis;
         stream = null;
+        output = null;
+        flushedBytes = 0;
     }
 
     @Override
     public void beginResponse(OutputStream stream) throws IOException {
         beginJsonCallback(stream);
         fieldConsumerSettings.getSettings(getResult().getQuery());
-        setGenerator(generatorFactory.createGenerator(stream, JsonEncoding.UTF8), fieldConsumerSettings);
+        output = new CountingOutputStream(stream);
+        setGenerator(generatorFactory.createGenerator(output, JsonEncoding.UTF8), fieldConsumerSettings);
         renderedChildren = new ArrayDeque<>();
         generator.writeStartObject();
         renderTrace(getExecution().trace());
@@ -343,6 +349,16 @@ public class JsonRenderer extends AsynchronousSectionedRenderer<Result> {
         generator.writeStartObject();
         renderHitContents(hit);
         generator.writeEndObject();
+        flushRenderedChunk();
+    }
+
+    /** Flushes the rendered output to the network if a chunk of it has been rendered since the last flush */
+    private void flushRenderedChunk() throws IOException {
+        if (output == null) return;
+        long rendered = output.getCount() + Math.max(0, generator.getOutputBuffered());
+        if (rendered - flushedBytes < flushChunkBytes) return;
+        generator.flush();
+        flushedBytes = output.getCount();
     }
 
     protected boolean shouldRender(Hit hit) {
@@ -546,6 +562,7 @@ public class JsonRenderer extends AsynchronousSectionedRenderer<Result> {
 
         private final JsonGenerator generator;
         private final FieldConsumerSettings settings;
+        private final Utf8JsonEncoder encoder;
         private MutableBoolean hasFieldsField;
 
         /** Invoke this from your constructor when sub-classing {@link FieldConsumer} */
@@ -559,11 +576,13 @@ public class JsonRenderer extends AsynchronousSectionedRenderer<Result> {
             this.settings.debugRendering = debugRendering;
             this.settings.tensorShortForm = tensorShortForm;
             this.settings.jsonDeepMaps = jsonMaps;
+            this.encoder = new Utf8JsonEncoder(settings);
         }
 
         FieldConsumer(JsonGenerator generator, FieldConsumerSettings settings) {
             this.generator = generator;
             this.settings = settings;
+            this.encoder = new Utf8JsonEncoder(settings);
         }
 
         /**
@@ -633,117 +652,16 @@ public class JsonRenderer extends AsynchronousSectionedRenderer<Result> {
             return true;
         }
 
-        private Inspector maybeConvertMap(Inspector data) {
-            var map = new Value.ObjectValue();
-            for (int i = 0; i < data.entryCount(); i++) {
-                Inspector obj = data.entry(i);
-                if (obj.type() != Type.OBJECT || obj.fieldCount() != 2) {
-                    return null;
-                }
-                Inspector key = obj.field("key");
-                Inspector value = obj.field("value");
-                if (! key.valid()) return null;
-                if (! value.valid()) return null;
-                if (key.type() != Type.STRING && !settings.jsonMapsAll) {
-                    return null;
-                }
-                if (settings.convertDeep()) {
-                    value = deepMaybeConvert(value);
-                }
-                if (key.type() == Type.STRING) {
-                    map.put(key.asString(), value);
-                } else {
-                    map.put(JsonRender.render(key, new StringBuilder(), true).toString(), value);
-                }
-            }
-            return map;
-        }
-
-        private Inspector maybeConvertWset(Inspector data) {
-            var wset = new Value.ObjectValue();
-            for (int i = 0; i < data.entryCount(); i++) {
-                Inspector obj = data.entry(i);
-                if (obj.type() != Type.OBJECT || obj.fieldCount() != 2) {
-                    return null;
-                }
-                Inspector item = obj.field("item");
-                Inspector weight = obj.field("weight");
-                if (! item.valid()) return null;
-                if (! weight.valid()) return null;
-                // TODO support non-integer weights?
-                if (weight.type() != Type.LONG) return null;
-                if (item.type() == Type.STRING) {
-                    wset.put(item.asString(), weight.asLong());
-                } else if (settings.jsonWsetsAll) {
-                    wset.put(JsonRender.render(item, new StringBuilder(), true).toString(), weight.asLong());
-                } else {
-                    return null;
-                }
-            }
-            return wset;
-        }
-
-        private Inspector convertInsideObject(Inspector data) {
-            var object = new Value.ObjectValue();
-            for (var entry : data.fields()) {
-                object.put(entry.getKey(), deepMaybeConvert(entry.getValue()));
-            }
-            return object;
-        }
-
-        private Inspector deepMaybeConvert(Inspector data) {
-            if (data.type() == Type.ARRAY) {
-                if (settings.jsonDeepMaps) {
-                    var map = maybeConvertMap(data);
-                    if (map != null) return map;
-                }
-                if (settings.jsonWsets) {
-                    var wset = maybeConvertWset(data);
-                    if (wset != null) return wset;
-                }
-            }
-            if (data.type() == Type.OBJECT) {
-                return convertInsideObject(data);
-            }
-            return data;
-        }
-
-        private Inspector convertTopLevelArray(Inspector data) {
-            if (data.entryCount() > 0) {
-                var map = maybeConvertMap(data);
-                if (map != null) return map;
-                if (settings.jsonWsets) {
-                    var wset = maybeConvertWset(data);
-                    if (wset != null) return wset;
-                }
-                if (settings.convertDeep()) {
-                    var array = new Value.ArrayValue(data.entryCount());
-                    for (int i = 0; i < data.entryCount(); i++) {
-                        Inspector obj = data.entry(i);
-                        array.add(deepMaybeConvert(obj));
-                    }
-                    return array;
-                }
-            }
-            return data;
-        }
-
-        private Inspector maybeConvertData(Inspector data) {
-            if (data.type() == Type.ARRAY) {
-                return convertTopLevelArray(data);
-            }
-            if (settings.convertDeep() && data.type() == Type.OBJECT) {
-                return convertInsideObject(data);
-            }
-            return data;
-        }
-
         private void renderInspector(Inspector data) throws IOException {
-            renderInspectorDirect(maybeConvertData(data));
+            renderRawUtf8(encoder.encodeField(data));
         }
 
         private void renderInspectorDirect(Inspector data) throws IOException {
-            generator().writeRawValue(JsonRender.render(data, new StringBuilder(), true).toString());
+            renderRawUtf8(encoder.encode(data));
+        }
+
+        private void renderRawUtf8(Utf8JsonEncoder encoded) throws IOException {
+            generator().writeRawValue(new RawJsonValue(encoded.buffer(), encoded.length()));
         }
 
         protected void renderFieldContents(Object field) throws IOException {
@@ -805,9 +723,8 @@ public class JsonRenderer extends AsynchronousSectionedRenderer<Result> {
         }
 
         private void renderTensor(Optional<Tensor> tensor) throws IOException {
-            generator().writeRawValue(new String(JsonFormat.encode(tensor.orElse(Tensor.Builder.of(TensorType.empty).build()),
-                                                                   settings.tensorShortForm, settings.tensorDirectValues),
-                                                 StandardCharsets.UTF_8));
+            generator().writeRawValue(new RawJsonValue(JsonFormat.encode(tensor.orElse(Tensor.Builder.of(TensorType.empty).build()),
+                                                                         settings.tensorShortForm, settings.tensorDirectValues)));
         }
 
         private JsonGenerator generator() {
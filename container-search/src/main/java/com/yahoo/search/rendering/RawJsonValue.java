@@ -0,0 +1,96 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.rendering;
+
+import com.fasterxml.jackson.core.SerializableString;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A JSON value which is already encoded as UTF-8, for writing to a generator by
+ * {@link com.fasterxml.jackson.core.JsonGenerator#writeRawValue(SerializableString)}.
+ * A UTF-8 generator copies the bytes of this directly to its output buffer, while
+ * raw string values are transcoded from characters.
+ *
+ * The value is written as it is: The quoted forms are the same as the unquoted ones.
+ *
+ * @author agent
+ */
+final class RawJsonValue implements SerializableString {
+
+    private final byte[] utf8;
+    private final int length;
+
+    /** Creates a value from the given number of bytes at the start of the given array, which is not copied */
+    RawJsonValue(byte[] utf8, int length) {
+        this.utf8 = utf8;
+        this.length = length;
+    }
+
+    RawJsonValue(byte[] utf8) {
+        this(utf8, utf8.length);
+    }
+
+    @Override
+    public String getValue() { return new String(utf8, 0, length, StandardCharsets.UTF_8); }
+
+    @Override
+    public int charLength() { return getValue().length(); }
+
+    @Override
+    public char[] asQuotedChars() { return getValue().toCharArray(); }
+
+    /** Returns the bytes of this, which is the array this was created from if all of it is used, and must not be modified */
+    @Override
+    public byte[] asUnquotedUTF8() { return length == utf8.length ? utf8 : Arrays.copyOf(utf8, length); }
+
+    @Override
+    public byte[] asQuotedUTF8() { return asUnquotedUTF8(); }
+
+    @Override
+    public int appendQuotedUTF8(byte[] buffer, int offset) { return appendUnquotedUTF8(buffer, offset); }
+
+    @Override
+    public int appendQuoted(char[] buffer, int offset) { return appendUnquoted(buffer, offset); }
+
+    @Override
+    public int appendUnquotedUTF8(byte[] buffer, int offset) {
+        if (length > buffer.length - offset) return -1;
+        System.arraycopy(utf8, 0, buffer, offset, length);
+        return length;
+    }
+
+    @Override
+    public int appendUnquoted(char[] buffer, int offset) {
+        String value = getValue();
+        if (value.length() > buffer.length - offset) return -1;
+        value.getChars(0, value.length(), buffer, offset);
+        return value.length();
+    }
+
+    @Override
+    public int writeQuotedUTF8(OutputStream out) throws IOException { return writeUnquotedUTF8(out); }
+
+    @Override
+    public int writeUnquotedUTF8(OutputStream out) throws IOException {
+        out.write(utf8, 0, length);
+        return length;
+    }
+
+    @Override
+    public int putQuotedUTF8(ByteBuffer buffer) { return putUnquotedUTF8(buffer); }
+
+    @Override
+    public int putUnquotedUTF8(ByteBuffer buffer) {
+        if (length > buffer.remaining()) return -1;
+        buffer.put(utf8, 0, length);
+        return length;
+    }
+
+    @Override
+    public String toString() { return getValue(); }
+
+}
@@ -0,0 +1,349 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.rendering;
+
+import com.yahoo.data.access.ArrayTraverser;
+import com.yahoo.data.access.Inspector;
+import com.yahoo.data.access.ObjectTraverser;
+import com.yahoo.data.access.Type;
+import com.yahoo.data.access.simple.JsonRender;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Encodes inspectable values, such as summary fields received as Slime, directly to compact UTF-8 JSON.
+ *
+ * The JSON produced is the same as rendering with {@link JsonRender} after applying the map and weighted set
+ * conversions of {@link JsonRenderer.FieldConsumer}, but arrays which are rendered as JSON maps are encoded
+ * directly from the data instead of by building intermediate values, and strings are copied from their UTF-8
+ * representation when they are ASCII. As with the conversions, a key occurring more than once in a map or weighted set
+ * is rendered once, at its first position, with the value of its last entry.
+ *
+ * This is not thread safe: The encoded bytes are kept in a buffer which is reused by the next value encoded.
+ *
+ * @author agent
+ */
+final class Utf8JsonEncoder implements ArrayTraverser, ObjectTraverser {
+
+    private static final byte[] hex = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] nullValue = "null".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] trueValue = "true".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] falseValue = "false".getBytes(StandardCharsets.US_ASCII);
+
+    private final JsonRenderer.FieldConsumerSettings settings;
+
+    private byte[] buffer = new byte[1024];
+    private int length = 0;
+
+    /** Whether the next field is the first in its object */
+    private boolean head = true;
+
+    /** Whether the entries or fields currently traversed should be converted to JSON maps and weighted sets */
+    private boolean converting = false;
+
+    Utf8JsonEncoder(JsonRenderer.FieldConsumerSettings settings) {
+        this.settings = settings;
+    }
+
+    /** Encodes the given value of a hit field, converting arrays to JSON maps and weighted sets as configured */
+    Utf8JsonEncoder encodeField(Inspector data) {
+        length = 0;
+        if (data.type() == Type.ARRAY && data.entryCount() > 0) {
+            if (isMap(data))
+                encodeMap(data);
+            else if (settings.jsonWsets && isWset(data))
+                encodeWset(data);
+            else if (settings.convertDeep())
+                encodeArray(data, true);
+            else
+                encodeValue(data);
+        }
+        else if (data.type() == Type.OBJECT && settings.convertDeep()) {
+            encodeObject(data, true);
+        }
+        else {
+            encodeValue(data);
+        }
+        return this;
+    }
+
+    /** Encodes the given value as it is */
+    Utf8JsonEncoder encode(Inspector data) {
+        length = 0;
+        encodeValue(data);
+        return this;
+    }
+
+    /** Returns the buffer holding the last value encoded, which is valid until the next value is encoded */
+    byte[] buffer() { return buffer; }
+
+    /** Returns the number of bytes of the last value encoded */
+    int length() { return length; }
+
+    /** Returns a copy of the last value encoded */
+    byte[] toByteArray() { return Arrays.copyOf(buffer, length); }
+
+    private void encodeConverted(Inspector data) {
+        if (data.type() == Type.ARRAY) {
+            if (settings.jsonDeepMaps && isMap(data))
+                encodeMap(data);
+            else if (settings.jsonWsets && isWset(data))
+                encodeWset(data);
+            else
+                encodeValue(data);
+        }
+        else if (data.type() == Type.OBJECT) {
+            encodeObject(data, true);
+        }
+        else {
+            encodeValue(data);
+        }
+    }
+
+    private boolean isMap(Inspector data) {
+        for (int i = 0; i < data.entryCount(); i++) {
+            Inspector entry = data.entry(i);
+            if (entry.type() != Type.OBJECT || entry.fieldCount() != 2) return false;
+            Inspector key = entry.field("key");
+            if ( ! key.valid() || ! entry.field("value").valid()) return false;
+            if (key.type() != Type.STRING && ! settings.jsonMapsAll) return false;
+        }
+        return true;
+    }
+
+    private boolean isWset(Inspector data) {
+        for (int i = 0; i < data.entryCount(); i++) {
+            Inspector entry = data.entry(i);
+            if (entry.type() != Type.OBJECT || entry.fieldCount() != 2) return false;
+            Inspector item = entry.field("item");
+            Inspector weight = entry.field("weight");
+            if ( ! item.valid() || ! weight.valid()) return false;
+            if (weight.type() != Type.LONG) return false;
+            if (item.type() != Type.STRING && ! settings.jsonWsetsAll) return false;
+        }
+        return true;
+    }
+
+    private void encodeMap(Inspector data) {
+        int[] entries = distinctKeyEntries(data, "key");
+        int count = entries == null ? data.entryCount() : entries.length;
+        put('{');
+        for (int i = 0; i < count; i++) {
+            if (i > 0) put(',');
+            Inspector entry = data.entry(entries == null ? i : entries[i]);
+            encodeKey(entry.field("key"));
+            put(':');
+            if (settings.convertDeep())
+                encodeConverted(entry.field("value"));
+            else
+                encodeValue(entry.field("value"));
+        }
+        put('}');
+    }
+
+    private void encodeWset(Inspector data) {
+        int[] entries = distinctKeyEntries(data, "item");
+        int count = entries == null ? data.entryCount() : entries.length;
+        put('{');
+        for (int i = 0; i < count; i++) {
+            if (i > 0) put(',');
+            Inspector entry = data.entry(entries == null ? i : entries[i]);
+            encodeKey(entry.field("item"));
+            put(':');
+            encodeLong(entry.field("weight").asLong());
+        }
+        put('}');
+    }
+
+    /**
+     * Returns the indices of the entries to encode when some entries of the given array have the same key,
+     * which is the last entry with each key, in order of the first occurrence of the key,
+     * or null if all keys are distinct.
+     */
+    private static int[] distinctKeyEntries(Inspector data, String keyField) {
+        if (data.entryCount() < 2) return null;
+        Map<String, Integer> lastEntries = new LinkedHashMap<>();
+        for (int i = 0; i < data.entryCount(); i++)
+            lastEntries.put(keyString(data.entry(i).field(keyField)), i);
+        if (lastEntries.size() == data.entryCount()) return null;
+        return lastEntries.values().stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static String keyString(Inspector key) {
+        return key.type() == Type.STRING ? key.asString() : JsonRender.render(key, new StringBuilder(), true).toString();
+    }
+
+    /** Encodes a string value as itself, and any other value as a string containing its JSON representation */
+    private void encodeKey(Inspector key) {
+        if (key.type() == Type.STRING)
+            encodeString(key.asUtf8());
+        else
+            encodeString(JsonRender.render(key, new StringBuilder(), true).toString());
+    }
+
+    private void encodeArray(Inspector data, boolean convert) {
+        boolean wasConverting = converting;
+        converting = convert;
+        put('[');
+        data.traverse((ArrayTraverser)this);
+        put(']');
+        converting = wasConverting;
+    }
+
+    private void encodeObject(Inspector data, boolean convert) {
+        boolean wasConverting = converting;
+        converting = convert;
+        put('{');
+        head = true;
+        data.traverse((ObjectTraverser)this);
+        put('}');
+        converting = wasConverting;
+    }
+
+    private void encodeValue(Inspector data) {
+        switch (data.type()) {
+            case EMPTY -> put(nullValue);
+            case BOOL -> put(data.asBool() ? trueValue : falseValue);
+            case LONG -> encodeLong(data.asLong());
+            case DOUBLE -> encodeDouble(data.asDouble());
+            case STRING -> encodeString(data.asUtf8());
+            case DATA -> encodeData(data.asData());
+            case ARRAY -> encodeArray(data, false);
+            case OBJECT -> encodeObject(data, false);
+        }
+    }
+
+    @Override
+    public void entry(int index, Inspector inspector) {
+        if (index > 0) put(',');
+        if (converting)
+            encodeConverted(inspector);
+        else
+            encodeValue(inspector);
+    }
+
+    @Override
+    public void field(String name, Inspector inspector) {
+        if ( ! head) put(',');
+        encodeString(name);
+        put(':');
+        if (converting)
+            encodeConverted(inspector);
+        else
+            encodeValue(inspector);
+        head = false; // after encoding the value, as it is set by objects in it
+    }
+
+    private void encodeLong(long value) {
+        encodeAscii(Long.toString(value));
+    }
+
+    private void encodeDouble(double value) {
+        if (Double.isFinite(value))
+            encodeAscii(Double.toString(value));
+        else
+            put(nullValue);
+    }
+
+    private void encodeData(byte[] value) {
+        ensureCapacity(4 + 2 * value.length);
+        buffer[length++] = '"';
+        buffer[length++] = '0';
+        buffer[length++] = 'x';
+        for (byte b : value) {
+            buffer[length++] = hex[(b >> 4) & 0xf];
+            buffer[length++] = hex[b & 0xf];
+        }
+        buffer[length++] = '"';
+    }
+
+    /** Encodes a string given as UTF-8, copying it while it is ASCII which does not need escaping */
+    private void encodeString(byte[] utf8) {
+        ensureCapacity(utf8.length + 2);
+        buffer[length++] = '"';
+        for (int i = 0; i < utf8.length; i++) {
+            byte b = utf8[i];
+            if (b > 0x1f && b < 127 && b != '"' && b != '\\') {
+                buffer[length++] = b;
+            }
+            else if (b >= 0) {
+                encodeChar((char)b);
+                ensureCapacity(utf8.length - i + 1);
+            }
+            else { // Escape non-ASCII as UTF-16 code units, which requires decoding the rest of the string
+                encodeChars(new String(utf8, i, utf8.length - i, StandardCharsets.UTF_8));
+                break;
+            }
+        }
+        put('"');
+    }
+
+    private void encodeString(String value) {
+        put('"');
+        encodeChars(value);
+        put('"');
+    }
+
+    private void encodeChars(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c > 0x1f && c < 127 && c != '"' && c != '\\') {
+                put((byte)c);
+            }
+            else {
+                encodeChar(c);
+            }
+        }
+    }
+
+    /** Encodes a character which requires escaping */
+    private void encodeChar(char c) {
+        ensureCapacity(6);
+        buffer[length++] = '\\';
+        switch (c) {
+            case '"' -> buffer[length++] = '"';
+            case '\\' -> buffer[length++] = '\\';
+            case '\b' -> buffer[length++] = 'b';
+            case '\f' -> buffer[length++] = 'f';
+            case '\n' -> buffer[length++] = 'n';
+            case '\r' -> buffer[length++] = 'r';
+            case '\t' -> buffer[length++] = 't';
+            default -> { // requires escaping according to RFC 4627
+                buffer[length++] = 'u';
+                buffer[length++] = hex[(c >> 12) & 0xf];
+                buffer[length++] = hex[(c >> 8) & 0xf];
+                buffer[length++] = hex[(c >> 4) & 0xf];
+                buffer[length++] = hex[c & 0xf];
+            }
+        }
+    }
+
+    private void encodeAscii(String value) {
+        ensureCapacity(value.length());
+        for (int i = 0; i < value.length(); i++)
+            buffer[length++] = (byte)value.charAt(i);
+    }
+
+    private void put(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, length, bytes.length);
+        length += bytes.length;
+    }
+
+    private void put(char c) {
+        put((byte)c);
+    }
+
+    private void put(byte b) {
+        ensureCapacity(1);
+        buffer[length++] = b;
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (length + bytes > buffer.length)
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + bytes));
+    }
+
+}
@@ -563,6 +563,15 @@ public class Hit extends ListenableFreezableClass implements Data, Comparable<Hi
         }
     }
 
+    /**
+     * Sets the query which produced this, also if a query is already set.
+     * This is for hits which are reused as the result of a later, equivalent query,
+     * such that any later phases of the search use the query currently executing.
+     */
+    public final void replaceQuery(Query query) {
+        this.query = query;
+    }
+
     /**
      * Returns the features computed for this hit. This is never null but may be empty.
      * This default implementation always returns empty.
@@ -0,0 +1,310 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.searchers;
+
+import ai.vespa.metrics.ContainerMetrics;
+import com.yahoo.component.annotation.Inject;
+import com.yahoo.component.chain.dependencies.After;
+import com.yahoo.component.chain.dependencies.Before;
+import com.yahoo.metrics.simple.Counter;
+import com.yahoo.metrics.simple.MetricReceiver;
+import com.yahoo.search.Query;
+import com.yahoo.search.Result;
+import com.yahoo.search.Searcher;
+import com.yahoo.search.config.ResultCacheConfig;
+import com.yahoo.search.grouping.GroupingRequest;
+import com.yahoo.search.query.QueryTree;
+import com.yahoo.search.result.Coverage;
+import com.yahoo.search.result.Hit;
+import com.yahoo.search.result.HitGroup;
+import com.yahoo.search.schema.SchemaInfo;
+import com.yahoo.search.searchchain.Execution;
+import com.yahoo.search.searchchain.PhaseNames;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Returns results of queries from a cache when an equivalent query was executed recently.
+ * <p>
+ * Queries are equivalent when they have the same <i>normalized</i> form, which consists of the
+ * serialized query tree, ranking, offset and hits, grouping requests and all query properties
+ * resolved with the query profile, except timeout, trace and noCache and any properties ignored in
+ * {@link ResultCacheConfig}. Since this is after query transformation, queries which are written
+ * differently but transformed to the same query tree are equivalent.
+ * <p>
+ * The first phase result and the result of filling it with each summary class are cached separately,
+ * such that a query filling a cached result with a new summary class only fetches the summaries.
+ * <p>
+ * Results are cached for the configured time to live, and the least recently used are evicted when
+ * the configured max number of entries is exceeded. Results with errors or incomplete coverage are not cached,
+ * and queries setting noCache are neither answered from nor added to the cache.
+ * As this depends on the schema info of the container, the cache is cleared whenever the schemas are reconfigured.
+ * <p>
+ * Metrics: This emits the count metrics result_cache.hits, result_cache.misses, result_cache.fill_hits and
+ * result_cache.fill_misses.
+ *
+ * @author agent
+ */
+@After(PhaseNames.TRANSFORMED_QUERY)
+@Before(PhaseNames.BLENDED_RESULT)
+public class ResultCacheSearcher extends Searcher {
+
+    /** Properties which do not change the result of a query */
+    private static final List<String> alwaysIgnoredProperties = List.of(Query.TIMEOUT.toString(),
+                                                                        Query.NO_CACHE.toString(),
+                                                                        "trace", "tracelevel", "explainlevel");
+
+    private final Clock clock;
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final List<String> ignoredProperties;
+
+    /** The cached results in least recently used order. Access to this is synchronized on the map */
+    private final Map<String, Entry> cache;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter fillHits;
+    private final Counter fillMisses;
+
+    @Inject
+    public ResultCacheSearcher(ResultCacheConfig config, SchemaInfo schemaInfo, MetricReceiver metric) {
+        this(config, schemaInfo, metric, Clock.systemUTC());
+    }
+
+    /** For testing - allows injection of a timer to avoid depending on the system clock */
+    public ResultCacheSearcher(ResultCacheConfig config, SchemaInfo schemaInfo, MetricReceiver metric, Clock clock) {
+        this.clock = clock;
+        this.ttlMillis = (long)(config.ttl() * 1000);
+        this.maxEntries = config.maxEntries();
+        this.ignoredProperties = config.ignoredProperties();
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) { return size() > maxEntries; }
+        };
+        this.hits = metric.declareCounter(ContainerMetrics.RESULT_CACHE_HITS.baseName());
+        this.misses = metric.declareCounter(ContainerMetrics.RESULT_CACHE_MISSES.baseName());
+        this.fillHits = metric.declareCounter(ContainerMetrics.RESULT_CACHE_FILL_HITS.baseName());
+        this.fillMisses = metric.declareCounter(ContainerMetrics.RESULT_CACHE_FILL_MISSES.baseName());
+    }
+
+    @Override
+    public Result search(Query query, Execution execution) {
+        if (maxEntries <= 0 || ttlMillis <= 0 || query.getNoCache()) return execution.search(query);
+
+        String key = normalize(query);
+        Entry entry = lookup(key);
+        if (entry != null) {
+            hits.add();
+            query.trace("Returning result from the result cache", false, 3);
+            return entry.resultFor(query, this);
+        }
+
+        misses.add();
+        Result result = execution.search(query);
+        if (isCacheable(result)) {
+            entry = new Entry(result.clone(), clock.millis() + ttlMillis);
+            synchronized (cache) {
+                cache.put(key, entry);
+            }
+            result.hits().setSearcherSpecificMetaData(this, entry);
+        }
+        return result;
+    }
+
+    @Override
+    public void fill(Result result, String summaryClass, Execution execution) {
+        if ( ! (result.hits().getSearcherSpecificMetaData(this) instanceof Entry entry)) {
+            execution.fill(result, summaryClass);
+            return;
+        }
+
+        Result filled = entry.filled(summaryClass);
+        if (filled != null && copySummaries(filled, result, summaryClass)) {
+            fillHits.add();
+            return;
+        }
+
+        fillMisses.add();
+        execution.fill(result, summaryClass);
+        if (result.hits().getErrorHit() == null && result.isFilled(summaryClass) && ! entry.isExpired(clock.millis()))
+            entry.setFilled(summaryClass, result.clone());
+    }
+
+    /** Returns the number of results currently in the cache, including any expired ones not yet evicted */
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    private Entry lookup(String key) {
+        synchronized (cache) {
+            Entry entry = cache.get(key);
+            if (entry == null) return null;
+            if ( ! entry.isExpired(clock.millis())) return entry;
+            cache.remove(key);
+            return null;
+        }
+    }
+
+    private boolean isCacheable(Result result) {
+        if (result.hits().getErrorHit() != null) return false;
+        Coverage coverage = result.getCoverage(false);
+        return coverage == null || (coverage.getFull() && ! coverage.isDegraded());
+    }
+
+    /** Returns the normalized form of the given query, which is equal for queries which will produce the same result */
+    String normalize(Query query) {
+        StringBuilder b = new StringBuilder();
+        b.append("tree:").append(new String(encode(query.getModel().getQueryTree()), StandardCharsets.ISO_8859_1));
+        b.append("\nrestrict:").append(query.getModel().getRestrict());
+        b.append("\nsources:").append(query.getModel().getSources());
+        b.append("\noffset:").append(query.getOffset());
+        b.append("\nhits:").append(query.getHits());
+        b.append("\nprofile:").append(query.getRanking().getProfile());
+        b.append("\nsorting:").append(query.getRanking().getSorting());
+        b.append("\nfeatures:").append(new TreeMap<>(query.getRanking().getFeatures().asMap()));
+        b.append("\nrankProperties:").append(new TreeMap<>(query.getRanking().getProperties().asMap()));
+        for (GroupingRequest request : query.getSelect().getGrouping()) {
+            b.append("\ngrouping:").append(request)
+             .append(" continuations:").append(request.continuations())
+             .append(" timezone:").append(request.getTimeZone())
+             .append(" maxHits:").append(request.defaultMaxHits())
+             .append(" maxGroups:").append(request.defaultMaxGroups())
+             .append(" globalMaxGroups:").append(request.globalMaxGroups())
+             .append(" precision:").append(request.defaultPrecisionFactor());
+        }
+        for (Map.Entry<String, Object> property : new TreeMap<>(query.properties().listProperties()).entrySet()) {
+            if (isIgnored(property.getKey())) continue;
+            b.append('\n').append(property.getKey()).append('=').append(property.getValue());
+        }
+        return b.toString();
+    }
+
+    private boolean isIgnored(String property) {
+        return isIgnored(property, alwaysIgnoredProperties) || isIgnored(property, ignoredProperties);
+    }
+
+    private static boolean isIgnored(String property, List<String> ignoredProperties) {
+        for (String ignored : ignoredProperties) {
+            if ( ! property.regionMatches(true, 0, ignored, 0, ignored.length())) continue;
+            if (property.length() == ignored.length() || property.charAt(ignored.length()) == '.') return true;
+        }
+        return false;
+    }
+
+    private static byte[] encode(QueryTree queryTree) {
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        while (true) {
+            try {
+                queryTree.encode(buffer);
+                byte[] encoded = new byte[buffer.position()];
+                buffer.flip().get(encoded);
+                return encoded;
+            } catch (BufferOverflowException e) {
+                buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+            }
+        }
+    }
+
+    /**
+     * Copies the summary fields of the hits of a cached filled result to the hits of the given result
+     * which are not already filled.
+     *
+     * @return true if all the hits of the given result are filled with the summary class after this
+     */
+    private boolean copySummaries(Result from, Result to, String summaryClass) {
+        Map<Object, Hit> filledHits = new HashMap<>();
+        addHitsById(from.hits(), filledHits);
+        return copySummaries(to.hits(), filledHits, summaryClass);
+    }
+
+    private void addHitsById(HitGroup group, Map<Object, Hit> hitsById) {
+        for (Hit hit : group) {
+            if (hit instanceof HitGroup subGroup)
+                addHitsById(subGroup, hitsById);
+            else if (hit.getId() != null)
+                hitsById.put(hit.getId(), hit);
+        }
+    }
+
+    private boolean copySummaries(HitGroup group, Map<Object, Hit> filledHits, String summaryClass) {
+        boolean complete = true;
+        for (Hit hit : group) {
+            if (hit instanceof HitGroup subGroup) {
+                complete &= copySummaries(subGroup, filledHits, summaryClass);
+            }
+            else if ( ! hit.isFilled(summaryClass)) {
+                Hit filled = hit.getId() == null ? null : filledHits.get(hit.getId());
+                if (filled == null || ! filled.isFilled(summaryClass)) {
+                    complete = false;
+                    continue;
+                }
+                filled.forEachField(hit::setField);
+                hit.setFilled(summaryClass);
+            }
+        }
+        if (complete)
+            group.analyze();
+        return complete;
+    }
+
+    /** Sets the given query as the query of this hit and all hits nested in it */
+    private static void replaceQuery(Hit hit, Query query) {
+        hit.replaceQuery(query);
+        if (hit instanceof HitGroup group) {
+            for (Hit child : group)
+                replaceQuery(child, query);
+        }
+    }
+
+    /** A cached first phase result, and the results of filling it with each summary class */
+    private static class Entry {
+
+        private final Result result;
+        private final long expiresAt;
+        private final Map<String, Result> filled = new ConcurrentHashMap<>();
+
+        Entry(Result result, long expiresAt) {
+            this.result = result;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) { return now >= expiresAt; }
+
+        /** Returns a copy of the cached first phase result for the given query */
+        Result resultFor(Query query, ResultCacheSearcher owner) {
+            Result copy;
+            synchronized (result) { // cloning may update lazily computed state of the result
+                copy = result.clone();
+            }
+            replaceQuery(copy.hits(), query);
+            if (result.getCoverage(false) != null) {
+                Coverage coverage = new Coverage(0, 0, 0, 0);
+                coverage.merge(result.getCoverage(false));
+                copy.setCoverage(coverage);
+            }
+            copy.hits().setSearcherSpecificMetaData(owner, this);
+            return copy;
+        }
+
+        Result filled(String summaryClass) {
+            return filled.get(String.valueOf(summaryClass));
+        }
+
+        void setFilled(String summaryClass, Result result) {
+            filled.put(String.valueOf(summaryClass), result);
+        }
+
+    }
+
+}
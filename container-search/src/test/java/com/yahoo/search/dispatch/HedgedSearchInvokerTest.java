@@ -0,0 +1,197 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.dispatch;
+
+import com.yahoo.concurrent.Timer;
+import com.yahoo.search.Query;
+import com.yahoo.search.Result;
+import com.yahoo.search.dispatch.searchcluster.Group;
+import com.yahoo.search.result.Hit;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author agent
+ */
+public class HedgedSearchInvokerTest {
+
+    @Test
+    void primary_answering_in_time_is_not_hedged() throws IOException {
+        HedgingPolicy policy = policyWithBudget(1);
+        TestInvoker primary = new TestInvoker("primary", true);
+        TestInvoker hedge = new TestInvoker("hedge", true);
+        try (HedgedSearchInvoker invoker = new HedgedSearchInvoker(Timer.monotonic, primary, 5000, target(hedge), policy)) {
+            Result result = invoker.search(query(), null);
+            assertEquals("primary", result.hits().get(0).getId().toString());
+            assertTrue(invoker.hedge().isEmpty());
+        }
+        assertTrue(primary.closed);
+        assertFalse(hedge.sent);
+        assertTrue(policy.tryHedge(), "The budget is not used");
+    }
+
+    @Test
+    void slow_primary_is_hedged_and_the_first_answer_is_used() throws IOException {
+        HedgingPolicy policy = policyWithBudget(1);
+        TestInvoker primary = new TestInvoker("primary", false);
+        TestInvoker hedge = new TestInvoker("hedge", true);
+        Query query = query();
+        try (HedgedSearchInvoker invoker = new HedgedSearchInvoker(Timer.monotonic, primary, 1, target(hedge), policy)) {
+            Result result = invoker.search(query, null);
+            assertEquals("hedge", result.hits().get(0).getId().toString());
+            assertTrue(hedge.sent);
+            assertTrue(primary.closed, "The primary is closed as soon as the hedge has answered");
+            assertFalse(hedge.closed);
+        }
+        assertTrue(hedge.closed);
+        assertEquals("/1", query.getModel().getSearchPath());
+        assertFalse(policy.tryHedge(), "The budget is used");
+    }
+
+    @Test
+    void slow_primary_is_not_hedged_when_the_budget_is_spent() throws IOException {
+        TestInvoker primary = new TestInvoker("primary", false);
+        TestInvoker hedge = new TestInvoker("hedge", true);
+        try (HedgedSearchInvoker invoker = new HedgedSearchInvoker(Timer.monotonic, primary, 1, target(hedge), policyWithBudget(0))) {
+            Query query = query();
+            query.setTimeout(50);
+            Result result = invoker.search(query, null);
+            assertEquals("primary", result.hits().get(0).getId().toString());
+            assertFalse(hedge.sent);
+        }
+    }
+
+    @Test
+    void latencies_of_all_groups_answering_are_recorded() throws IOException {
+        RecordingPolicy policy = new RecordingPolicy();
+        policy.dispatched();
+        TestInvoker primary = new TestInvoker("primary", false);
+        TestInvoker hedge = new TestInvoker("hedge", true);
+        try (HedgedSearchInvoker invoker = new HedgedSearchInvoker(Timer.monotonic, primary, 1, target(hedge), policy)) {
+            Result result = invoker.search(query(), null);
+            assertEquals("hedge", result.hits().get(0).getId().toString());
+            assertEquals(1, policy.latencies.size());
+            primary.responseAvailable(); // the primary answering late
+        }
+        assertEquals(2, policy.latencies.size());
+    }
+
+    @Test
+    void latencies_of_groups_which_are_not_hedged_are_recorded() throws IOException {
+        RecordingPolicy policy = new RecordingPolicy();
+        TestInvoker invoker = new TestInvoker("primary", true);
+        invoker.setMonitor(policy.latencyRecorder(Timer.monotonic));
+        invoker.search(query(), null);
+        assertEquals(1, policy.latencies.size());
+    }
+
+    @Test
+    void hedge_delay_is_a_percentile_of_recorded_latencies() {
+        HedgingPolicy policy = new HedgingPolicy(90, 5, 0.5);
+        assertEquals(OptionalLong.empty(), policy.dispatched());
+        for (int i = 1; i <= 100; i++)
+            policy.record(i);
+        assertEquals(OptionalLong.of(58), policy.dispatched(), "Computed from the first 64 latencies");
+        for (int i = 1; i <= 28; i++)
+            policy.record(0);
+        assertEquals(OptionalLong.of(88), policy.dispatched(), "Recomputed after 64 more latencies");
+
+        HedgingPolicy minDelayPolicy = new HedgingPolicy(50, 20, 0.5);
+        for (int i = 0; i < 64; i++)
+            minDelayPolicy.record(1);
+        assertEquals(OptionalLong.of(20), minDelayPolicy.dispatched());
+    }
+
+    @Test
+    void hedging_budget_is_earned_by_dispatched_queries() {
+        HedgingPolicy policy = new HedgingPolicy(95, 0, 0.25);
+        assertFalse(policy.tryHedge());
+        for (int i = 0; i < 8; i++)
+            policy.dispatched();
+        assertTrue(policy.hasBudget());
+        assertTrue(policy.tryHedge());
+        assertTrue(policy.tryHedge());
+        assertFalse(policy.hasBudget());
+        assertFalse(policy.tryHedge());
+
+        for (int i = 0; i < 1000; i++)
+            policy.dispatched();
+        int hedges = 0;
+        while (policy.tryHedge())
+            hedges++;
+        assertEquals(10, hedges, "Saved hedges are capped");
+
+        assertThrows(IllegalArgumentException.class, () -> new HedgingPolicy(100, 0, 0.1));
+        assertThrows(IllegalArgumentException.class, () -> new HedgingPolicy(95, 0, 1.5));
+    }
+
+    private static HedgingPolicy policyWithBudget(int hedges) {
+        HedgingPolicy policy = new HedgingPolicy(95, 0, 1);
+        for (int i = 0; i < hedges; i++)
+            policy.dispatched();
+        return policy;
+    }
+
+    private static Supplier<Optional<HedgedSearchInvoker.Target>> target(SearchInvoker invoker) {
+        return () -> Optional.of(new HedgedSearchInvoker.Target(new Group(1, List.of()), invoker));
+    }
+
+    private static Query query() {
+        Query query = new Query();
+        query.setTimeout(5000);
+        return query;
+    }
+
+    private static class RecordingPolicy extends HedgingPolicy {
+
+        final List<Long> latencies = new ArrayList<>();
+
+        RecordingPolicy() { super(95, 0, 1); }
+
+        @Override
+        synchronized void record(long latencyMillis) {
+            latencies.add(latencyMillis);
+            super.record(latencyMillis);
+        }
+
+    }
+
+    private static class TestInvoker extends MockInvoker {
+
+        private final boolean answerOnSend;
+        boolean sent = false;
+        boolean closed = false;
+
+        TestInvoker(String id, boolean answerOnSend) {
+            super(0);
+            this.answerOnSend = answerOnSend;
+            setHits(List.of(new Hit(id)));
+        }
+
+        @Override
+        protected Object sendSearchRequest(Query query, Object context) {
+            sent = true;
+            super.sendSearchRequest(query, context);
+            if (answerOnSend)
+                responseAvailable();
+            return context;
+        }
+
+        @Override
+        protected void release() {
+            closed = true;
+        }
+
+    }
+
+}
@@ -0,0 +1,108 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.dispatch.rpc;
+
+import ai.vespa.searchlib.searchprotocol.protobuf.SearchProtocol;
+import com.google.protobuf.ByteString;
+import com.yahoo.compress.CompressionType;
+import com.yahoo.compress.Compressor;
+import com.yahoo.slime.BinaryFormat;
+import com.yahoo.slime.BinaryView;
+import com.yahoo.slime.Cursor;
+import com.yahoo.slime.Inspector;
+import com.yahoo.slime.Slime;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.Locale;
+
+/**
+ * Measures the time and the bytes allocated to decompress and decode a docsum reply, as done per content node
+ * when filling a result, both by copying the slime summaries out of the parsed protobuf message, and by decoding
+ * them where they are in the decompressed reply, which is then also pooled when the summaries are decoded eagerly.
+ *
+ * Run the main method with these optional, positional arguments: hits per reply, and bytes of text per hit.
+ *
+ * @author agent
+ */
+public class DocsumDecodingBenchmark {
+
+    private static final int rounds = 5;
+    private static final int decodesPerRound = 20_000;
+
+    private final CompressService compressor = new CompressService();
+    private final Client.ProtobufResponse response;
+
+    DocsumDecodingBenchmark(int hits, int textSize) {
+        Slime slime = new Slime();
+        Cursor docsums = slime.setObject().setArray("docsums");
+        for (int i = 0; i < hits; i++) {
+            Cursor docsum = docsums.addObject().setObject("docsum");
+            docsum.setString("title", "Title " + i);
+            docsum.setString("body", "lorem ipsum dolor sit amet ".repeat(textSize / 27 + 1).substring(0, textSize));
+            docsum.setLong("year", 1900 + i % 125);
+        }
+        byte[] reply = SearchProtocol.DocsumReply.newBuilder()
+                                                 .setSlimeSummaries(ByteString.copyFrom(BinaryFormat.encode(slime)))
+                                                 .build().toByteArray();
+        Compressor.Compression compressed = compressor.compressor().compress(CompressionType.LZ4, reply);
+        response = new Client.ProtobufResponse(compressed.type().getCode(), reply.length, compressed.data());
+    }
+
+    public static void main(String[] args) throws Exception {
+        int hits = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        int textSize = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        new DocsumDecodingBenchmark(hits, textSize).run();
+    }
+
+    void run() throws Exception {
+        System.out.println("Replies of " + response.uncompressedSize() + " bytes, compressed to " + response.compressedPayload().length);
+        for (RpcProtobufFillInvoker.DecodePolicy policy : RpcProtobufFillInvoker.DecodePolicy.values()) {
+            for (int round = 0; round < rounds; round++) // the first rounds warm up
+                measure("copying " + policy, () -> decodeByCopy(policy), round == rounds - 1);
+            for (int round = 0; round < rounds; round++)
+                measure("in place " + policy, () -> decodeInPlace(policy), round == rounds - 1);
+        }
+    }
+
+    /** Decodes the summaries as was done before they were decoded in place */
+    private Inspector decodeByCopy(RpcProtobufFillInvoker.DecodePolicy policy) throws Exception {
+        var protobuf = SearchProtocol.DocsumReply.parseFrom(compressor.decompress(response));
+        return policy == RpcProtobufFillInvoker.DecodePolicy.ONDEMAND
+               ? BinaryView.inspect(protobuf.getSlimeSummaries().toByteArray())
+               : BinaryFormat.decode(protobuf.getSlimeSummaries().toByteArray()).get();
+    }
+
+    private final byte[] pooled = new byte[1 << 20];
+
+    /** Decodes the summaries like {@link RpcProtobufFillInvoker} does */
+    private Inspector decodeInPlace(RpcProtobufFillInvoker.DecodePolicy policy) throws Exception {
+        boolean eager = policy == RpcProtobufFillInvoker.DecodePolicy.EAGER;
+        ByteBuffer payload = compressor.decompress(response, eager ? pooled : new byte[0]);
+        var reply = ProtobufSerialization.deserializeDocsumReply(payload.array(), payload.limit());
+        return eager ? BinaryFormat.decode(payload.array(), reply.summariesOffset(), reply.summariesLength()).get()
+                     : BinaryView.inspect(payload.array(), reply.summariesOffset(), reply.summariesLength());
+    }
+
+    private static void measure(String name, Decoder decoder, boolean report) throws Exception {
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long startNanos = System.nanoTime();
+        long entries = 0;
+        for (int i = 0; i < decodesPerRound; i++)
+            entries += decoder.decode().field("docsums").entries();
+        long elapsedNanos = System.nanoTime() - startNanos;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        if (report)
+            System.out.println(String.format(Locale.ENGLISH, "%-18s %,10.1f us/fill %,12.0f bytes allocated/fill (%d entries)",
+                                             name,
+                                             elapsedNanos * 1e-3 / decodesPerRound,
+                                             (double) allocated / decodesPerRound,
+                                             entries / decodesPerRound));
+    }
+
+    @FunctionalInterface
+    private interface Decoder {
+        Inspector decode() throws Exception;
+    }
+
+}
@@ -4,6 +4,7 @@ package com.yahoo.search.dispatch.rpc;
 
 import ai.vespa.searchlib.searchprotocol.protobuf.SearchProtocol;
 import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
 import com.yahoo.document.GlobalId;
 import com.yahoo.document.idstring.IdString;
 import com.yahoo.prelude.fastsearch.FastHit;
@@ -12,8 +13,12 @@ import com.yahoo.search.dispatch.InvokerResult;
 import com.yahoo.search.dispatch.LeanHit;
 import com.yahoo.search.query.profile.compiled.CompiledQueryProfileRegistry;
 import com.yahoo.search.query.profile.config.QueryProfileXMLReader;
+import com.yahoo.slime.BinaryFormat;
+import com.yahoo.slime.BinaryView;
+import com.yahoo.slime.Slime;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
@@ -159,4 +164,28 @@ public class ProtobufSerializationTest {
         assertFalse(req.getProfiling().hasSecondPhase());
     }
 
+    @Test
+    void docsum_reply_summaries_refer_to_the_serialized_reply() throws InvalidProtocolBufferException {
+        Slime slime = new Slime();
+        slime.setObject().setArray("docsums").addObject().setObject("docsum").setString("title", "foo");
+        byte[] summaries = BinaryFormat.encode(slime);
+        byte[] reply = SearchProtocol.DocsumReply.newBuilder()
+                .addErrors(SearchProtocol.Error.newBuilder().setMessage("first"))
+                .setSlimeSummaries(ByteString.copyFrom(summaries))
+                .addErrors(SearchProtocol.Error.newBuilder().setMessage("second"))
+                .build().toByteArray();
+        byte[] payload = Arrays.copyOf(reply, reply.length + 3); // Pooled buffers may be larger than the reply
+
+        var view = ProtobufSerialization.deserializeDocsumReply(payload, reply.length);
+        assertSame(payload, view.data());
+        assertArrayEquals(summaries, Arrays.copyOfRange(payload, view.summariesOffset(), view.summariesOffset() + view.summariesLength()));
+        assertEquals(List.of("first", "second"), view.errors().stream().map(SearchProtocol.Error::getMessage).toList());
+        assertEquals("foo", BinaryView.inspect(payload, view.summariesOffset(), view.summariesLength())
+                                      .field("docsums").entry(0).field("docsum").field("title").asString());
+
+        var empty = ProtobufSerialization.deserializeDocsumReply(new byte[0], 0);
+        assertEquals(0, empty.summariesLength());
+        assertTrue(empty.errors().isEmpty());
+    }
+
 }
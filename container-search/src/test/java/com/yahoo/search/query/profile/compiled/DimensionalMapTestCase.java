@@ -0,0 +1,69 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.query.profile.compiled;
+
+import com.yahoo.processing.request.CompoundName;
+import com.yahoo.search.query.profile.DimensionBinding;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * @author agent
+ */
+public class DimensionalMapTestCase {
+
+    private static final List<String> dimensions = List.of("x", "y");
+
+    private static Binding binding(Map<String, String> context) {
+        return Binding.createFrom(DimensionBinding.createFrom(dimensions, context));
+    }
+
+    private static DimensionalMap<String> map() {
+        DimensionalMap.Builder<String> builder = new DimensionalMap.Builder<>();
+        builder.put(new CompoundName("a"), Binding.nullBinding, "a");
+        builder.put(new CompoundName("a.b"), Binding.nullBinding, "a.b");
+        builder.put(new CompoundName("a.b.c"), Binding.nullBinding, "a.b.c");
+        builder.put(new CompoundName("a.bc"), Binding.nullBinding, "a.bc");
+        builder.put(new CompoundName("ab"), Binding.nullBinding, "ab");
+        builder.put(new CompoundName("d"), binding(Map.of("x", "x1")), "d for x1");
+        builder.put(new CompoundName("d"), binding(Map.of("x", "x1", "y", "y1")), "d for x1, y1");
+        builder.put(new CompoundName("d"), Binding.nullBinding, "d");
+        return builder.build();
+    }
+
+    private static Set<String> keysWithPrefix(DimensionalMap<String> map, String prefix) {
+        return map.entriesWithPrefix(new CompoundName(prefix)).stream()
+                  .map(entry -> entry.getKey().toString())
+                  .collect(Collectors.toSet());
+    }
+
+    @Test
+    void entries_with_prefix_are_those_with_the_prefix_as_components() {
+        DimensionalMap<String> map = map();
+        assertEquals(Set.of("a", "a.b", "a.b.c", "a.bc", "ab", "d"), keysWithPrefix(map, ""));
+        assertEquals(Set.of("a", "a.b", "a.b.c", "a.bc"), keysWithPrefix(map, "a"));
+        assertEquals(Set.of("a.b", "a.b.c"), keysWithPrefix(map, "a.b"));
+        assertEquals(Set.of("a.b.c"), keysWithPrefix(map, "a.b.c"));
+        assertEquals(Set.of(), keysWithPrefix(map, "a.b.c.d"));
+        assertEquals(Set.of(), keysWithPrefix(map, "b"));
+    }
+
+    @Test
+    void values_without_dimensions_are_used_when_no_variant_matches() {
+        DimensionalMap<String> map = map();
+        assertEquals("a.b", map.get(new CompoundName("a.b"), Map.of("x", "x1")));
+        assertEquals("a.b", map.get(new CompoundName("a.b"), null));
+        assertEquals("d for x1, y1", map.get(new CompoundName("d"), Map.of("x", "x1", "y", "y1")));
+        assertEquals("d for x1", map.get(new CompoundName("d"), Map.of("x", "x1", "y", "y2")));
+        assertEquals("d", map.get(new CompoundName("d"), Map.of("x", "x2")));
+        assertEquals("d", map.get(new CompoundName("d"), Map.of()));
+        assertNull(map.get(new CompoundName("e"), Map.of()));
+    }
+
+}
@@ -0,0 +1,140 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.rendering;
+
+import com.yahoo.data.access.simple.JsonRender;
+import com.yahoo.data.access.slime.SlimeAdapter;
+import com.yahoo.slime.Cursor;
+import com.yahoo.slime.Slime;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author agent
+ */
+public class Utf8JsonEncoderTestCase {
+
+    @Test
+    void testPlainEncodingIsTheSameAsJsonRender() {
+        Slime slime = new Slime();
+        Cursor top = slime.setObject();
+        top.setNix("empty");
+        top.setBool("bool", true);
+        top.setLong("long", -17);
+        top.setDouble("double", 2.5);
+        top.setDouble("nan", Double.NaN);
+        top.setString("ascii", "quote\" backslash\\ tab\t del\u007f");
+        top.setString("nonAscii", "blåbær 😀");
+        top.setData("data", new byte[] { 0, 0x7f, (byte)0xff });
+        Cursor array = top.setArray("array");
+        array.addLong(1);
+        array.addObject();
+        array.addArray().addString("nested");
+        top.setObject("object").setObject("inner").setLong("x", 1);
+
+        var inspector = new SlimeAdapter(slime.get());
+        String expected = JsonRender.render(inspector, new StringBuilder(), true).toString();
+        assertEquals(expected, toString(new Utf8JsonEncoder(settings(true, true)).encode(inspector)));
+        assertEquals("{\"empty\":null,\"bool\":true,\"long\":-17,\"double\":2.5,\"nan\":null," +
+                     "\"ascii\":\"quote\\\" backslash\\\\ tab\\t del\\u007F\"," +
+                     "\"nonAscii\":\"bl\\u00E5b\\u00E6r \\uD83D\\uDE00\"," +
+                     "\"data\":\"0x007FFF\"," +
+                     "\"array\":[1,{},[\"nested\"]]," +
+                     "\"object\":{\"inner\":{\"x\":1}}}",
+                     expected);
+    }
+
+    @Test
+    void testMapsAndWeightedSetsAreConverted() {
+        Slime slime = new Slime();
+        Cursor top = slime.setArray();
+        Cursor entry = top.addObject();
+        entry.setString("key", "a");
+        Cursor wset = entry.setArray("value");
+        Cursor item = wset.addObject();
+        item.setString("item", "x");
+        item.setLong("weight", 3);
+        entry = top.addObject();
+        entry.setString("key", "b");
+        entry.setArray("value");
+        var map = new SlimeAdapter(slime.get());
+
+        assertEquals("{\"a\":{\"x\":3},\"b\":{}}", toString(new Utf8JsonEncoder(settings(true, true)).encodeField(map)));
+        assertEquals("{\"a\":[{\"item\":\"x\",\"weight\":3}],\"b\":[]}",
+                     toString(new Utf8JsonEncoder(settings(false, false)).encodeField(map)));
+        assertEquals("[{\"key\":\"a\",\"value\":[{\"item\":\"x\",\"weight\":3}]},{\"key\":\"b\",\"value\":[]}]",
+                     toString(new Utf8JsonEncoder(settings(true, true)).encode(map)));
+    }
+
+    @Test
+    void testNonStringKeysAreRenderedAsJsonStrings() {
+        Slime slime = new Slime();
+        Cursor top = slime.setArray();
+        Cursor entry = top.addObject();
+        entry.setLong("key", 7);
+        entry.setString("value", "seven");
+        entry = top.addObject();
+        entry.setObject("key").setString("a", "b");
+        entry.setString("value", "object");
+        var map = new SlimeAdapter(slime.get());
+
+        assertEquals("{\"7\":\"seven\",\"{\\\"a\\\":\\\"b\\\"}\":\"object\"}",
+                     toString(new Utf8JsonEncoder(settings(true, true)).encodeField(map)));
+    }
+
+    @Test
+    void testTheLastEntryOfDuplicateKeysIsRendered() {
+        Slime slime = new Slime();
+        Cursor top = slime.setArray();
+        for (String[] keyAndValue : new String[][] { { "a", "1" }, { "b", "2" }, { "a", "3" }, { "c", "4" }, { "b", "5" } }) {
+            Cursor entry = top.addObject();
+            entry.setString("key", keyAndValue[0]);
+            entry.setString("value", keyAndValue[1]);
+        }
+        var map = new SlimeAdapter(slime.get());
+        assertEquals("{\"a\":\"3\",\"b\":\"5\",\"c\":\"4\"}",
+                     toString(new Utf8JsonEncoder(settings(true, true)).encodeField(map)));
+
+        slime = new Slime();
+        top = slime.setArray();
+        for (int i = 0; i < 3; i++) {
+            Cursor item = top.addObject();
+            item.setString("item", i == 1 ? "y" : "x");
+            item.setLong("weight", i);
+        }
+        var wset = new SlimeAdapter(slime.get());
+        assertEquals("{\"x\":2,\"y\":1}", toString(new Utf8JsonEncoder(settings(true, true)).encodeField(wset)));
+    }
+
+    @Test
+    void testBufferIsReused() {
+        var encoder = new Utf8JsonEncoder(settings(true, true));
+        Slime large = new Slime();
+        Cursor array = large.setArray();
+        for (int i = 0; i < 1000; i++)
+            array.addString("value " + i);
+        Slime small = new Slime();
+        small.setLong(42);
+
+        assertEquals(JsonRender.render(new SlimeAdapter(large.get()), new StringBuilder(), true).toString(),
+                     toString(encoder.encode(new SlimeAdapter(large.get()))));
+        assertEquals("42", toString(encoder.encode(new SlimeAdapter(small.get()))));
+    }
+
+    private static JsonRenderer.FieldConsumerSettings settings(boolean jsonMaps, boolean jsonWsets) {
+        var settings = new JsonRenderer.FieldConsumerSettings();
+        settings.init();
+        settings.jsonDeepMaps = jsonMaps;
+        settings.jsonMapsAll = jsonMaps;
+        settings.jsonWsets = jsonWsets;
+        settings.jsonWsetsAll = jsonWsets;
+        return settings;
+    }
+
+    private static String toString(Utf8JsonEncoder encoder) {
+        return new String(encoder.buffer(), 0, encoder.length(), StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,259 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.searchers.test;
+
+import com.yahoo.component.chain.Chain;
+import com.yahoo.data.access.slime.SlimeAdapter;
+import com.yahoo.metrics.simple.Bucket;
+import com.yahoo.metrics.simple.MetricReceiver;
+import com.yahoo.metrics.simple.UntypedMetric;
+import com.yahoo.prelude.fastsearch.DocsumDefinitionSet;
+import com.yahoo.prelude.fastsearch.FastHit;
+import com.yahoo.search.Query;
+import com.yahoo.search.Result;
+import com.yahoo.search.Searcher;
+import com.yahoo.search.config.ResultCacheConfig;
+import com.yahoo.search.result.ErrorMessage;
+import com.yahoo.search.result.Hit;
+import com.yahoo.search.schema.DocumentSummary;
+import com.yahoo.search.schema.SchemaInfo;
+import com.yahoo.search.searchchain.Execution;
+import com.yahoo.search.searchers.ResultCacheSearcher;
+import com.yahoo.slime.Cursor;
+import com.yahoo.slime.Slime;
+import com.yahoo.test.ManualClock;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * @author agent
+ */
+public class ResultCacheSearcherTestCase {
+
+    private final ManualClock clock = new ManualClock();
+    private final MetricReceiver.MockReceiver metric = new MetricReceiver.MockReceiver();
+    private final BackendSearcher backend = new BackendSearcher();
+
+    @Test
+    void testEquivalentQueriesAreAnsweredFromTheCache() {
+        var chain = createChain(new ResultCacheConfig.Builder());
+
+        Query first = new Query("?query=test&hits=3&timeout=1s");
+        Result firstResult = search(chain, first);
+        Query second = new Query("?query=test&hits=3&timeout=5s&trace.level=1");
+        Result secondResult = search(chain, second);
+        assertEquals(1, backend.searches);
+        assertEquals(3, secondResult.hits().size());
+        assertNotSame(firstResult.hits().get(0), secondResult.hits().get(0));
+        assertEquals(firstResult.hits().get(0).getId(), secondResult.hits().get(0).getId());
+        assertSame(second, secondResult.getQuery());
+        assertSame(second, secondResult.hits().get(0).getQuery(), "Cached hits are tagged with the current query");
+
+        search(chain, new Query("?query=test&hits=4"));
+        search(chain, new Query("?query=test&hits=3&offset=1"));
+        search(chain, new Query("?query=other&hits=3"));
+        search(chain, new Query("?query=test&hits=3&ranking=other"));
+        search(chain, new Query("?query=test&hits=3&myProperty=1"));
+        assertEquals(6, backend.searches);
+
+        search(chain, new Query("?query=test&hits=3&noCache=true"));
+        assertEquals(7, backend.searches, "noCache queries are not answered from the cache");
+
+        Bucket metrics = metric.getSnapshot();
+        assertEquals(1, count(metrics, "result_cache.hits"));
+        assertEquals(6, count(metrics, "result_cache.misses"));
+    }
+
+    @Test
+    void testFilledResultsAreCachedPerSummaryClass() {
+        var chain = createChain(new ResultCacheConfig.Builder());
+
+        Result first = search(chain, new Query("?query=test&hits=2"));
+        fill(chain, first, "default");
+        assertEquals("title of 0", first.hits().get(0).getField("title"));
+        assertEquals(1, backend.fills);
+
+        Result second = search(chain, new Query("?query=test&hits=2"));
+        assertNull(second.hits().get(0).getField("title"));
+        fill(chain, second, "default");
+        assertEquals(1, backend.fills);
+        assertEquals("title of 0", second.hits().get(0).getField("title"));
+        assertEquals("title of 1", second.hits().get(1).getField("title"));
+        assertEquals(true, second.isFilled("default"));
+
+        fill(chain, second, "other");
+        assertEquals(2, backend.fills);
+        assertEquals(1, backend.searches);
+
+        Bucket metrics = metric.getSnapshot();
+        assertEquals(1, count(metrics, "result_cache.fill_hits"));
+        assertEquals(2, count(metrics, "result_cache.fill_misses"));
+    }
+
+    @Test
+    void testCachedFastHitsAreNotChangedByReturnedResults() {
+        FastHitBackendSearcher fastHitBackend = new FastHitBackendSearcher();
+        var chain = new Chain<Searcher>("test",
+                                        new ResultCacheSearcher(new ResultCacheConfig.Builder().build(), SchemaInfo.empty(), metric, clock),
+                                        fastHitBackend);
+
+        Result first = search(chain, new Query("?query=test&hits=2"));
+        fill(chain, first, "default");
+        fill(chain, first, "other"); // adds summaries to the hits of first, shadowing the title of the default summary
+        first.hits().get(1).removeField("title");
+        assertEquals("other title of 0", first.hits().get(0).getField("title"));
+        assertNull(first.hits().get(1).getField("title"));
+
+        Result second = search(chain, new Query("?query=test&hits=2"));
+        fill(chain, second, "default");
+        assertEquals(2, fastHitBackend.fills);
+        assertEquals("title of 0", second.hits().get(0).getField("title"));
+        assertEquals("title of 1", second.hits().get(1).getField("title"));
+        assertNull(second.hits().get(0).getField("body"));
+    }
+
+    @Test
+    void testCachedResultsExpire() {
+        var chain = createChain(new ResultCacheConfig.Builder().ttl(10));
+        search(chain, new Query("?query=test"));
+        clock.advance(Duration.ofSeconds(9));
+        search(chain, new Query("?query=test"));
+        assertEquals(1, backend.searches);
+        clock.advance(Duration.ofSeconds(1));
+        search(chain, new Query("?query=test"));
+        assertEquals(2, backend.searches);
+    }
+
+    @Test
+    void testLeastRecentlyUsedResultsAreEvicted() {
+        ResultCacheSearcher cache = new ResultCacheSearcher(new ResultCacheConfig.Builder().maxEntries(2).build(),
+                                                            SchemaInfo.empty(), metric, clock);
+        var chain = new Chain<Searcher>("test", cache, backend);
+        search(chain, new Query("?query=a"));
+        search(chain, new Query("?query=b"));
+        search(chain, new Query("?query=a"));
+        search(chain, new Query("?query=c"));
+        assertEquals(2, cache.size());
+        assertEquals(3, backend.searches);
+
+        search(chain, new Query("?query=a"));
+        assertEquals(3, backend.searches);
+        search(chain, new Query("?query=b"));
+        assertEquals(4, backend.searches);
+    }
+
+    @Test
+    void testIgnoredPropertiesAreNotPartOfTheKey() {
+        var chain = createChain(new ResultCacheConfig.Builder().ignoredProperties("client"));
+        search(chain, new Query("?query=test&client.id=1"));
+        search(chain, new Query("?query=test&client.id=2"));
+        search(chain, new Query("?query=test&clientId=2"));
+        assertEquals(2, backend.searches);
+    }
+
+    @Test
+    void testResultsWithErrorsAreNotCached() {
+        var chain = createChain(new ResultCacheConfig.Builder());
+        search(chain, new Query("?query=test&fail=true"));
+        search(chain, new Query("?query=test&fail=true"));
+        assertEquals(2, backend.searches);
+    }
+
+    private Chain<Searcher> createChain(ResultCacheConfig.Builder config) {
+        return new Chain<>("test", new ResultCacheSearcher(config.build(), SchemaInfo.empty(), metric, clock), backend);
+    }
+
+    private Result search(Chain<Searcher> chain, Query query) {
+        return new Execution(chain, Execution.Context.createContextStub()).search(query);
+    }
+
+    private void fill(Chain<Searcher> chain, Result result, String summaryClass) {
+        new Execution(chain, Execution.Context.createContextStub()).fill(result, summaryClass);
+    }
+
+    private long count(Bucket metrics, String metricName) {
+        return metrics.getMapForMetric(metricName).values().stream().mapToLong(UntypedMetric::getCount).sum();
+    }
+
+    private static class BackendSearcher extends Searcher {
+
+        int searches = 0;
+        int fills = 0;
+
+        @Override
+        public Result search(Query query, Execution execution) {
+            searches++;
+            if (query.properties().getBoolean("fail"))
+                return new Result(query, ErrorMessage.createBackendCommunicationError("Failed"));
+
+            Result result = new Result(query);
+            for (int i = 0; i < query.getHits(); i++) {
+                Hit hit = new Hit("hit:" + (query.getOffset() + i), 1.0 / (i + 1));
+                hit.setFillable();
+                result.hits().add(hit);
+            }
+            result.setTotalHitCount(100);
+            return result;
+        }
+
+        @Override
+        public void fill(Result result, String summaryClass, Execution execution) {
+            fills++;
+            for (Hit hit : result.hits()) {
+                hit.setField("title", "title of " + hit.getId().toString().substring("hit:".length()));
+                hit.setFilled(summaryClass);
+            }
+            result.hits().analyze();
+        }
+
+    }
+
+    /** Returns fast hits, which are filled by adding summary data to them, as by the content nodes */
+    private static class FastHitBackendSearcher extends Searcher {
+
+        private final DocsumDefinitionSet summaries =
+                new DocsumDefinitionSet(List.of(new DocumentSummary.Builder("default").addField("title", "string").build(),
+                                                new DocumentSummary.Builder("other").addField("title", "string")
+                                                                                    .addField("body", "string").build()));
+        int fills = 0;
+
+        @Override
+        public Result search(Query query, Execution execution) {
+            Result result = new Result(query);
+            for (int i = 0; i < query.getHits(); i++) {
+                FastHit hit = new FastHit("hit:" + i, 1.0 / (i + 1));
+                hit.setFillable();
+                result.hits().add(hit);
+            }
+            return result;
+        }
+
+        @Override
+        public void fill(Result result, String summaryClass, Execution execution) {
+            fills++;
+            for (Hit hit : result.hits()) {
+                String id = hit.getId().toString().substring("hit:".length());
+                Slime slime = new Slime();
+                Cursor summary = slime.setObject();
+                if (summaryClass.equals("other")) {
+                    summary.setString("title", "other title of " + id);
+                    summary.setString("body", "body of " + id);
+                }
+                else {
+                    summary.setString("title", "title of " + id);
+                }
+                ((FastHit)hit).addSummary(summaries.getDocsum(summaryClass), new SlimeAdapter(slime.get()));
+                hit.setFilled(summaryClass);
+            }
+            result.hits().analyze();
+        }
+
+    }
+
+}
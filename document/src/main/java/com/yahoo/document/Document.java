@@ -12,6 +12,7 @@ import com.yahoo.document.serialization.DocumentWriter;
 import com.yahoo.document.serialization.FieldReader;
 import com.yahoo.document.serialization.FieldWriter;
 import com.yahoo.document.serialization.SerializationException;
+import com.yahoo.document.serialization.SerializedFields;
 import com.yahoo.document.serialization.XmlSerializationHelper;
 import com.yahoo.document.serialization.XmlStream;
 import com.yahoo.io.GrowableByteBuffer;
@@ -195,6 +196,16 @@ public class Document extends StructuredFieldValue {
         content.clear();
     }
 
+    /** Sets the fields of this to the given serialized fields, see {@link Struct#setSerializedFields} */
+    public void setSerializedFields(SerializedFields fields) {
+        content.setSerializedFields(fields);
+    }
+
+    /** Returns the serialized fields of this, see {@link Struct#getSerializedFields} */
+    public SerializedFields getSerializedFields() {
+        return content.getSerializedFields();
+    }
+
     @Override
     public Iterator<Map.Entry<Field, FieldValue>> iterator() {
         return content.iterator();
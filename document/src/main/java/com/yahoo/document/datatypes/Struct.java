@@ -9,6 +9,7 @@ import com.yahoo.document.PositionDataType;
 import com.yahoo.document.StructDataType;
 import com.yahoo.document.serialization.FieldReader;
 import com.yahoo.document.serialization.FieldWriter;
+import com.yahoo.document.serialization.SerializedFields;
 import com.yahoo.document.serialization.XmlSerializationHelper;
 import com.yahoo.document.serialization.XmlStream;
 import com.yahoo.vespa.objects.Ids;
@@ -29,10 +30,12 @@ public class Struct extends StructuredFieldValue {
     public static final int classId = registerClass(Ids.document + 33, Struct.class);
     private Hashlet<Integer, FieldValue> values = new Hashlet<>();
     private int [] order = null;
+    private SerializedFields serialized = null; // Fields not moved to values yet, or null if none
 
     private int version;
 
     private int [] getInOrder() {
+        materialize();
         if (order == null) {
             order = new int[values.size()];
             for (int i = 0; i < values.size(); i++) {
@@ -47,6 +50,35 @@ public class Struct extends StructuredFieldValue {
         order = null;
     }
 
+    /** Moves all serialized fields to values, deserializing those not accessed yet */
+    private void materialize() {
+        if (serialized == null) return;
+        SerializedFields fields = serialized;
+        serialized = null;
+        values.reserve(fields.size());
+        for (int i = 0; i < fields.size(); i++) {
+            values.put(fields.field(i).getId(), fields.get(i));
+        }
+        invalidateOrder();
+    }
+
+    /**
+     * Clears this and sets its fields to the given serialized fields, which are deserialized
+     * as they are accessed. This makes reading this struct not thread safe until all fields are accessed.
+     */
+    public void setSerializedFields(SerializedFields fields) {
+        clear();
+        serialized = fields;
+    }
+
+    /**
+     * Returns the serialized fields of this, or null if this is not deserialized lazily,
+     * or has been modified since it was deserialized.
+     */
+    public SerializedFields getSerializedFields() {
+        return serialized;
+    }
+
     public Struct(DataType type) {
         super((StructDataType) type);
         this.version = Document.SERIALIZED_VERSION;
@@ -68,6 +100,7 @@ public class Struct extends StructuredFieldValue {
     @Override
     public Struct clone() {
         Struct struct = (Struct) super.clone();
+        struct.serialized = serialized == null ? null : serialized.copy();
         struct.values = new Hashlet<>();
         struct.values.reserve(values.size());
         for (int i = 0; i < values.size(); i++) {
@@ -79,15 +112,18 @@ public class Struct extends StructuredFieldValue {
     @Override
     public void clear() {
         values = new Hashlet<>();
+        serialized = null;
         invalidateOrder();
     }
 
     @Override
     public Iterator<Map.Entry<Field, FieldValue>> iterator() {
+        materialize();
         return new FieldSet().iterator();
     }
 
     public Set<Map.Entry<Field, FieldValue>> getFields() {
+        materialize();
         return new FieldSet();
     }
 
@@ -107,6 +143,10 @@ public class Struct extends StructuredFieldValue {
 
     @Override
     public FieldValue getFieldValue(Field field) {
+        if (serialized != null) {
+            int index = serialized.indexOf(field.getId());
+            return index < 0 ? null : serialized.get(index);
+        }
         return values.get(field.getId());
     }
 
@@ -118,7 +158,7 @@ public class Struct extends StructuredFieldValue {
 
     @Override
     public int getFieldCount() {
-        return values.size();
+        return serialized != null ? serialized.size() : values.size();
     }
 
     @Override
@@ -144,6 +184,7 @@ public class Struct extends StructuredFieldValue {
                     "Inconsistent field: " + field);
         }
 
+        materialize();
         int index = values.getIndexOfKey(field.getId());
         if (index == -1) {
             values.put(field.getId(), value);
@@ -155,6 +196,7 @@ public class Struct extends StructuredFieldValue {
 
     @Override
     public FieldValue removeFieldValue(Field field) {
+        materialize();
         FieldValue found = values.get(field.getId());
         if (found != null) {
             Hashlet<Integer, FieldValue> copy = new Hashlet<>();
@@ -203,11 +245,14 @@ public class Struct extends StructuredFieldValue {
         if (!super.equals(o)) return false;
 
         Struct struct = (Struct) o;
+        materialize();
+        struct.materialize();
         return values.equals(struct.values);
     }
 
     @Override
     public int hashCode() {
+        materialize();
         int result = super.hashCode();
         result = 31 * result + values.hashCode();
         return result;
@@ -236,7 +281,7 @@ public class Struct extends StructuredFieldValue {
             return cmp;
         }
         Struct rhs = (Struct)obj;
-        cmp = values.size() - rhs.values.size();
+        cmp = getFieldCount() - rhs.getFieldCount();
         if (cmp != 0) {
             return cmp;
         }
@@ -5,7 +5,9 @@ import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
 import com.yahoo.document.DocumentId;
+import com.yahoo.document.Document;
 import com.yahoo.document.DocumentOperation;
+import com.yahoo.document.DocumentPut;
 import com.yahoo.document.DocumentType;
 import com.yahoo.document.DocumentTypeManager;
 import com.yahoo.document.TestAndSetCondition;
@@ -62,6 +64,9 @@ public class JsonReader {
      */
     public ParsedDocumentOperation readSingleDocument(DocumentOperationType operationType, String docIdString) {
         DocumentId docId = new DocumentId(docIdString);
+        if (operationType == DocumentOperationType.PUT)
+            return readSinglePut(docId);
+
         DocumentParseInfo documentParseInfo;
         try {
             DocumentParser documentParser = new DocumentParser(parser);
@@ -78,6 +83,29 @@ public class JsonReader {
         return operation;
     }
 
+    /**
+     * Reads a single put, whose fields are set in the document as they are parsed, without first buffering
+     * all tokens of the document.
+     */
+    private ParsedDocumentOperation readSinglePut(DocumentId docId) {
+        DocumentPut put = new DocumentPut(new Document(getDocumentTypeFromString(docId.getDocType(), typeManager), docId));
+        VespaJsonDocumentReader vespaJsonDocumentReader = new VespaJsonDocumentReader(typeManager.getIgnoreUndefinedFields());
+        DocumentParseInfo documentParseInfo;
+        try {
+            DocumentParser documentParser = new DocumentParser(parser, fields -> vespaJsonDocumentReader.readPutFields(fields, put));
+            documentParseInfo = documentParser.parse(Optional.of(docId)).get();
+        } catch (IOException e) {
+            state = END_OF_FEED;
+            throw new IllegalArgumentException(e);
+        }
+        if (documentParseInfo.fieldsFullyApplied.isEmpty())
+            throw new IllegalArgumentException(put + " is missing a 'fields' map");
+
+        documentParseInfo.create.ifPresent(put::setCreateIfNonExistent);
+        put.setCondition(TestAndSetCondition.fromConditionString(documentParseInfo.condition));
+        return new ParsedDocumentOperation(put, documentParseInfo.fieldsFullyApplied.get());
+    }
+
     /** Returns the next document operation, or null if we have reached the end */
     public DocumentOperation next() {
         switch (state) {
@@ -12,15 +12,24 @@ import com.google.common.base.Preconditions;
 
 /**
  * Helper class to enable lookahead in the token stream.
+ * A buffer either holds all tokens of a JSON struct, or reads them from a parser as they are needed,
+ * see {@link #streaming(JsonToken, JsonParser)}.
  *
  * @author Steinar Knutsen
  */
 public class TokenBuffer {
 
+    /** The number of consumed tokens a streaming buffer keeps, to allow backing up with {@link #previous()}. */
+    private static final int STREAMING_HISTORY = 8;
+    /** The number of consumed tokens after which a streaming buffer drops those not kept as history. */
+    private static final int STREAMING_COMPACT_THRESHOLD = 1024;
+
     private final List<Token> tokens;
+    private final JsonParser source; // The parser to read further tokens from, or null if all tokens are buffered.
 
     private int position = 0;
     private int nesting = 0;
+    private int sourceNesting = 0;
 
     public TokenBuffer() {
         this(new ArrayList<>());
@@ -28,13 +37,44 @@ public class TokenBuffer {
 
     public TokenBuffer(List<Token> tokens) {
         this.tokens = tokens;
+        this.source = null;
         if (tokens.size() > 0)
             updateNesting(tokens.get(position).token);
     }
 
+    private TokenBuffer(JsonToken first, JsonParser source) {
+        Preconditions.checkArgument(first == JsonToken.START_OBJECT,
+                                    "Expected %s, got %s.", JsonToken.START_OBJECT.name(), first);
+        this.tokens = new ArrayList<>();
+        this.source = source;
+        addFromParser(first, source);
+        sourceNesting = 1;
+        updateNesting(first);
+    }
+
+    /**
+     * Returns a buffer which reads the JSON object starting at the given token, which is the current token of
+     * the given parser, from the parser as its tokens are consumed, and keeps only a small window of them.
+     * The parser is never read beyond the end of the object, and must not be used by others until the buffer
+     * has been consumed to the end of the object. {@link #prefetchScalar(String)} is not supported by such buffers.
+     */
+    public static TokenBuffer streaming(JsonToken first, JsonParser parser) {
+        return new TokenBuffer(first, parser);
+    }
+
     /** Returns whether any tokens are available in this */
     public boolean isEmpty() { return remaining() == 0; }
 
+    /** Returns the token at the given index, reading it from the source if necessary, or null if none */
+    private Token token(int index) {
+        while (source != null && tokens.size() <= index && sourceNesting > 0) {
+            JsonToken token = nextValue(source);
+            addFromParser(token, source);
+            sourceNesting += nestingOffset(token);
+        }
+        return (0 <= index && index < tokens.size()) ? tokens.get(index) : null;
+    }
+
     public JsonToken previous() {
         updateNestingGoingBackwards(current());
         position--;
@@ -43,14 +83,18 @@ public class TokenBuffer {
 
     /** Returns the current token without changing position, or null if none */
     public JsonToken current() {
-        if (isEmpty()) return null;
-        Token token = tokens.get(position);
+        Token token = token(position);
         if (token == null) return null;
         return token.token;
     }
 
     public JsonToken next() {
         position++;
+        if (source != null && position >= STREAMING_COMPACT_THRESHOLD) {
+            int dropped = Math.min(position - STREAMING_HISTORY, tokens.size());
+            tokens.subList(0, dropped).clear();
+            position -= dropped;
+        }
         JsonToken token = current();
         updateNesting(token);
         return token;
@@ -58,27 +102,31 @@ public class TokenBuffer {
 
     /** Returns a given number of tokens ahead, or null if none */
     public JsonToken peek(int ahead) {
-        if (tokens.size() <= position + ahead) return null;
-        return tokens.get(position + ahead).token;
+        Token token = token(position + ahead);
+        if (token == null) return null;
+        return token.token;
     }
 
     /** Returns the current token name without changing position, or null if none */
     public String currentName() {
-        if (isEmpty()) return null;
-        Token token = tokens.get(position);
+        Token token = token(position);
         if (token == null) return null;
         return token.name;
     }
 
     /** Returns the current token text without changing position, or null if none */
     public String currentText() {
-        if (isEmpty()) return null;
-        Token token = tokens.get(position);
+        Token token = token(position);
         if (token == null) return null;
         return token.text;
     }
 
+    /**
+     * Returns the number of tokens available from the current position. For a streaming buffer, only
+     * tokens read from the parser so far are counted, which is at least one until the object is consumed.
+     */
     public int remaining() {
+        token(position);
         return tokens.size() - position;
     }
 
@@ -151,6 +199,9 @@ public class TokenBuffer {
     }
 
     public Token prefetchScalar(String name) {
+        if (source != null)
+            throw new IllegalStateException("Cannot prefetch scalars from a streaming token buffer");
+
         int localNesting = nesting();
         int nestingBarrier = localNesting;
         Token toReturn = null;
@@ -5,10 +5,12 @@ import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
 import com.yahoo.document.DocumentId;
 import com.yahoo.document.json.DocumentOperationType;
+import com.yahoo.document.json.TokenBuffer;
 import com.yahoo.document.json.readers.DocumentParseInfo;
 
 import java.io.IOException;
 import java.util.Optional;
+import java.util.function.Predicate;
 
 /**
  * Parses a document operation.
@@ -25,10 +27,22 @@ public class DocumentParser {
     public static final String FIELDS = "fields";
     public static final String REMOVE = "remove";
     private final JsonParser parser;
+    private final Predicate<TokenBuffer> fieldsReader;
     private  long indentLevel;
 
     public DocumentParser(JsonParser parser) {
+        this(parser, null);
+    }
+
+    /**
+     * Creates a parser which passes the "fields" object to the given reader as it is parsed, instead of buffering
+     * it in {@link DocumentParseInfo#fieldsBuffer}. The reader must consume the object to its end, and returns
+     * whether all fields were applied, which is set in {@link DocumentParseInfo#fieldsFullyApplied}.
+     * This requires the document id to be known before the document is parsed.
+     */
+    public DocumentParser(JsonParser parser, Predicate<TokenBuffer> fieldsReader) {
         this.parser = parser;
+        this.fieldsReader = fieldsReader;
     }
 
     /**
@@ -116,7 +130,14 @@ public class DocumentParser {
             JsonToken currentToken = parser.getCurrentToken();
             // "fields" opens a dictionary and is therefore on level two which might be surprising.
             if (currentToken == JsonToken.START_OBJECT && FIELDS.equals(parser.getCurrentName())) {
-                documentParseInfo.fieldsBuffer.bufferObject(currentToken, parser);
+                if (fieldsReader == null) {
+                    documentParseInfo.fieldsBuffer.bufferObject(currentToken, parser);
+                }
+                else {
+                    if (documentParseInfo.fieldsFullyApplied.isPresent())
+                        throw new IllegalArgumentException("Document " + documentParseInfo.documentId + " has multiple 'fields' maps");
+                    documentParseInfo.fieldsFullyApplied = Optional.of(fieldsReader.test(TokenBuffer.streaming(currentToken, parser)));
+                }
                 processIndent();
             }
         } catch (IOException e) {
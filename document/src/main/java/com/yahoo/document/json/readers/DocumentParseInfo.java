@@ -13,4 +13,6 @@ public class DocumentParseInfo {
     public Optional<String> condition = Optional.empty();
     public DocumentOperationType operationType = null;
     public TokenBuffer fieldsBuffer = new TokenBuffer();
+    /** Whether all fields were applied, when these are read as they are parsed, rather than buffered */
+    public Optional<Boolean> fieldsFullyApplied = Optional.empty();
 }
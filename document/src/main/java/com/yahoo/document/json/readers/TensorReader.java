@@ -115,12 +115,8 @@ public class TensorReader {
             throw new IllegalArgumentException("The 'values' field can only be used with dense tensors. " +
                                                "Use 'cells' or 'blocks' instead");
         if (buffer.current() == JsonToken.VALUE_STRING) {
-            double[] decoded = decodeHexString(buffer.currentText(), builder.type().valueType());
-            if (decoded.length == 0)
+            if (decodeHexString(buffer.currentText(), indexedBuilder) == 0)
                 throw new IllegalArgumentException("The 'values' string does not contain any values");
-            for (int i = 0; i < decoded.length; i++) {
-                indexedBuilder.cellByDirectIndex(i, decoded[i]);
-            }
             return;
         }
         int index = 0;
@@ -223,11 +219,12 @@ public class TensorReader {
      */
     private static double[] readValues(TokenBuffer buffer, int size, TensorAddress address, TensorType type) {
         int index = 0;
-        double[] values = new double[size];
+        double[] values;
         if (buffer.current() == JsonToken.VALUE_STRING) {
             values = decodeHexString(buffer.currentText(), type.valueType());
             index = values.length;
         } else {
+            values = new double[size];
             expectArrayStart(buffer.current());
             int initNesting = buffer.nesting();
             for (buffer.next(); buffer.nesting() >= initNesting; buffer.next()) {
@@ -58,8 +58,7 @@ public class VespaJsonDocumentReader {
             switch (documentParseInfo.operationType) {
                 case PUT -> {
                     documentOperation = new DocumentPut(new Document(documentType, documentParseInfo.documentId));
-                    fullyApplied = readPut(documentParseInfo.fieldsBuffer, (DocumentPut) documentOperation);
-                    verifyEndState(documentParseInfo.fieldsBuffer, JsonToken.END_OBJECT);
+                    fullyApplied = readPutFields(documentParseInfo.fieldsBuffer, (DocumentPut) documentOperation);
                 }
                 case REMOVE -> documentOperation = new DocumentRemove(documentParseInfo.documentId);
                 case UPDATE -> {
@@ -84,6 +83,16 @@ public class VespaJsonDocumentReader {
         return new ParsedDocumentOperation(documentOperation, fullyApplied);
     }
 
+    /**
+     * Reads the entire "fields" object of the given put from the given buffer,
+     * and returns whether all fields were applied.
+     */
+    public boolean readPutFields(TokenBuffer buffer, DocumentPut put) {
+        boolean fullyApplied = readPut(buffer, put);
+        verifyEndState(buffer, JsonToken.END_OBJECT);
+        return fullyApplied;
+    }
+
     // Exposed for unit testing...
     public boolean readPut(TokenBuffer buffer, DocumentPut put) {
         try {
@@ -19,6 +19,14 @@ public class DocumentDeserializerFactory {
         return new VespaDocumentDeserializerHead(manager, buf);
     }
 
+    /**
+     * Creates a de-serializer for the current head document format, which deserializes each field of the
+     * documents it reads when the field is first accessed, see {@link SerializedFields}.
+     */
+    public static DocumentDeserializer createLazyHead(DocumentTypeManager manager, GrowableByteBuffer buf) {
+        return new VespaDocumentDeserializerHead(manager, buf).setLazyFields(true);
+    }
+
     /**
      * Creates a de-serializer for the 6.x document format.
      * This format is an extension of the 4.2 format.
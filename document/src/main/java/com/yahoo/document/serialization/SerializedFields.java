@@ -0,0 +1,74 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.document.serialization;
+
+import com.yahoo.document.DocumentTypeManager;
+import com.yahoo.document.Field;
+import com.yahoo.document.datatypes.FieldValue;
+import com.yahoo.io.GrowableByteBuffer;
+
+/**
+ * The serialized fields of a struct, which are deserialized one at a time when first accessed.
+ * The serialized data is kept, such that fields which are never accessed are written out unchanged
+ * when the struct is serialized again. This is not thread safe.
+ *
+ * @author agent
+ */
+public final class SerializedFields {
+
+    private final DocumentTypeManager manager;
+    private final byte[] data;
+    private final Field[] fields;
+    private final int[] offsets;
+    private final int[] lengths;
+    private final FieldValue[] values;
+
+    SerializedFields(DocumentTypeManager manager, byte[] data, Field[] fields, int[] offsets, int[] lengths) {
+        this.manager = manager;
+        this.data = data;
+        this.fields = fields;
+        this.offsets = offsets;
+        this.lengths = lengths;
+        this.values = new FieldValue[fields.length];
+    }
+
+    /** Returns the number of fields */
+    public int size() { return fields.length; }
+
+    /** Returns the field at the given index */
+    public Field field(int index) { return fields[index]; }
+
+    /** Returns the index of the field with the given id, or -1 if it is not present */
+    public int indexOf(int fieldId) {
+        for (int i = 0; i < fields.length; i++)
+            if (fields[i].getId() == fieldId) return i;
+        return -1;
+    }
+
+    /** Returns the value of the field at the given index, which is deserialized on first access */
+    public FieldValue get(int index) {
+        if (values[index] == null) {
+            FieldValue value = fields[index].getDataType().createFieldValue();
+            value.deserialize(fields[index], new VespaDocumentDeserializer6(manager, GrowableByteBuffer.wrap(data, offsets[index], lengths[index])));
+            values[index] = value;
+        }
+        return values[index];
+    }
+
+    /** Returns the value of the field at the given index if it is deserialized, or null if it is not */
+    FieldValue getIfDeserialized(int index) { return values[index]; }
+
+    /** Writes the serialized value of the field at the given index to the given buffer */
+    void writeSerialized(int index, GrowableByteBuffer buffer) {
+        buffer.put(data, offsets[index], lengths[index]);
+    }
+
+    /** Returns a copy of this which shares the serialized data, with copies of the values deserialized so far */
+    public SerializedFields copy() {
+        SerializedFields copy = new SerializedFields(manager, data, fields, offsets, lengths);
+        for (int i = 0; i < values.length; i++)
+            if (values[i] != null)
+                copy.values[i] = values[i].clone();
+        return copy;
+    }
+
+}
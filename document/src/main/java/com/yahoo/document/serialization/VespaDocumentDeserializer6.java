@@ -64,6 +64,7 @@ import com.yahoo.vespa.objects.FieldBase;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -82,6 +83,7 @@ public class VespaDocumentDeserializer6 extends BufferSerializer implements Docu
     private List<SpanNode> spanNodes;
     private List<Annotation> annotations;
     private int[] stringPositions;
+    private boolean lazyFields = false;
 
     VespaDocumentDeserializer6(DocumentTypeManager manager, GrowableByteBuffer buf) {
         super(buf);
@@ -89,6 +91,15 @@ public class VespaDocumentDeserializer6 extends BufferSerializer implements Docu
         this.version = Document.SERIALIZED_VERSION;
     }
 
+    /**
+     * Sets whether the fields of documents read by this should be deserialized as they are accessed,
+     * see {@link SerializedFields}. Default is false.
+     */
+    public VespaDocumentDeserializer6 setLazyFields(boolean lazyFields) {
+        this.lazyFields = lazyFields;
+        return this;
+    }
+
     final public DocumentTypeManager getDocumentTypeManager() { return manager; }
 
     public void read(Document document) {
@@ -111,12 +122,18 @@ public class VespaDocumentDeserializer6 extends BufferSerializer implements Docu
         doc.setDataType(readDocumentType());
         doc.setId(documentId);
 
-        if ((content & 0x2) != 0) {
-            readStruct(doc, doc.getDataType().contentStruct());
-
+        if (lazyFields && (content & 0x6) != 0x6) { // documents with the legacy body struct are read eagerly
+            if ((content & 0x6) != 0)
+                doc.setSerializedFields(readSerializedFields(doc.getDataType().contentStruct()));
         }
-        if ((content & 0x4) != 0) {
-            readStruct(doc, doc.getDataType().contentStruct());
+        else {
+            if ((content & 0x2) != 0) {
+                readStruct(doc, doc.getDataType().contentStruct());
+
+            }
+            if ((content & 0x4) != 0) {
+                readStruct(doc, doc.getDataType().contentStruct());
+            }
         }
 
         if (dataLength != (position() - dataPos)) {
@@ -291,6 +308,34 @@ public class VespaDocumentDeserializer6 extends BufferSerializer implements Docu
         position(afterPos);
     }
 
+    /** Reads the fields of a struct, but keeps the serialized value of each instead of deserializing it */
+    private SerializedFields readSerializedFields(StructDataType priType) {
+        int dataSize = getInt(null);
+        byte unusedComprCode = getByte(null);
+        int numberOfFields = getInt1_4Bytes(null);
+
+        var fields = new Field[numberOfFields];
+        var offsets = new int[numberOfFields];
+        var lengths = new int[numberOfFields];
+        int known = 0;
+        int offset = 0;
+        for (int i = 0; i < numberOfFields; i++) {
+            Field field = priType.getField(getInt1_4Bytes(null));
+            int length = (int) getInt2_4_8Bytes(null);
+            if (field != null) { // ignoring unknown field
+                fields[known] = field;
+                offsets[known] = offset;
+                lengths[known++] = length;
+            }
+            offset += length;
+        }
+        byte[] data = getBytes(null, dataSize);
+        if (known < numberOfFields)
+            return new SerializedFields(manager, data, Arrays.copyOf(fields, known),
+                                        Arrays.copyOf(offsets, known), Arrays.copyOf(lengths, known));
+        return new SerializedFields(manager, data, fields, offsets, lengths);
+    }
+
     public void read(FieldBase field, StructuredFieldValue value) {
         throw new IllegalArgumentException("read not implemented yet.");
     }
@@ -330,15 +330,31 @@ public class VespaDocumentSerializer6 extends BufferSerializer implements Docume
         List<Integer> fieldIds = new LinkedList<>();
         List<java.lang.Integer> fieldLengths = new LinkedList<>();
 
-        var iter = s.iterator();
-        while (iter.hasNext()) {
-            Map.Entry<Field, FieldValue> value = iter.next();
+        SerializedFields serialized = serializedFieldsOf(s);
+        if (serialized != null) { // write fields not deserialized unchanged
+            for (int i = 0; i < serialized.size(); i++) {
+                int startPos = buffer.position();
+                FieldValue value = serialized.getIfDeserialized(i);
+                if (value != null)
+                    value.serialize(serialized.field(i), this);
+                else
+                    serialized.writeSerialized(i, buffer);
+
+                fieldLengths.add(buffer.position() - startPos);
+                fieldIds.add(serialized.field(i).getId());
+            }
+        }
+        else {
+            var iter = s.iterator();
+            while (iter.hasNext()) {
+                Map.Entry<Field, FieldValue> value = iter.next();
 
-            int startPos = buffer.position();
-            value.getValue().serialize(value.getKey(), this);
+                int startPos = buffer.position();
+                value.getValue().serialize(value.getKey(), this);
 
-            fieldLengths.add(buffer.position() - startPos);
-            fieldIds.add(value.getKey().getId());
+                fieldLengths.add(buffer.position() - startPos);
+                fieldIds.add(value.getKey().getId());
+            }
         }
 
         // Switch buffers again:
@@ -367,6 +383,12 @@ public class VespaDocumentSerializer6 extends BufferSerializer implements Docume
         buf.position(posNow);
     }
 
+    private static SerializedFields serializedFieldsOf(StructuredFieldValue value) {
+        if (value instanceof Document document) return document.getSerializedFields();
+        if (value instanceof Struct struct) return struct.getSerializedFields();
+        return null;
+    }
+
     /**
      * Write out the value of struct field
      *
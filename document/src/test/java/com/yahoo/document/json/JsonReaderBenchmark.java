@@ -0,0 +1,114 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.document.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.yahoo.document.DataType;
+import com.yahoo.document.DocumentId;
+import com.yahoo.document.DocumentType;
+import com.yahoo.document.DocumentTypeManager;
+import com.yahoo.document.Field;
+import com.yahoo.document.json.document.DocumentParser;
+import com.yahoo.document.json.readers.DocumentParseInfo;
+import com.yahoo.document.json.readers.VespaJsonDocumentReader;
+import com.yahoo.tensor.TensorType;
+import com.yahoo.text.Utf8;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Measures the number of single puts per second parsed by {@link JsonReader#readSingleDocument}, and the number of
+ * bytes allocated per put, when the fields are read as they are parsed, compared to first buffering all tokens.
+ * Run the main method, optionally with the number of tensor cells and text fields per document as arguments,
+ * followed by "hex" to write the tensor cells as a hex string rather than an array of numbers.
+ *
+ * @author agent
+ */
+public class JsonReaderBenchmark {
+
+    private static final int documentsPerRound = 20_000;
+    private static final int rounds = 5;
+
+    private final DocumentTypeManager types = new DocumentTypeManager();
+    private final JsonFactory factory = new JsonFactory();
+    private final DocumentId id = new DocumentId("id:test:bench::0");
+    private final byte[] json;
+
+    JsonReaderBenchmark(int cells, int texts, boolean hex) {
+        DocumentType type = new DocumentType("bench");
+        for (int i = 0; i < texts; i++)
+            type.addField(new Field("text" + i, DataType.STRING));
+        type.addField(new Field("embedding", DataType.getTensor(TensorType.fromSpec("tensor<float>(x[" + cells + "])"))));
+        types.registerDocumentType(type);
+
+        StringBuilder document = new StringBuilder("{\"fields\":{");
+        for (int i = 0; i < texts; i++)
+            document.append("\"text").append(i).append("\":\"").append("lorem ipsum dolor sit amet ".repeat(8)).append("\",");
+        document.append("\"embedding\":{\"values\":").append(hex ? "\"" : "[");
+        for (int i = 0; i < cells; i++) {
+            if (hex)
+                document.append(String.format("%08x", Float.floatToIntBits(i * 0.001f)));
+            else
+                document.append(i == 0 ? "" : ",").append(i * 0.001f);
+        }
+        document.append(hex ? "\"" : "]").append("}}}");
+        json = Utf8.toBytes(document.toString());
+    }
+
+    public static void main(String[] args) {
+        int cells = args.length > 0 ? Integer.parseInt(args[0]) : 384;
+        int texts = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        boolean hex = args.length > 2 && args[2].equals("hex");
+        new JsonReaderBenchmark(cells, texts, hex).run();
+    }
+
+    void run() {
+        System.out.println("Document of " + json.length + " bytes");
+        for (int round = 0; round < rounds; round++) { // the first rounds warm up
+            boolean report = round == rounds - 1;
+            report(report, "buffered", measure(this::readBuffered));
+            report(report, "streaming", measure(this::readStreaming));
+        }
+    }
+
+    private void readStreaming(byte[] json) {
+        new JsonReader(types, new ByteArrayInputStream(json), factory).readSingleDocument(DocumentOperationType.PUT, id.toString());
+    }
+
+    /** The way single puts were read before their fields were read as they are parsed */
+    private void readBuffered(byte[] json) {
+        try (JsonParser parser = factory.createParser(json)) {
+            DocumentParseInfo info = new DocumentParser(parser).parse(Optional.of(id)).get();
+            info.operationType = DocumentOperationType.PUT;
+            new VespaJsonDocumentReader(false).createDocumentOperation(types.getDocumentType("bench"), info);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void report(boolean report, String name, double[] result) {
+        if (report)
+            System.out.println(String.format(Locale.ENGLISH, "%-10s %,10.0f docs/s %,12.0f bytes allocated/doc",
+                                             name, result[0], result[1]));
+    }
+
+    /** Returns the number of documents read per second, and the number of bytes allocated per document */
+    private double[] measure(Consumer<byte[]> reader) {
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < documentsPerRound; i++)
+            reader.accept(json);
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        return new double[] { documentsPerRound * 1e9 / elapsed, (double) allocated / documentsPerRound };
+    }
+
+}
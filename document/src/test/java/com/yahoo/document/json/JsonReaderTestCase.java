@@ -52,6 +52,7 @@ import com.yahoo.tensor.IndexedTensor;
 import com.yahoo.tensor.MappedTensor;
 import com.yahoo.tensor.MixedTensor;
 import com.yahoo.tensor.Tensor;
+import com.yahoo.tensor.TensorAddress;
 import com.yahoo.tensor.TensorType;
 import com.yahoo.text.Utf8;
 import com.yahoo.yolean.Exceptions;
@@ -224,6 +225,45 @@ public class JsonReaderTestCase {
         smokeTestDoc(put.getDocument());
     }
 
+    @Test
+    public void readSingleDocumentPutWithManyTokens() {
+        StringBuilder cells = new StringBuilder();
+        for (int i = 0; i < 5000; i++)
+            cells.append(i == 0 ? "" : ",").append("'").append(i).append("': ").append(i);
+        JsonReader r = createReader(inputJson("{ 'condition': 'smoke.int1 > 0',",
+                                              "  'fields': {",
+                                              "    'something': 'smoketest',",
+                                              "    'tensor1': { 'cells': {" + cells + "} },",
+                                              "    'flag': true,",
+                                              "    'nalle': 'bamse'",
+                                              "  },",
+                                              "  'create': true",
+                                              "}"));
+        ParsedDocumentOperation operation = r.readSingleDocument(DocumentOperationType.PUT, "id:unittest:smoke::doc1");
+        assertTrue(operation.fullyApplied());
+        DocumentPut put = (DocumentPut) operation.operation();
+        smokeTestDoc(put.getDocument());
+        assertTrue(put.getCreateIfNonExistent());
+        assertEquals("smoke.int1 > 0", put.getCondition().getSelection());
+        Tensor tensor = ((TensorFieldValue) put.getDocument().getFieldValue("tensor1")).getTensor().get();
+        assertEquals(5000, tensor.size());
+        assertEquals(4999.0, tensor.get(TensorAddress.ofLabels("4999")), 0);
+    }
+
+    @Test
+    public void readSingleDocumentPutWithMultipleFieldsMaps() {
+        JsonReader r = createReader(inputJson("{ 'fields': { 'something': 'smoketest' },",
+                                              "  'fields': { 'nalle': 'bamse' }",
+                                              "}"));
+        try {
+            r.readSingleDocument(DocumentOperationType.PUT, "id:unittest:smoke::doc1");
+            fail("Expected exception");
+        }
+        catch (IllegalArgumentException e) {
+            assertEquals("Document id:unittest:smoke::doc1 has multiple 'fields' maps", e.getMessage());
+        }
+    }
+
     @Test
     public final void readSingleDocumentUpdate() {
         JsonReader r = createReader(inputJson("{ 'update': 'id:unittest:smoke::whee',",
@@ -0,0 +1,107 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.document.serialization;
+
+import com.yahoo.document.ArrayDataType;
+import com.yahoo.document.DataType;
+import com.yahoo.document.Document;
+import com.yahoo.document.DocumentType;
+import com.yahoo.document.DocumentTypeManager;
+import com.yahoo.document.datatypes.Array;
+import com.yahoo.document.datatypes.IntegerFieldValue;
+import com.yahoo.document.datatypes.StringFieldValue;
+import com.yahoo.io.GrowableByteBuffer;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * @author agent
+ */
+public class SerializedFieldsTestCase {
+
+    private final DocumentTypeManager manager = new DocumentTypeManager();
+    private final DocumentType type = new DocumentType("my_type");
+
+    public SerializedFieldsTestCase() {
+        type.addField("my_str", DataType.STRING);
+        type.addField("my_int", DataType.INT);
+        type.addField("my_array", new ArrayDataType(DataType.STRING));
+        manager.registerDocumentType(type);
+    }
+
+    private Document createDocument() {
+        Document doc = new Document(type, "id:ns:my_type::1");
+        doc.setFieldValue("my_str", new StringFieldValue("foo"));
+        doc.setFieldValue("my_int", new IntegerFieldValue(69));
+        Array<StringFieldValue> array = new Array<>(type.getField("my_array").getDataType());
+        array.add(new StringFieldValue("bar"));
+        doc.setFieldValue("my_array", array);
+        return doc;
+    }
+
+    private Document deserializeLazily(byte[] data) {
+        return new Document(DocumentDeserializerFactory.createLazyHead(manager, GrowableByteBuffer.wrap(data)));
+    }
+
+    private static byte[] serialize(Document doc) {
+        return SerializationTestUtils.serializeDocument(doc);
+    }
+
+    @Test
+    public void fields_are_deserialized_when_accessed() {
+        Document original = createDocument();
+        Document doc = deserializeLazily(serialize(original));
+        SerializedFields fields = doc.getSerializedFields();
+        assertNotNull(fields);
+        assertEquals(3, doc.getFieldCount());
+        assertNull(fields.getIfDeserialized(fields.indexOf(type.getField("my_str").getId())));
+
+        assertEquals(new StringFieldValue("foo"), doc.getFieldValue("my_str"));
+        assertNotNull(fields.getIfDeserialized(fields.indexOf(type.getField("my_str").getId())));
+        assertNull(fields.getIfDeserialized(fields.indexOf(type.getField("my_int").getId())));
+        assertEquals(original, doc);
+        assertNull("All fields are deserialized when comparing", doc.getSerializedFields());
+    }
+
+    @Test
+    public void unmodified_documents_are_serialized_unchanged() {
+        byte[] data = serialize(createDocument());
+        Document doc = deserializeLazily(data);
+        assertArrayEquals(data, serialize(doc));
+
+        doc.getFieldValue("my_int");
+        assertArrayEquals(data, serialize(doc));
+        assertArrayEquals(data, serialize(doc.clone()));
+    }
+
+    @Test
+    public void modified_documents_are_serialized_from_their_values() {
+        Document doc = deserializeLazily(serialize(createDocument()));
+        doc.setFieldValue("my_int", new IntegerFieldValue(42));
+        assertNull(doc.getSerializedFields());
+
+        Document expected = createDocument();
+        expected.setFieldValue("my_int", new IntegerFieldValue(42));
+        assertEquals(expected, doc);
+        assertArrayEquals(serialize(expected), serialize(doc));
+    }
+
+    @Test
+    public void values_modified_after_access_are_serialized_again() {
+        Document doc = deserializeLazily(serialize(createDocument()));
+        @SuppressWarnings("unchecked")
+        Array<StringFieldValue> array = (Array<StringFieldValue>) doc.getFieldValue("my_array");
+        array.add(new StringFieldValue("baz"));
+
+        Document deserialized = deserializeLazily(serialize(doc));
+        assertEquals(List.of(new StringFieldValue("bar"), new StringFieldValue("baz")),
+                     ((Array<?>) deserialized.getFieldValue("my_array")).getValues());
+        assertEquals(new StringFieldValue("foo"), deserialized.getFieldValue("my_str"));
+    }
+
+}
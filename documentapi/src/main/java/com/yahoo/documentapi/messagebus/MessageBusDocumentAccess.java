@@ -58,7 +58,8 @@ public class MessageBusDocumentAccess extends DocumentAccess {
         this.params = params;
         try {
             com.yahoo.messagebus.MessageBusParams mbusParams = new com.yahoo.messagebus.MessageBusParams(params.getMessageBusParams());
-            mbusParams.addProtocol(new DocumentProtocol(getDocumentTypeManager(), params.getProtocolConfigId()));
+            mbusParams.addProtocol(new DocumentProtocol(getDocumentTypeManager(), params.getProtocolConfigId())
+                                           .setLazyDocumentFields(params.getLazyDocumentFields()));
             if (System.getProperty("vespa.local", "false").equals("true")) { // set by Application when running locally
                 LocalNetwork network = new LocalNetwork();
                 bus = new NetworkMessageBus(network, new MessageBus(network, mbusParams));
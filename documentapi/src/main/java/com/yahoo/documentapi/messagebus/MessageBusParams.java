@@ -25,6 +25,7 @@ public class MessageBusParams extends DocumentAccessParams {
     private RPCNetworkParams rpcNetworkParams = new RPCNetworkParams();
     private com.yahoo.messagebus.MessageBusParams mbusParams = new com.yahoo.messagebus.MessageBusParams();
     private SourceSessionParams sourceSessionParams = new SourceSessionParams();
+    private boolean lazyDocumentFields = false;
 
     public MessageBusParams() {}
 
@@ -202,4 +203,25 @@ public class MessageBusParams extends DocumentAccessParams {
         sourceSessionParams = new SourceSessionParams(params);
         return this;
     }
+
+    /**
+     * Returns whether the fields of received documents are deserialized when they are first accessed.
+     *
+     * @return True if fields are deserialized lazily.
+     */
+    public boolean getLazyDocumentFields() {
+        return lazyDocumentFields;
+    }
+
+    /**
+     * Sets whether the fields of received documents should be deserialized when they are first accessed,
+     * see {@link DocumentProtocol#setLazyDocumentFields(boolean)}. Default is false.
+     *
+     * @param lazyDocumentFields Whether to deserialize document fields lazily.
+     * @return This object for chaining.
+     */
+    public MessageBusParams setLazyDocumentFields(boolean lazyDocumentFields) {
+        this.lazyDocumentFields = lazyDocumentFields;
+        return this;
+    }
 }
@@ -391,6 +391,7 @@ public class ContentPolicy extends SlobrokPolicy {
         private final Distribution distribution;
         private final InstabilityChecker persistentFailureChecker;
         private final AtomicReference<ClusterState> safeCachedClusterState = new AtomicReference<>(null);
+        private final AtomicReference<IdealDistributorCache> idealDistributors = new AtomicReference<>(null);
         private final AtomicInteger oldClusterVersionGottenCount = new AtomicInteger(0);
         private final int maxOldClusterVersionBeforeSendingRandom; // Reset cluster version protection
 
@@ -421,7 +422,7 @@ public class ContentPolicy extends SlobrokPolicy {
 
             if (cachedClusterState != null) { // If we have a cached cluster state (regular case), we use that to calculate correct node.
                 try{
-                    Integer target = distribution.getIdealDistributorNode(cachedClusterState, bucketId, owningBucketStates);
+                    Integer target = getIdealDistributorNode(cachedClusterState, bucketId);
                     // If we have had too many failures towards existing node, reset failure count and send to random
                     if (persistentFailureChecker.tooManyFailures(target)) {
                         sendRandomReason = "Too many failures detected versus distributor " + target + ". Sending to random instead of using cached state.";
@@ -466,6 +467,17 @@ public class ContentPolicy extends SlobrokPolicy {
             return hostFetcher.getRandomTargetSpec(context);
         }
 
+        /** Returns the ideal distributor of the given bucket, from a cache which is replaced when the state or distribution changes */
+        private int getIdealDistributorNode(ClusterState state, BucketId bucketId) throws Distribution.TooFewBucketBitsInUseException,
+                                                                                           Distribution.NoDistributorsAvailableException {
+            IdealDistributorCache cache = idealDistributors.get();
+            if (cache == null || ! cache.isFor(state)) {
+                cache = new IdealDistributorCache(distribution, state);
+                idealDistributors.set(cache);
+            }
+            return cache.getIdealDistributorNode(bucketId);
+        }
+
         private static MessageContext createRandomDistributorTargetContext() {
             return new MessageContext(null);
         }
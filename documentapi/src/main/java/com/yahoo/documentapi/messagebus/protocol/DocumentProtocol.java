@@ -37,6 +37,7 @@ public class DocumentProtocol implements Protocol {
     private final RoutingPolicyRepository routingPolicyRepository = new RoutingPolicyRepository();
     private final RoutableRepository routableRepository;
     private final DocumentTypeManager docMan;
+    private volatile boolean lazyDocumentFields = false;
 
     /** The name of this protocol. */
     public static final Utf8String NAME = new Utf8String("document");
@@ -514,9 +515,23 @@ public class DocumentProtocol implements Protocol {
         return routableRepository.encode(version, routable);
     }
 
+    /**
+     * Sets whether the fields of documents in decoded routables should be deserialized when they are first accessed,
+     * rather than when the document is decoded. This saves work for receivers which access few fields,
+     * or forward documents unchanged, but makes reading a document not thread safe until all its fields are accessed.
+     * Default is false.
+     *
+     * @param lazyDocumentFields whether to deserialize document fields as they are accessed
+     * @return this, to allow chaining
+     */
+    public DocumentProtocol setLazyDocumentFields(boolean lazyDocumentFields) {
+        this.lazyDocumentFields = lazyDocumentFields;
+        return this;
+    }
+
     public Routable decode(Version version, byte[] data) {
         try {
-            return routableRepository.decode(docMan, version, data);
+            return routableRepository.decode(docMan, version, data, lazyDocumentFields);
         } catch (RuntimeException e) {
             log.log(Level.WARNING, "Failed to decode document data", e);
             return null;
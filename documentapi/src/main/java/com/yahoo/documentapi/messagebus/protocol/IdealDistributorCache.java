@@ -0,0 +1,66 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.documentapi.messagebus.protocol;
+
+import com.yahoo.document.BucketId;
+import com.yahoo.vdslib.distribution.Distribution;
+import com.yahoo.vdslib.distribution.Group;
+import com.yahoo.vdslib.state.ClusterState;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A cache of the ideal distributors of buckets, for one cluster state and distribution config.
+ *
+ * The ideal distributor of a bucket depends only on its lowest distribution bits, or the lowest 32 of these,
+ * which are therefore used as the key. Entries are stored directly mapped, with the key in the upper and the
+ * distributor index plus one in the lower half of a single long, such that lookups and updates are atomic
+ * without locking, and a colliding key simply replaces the previous entry. This is thread safe.
+ *
+ * @author agent
+ */
+class IdealDistributorCache {
+
+    /** The number of slots are at most 2 to the power of this, which covers the default 16 distribution bits */
+    private static final int maxSlotBits = 16;
+
+    private final Distribution distribution;
+    private final ClusterState state;
+    private final Group rootGroup;
+    private final int distributionBits;
+    private final long keyMask;
+    private final AtomicLongArray slots;
+
+    IdealDistributorCache(Distribution distribution, ClusterState state) {
+        this.distribution = distribution;
+        this.state = state;
+        this.rootGroup = distribution.getRootGroup();
+        this.distributionBits = state.getDistributionBitCount();
+        this.keyMask = (1L << Math.min(distributionBits, 32)) - 1;
+        this.slots = new AtomicLongArray(1 << Math.min(distributionBits, maxSlotBits));
+    }
+
+    /** Returns whether this caches distributors for the given state and the current config of the distribution */
+    boolean isFor(ClusterState state) {
+        return this.state == state
+               && distributionBits == state.getDistributionBitCount()
+               && rootGroup == distribution.getRootGroup();
+    }
+
+    /** Returns the ideal distributor of the given bucket, as {@link Distribution#getIdealDistributorNode} does */
+    int getIdealDistributorNode(BucketId bucket) throws Distribution.TooFewBucketBitsInUseException,
+                                                        Distribution.NoDistributorsAvailableException {
+        if (bucket.getUsedBits() < distributionBits) // Let the distribution throw the proper exception
+            return distribution.getIdealDistributorNode(state, bucket, ContentPolicy.owningBucketStates);
+
+        long key = bucket.getRawId() & keyMask;
+        int slot = (int) key & (slots.length() - 1);
+        long entry = slots.getOpaque(slot);
+        if (entry != 0 && entry >>> 32 == key)
+            return (int) entry - 1;
+
+        int distributor = distribution.getIdealDistributorNode(state, bucket, ContentPolicy.owningBucketStates);
+        slots.setOpaque(slot, key << 32 | (distributor + 1L));
+        return distributor;
+    }
+
+}
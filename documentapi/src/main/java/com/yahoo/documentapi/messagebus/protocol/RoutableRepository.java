@@ -41,11 +41,12 @@ final class RoutableRepository {
      *
      * If a routable can not be decoded, this method returns null.
      *
-     * @param version The version of the encoded routable.
-     * @param data    The byte array containing the encoded routable.
+     * @param version    The version of the encoded routable.
+     * @param data       The byte array containing the encoded routable.
+     * @param lazyFields Whether to deserialize the fields of documents when they are first accessed.
      * @return The decoded routable.
      */
-    Routable decode(DocumentTypeManager docMan, Version version, byte[] data) {
+    Routable decode(DocumentTypeManager docMan, Version version, byte[] data, boolean lazyFields) {
         if (data == null || data.length == 0) {
             log.log(Level.SEVERE, "Received empty byte array for deserialization.");
             return null;
@@ -54,7 +55,8 @@ final class RoutableRepository {
             log.log(Level.SEVERE,"Can not decode anything from (version " + version + "). Only major version 5 and up supported.");
             return null;
         }
-        DocumentDeserializer in = DocumentDeserializerFactory.createHead(docMan, GrowableByteBuffer.wrap(data));
+        DocumentDeserializer in = lazyFields ? DocumentDeserializerFactory.createLazyHead(docMan, GrowableByteBuffer.wrap(data))
+                                             : DocumentDeserializerFactory.createHead(docMan, GrowableByteBuffer.wrap(data));
 
 
         int type = in.getInt(null);
@@ -0,0 +1,62 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.documentapi.messagebus.protocol;
+
+import com.yahoo.document.BucketId;
+import com.yahoo.vdslib.distribution.Distribution;
+import com.yahoo.vdslib.state.ClusterState;
+import org.junit.Test;
+
+import java.text.ParseException;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author agent
+ */
+public class IdealDistributorCacheTest {
+
+    private final Distribution distribution = new Distribution(IdealDistributorResolutionBenchmark.groupedDistributionConfig(4, 5));
+
+    private void assertSameAsDistribution(ClusterState state, IdealDistributorCache cache) throws Exception {
+        Random random = new Random(1);
+        for (int i = 0; i < 10000; i++) {
+            BucketId bucket = new BucketId(58, random.nextLong());
+            int expected = distribution.getIdealDistributorNode(state, bucket, ContentPolicy.owningBucketStates);
+            assertEquals(bucket.toString(), expected, cache.getIdealDistributorNode(bucket));
+            assertEquals(bucket.toString(), expected, cache.getIdealDistributorNode(bucket));
+        }
+    }
+
+    @Test
+    public void cached_distributors_are_those_of_the_distribution() throws Exception {
+        for (String state : new String[] { "distributor:20 storage:20",
+                                           "bits:8 distributor:20 .3.s:d .7.s:m storage:20",
+                                           "bits:20 distributor:20 .0.s:d storage:20" }) {
+            ClusterState clusterState = new ClusterState(state);
+            assertSameAsDistribution(clusterState, new IdealDistributorCache(distribution, clusterState));
+        }
+    }
+
+    @Test
+    public void cache_is_only_for_the_state_it_was_created_for() throws ParseException {
+        ClusterState state = new ClusterState("version:1 distributor:20 storage:20");
+        IdealDistributorCache cache = new IdealDistributorCache(distribution, state);
+        assertTrue(cache.isFor(state));
+        assertFalse(cache.isFor(new ClusterState("version:1 distributor:20 storage:20")));
+        state.setDistributionBits(17);
+        assertFalse(cache.isFor(state));
+    }
+
+    @Test
+    public void buckets_with_too_few_bits_are_rejected() throws ParseException {
+        ClusterState state = new ClusterState("bits:16 distributor:20 storage:20");
+        IdealDistributorCache cache = new IdealDistributorCache(distribution, state);
+        assertThrows(Distribution.TooFewBucketBitsInUseException.class,
+                     () -> cache.getIdealDistributorNode(new BucketId(15, 1)));
+    }
+
+}
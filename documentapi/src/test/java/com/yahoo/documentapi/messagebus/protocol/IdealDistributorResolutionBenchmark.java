@@ -0,0 +1,79 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.documentapi.messagebus.protocol;
+
+import com.yahoo.document.BucketId;
+import com.yahoo.vdslib.distribution.Distribution;
+import com.yahoo.vdslib.state.ClusterState;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Measures the cost of resolving the ideal distributor of a bucket, as done by {@link ContentPolicy} for every
+ * message, both directly by the distribution and through an {@link IdealDistributorCache}.
+ *
+ * Run the main method with these optional, positional arguments: groups, nodes per group, and distribution bits.
+ *
+ * @author agent
+ */
+public class IdealDistributorResolutionBenchmark {
+
+    private static final int rounds = 5;
+    private static final int lookupsPerRound = 2_000_000;
+
+    /** Returns a raw distribution config with the given number of groups of nodes, and one copy per group */
+    static String groupedDistributionConfig(int groups, int nodesPerGroup) {
+        StringBuilder config = new StringBuilder("raw:redundancy ").append(groups).append("\n")
+                .append("group[").append(groups + 1).append("]\n")
+                .append("group[0].index \"invalid\"\n")
+                .append("group[0].name \"invalid\"\n")
+                .append("group[0].partitions \"").append("1|".repeat(groups - 1)).append("*\"\n")
+                .append("group[0].nodes[0]\n");
+        for (int group = 1; group <= groups; group++) {
+            config.append("group[").append(group).append("].index ").append(group).append("\n")
+                  .append("group[").append(group).append("].name group").append(group).append("\n")
+                  .append("group[").append(group).append("].partitions \"*\"\n")
+                  .append("group[").append(group).append("].nodes[").append(nodesPerGroup).append("]\n");
+            for (int node = 0; node < nodesPerGroup; node++)
+                config.append("group[").append(group).append("].nodes[").append(node).append("].index ")
+                      .append((group - 1) * nodesPerGroup + node).append("\n");
+        }
+        return config.toString();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int groups = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int nodesPerGroup = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int distributionBits = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+        int nodes = groups * nodesPerGroup;
+        Distribution distribution = new Distribution(groupedDistributionConfig(groups, nodesPerGroup));
+        ClusterState state = new ClusterState("version:1 bits:" + distributionBits + " distributor:" + nodes + " storage:" + nodes);
+        BucketId[] buckets = new BucketId[1 << 16];
+        Random random = new Random(1);
+        for (int i = 0; i < buckets.length; i++)
+            buckets[i] = new BucketId(58, random.nextLong());
+
+        System.out.println(groups + " groups of " + nodesPerGroup + " nodes, " + distributionBits + " distribution bits");
+        for (int round = 0; round < rounds; round++) { // the first rounds warm up
+            long checksum = 0;
+            long startNanos = System.nanoTime();
+            for (int i = 0; i < lookupsPerRound; i++)
+                checksum += distribution.getIdealDistributorNode(state, buckets[i & (buckets.length - 1)], ContentPolicy.owningBucketStates);
+            long directNanos = System.nanoTime() - startNanos;
+
+            // A new cache per round, as for every new cluster state, so its misses are included
+            IdealDistributorCache cache = new IdealDistributorCache(distribution, state);
+            startNanos = System.nanoTime();
+            for (int i = 0; i < lookupsPerRound; i++)
+                checksum -= cache.getIdealDistributorNode(buckets[i & (buckets.length - 1)]);
+            long cachedNanos = System.nanoTime() - startNanos;
+
+            if (round == rounds - 1)
+                System.out.println(String.format(Locale.ENGLISH, "%8.1f ns/lookup direct %8.1f ns/lookup cached (checksum %d)",
+                                                 (double) directNanos / lookupsPerRound,
+                                                 (double) cachedNanos / lookupsPerRound,
+                                                 checksum));
+        }
+    }
+
+}
@@ -10,6 +10,7 @@ class Buffer {
     private int        readPos;
     private int        writePos;
     private boolean    readMode;
+    private BufferPool pool;
 
     private void setReadMode() {
         if (readMode) {
@@ -55,18 +56,53 @@ class Buffer {
             if (buf.capacity() + free < minFree) {
                 size = buf.capacity() + minFree;
             }
-            ByteBuffer tmp = ByteBuffer.allocate(size);
+            ByteBuffer tmp = allocate(size);
             tmp.order(buf.order());
             buf.position(readPos);
             buf.limit(writePos);
             tmp.put(buf);
-            buf = tmp;
+            replace(tmp);
             readPos = 0;
         }
     }
 
+    private ByteBuffer allocate(int size) {
+        return (pool != null && size > 0) ? pool.borrow(size) : ByteBuffer.allocate(size);
+    }
+
+    private void replace(ByteBuffer tmp) {
+        if (pool != null) {
+            pool.release(buf);
+        }
+        buf = tmp;
+    }
+
     public Buffer(int size) {
-        buf = ByteBuffer.allocate(size);
+        this(size, null);
+    }
+
+    public Buffer(int size, BufferPool pool) {
+        this.pool = pool;
+        buf = allocate(size);
+        readPos = 0;
+        writePos = 0;
+        readMode = false;
+    }
+
+    /**
+     * Makes this borrow its memory from the given pool from now on.
+     * The current memory is not returned to the pool.
+     */
+    public void setPool(BufferPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Drops the content of this, and returns its memory to the pool,
+     * if it has one.
+     */
+    public void release() {
+        replace(ByteBuffer.allocate(0));
         readPos = 0;
         writePos = 0;
         readMode = false;
@@ -76,15 +112,16 @@ class Buffer {
         int rpos = readMode? buf.position() : readPos;
         int wpos = readMode? writePos : buf.position();
         int used = wpos - rpos;
-        if (used > size || buf.capacity() <= size) {
+        int capacity = (pool != null && size > 0) ? pool.capacityFor(size) : size;
+        if (used > size || buf.capacity() <= capacity) {
             return false;
         }
-        ByteBuffer tmp = ByteBuffer.allocate(size);
+        ByteBuffer tmp = allocate(size);
         tmp.order(buf.order());
         buf.position(rpos);
         buf.limit(wpos);
         tmp.put(buf);
-        buf = tmp;
+        replace(tmp);
         readPos = 0;
         writePos = used;
         buf.position(readMode? readPos : writePos);
@@ -0,0 +1,131 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.jrt;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A pool of direct byte buffers which may be shared by the
+ * connections of one or more {@link Transport} objects. Buffers are
+ * handed out in size classes which are powers of 2, from 4 KiB up to
+ * a configurable max size. Larger buffers are allocated on the heap
+ * and never pooled. Connections using a pool return their read and
+ * write buffers to it whenever they are empty, such that idle
+ * connections hold no buffer memory.
+ *
+ * @author agent
+ */
+public class BufferPool {
+
+    private static final int MIN_BUFFER_SIZE = 4096;
+
+    private final TransportMetrics metrics = TransportMetrics.getInstance();
+    private final int maxBufferSize;
+    private final long maxPooledBytes;
+    private final Queue<ByteBuffer>[] classes;
+    private final AtomicLong pooledBytes = new AtomicLong(0);
+    private final AtomicLong borrowedBytes = new AtomicLong(0);
+
+    /** Creates a pool of buffers of up to 1 MiB, keeping at most 64 MiB of unused buffers */
+    public BufferPool() {
+        this(1 << 20, 64L << 20);
+    }
+
+    /**
+     * Creates a new pool.
+     *
+     * @param maxBufferSize the size of the largest buffers to pool, rounded up to a power of 2
+     * @param maxPooledBytes the max total size of the unused buffers kept by this pool
+     */
+    @SuppressWarnings("unchecked")
+    public BufferPool(int maxBufferSize, long maxPooledBytes) {
+        if (maxBufferSize < MIN_BUFFER_SIZE)
+            throw new IllegalArgumentException("Max buffer size must be at least " + MIN_BUFFER_SIZE + ", but got " + maxBufferSize);
+        if (maxPooledBytes < 0)
+            throw new IllegalArgumentException("Max pooled bytes cannot be negative, but got " + maxPooledBytes);
+        this.maxBufferSize = classSize(maxBufferSize);
+        this.maxPooledBytes = maxPooledBytes;
+        this.classes = new Queue[classOf(this.maxBufferSize) + 1];
+        for (int i = 0; i < classes.length; i++) {
+            classes[i] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    private static int classSize(int size) {
+        return Math.max(MIN_BUFFER_SIZE, Integer.highestOneBit(size - 1) << 1);
+    }
+
+    private static int classOf(int classSize) {
+        return Integer.numberOfTrailingZeros(classSize) - Integer.numberOfTrailingZeros(MIN_BUFFER_SIZE);
+    }
+
+    /**
+     * Returns the capacity of the buffer {@link #borrow} returns for the given size.
+     */
+    public int capacityFor(int size) {
+        return (size > maxBufferSize) ? size : classSize(size);
+    }
+
+    /**
+     * Returns an empty buffer with a capacity of at least the given
+     * size, in big endian byte order. The buffer should be given back
+     * by {@link #release} when no longer needed.
+     */
+    public ByteBuffer borrow(int size) {
+        if (size > maxBufferSize) {
+            return ByteBuffer.allocate(size);
+        }
+        int capacity = classSize(size);
+        ByteBuffer buf = classes[classOf(capacity)].poll();
+        if (buf != null) {
+            pooledBytes.addAndGet(-capacity);
+            metrics.addPooledBufferBytes(-capacity);
+            buf.clear().order(ByteOrder.BIG_ENDIAN);
+        } else {
+            buf = ByteBuffer.allocateDirect(capacity);
+        }
+        borrowedBytes.addAndGet(capacity);
+        metrics.addBorrowedBufferBytes(capacity);
+        return buf;
+    }
+
+    /**
+     * Gives back a buffer obtained from {@link #borrow}. Buffers not
+     * allocated by this pool are ignored. The buffer must not be used
+     * by the caller after this.
+     */
+    public void release(ByteBuffer buf) {
+        int capacity = buf.capacity();
+        if ( ! buf.isDirect() || capacity > maxBufferSize || capacity != classSize(capacity)) {
+            return;
+        }
+        borrowedBytes.addAndGet(-capacity);
+        metrics.addBorrowedBufferBytes(-capacity);
+        if (pooledBytes.addAndGet(capacity) > maxPooledBytes) {
+            pooledBytes.addAndGet(-capacity); // let this one be garbage collected
+            return;
+        }
+        metrics.addPooledBufferBytes(capacity);
+        classes[classOf(capacity)].offer(buf);
+    }
+
+    /** Returns the total size of the unused buffers kept by this pool */
+    public long pooledBytes() { return pooledBytes.get(); }
+
+    /** Returns the total size of the buffers currently borrowed from this pool */
+    public long borrowedBytes() { return borrowedBytes.get(); }
+
+    @Override
+    public String toString() {
+        return "BufferPool{" +
+               "maxBufferSize=" + maxBufferSize +
+               ", maxPooledBytes=" + maxPooledBytes +
+               ", pooledBytes=" + pooledBytes +
+               ", borrowedBytes=" + borrowedBytes +
+               '}';
+    }
+
+}
@@ -34,11 +34,12 @@ class Connection extends Target {
     private int state = INITIAL;
     private final Queue  queue   = new Queue();
     private final Queue  myQueue = new Queue();
-    private final Buffer input   = new Buffer(0); // Start off with empty buffer.
-    private final Buffer output  = new Buffer(0); // Start off with empty buffer.
+    private final Buffer input;
+    private final Buffer output;
     private final int maxInputSize;
     private final int maxOutputSize;
     private final boolean dropEmptyBuffers;
+    private final long writeCorkNanos;
     private final boolean tcpNoDelay;
     private final Map<Integer, ReplyHandler> replyMap = new HashMap<>();
     private final Map<TargetWatcher, TargetWatcher> watchers = new IdentityHashMap<>();
@@ -53,6 +54,8 @@ class Connection extends Target {
     private final AtomicLong requestId = new AtomicLong(0);
     private SelectionKey selectionKey;
     private Exception lostReason = null;
+    private boolean writeScheduled = false; // only accessed by the transport thread
+    private long corkedUntil = 0;           // only accessed by the transport thread
 
     private void setState(int state) {
         if (state <= this.state) {
@@ -94,7 +97,11 @@ class Connection extends Target {
         this.tcpNoDelay = tcpNoDelay;
         maxInputSize = owner.getMaxInputBufferSize();
         maxOutputSize = owner.getMaxOutputBufferSize();
-        dropEmptyBuffers = owner.getDropEmptyBuffers();
+        BufferPool pool = parent.transport().getBufferPool();
+        input = new Buffer(0, pool); // Start off with empty buffers.
+        output = new Buffer(0, pool);
+        dropEmptyBuffers = owner.getDropEmptyBuffers() || pool != null; // pooled buffers are cheap to get back
+        writeCorkNanos = owner.getWriteCorkDelay().toNanos();
         server = true;
     }
 
@@ -106,7 +113,11 @@ class Connection extends Target {
         this.tcpNoDelay = tcpNoDelay;
         maxInputSize = owner.getMaxInputBufferSize();
         maxOutputSize = owner.getMaxOutputBufferSize();
-        dropEmptyBuffers = owner.getDropEmptyBuffers();
+        BufferPool pool = parent.transport().getBufferPool();
+        input = new Buffer(0, pool); // Start off with empty buffers.
+        output = new Buffer(0, pool);
+        dropEmptyBuffers = owner.getDropEmptyBuffers() || pool != null; // pooled buffers are cheap to get back
+        writeCorkNanos = owner.getWriteCorkDelay().toNanos();
         server = false;
     }
 
@@ -190,6 +201,14 @@ class Connection extends Target {
         return true;
     }
 
+    long writeCorkNanos() { return writeCorkNanos; }
+
+    boolean writeScheduled() { return writeScheduled; }
+    void writeScheduled(boolean value) { writeScheduled = value; }
+
+    long corkedUntil() { return corkedUntil; }
+    void corkedUntil(long nanoTime) { corkedUntil = nanoTime; }
+
     public void enableRead() {
         selectionKey.interestOps(selectionKey.interestOps()
                                  | SelectionKey.OP_READ);
@@ -320,6 +339,8 @@ class Connection extends Target {
         synchronized (this) {
             queue.flush(myQueue);
         }
+        int packets = 0;
+        int writes = 0;
         for (int i = 0; i < WRITE_REDO; i++) {
             while (output.bytes() < WRITE_SIZE) {
                 Packet packet = (Packet) myQueue.dequeue();
@@ -330,16 +351,21 @@ class Connection extends Target {
                 ByteBuffer wb = output.getWritable(info.packetLength());
                 owner.writePacket(info);
                 info.encodePacket(packet, wb);
+                packets++;
             }
             ByteBuffer rb = output.getReadable();
             if (rb.remaining() == 0) {
                 break;
             }
             socket.write(rb);
+            writes++;
             if (rb.remaining() > 0) {
                 break;
             }
         }
+        if (writes > 0) {
+            parent.transport().metrics().addWrites(packets, writes);
+        }
         int myWriteWork = 0;
         if (output.bytes() > 0) {
             myWriteWork++;
@@ -356,6 +382,8 @@ class Connection extends Target {
         }
         if (disableWrite) {
             disableWrite();
+        } else {
+            enableWrite(); // when writing at the end of a transport thread turn rather than on a write event
         }
         if (dropEmptyBuffers) {
             socket.dropEmptyBuffers();
@@ -403,6 +431,11 @@ class Connection extends Target {
                 log.log(Level.WARNING, "Error closing connection", e);
             }
         }
+        if (socket != null) {
+            socket.releaseBuffers();
+        }
+        input.release();
+        output.release();
     }
 
     public void setLostReason(Exception e) {
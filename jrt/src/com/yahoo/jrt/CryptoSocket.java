@@ -103,6 +103,20 @@ public interface CryptoSocket {
      **/
     public void dropEmptyBuffers();
 
+    /**
+     * Makes this borrow its internal buffers from the given pool and
+     * return them to it when they are dropped. Called before the
+     * handshake is started. The default is to ignore the pool.
+     **/
+    default void useBufferPool(BufferPool pool) {}
+
+    /**
+     * Drops the content of any internal buffers and returns their
+     * memory to the pool they were borrowed from. Called when the
+     * connection is closed. The default is to do nothing.
+     **/
+    default void releaseBuffers() {}
+
     /** Returns the auth context for the current connection (given handshake completed) */
     default ConnectionAuthContext connectionAuthContext() { return ConnectionAuthContext.defaultAllCapabilities(); }
 }
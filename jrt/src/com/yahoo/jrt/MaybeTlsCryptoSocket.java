@@ -21,6 +21,7 @@ public class MaybeTlsCryptoSocket implements CryptoSocket {
     private static final int SNOOP_SIZE = 9;
 
     private CryptoSocket socket;
+    private BufferPool bufferPool = null;
 
     // 'data' is the first 9 bytes received from the client
     public static boolean looksLikeTlsToMe(byte[] data) {
@@ -83,6 +84,9 @@ public class MaybeTlsCryptoSocket implements CryptoSocket {
                 }
                 if (looksLikeTlsToMe(data)) {
                     TlsCryptoSocket tlsSocket = factory.createServerCryptoSocket(channel());
+                    if (bufferPool != null) {
+                        tlsSocket.useBufferPool(bufferPool);
+                    }
                     tlsSocket.injectReadData(buffer);
                     socket = tlsSocket;
                     return socket.handshake();
@@ -131,5 +135,7 @@ public class MaybeTlsCryptoSocket implements CryptoSocket {
     @Override public int write(ByteBuffer src) throws IOException { return socket.write(src); }
     @Override public FlushResult flush() throws IOException { return socket.flush(); }
     @Override public void dropEmptyBuffers() { socket.dropEmptyBuffers(); }
+    @Override public void useBufferPool(BufferPool pool) { bufferPool = pool; }
+    @Override public void releaseBuffers() { socket.releaseBuffers(); }
     @Override public ConnectionAuthContext connectionAuthContext() { return socket.connectionAuthContext(); }
 }
@@ -1,6 +1,7 @@
 // Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.jrt;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -21,6 +22,7 @@ public class Supervisor {
     private int                     maxInputBufferSize  = 64*1024;
     private int                     maxOutputBufferSize = 64*1024;
     private boolean                 dropEmptyBuffers = false;
+    private Duration                writeCorkDelay = Duration.ZERO;
 
     /**
      * Creates a new Supervisor based on the given {@link Transport}
@@ -45,6 +47,23 @@ public class Supervisor {
     }
     boolean getDropEmptyBuffers() { return dropEmptyBuffers; }
 
+    /**
+     * Sets how long packets posted to an idle connection are held
+     * back before they are written, such that packets posted during
+     * this time are coalesced into the same write. Packets posted in
+     * the same turn of the transport thread are always coalesced,
+     * and this is only useful to reduce the number of writes (and
+     * TLS records) further, at the cost of added latency. The
+     * resolution of the delay is milliseconds.
+     *
+     * @param delay the delay, or zero (the default) to write as soon as possible
+     */
+    public Supervisor setWriteCorkDelay(Duration delay) {
+        writeCorkDelay = delay;
+        return this;
+    }
+    Duration getWriteCorkDelay() { return writeCorkDelay; }
+
     /**
      * Sets maximum input buffer size. This value will only affect
      * connections that use a common input buffer when decoding
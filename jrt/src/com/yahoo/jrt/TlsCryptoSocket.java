@@ -213,6 +213,16 @@ public class TlsCryptoSocket implements CryptoSocket {
         unwrapBuffer.shrink(0);
     }
 
+    @Override public void useBufferPool(BufferPool pool) {
+        wrapBuffer.setPool(pool);
+        unwrapBuffer.setPool(pool);
+    }
+
+    @Override public void releaseBuffers() {
+        wrapBuffer.release();
+        unwrapBuffer.release();
+    }
+
     @Override
     public ConnectionAuthContext connectionAuthContext() {
         if (handshakeState != HandshakeState.COMPLETED) throw new IllegalStateException("Handshake not complete");
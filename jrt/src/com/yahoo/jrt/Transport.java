@@ -29,6 +29,7 @@ public class Transport {
     private final AtomicInteger     runCnt;
     private final boolean tcpNoDelay;
     private final int eventsBeforeWakeup;
+    private BufferPool bufferPool = null;
 
     private final TransportMetrics metrics = TransportMetrics.getInstance();
     private final List<TransportThread> threads = new ArrayList<>();
@@ -87,6 +88,24 @@ public class Transport {
     boolean getTcpNoDelay() { return tcpNoDelay; }
     int getEventsBeforeWakeup() { return eventsBeforeWakeup; }
 
+    /**
+     * Makes the connections of this transport borrow their read and
+     * write buffers, including those used for TLS, from the given
+     * pool of direct buffers. Connections then return their buffers
+     * to the pool whenever they are empty, such that idle connections
+     * hold no buffer memory. This must be set before any connections
+     * are made. The default is no pool, where each connection has its
+     * own heap buffers.
+     *
+     * @param pool the pool to use, or null to use no pool
+     * @return this, to allow chaining
+     **/
+    public Transport setBufferPool(BufferPool pool) {
+        bufferPool = pool;
+        return this;
+    }
+    BufferPool getBufferPool() { return bufferPool; }
+
     public String getName() { return name; }
 
     /**
@@ -98,7 +117,7 @@ public class Transport {
      * @param spec who we are connecting to, for hostname validation
      */
     CryptoSocket createClientCryptoSocket(SocketChannel channel, Spec spec) {
-        return cryptoEngine.createClientCryptoSocket(channel, spec);
+        return withBufferPool(cryptoEngine.createClientCryptoSocket(channel, spec));
     }
 
     /**
@@ -109,7 +128,14 @@ public class Transport {
      * @param channel low-level socket channel to be wrapped by the CryptoSocket
      */
     CryptoSocket createServerCryptoSocket(SocketChannel channel) {
-        return cryptoEngine.createServerCryptoSocket(channel);
+        return withBufferPool(cryptoEngine.createServerCryptoSocket(channel));
+    }
+
+    private CryptoSocket withBufferPool(CryptoSocket socket) {
+        if (bufferPool != null) {
+            socket.useBufferPool(bufferPool);
+        }
+        return socket;
     }
 
     /**
@@ -2,6 +2,7 @@
 package com.yahoo.jrt;
 
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.ToLongFunction;
 
 /**
@@ -19,6 +20,10 @@ public class TransportMetrics {
     private final AtomicLong clientTlsConnectionsEstablished = new AtomicLong(0);
     private final AtomicLong serverUnencryptedConnectionsEstablished = new AtomicLong(0);
     private final AtomicLong clientUnencryptedConnectionsEstablished = new AtomicLong(0);
+    private final LongAdder packetsWritten = new LongAdder();
+    private final LongAdder writeOperations = new LongAdder();
+    private final LongAdder pooledBufferBytes = new LongAdder();
+    private final LongAdder borrowedBufferBytes = new LongAdder();
 
     private TransportMetrics() {}
 
@@ -48,6 +53,26 @@ public class TransportMetrics {
         return clientUnencryptedConnectionsEstablished.get();
     }
 
+    /** Returns the number of packets written to connections */
+    public long packetsWritten() {
+        return packetsWritten.sum();
+    }
+
+    /** Returns the number of writes to connections, each writing one or more packets */
+    public long writeOperations() {
+        return writeOperations.sum();
+    }
+
+    /** Returns the total size of the unused buffers kept by all {@link BufferPool}s */
+    public long pooledBufferBytes() {
+        return pooledBufferBytes.sum();
+    }
+
+    /** Returns the total size of the buffers borrowed from all {@link BufferPool}s */
+    public long borrowedBufferBytes() {
+        return borrowedBufferBytes.sum();
+    }
+
     public Snapshot snapshot() { return new Snapshot(this); }
 
     void incrementTlsCertificateVerificationFailures() {
@@ -74,6 +99,19 @@ public class TransportMetrics {
         clientUnencryptedConnectionsEstablished.incrementAndGet();
     }
 
+    void addWrites(int packets, int writes) {
+        packetsWritten.add(packets);
+        writeOperations.add(writes);
+    }
+
+    void addPooledBufferBytes(long bytes) {
+        pooledBufferBytes.add(bytes);
+    }
+
+    void addBorrowedBufferBytes(long bytes) {
+        borrowedBufferBytes.add(bytes);
+    }
+
     @Override
     public String toString() {
         return "TransportMetrics{" +
@@ -83,11 +121,15 @@ public class TransportMetrics {
                 ", clientTlsConnectionsEstablished=" + clientTlsConnectionsEstablished +
                 ", serverUnencryptedConnectionsEstablished=" + serverUnencryptedConnectionsEstablished +
                 ", clientUnencryptedConnectionsEstablished=" + clientUnencryptedConnectionsEstablished +
+                ", packetsWritten=" + packetsWritten +
+                ", writeOperations=" + writeOperations +
+                ", pooledBufferBytes=" + pooledBufferBytes +
+                ", borrowedBufferBytes=" + borrowedBufferBytes +
                 '}';
     }
 
     public static class Snapshot {
-        public static final Snapshot EMPTY = new Snapshot(0, 0, 0, 0, 0, 0);
+        public static final Snapshot EMPTY = new Snapshot(0, 0, 0, 0, 0, 0, 0, 0);
 
         private final long tlsCertificateVerificationFailures;
         private final long peerAuthorizationFailures;
@@ -95,6 +137,8 @@ public class TransportMetrics {
         private final long clientTlsConnectionsEstablished;
         private final long serverUnencryptedConnectionsEstablished;
         private final long clientUnencryptedConnectionsEstablished;
+        private final long packetsWritten;
+        private final long writeOperations;
 
         private Snapshot(TransportMetrics metrics) {
             this(metrics.tlsCertificateVerificationFailures.get(),
@@ -102,7 +146,9 @@ public class TransportMetrics {
                  metrics.serverTlsConnectionsEstablished.get(),
                  metrics.clientTlsConnectionsEstablished.get(),
                  metrics.serverUnencryptedConnectionsEstablished.get(),
-                 metrics.clientUnencryptedConnectionsEstablished.get());
+                 metrics.clientUnencryptedConnectionsEstablished.get(),
+                 metrics.packetsWritten.sum(),
+                 metrics.writeOperations.sum());
         }
 
         private Snapshot(long tlsCertificateVerificationFailures,
@@ -110,13 +156,17 @@ public class TransportMetrics {
                         long serverTlsConnectionsEstablished,
                         long clientTlsConnectionsEstablished,
                         long serverUnencryptedConnectionsEstablished,
-                        long clientUnencryptedConnectionsEstablished) {
+                        long clientUnencryptedConnectionsEstablished,
+                        long packetsWritten,
+                        long writeOperations) {
             this.tlsCertificateVerificationFailures = tlsCertificateVerificationFailures;
             this.peerAuthorizationFailures = peerAuthorizationFailures;
             this.serverTlsConnectionsEstablished = serverTlsConnectionsEstablished;
             this.clientTlsConnectionsEstablished = clientTlsConnectionsEstablished;
             this.serverUnencryptedConnectionsEstablished = serverUnencryptedConnectionsEstablished;
             this.clientUnencryptedConnectionsEstablished = clientUnencryptedConnectionsEstablished;
+            this.packetsWritten = packetsWritten;
+            this.writeOperations = writeOperations;
         }
 
         public long tlsCertificateVerificationFailures() { return tlsCertificateVerificationFailures; }
@@ -125,6 +175,13 @@ public class TransportMetrics {
         public long clientTlsConnectionsEstablished() { return clientTlsConnectionsEstablished; }
         public long serverUnencryptedConnectionsEstablished() { return serverUnencryptedConnectionsEstablished; }
         public long clientUnencryptedConnectionsEstablished() { return clientUnencryptedConnectionsEstablished; }
+        public long packetsWritten() { return packetsWritten; }
+        public long writeOperations() { return writeOperations; }
+
+        /** Returns the average number of packets per write, or 0 if there are no writes */
+        public double packetsPerWrite() {
+            return writeOperations == 0 ? 0 : (double) packetsWritten / writeOperations;
+        }
 
         public Snapshot changesSince(Snapshot base) {
             return new Snapshot(
@@ -133,7 +190,9 @@ public class TransportMetrics {
                 changesSince(base, Snapshot::serverTlsConnectionsEstablished),
                 changesSince(base, Snapshot::clientTlsConnectionsEstablished),
                 changesSince(base, Snapshot::serverUnencryptedConnectionsEstablished),
-                changesSince(base, Snapshot::clientUnencryptedConnectionsEstablished));
+                changesSince(base, Snapshot::clientUnencryptedConnectionsEstablished),
+                changesSince(base, Snapshot::packetsWritten),
+                changesSince(base, Snapshot::writeOperations));
         }
 
         private long changesSince(Snapshot base, ToLongFunction<Snapshot> metricProperty) {
@@ -149,6 +208,8 @@ public class TransportMetrics {
                     ", clientTlsConnectionsEstablished=" + clientTlsConnectionsEstablished +
                     ", serverUnencryptedConnectionsEstablished=" + serverUnencryptedConnectionsEstablished +
                     ", clientUnencryptedConnectionsEstablished=" + clientUnencryptedConnectionsEstablished +
+                    ", packetsWritten=" + packetsWritten +
+                    ", writeOperations=" + writeOperations +
                     '}';
         }
     }
@@ -4,13 +4,22 @@ package com.yahoo.jrt;
 import java.io.IOException;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * A single reactor/scheduler thread inside a potentially
  * multi-threaded {@link Transport}.
+ *
+ * Connections getting packets to write during a turn of the event
+ * loop are written at the end of that turn, such that all the
+ * packets posted to a connection in the same turn, e.g., all the
+ * replies to the requests read in the turn, are coalesced into a
+ * single write. Connections with a write cork delay are written when
+ * the delay has passed instead.
  */
 public class TransportThread {
 
@@ -74,6 +83,8 @@ public class TransportThread {
     private final Scheduler scheduler;
     private int             state;
     private final Selector  selector;
+    private final List<Connection> pendingWrites = new ArrayList<>();
+    private final List<Connection> corkedWrites = new ArrayList<>();
 
     private void handleAddConnection(Connection conn) {
         if (conn.isClosed()) {
@@ -98,10 +109,54 @@ public class TransportThread {
     }
 
     private void handleEnableWrite(Connection conn) {
-        if (conn.isClosed()) {
+        if (conn.isClosed() || conn.writeScheduled()) {
             return;
         }
-        conn.enableWrite();
+        conn.writeScheduled(true);
+        if (conn.writeCorkNanos() > 0) {
+            conn.corkedUntil(System.nanoTime() + conn.writeCorkNanos());
+            corkedWrites.add(conn);
+        } else {
+            pendingWrites.add(conn);
+        }
+    }
+
+    private void handlePendingWrites() {
+        if ( ! corkedWrites.isEmpty()) {
+            long now = System.nanoTime();
+            for (Iterator<Connection> it = corkedWrites.iterator(); it.hasNext(); ) {
+                Connection conn = it.next();
+                if (now - conn.corkedUntil() >= 0) {
+                    it.remove();
+                    pendingWrites.add(conn);
+                }
+            }
+        }
+        // closing a connection may post packets to other connections, adding to the list
+        for (int i = 0; i < pendingWrites.size(); i++) {
+            Connection conn = pendingWrites.get(i);
+            conn.writeScheduled(false);
+            if (conn.isClosed()) {
+                continue;
+            }
+            try {
+                conn.handleWriteEvent();
+            } catch (IOException e) {
+                conn.setLostReason(e);
+                handleCloseConnection(conn);
+            }
+        }
+        pendingWrites.clear();
+    }
+
+    private long selectTimeoutMillis() {
+        long timeout = 100;
+        long now = System.nanoTime();
+        for (Connection conn : corkedWrites) {
+            long millis = Math.max(1, (conn.corkedUntil() - now + 999_999) / 1_000_000);
+            timeout = Math.min(timeout, millis);
+        }
+        return timeout;
     }
 
     private void handleHandshakeWorkDone(Connection conn) {
@@ -312,7 +367,7 @@ public class TransportThread {
 
             // perform I/O selection
             try {
-                selector.select(100);
+                selector.select(selectTimeoutMillis());
             } catch (IOException e) {
                 log.log(Level.WARNING, "error during select", e);
             }
@@ -333,6 +388,9 @@ public class TransportThread {
 
             // check scheduled tasks
             scheduler.checkTasks(System.currentTimeMillis());
+
+            // write packets posted during this turn
+            handlePendingWrites();
         }
         synchronized (this) {
             state = CLOSED;
@@ -0,0 +1,125 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.jrt;
+
+import javax.net.ssl.SSLContext;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author agent
+ */
+public class BufferPoolTest {
+
+    @org.junit.Test
+    public void testBorrowAndRelease() {
+        BufferPool pool = new BufferPool(64 * 1024, 16 * 1024);
+        ByteBuffer a = pool.borrow(100);
+        assertTrue(a.isDirect());
+        assertEquals(4096, a.capacity());
+        assertEquals(8192, pool.borrow(4097).capacity());
+        assertEquals(12288, pool.borrowedBytes());
+        assertEquals(0, pool.pooledBytes());
+
+        a.putInt(17);
+        pool.release(a);
+        assertEquals(8192, pool.borrowedBytes());
+        assertEquals(4096, pool.pooledBytes());
+        ByteBuffer b = pool.borrow(4000);
+        assertSame(a, b);
+        assertEquals(0, b.position());
+        assertEquals(4096, b.limit());
+        assertEquals(0, pool.pooledBytes());
+
+        ByteBuffer large = pool.borrow(100_000);
+        assertFalse(large.isDirect());
+        assertEquals(100_000, large.capacity());
+        pool.release(large);
+        pool.release(ByteBuffer.allocate(4096));
+        assertEquals(0, pool.pooledBytes());
+        assertEquals(12288, pool.borrowedBytes());
+    }
+
+    @org.junit.Test
+    public void testPooledBytesAreCapped() {
+        BufferPool pool = new BufferPool(64 * 1024, 16 * 1024);
+        ByteBuffer a = pool.borrow(16 * 1024);
+        ByteBuffer b = pool.borrow(16 * 1024);
+        pool.release(a);
+        pool.release(b);
+        assertEquals(16 * 1024, pool.pooledBytes());
+        assertEquals(0, pool.borrowedBytes());
+        assertSame(a, pool.borrow(16 * 1024));
+        assertNotSame(b, pool.borrow(16 * 1024));
+    }
+
+    @org.junit.Test
+    public void testBufferBorrowsFromPool() {
+        BufferPool pool = new BufferPool();
+        Buffer buf = new Buffer(0, pool);
+        buf.getWritable(10).put((byte)10).put((byte)20);
+        assertTrue(buf.getReadable().isDirect());
+        assertEquals(4096, buf.getReadable().capacity());
+        assertEquals(4096, pool.borrowedBytes());
+
+        buf.getWritable(8192).put(new byte[8192]);
+        assertEquals(16384, buf.getReadable().capacity());
+        assertEquals(16384, pool.borrowedBytes());
+        assertEquals(4096, pool.pooledBytes());
+        assertEquals(10, buf.getReadable().get());
+        assertEquals(20, buf.getReadable().get());
+        buf.getReadable().get(new byte[8192]);
+
+        assertFalse("Shrinking within the same size class is a no-op", buf.shrink(10000));
+        assertTrue(buf.shrink(0));
+        assertEquals(0, pool.borrowedBytes());
+        assertEquals(20480, pool.pooledBytes());
+    }
+
+    @org.junit.Test
+    public void testIdleConnectionsReturnBuffersToPool() throws ListenFailedException {
+        BufferPool pool = new BufferPool();
+        Supervisor server = new Supervisor(new Transport().setBufferPool(pool));
+        Supervisor client = new Supervisor(new Transport().setBufferPool(pool));
+        server.addMethod(new Method("echo", "s", "s", req -> req.returnValues().add(req.parameters().get(0))));
+        Acceptor acceptor = server.listen(new Spec(0));
+        Target target = client.connect(new Spec("localhost", acceptor.port()));
+        try {
+            for (int size : new int[] { 10, 100_000, 10 }) {
+                Request req = new Request("echo");
+                req.parameters().add(new StringValue("x".repeat(size)));
+                target.invokeSync(req, Duration.ofSeconds(60));
+                assertFalse(req.errorMessage(), req.isError());
+                assertEquals(size, req.returnValues().get(0).asString().length());
+            }
+            assertTrue(pool.pooledBytes() > 0);
+        } finally {
+            target.close();
+            acceptor.shutdown().join();
+            client.transport().shutdown().join();
+            server.transport().shutdown().join();
+        }
+        assertEquals(0, pool.borrowedBytes());
+    }
+
+    @org.junit.Test
+    public void testTlsSocketBuffersAreReturnedToPoolWhenReleased() throws Exception {
+        BufferPool pool = new BufferPool();
+        TlsCryptoSocket socket = new TlsCryptoSocket(null, SSLContext.getDefault().createSSLEngine());
+        socket.useBufferPool(pool);
+        Buffer received = new Buffer(0);
+        received.getWritable(100).put(new byte[100]);
+        socket.injectReadData(received);
+        assertEquals(4096, pool.borrowedBytes());
+
+        socket.releaseBuffers();
+        assertEquals(0, pool.borrowedBytes());
+        assertEquals(4096, pool.pooledBytes());
+    }
+
+}
@@ -78,4 +78,28 @@ public class InvokeVoidTest {
         assertTrue(client.readBytes == server.writeBytes);
     }
 
+    @org.junit.Test
+    public void testCorkedPacketsAreWrittenTogether() {
+        client.setWriteCorkDelay(Duration.ofMillis(200));
+        target.close();
+        target = client.connect(new Spec("localhost", acceptor.port()));
+        Request req = new Request("set");
+        req.parameters().add(new Int32Value(0));
+        target.invokeSync(req, Duration.ofSeconds(5));
+        assertTrue(!req.isError());
+
+        TransportMetrics.Snapshot before = TransportMetrics.getInstance().snapshot();
+        for (int i = 0; i < 100; i++) {
+            target.invokeVoid(new Request("inc"));
+        }
+        req = new Request("get");
+        target.invokeSync(req, Duration.ofSeconds(5));
+        assertTrue(!req.isError());
+        assertEquals(100, req.returnValues().get(0).asInt32());
+
+        TransportMetrics.Snapshot written = TransportMetrics.getInstance().snapshot().changesSince(before);
+        assertTrue(written.packetsWritten() >= 101); // the reply may not be counted yet
+        assertTrue("Packets are coalesced: " + written, written.packetsPerWrite() > 20);
+    }
+
 }
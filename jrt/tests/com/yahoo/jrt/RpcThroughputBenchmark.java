@@ -0,0 +1,121 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.jrt;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.yahoo.jrt.CryptoUtils.createTestTlsContext;
+
+/**
+ * Measures the throughput of small RPCs over a loopback connection, in RPCs per second and per
+ * second of CPU time used by this process, together with the number of packets per write.
+ * Each client connection keeps a window of asynchronous requests outstanding.
+ * <p>
+ * Run the main method with the arguments
+ * <code>[null|tls] [connections] [window] [transport threads] [cork delay ms] [seconds]</code>.
+ *
+ * @author agent
+ */
+public class RpcThroughputBenchmark {
+
+    private final CryptoEngine crypto;
+    private final int connections;
+    private final int window;
+    private final int transportThreads;
+    private final Duration corkDelay;
+    private final Duration duration;
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicBoolean stopped = new AtomicBoolean();
+
+    RpcThroughputBenchmark(CryptoEngine crypto, int connections, int window, int transportThreads,
+                           Duration corkDelay, Duration duration) {
+        this.crypto = crypto;
+        this.connections = connections;
+        this.window = window;
+        this.transportThreads = transportThreads;
+        this.corkDelay = corkDelay;
+        this.duration = duration;
+    }
+
+    public static void main(String[] args) throws Exception {
+        CryptoEngine crypto = arg(args, 0, "null").equals("tls") ? new TlsCryptoEngine(createTestTlsContext())
+                                                                 : new NullCryptoEngine();
+        new RpcThroughputBenchmark(crypto,
+                                   Integer.parseInt(arg(args, 1, "4")),
+                                   Integer.parseInt(arg(args, 2, "64")),
+                                   Integer.parseInt(arg(args, 3, "1")),
+                                   Duration.ofMillis(Long.parseLong(arg(args, 4, "0"))),
+                                   Duration.ofSeconds(Long.parseLong(arg(args, 5, "10"))))
+                .run();
+    }
+
+    private static String arg(String[] args, int index, String defaultValue) {
+        return args.length > index ? args[index] : defaultValue;
+    }
+
+    void run() throws Exception {
+        Supervisor server = new Supervisor(new Transport("server", crypto, transportThreads));
+        Supervisor client = new Supervisor(new Transport("client", crypto, transportThreads));
+        server.setWriteCorkDelay(corkDelay);
+        client.setWriteCorkDelay(corkDelay);
+        server.addMethod(new Method("inc", "i", "i", this::rpc_inc));
+        Acceptor acceptor = server.listen(new Spec(0));
+        try {
+            for (int i = 0; i < connections; i++) {
+                Target target = client.connect(new Spec("localhost", acceptor.port()));
+                for (int j = 0; j < window; j++) {
+                    invoke(target, j);
+                }
+            }
+            Thread.sleep(Math.min(2000, duration.toMillis() / 5)); // warm up
+
+            var os = (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+            TransportMetrics.Snapshot metricsBefore = TransportMetrics.getInstance().snapshot();
+            long rpcsBefore = completed.get();
+            long cpuBefore = os.getProcessCpuTime();
+            long start = System.nanoTime();
+            Thread.sleep(duration.toMillis());
+            double seconds = (System.nanoTime() - start) * 1e-9;
+            double cpuSeconds = (os.getProcessCpuTime() - cpuBefore) * 1e-9;
+            long rpcs = completed.get() - rpcsBefore;
+            TransportMetrics.Snapshot metrics = TransportMetrics.getInstance().snapshot().changesSince(metricsBefore);
+
+            System.out.println(String.format(Locale.ENGLISH,
+                                             "%s, %d connections, window %d, %d transport threads, cork delay %d ms:",
+                                             crypto.getClass().getSimpleName(), connections, window,
+                                             transportThreads, corkDelay.toMillis()));
+            System.out.println(String.format(Locale.ENGLISH, "  %,12.0f RPCs/s", rpcs / seconds));
+            System.out.println(String.format(Locale.ENGLISH, "  %,12.0f RPCs/s per core (%.2f cores used)",
+                                             rpcs / cpuSeconds, cpuSeconds / seconds));
+            System.out.println(String.format(Locale.ENGLISH, "  %12.2f packets per write", metrics.packetsPerWrite()));
+        } finally {
+            stopped.set(true);
+            acceptor.shutdown().join();
+            client.transport().shutdown().join();
+            server.transport().shutdown().join();
+        }
+    }
+
+    private void invoke(Target target, int value) {
+        if (stopped.get()) return;
+        Request request = new Request("inc");
+        request.parameters().add(new Int32Value(value));
+        target.invokeAsync(request, Duration.ofSeconds(60), req -> {
+            if (req.isError()) {
+                if ( ! stopped.get())
+                    System.err.println("RPC failed: " + req.errorMessage());
+                return;
+            }
+            completed.incrementAndGet();
+            invoke(target, req.returnValues().get(0).asInt32());
+        });
+    }
+
+    private void rpc_inc(Request req) {
+        req.returnValues().add(new Int32Value(req.parameters().get(0).asInt32() + 1));
+    }
+
+}
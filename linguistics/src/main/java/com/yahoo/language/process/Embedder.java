@@ -74,6 +74,8 @@ public interface Embedder {
         void sampleEmbeddingLatency(double millis, Context ctx);
         /** Sample sequence length metric for embedding */
         void sampleSequenceLength(long length, Context ctx);
+        /** Sample a lookup in a cache of embeddings, which is a hit if the embedding was found */
+        default void sampleCacheLookup(boolean hit, Context ctx) { }
 
         static Runtime testInstance() {
             return new Runtime() {
@@ -5,12 +5,21 @@ import com.yahoo.messagebus.routing.Route;
 import com.yahoo.messagebus.routing.RoutingTable;
 
 import java.util.Deque;
-import java.util.LinkedList;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * A session supporting sending new messages.
+ * <p>
+ * The pending count is maintained without locking. The throttle policy, which need not be thread safe, is only
+ * accessed while holding a lock, which is taken by senders to decide whether a message can be sent. Replies never
+ * wait for this lock: a reply arriving while it is held is instead queued, and the queued replies are passed to
+ * the policy as a batch by the next thread holding the lock, before it consults the policy.
  *
  * @author Simon Thoresen Hult
  */
@@ -19,15 +28,16 @@ public final class SourceSession implements ReplyHandler, MessageBus.SendBlocked
     private final AtomicBoolean destroyed = new AtomicBoolean(false);
     private final CountDownLatch done = new CountDownLatch(1);
     private final AtomicBoolean sendingBlockedToken = new AtomicBoolean(false);
-    private final Object lock = new Object();
+    private final ReentrantLock throttleLock = new ReentrantLock();
     private final MessageBus mbus;
     private final Sequencer sequencer;
     private final ReplyHandler replyHandler;
     private final ThrottlePolicy throttlePolicy;
     private volatile double timeout;  // volatile only for tests
-    private volatile int pendingCount = 0;
+    private final AtomicInteger pendingCount = new AtomicInteger(0);
     private volatile boolean closed = false;
-    private final Deque<BlockedMessage> blockedQ = new LinkedList<>();
+    private final Deque<BlockedMessage> blockedQ = new ConcurrentLinkedDeque<>();
+    private final Queue<Reply> throttledReplies = new ConcurrentLinkedQueue<>();
     private final static class Counter {
         private int count = 0;
         void inc() { count ++; }
@@ -70,9 +80,7 @@ public final class SourceSession implements ReplyHandler, MessageBus.SendBlocked
         if (destroyed.getAndSet(true)) {
             return false;
         }
-        synchronized (lock) {
-            closed = true;
-        }
+        closed = true;
         sequencer.destroy();
         mbus.sync();
         return true;
@@ -83,10 +91,8 @@ public final class SourceSession implements ReplyHandler, MessageBus.SendBlocked
      * returning, this method calls {@link #destroy()}.
      */
     public void close() {
-        synchronized (lock) {
-            closed = true;
-        }
-        if (pendingCount == 0) {
+        closed = true;
+        if (pendingCount.get() == 0) {
             done.countDown();
         }
         try {
@@ -135,32 +141,91 @@ public final class SourceSession implements ReplyHandler, MessageBus.SendBlocked
     }
 
     private Result sendInternal(Message message) {
-        synchronized (lock) {
-            if (closed) {
-                return new Result(ErrorCode.SEND_QUEUE_CLOSED, "Source session is closed.");
-            }
-            if (throttlePolicy != null) {
-                if (! throttlePolicy.canSend(message, pendingCount)) {
+        if (closed) {
+            return closedResult();
+        }
+        int pending;
+        if (throttlePolicy != null) {
+            throttleLock.lock();
+            try {
+                processThrottledReplies();
+                if ( ! throttlePolicy.canSend(message, pendingCount.get())) {
                     return new Result(ErrorCode.SEND_QUEUE_FULL,
-                            "Too much pending data (" + pendingCount + " messages).");
+                            "Too much pending data (" + pendingCount.get() + " messages).");
+                }
+                pending = pendingCount.incrementAndGet();
+                if (closed) {
+                    return unsendClosed();
                 }
                 message.pushHandler(replyHandler);
                 throttlePolicy.processMessage(message);
-            } else {
-                message.pushHandler(replyHandler);
+            } finally {
+                throttleLock.unlock();
+            }
+        } else {
+            pending = pendingCount.incrementAndGet();
+            if (closed) {
+                return unsendClosed();
             }
-            ++pendingCount;
+            message.pushHandler(replyHandler);
         }
         if (message.getTrace().shouldTrace(TraceLevel.COMPONENT)) {
             message.getTrace().trace(TraceLevel.COMPONENT,
                                      "Source session accepted a " + message.getApproxSize() + " byte message. " +
-                                     pendingCount + " message(s) now pending.");
+                                     pending + " message(s) now pending.");
         }
         message.pushHandler(this);
         sequencer.handleMessage(message);
         return Result.ACCEPTED;
     }
 
+    /**
+     * Reverts counting a message as pending, when {@link #close()} is called concurrently with sending it.
+     * As the pending count is incremented before checking whether this is closed, and close sets the closed flag
+     * before checking the pending count, either the message is rejected here, or it is awaited by close.
+     */
+    private Result unsendClosed() {
+        if (pendingCount.decrementAndGet() == 0) {
+            done.countDown();
+        }
+        return closedResult();
+    }
+
+    private static Result closedResult() {
+        return new Result(ErrorCode.SEND_QUEUE_CLOSED, "Source session is closed.");
+    }
+
+    /** Passes the replies queued while the throttle lock was held to the throttle policy. Requires the lock. */
+    private void processThrottledReplies() {
+        for (Reply reply; (reply = throttledReplies.poll()) != null; ) {
+            throttlePolicy.processReply(reply);
+        }
+    }
+
+    /**
+     * Passes the given reply to the throttle policy, or queues it for the thread holding the throttle lock.
+     * The reply is passed on to the next reply handler right after this, so a queued reply is a detached copy
+     * holding the context, errors and message of the reply as seen by this session.
+     */
+    private void processReply(Reply reply) {
+        if (throttleLock.tryLock()) {
+            try {
+                processThrottledReplies();
+                throttlePolicy.processReply(reply);
+            } finally {
+                throttleLock.unlock();
+            }
+        } else {
+            Reply detached = new EmptyReply();
+            detached.setContext(reply.getContext());
+            detached.setMessage(reply.getMessage());
+            for (int i = 0; i < reply.getNumErrors(); i++) {
+                detached.addError(reply.getError(i));
+            }
+            throttledReplies.add(detached);
+        }
+    }
+
     @Override
     public boolean trySend() {
         if (destroyed.get()) return false;
@@ -242,24 +307,18 @@ public final class SourceSession implements ReplyHandler, MessageBus.SendBlocked
         Result res = send(msg);
         if (isSendQFull(res)) {
             BlockedMessage blockedMessage = new BlockedMessage(msg);
-            synchronized (blockedQ) {
-                blockedQ.add(blockedMessage);
-            }
+            blockedQ.add(blockedMessage);
             res = blockedMessage.waitComplete();
         }
         return res;
     }
 
     private void expireStalledBlockedMessages() {
-        synchronized (blockedQ) {
-            blockedQ.removeIf(BlockedMessage::notifyIfExpired);
-        }
+        blockedQ.removeIf(BlockedMessage::notifyIfExpired);
     }
 
     private BlockedMessage getNextBlockedMessage() {
-        synchronized (blockedQ) {
-            return blockedQ.poll();
-        }
+        return blockedQ.poll();
     }
 
     private void sendBlockedMessages() {
@@ -274,9 +333,7 @@ public final class SourceSession implements ReplyHandler, MessageBus.SendBlocked
                 success = msg.sendOrExpire();
                 if (!success) {
                     // Failed sending, put it back at the head of the Q.
-                    synchronized (blockedQ) {
-                        blockedQ.addFirst(msg);
-                    }
+                    blockedQ.addFirst(msg);
                 } else {
                     msg = getNextBlockedMessage();
                 }
@@ -293,18 +350,15 @@ public final class SourceSession implements ReplyHandler, MessageBus.SendBlocked
             reply.discard();
             return;
         }
-        boolean done;
-        synchronized (lock) {
-            --pendingCount;
-            if (throttlePolicy != null) {
-                throttlePolicy.processReply(reply);
-            }
-            done = (closed && pendingCount == 0);
+        if (throttlePolicy != null) {
+            processReply(reply);
         }
+        int pending = pendingCount.decrementAndGet();
+        boolean done = closed && pending == 0;
         sendBlockedMessages();
         if (reply.getTrace().shouldTrace(TraceLevel.COMPONENT)) {
             reply.getTrace().trace(TraceLevel.COMPONENT,
-                                   "Source session received reply. " + pendingCount + " message(s) now pending.");
+                                   "Source session received reply. " + pending + " message(s) now pending.");
         }
         ReplyHandler handler = reply.popHandler();
         handler.handleReply(reply);
@@ -381,7 +435,7 @@ public final class SourceSession implements ReplyHandler, MessageBus.SendBlocked
 
     /** Returns the number of messages sent that have not been replied to yet */
     public int getPendingCount() {
-        return pendingCount;
+        return pendingCount.get();
     }
 
     /**
@@ -0,0 +1,76 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.messagebus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Measures the throughput of tasks enqueued by many threads to a {@link Messenger}.
+ * Run the main method, optionally with the number of producer threads and the amount of work per task as arguments.
+ *
+ * @author agent
+ */
+public class MessengerBenchmark {
+
+    private static final int tasksPerProducer = 200_000;
+    private static final int rounds = 5;
+
+    private static volatile long sink;
+
+    private final int producers;
+    private final int workPerTask;
+
+    MessengerBenchmark(int producers, int workPerTask) {
+        this.producers = producers;
+        this.workPerTask = workPerTask;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int producers = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int workPerTask = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        new MessengerBenchmark(producers, workPerTask).run();
+    }
+
+    void run() throws InterruptedException {
+        for (int round = 0; round < rounds; round++) { // the first rounds warm up
+            Messenger messenger = new Messenger();
+            messenger.start();
+            double tasksPerSecond = measure(messenger);
+            messenger.destroy();
+            if (round == rounds - 1)
+                System.out.println(String.format(Locale.ENGLISH, "%,.0f tasks/s", tasksPerSecond));
+        }
+    }
+
+    /** Returns the number of tasks per second run when enqueued to the given messenger by all producers */
+    private double measure(Messenger messenger) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(producers * tasksPerProducer);
+        Messenger.Task task = new Messenger.Task() {
+            @Override public void run() { work(); }
+            @Override public void destroy() { done.countDown(); }
+        };
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < tasksPerProducer; i++)
+                    messenger.enqueue(task);
+            }));
+        }
+        long start = System.nanoTime();
+        threads.forEach(Thread::start);
+        for (Thread thread : threads)
+            thread.join();
+        done.await();
+        return producers * tasksPerProducer * 1e9 / (System.nanoTime() - start);
+    }
+
+    private void work() {
+        long value = 0;
+        for (int i = 0; i < workPerTask; i++)
+            value = value * 31 + i;
+        sink += value;
+    }
+
+}
@@ -3,9 +3,14 @@ package com.yahoo.messagebus;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -95,6 +100,47 @@ public class MessengerTestCase {
         assertTrue(tryMessenger(msn));
     }
 
+    @Test
+    void requireThatTasksOfConcurrentProducersAreRunInOrder() throws InterruptedException {
+        Messenger msn = new Messenger();
+        msn.start();
+        int producers = 8, tasksPerProducer = 10000;
+        List<List<Integer>> runs = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(producers * tasksPerProducer);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            List<Integer> run = new ArrayList<>(); // only accessed by the messenger thread
+            runs.add(run);
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < tasksPerProducer; i++) {
+                    int taskIndex = i;
+                    msn.enqueue(new Messenger.Task() {
+                        @Override public void run() { run.add(taskIndex); }
+                        @Override public void destroy() { done.countDown(); }
+                    });
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        assertTrue(done.await(60, TimeUnit.SECONDS));
+        for (List<Integer> run : runs) {
+            assertEquals(IntStream.range(0, tasksPerProducer).boxed().toList(), run);
+        }
+        assertTrue(msn.destroy());
+    }
+
+    @Test
+    void requireThatTasksAreDestroyedAfterDestroy() {
+        Messenger msn = new Messenger();
+        msn.start();
+        assertTrue(msn.destroy());
+        assertFalse(msn.destroy());
+        MyTask task = new MyTask();
+        msn.enqueue(task);
+        assertEquals(1, task.runLatch.getCount());
+        assertEquals(0, task.destroyLatch.getCount());
+    }
+
     private static boolean tryMessenger(Messenger msn) {
         MyTask task = new MyTask();
         msn.enqueue(task);
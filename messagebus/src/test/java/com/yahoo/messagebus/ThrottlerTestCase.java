@@ -5,6 +5,7 @@ import com.yahoo.concurrent.ManualTimer;
 import com.yahoo.jrt.ListenFailedException;
 import com.yahoo.jrt.slobrok.server.Slobrok;
 import com.yahoo.messagebus.network.rpc.test.TestServer;
+import com.yahoo.messagebus.routing.Route;
 import com.yahoo.messagebus.routing.RoutingTableSpec;
 import com.yahoo.messagebus.test.QueueAdapter;
 import com.yahoo.messagebus.test.Receptor;
@@ -15,7 +16,12 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -126,6 +132,51 @@ public class ThrottlerTestCase {
         dst_s.destroy();
     }
 
+    @Test
+    void testConcurrentSendersAndReplies() throws InterruptedException {
+        SourceSessionParams params = new SourceSessionParams().setTimeout(600.0);
+        StaticThrottlePolicy policy = new StaticThrottlePolicy();
+        policy.setMaxPendingCount(20);
+        params.setThrottlePolicy(policy);
+
+        int threads = 8, messagesPerThread = 250;
+        CountDownLatch replied = new CountDownLatch(threads * messagesPerThread);
+        AtomicInteger errors = new AtomicInteger();
+        SourceSession src_s = src.mb.createSourceSession(reply -> {
+            if (reply.hasErrors()) errors.incrementAndGet();
+            replied.countDown();
+        }, params);
+
+        AtomicReference<DestinationSession> dst_s = new AtomicReference<>();
+        dst_s.set(dst.mb.createDestinationSession("session", true, message -> dst_s.get().acknowledge(message)));
+        src.waitSlobrok("test/dst/session", 1);
+
+        List<Thread> senders = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            senders.add(new Thread(() -> {
+                for (int j = 0; j < messagesPerThread; j++) {
+                    try {
+                        assertTrue(src_s.sendBlocking(new SimpleMessage("msg").setRoute(Route.parse("dst"))).isAccepted());
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }));
+        }
+        senders.forEach(Thread::start);
+        for (Thread sender : senders) sender.join();
+        assertTrue(replied.await(60, TimeUnit.SECONDS));
+        assertEquals(0, errors.get());
+        assertEquals(0, src_s.getPendingCount());
+
+        // All replies, including those queued while the throttle lock was held, have reached the policy
+        policy.setMaxPendingSize(1);
+        assertTrue(src_s.send(new SimpleMessage("msg"), "test").isAccepted());
+
+        src_s.close();
+        dst_s.get().destroy();
+    }
+
     @Test
     void testDynamicWindowSize() {
         ManualTimer timer = new ManualTimer();
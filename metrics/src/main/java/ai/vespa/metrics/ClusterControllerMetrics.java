@@ -18,6 +18,8 @@ public enum ClusterControllerMetrics implements VespaMetrics {
     WORK_MS("cluster-controller.work-ms", Unit.MILLISECOND, "Time used for actual work"),
     IS_MASTER("cluster-controller.is-master", Unit.BINARY, "1 if this cluster controller is currently the master, or 0 if not"),
     REMOTE_TASK_QUEUE_SIZE("cluster-controller.remote-task-queue.size", Unit.OPERATION, "Number of remote tasks queued"),
+    CLUSTER_STATE_BUNDLE_ENCODE_TIME_MS("cluster-controller.cluster-state-bundle.encode-time-ms", Unit.MILLISECOND, "Time used to encode a cluster state bundle for sending to content nodes"),
+    CLUSTER_STATE_BUNDLE_BYTES_SENT("cluster-controller.cluster-state-bundle.bytes-sent", Unit.BYTE, "Size of a cluster state bundle sent to a content node"),
     // TODO(hakonhall): Update this name once persistent "count" metrics has been implemented.
     // DO NOT RELY ON THIS METRIC YET.
     NODE_EVENT_COUNT("cluster-controller.node-event.count", Unit.OPERATION, "Number of node events"),
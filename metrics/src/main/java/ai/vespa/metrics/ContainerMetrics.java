@@ -89,6 +89,7 @@ public enum ContainerMetrics implements VespaMetrics {
     
     HTTPAPI_LATENCY("httpapi_latency", Unit.MILLISECOND, "Duration for requests to the HTTP document APIs"),
     HTTPAPI_PENDING("httpapi_pending", Unit.OPERATION, "Document operations pending execution"),
+    HTTPAPI_QUEUED_OPERATIONS("httpapi_queued_operations", Unit.OPERATION, "Document operations waiting to be dispatched, per dispatch shard of /document/v1"),
     HTTPAPI_NUM_OPERATIONS("httpapi_num_operations", Unit.OPERATION, "Total number of document operations performed"),
     HTTPAPI_NUM_UPDATES("httpapi_num_updates", Unit.OPERATION, "Document update operations performed"),
     HTTPAPI_NUM_REMOVES("httpapi_num_removes", Unit.OPERATION, "Document remove operations performed"),
@@ -143,6 +144,10 @@ public enum ContainerMetrics implements VespaMetrics {
     TOTAL_HITS_PER_QUERY("totalhits_per_query", Unit.HIT_PER_QUERY, "The total number of documents found to match queries"),
     EMPTY_RESULTS("empty_results", Unit.OPERATION, "Number of queries matching no documents"),
     REQUESTS_OVER_QUOTA("requestsOverQuota", Unit.OPERATION, "The number of requests rejected due to exceeding quota"),
+    RESULT_CACHE_HITS("result_cache.hits", Unit.QUERY, "The number of queries answered from the result cache"),
+    RESULT_CACHE_MISSES("result_cache.misses", Unit.QUERY, "The number of queries which could use the result cache but were not found in it"),
+    RESULT_CACHE_FILL_HITS("result_cache.fill_hits", Unit.OPERATION, "The number of fills of cached results served from the result cache"),
+    RESULT_CACHE_FILL_MISSES("result_cache.fill_misses", Unit.OPERATION, "The number of fills of cached results which were not found in the result cache"),
     
     RELEVANCE_AT_1("relevance.at_1", Unit.SCORE, "The relevance of hit number 1"),
     RELEVANCE_AT_3("relevance.at_3", Unit.SCORE, "The relevance of hit number 3"),
@@ -205,7 +210,9 @@ public enum ContainerMetrics implements VespaMetrics {
     SERVER_STARTED_MILLIS("serverStartedMillis", Unit.MILLISECOND, "Time since the service was started"),
 
     EMBEDDER_LATENCY("embedder.latency", Unit.MILLISECOND, "Time spent creating an embedding"),
-    EMBEDDER_SEQUENCE_LENGTH("embedder.sequence_length", Unit.BYTE, "Size of sequence produced by tokenizer");
+    EMBEDDER_SEQUENCE_LENGTH("embedder.sequence_length", Unit.BYTE, "Size of sequence produced by tokenizer"),
+    EMBEDDER_CACHE_HITS("embedder.cache.hits", Unit.OPERATION, "Number of embeddings found in the embedding cache"),
+    EMBEDDER_CACHE_MISSES("embedder.cache.misses", Unit.OPERATION, "Number of embeddings not found in the embedding cache");
 
     private final String name;
     private final Unit unit;
@@ -146,6 +146,7 @@ public class Vespa9VespaMetricSet {
 
         addMetric(metrics, ContainerMetrics.HTTPAPI_LATENCY, EnumSet.of(max, sum, count));
         addMetric(metrics, ContainerMetrics.HTTPAPI_PENDING, EnumSet.of(max, sum, count));
+        addMetric(metrics, ContainerMetrics.HTTPAPI_QUEUED_OPERATIONS, EnumSet.of(max, sum, count));
         addMetric(metrics, ContainerMetrics.HTTPAPI_NUM_OPERATIONS.rate());
         addMetric(metrics, ContainerMetrics.HTTPAPI_NUM_UPDATES.rate());
         addMetric(metrics, ContainerMetrics.HTTPAPI_NUM_REMOVES.rate());
@@ -229,6 +230,8 @@ public class Vespa9VespaMetricSet {
         addMetric(metrics, ClusterControllerMetrics.WORK_MS, EnumSet.of(sum, count));
 
         addMetric(metrics, ClusterControllerMetrics.IS_MASTER.max());
+        addMetric(metrics, ClusterControllerMetrics.CLUSTER_STATE_BUNDLE_ENCODE_TIME_MS, EnumSet.of(max, sum, count));
+        addMetric(metrics, ClusterControllerMetrics.CLUSTER_STATE_BUNDLE_BYTES_SENT, EnumSet.of(max, sum, count));
 
         // TODO(hakonhall): Update this name once persistent "count" metrics has been implemented.
         // DO NOT RELY ON THIS METRIC YET.
@@ -119,6 +119,8 @@ public class VespaMetricSet {
         // Embedders
         addMetric(metrics, ContainerMetrics.EMBEDDER_LATENCY, EnumSet.of(max, sum, count));
         addMetric(metrics, ContainerMetrics.EMBEDDER_SEQUENCE_LENGTH, EnumSet.of(max, sum, count));
+        addMetric(metrics, ContainerMetrics.EMBEDDER_CACHE_HITS.count());
+        addMetric(metrics, ContainerMetrics.EMBEDDER_CACHE_MISSES.count());
 
         return metrics;
     }
@@ -161,6 +163,7 @@ public class VespaMetricSet {
 
         addMetric(metrics, ContainerMetrics.HTTPAPI_LATENCY, EnumSet.of(max, sum, count));
         addMetric(metrics, ContainerMetrics.HTTPAPI_PENDING, EnumSet.of(max, sum, count));
+        addMetric(metrics, ContainerMetrics.HTTPAPI_QUEUED_OPERATIONS, EnumSet.of(max, sum, count));
         addMetric(metrics, ContainerMetrics.HTTPAPI_NUM_OPERATIONS.rate());
         addMetric(metrics, ContainerMetrics.HTTPAPI_NUM_UPDATES.rate());
         addMetric(metrics, ContainerMetrics.HTTPAPI_NUM_REMOVES.rate());
@@ -265,6 +268,8 @@ public class VespaMetricSet {
 
         addMetric(metrics, ClusterControllerMetrics.IS_MASTER, EnumSet.of(max, last)); // TODO: Vespa 9: Remove last
         addMetric(metrics, ClusterControllerMetrics.REMOTE_TASK_QUEUE_SIZE.last());
+        addMetric(metrics, ClusterControllerMetrics.CLUSTER_STATE_BUNDLE_ENCODE_TIME_MS, EnumSet.of(max, sum, count));
+        addMetric(metrics, ClusterControllerMetrics.CLUSTER_STATE_BUNDLE_BYTES_SENT, EnumSet.of(max, sum, count));
         // TODO(hakonhall): Update this name once persistent "count" metrics has been implemented.
         // DO NOT RELY ON THIS METRIC YET.
         addMetric(metrics, ClusterControllerMetrics.NODE_EVENT_COUNT.baseName());
@@ -312,6 +317,10 @@ public class VespaMetricSet {
         addMetric(metrics, ContainerMetrics.TOTAL_HITS_PER_QUERY, EnumSet.of(sum, count, max, ninety_five_percentile, ninety_nine_percentile));
         addMetric(metrics, ContainerMetrics.EMPTY_RESULTS.rate());
         addMetric(metrics, ContainerMetrics.REQUESTS_OVER_QUOTA, EnumSet.of(rate, count));
+        addMetric(metrics, ContainerMetrics.RESULT_CACHE_HITS.count());
+        addMetric(metrics, ContainerMetrics.RESULT_CACHE_MISSES.count());
+        addMetric(metrics, ContainerMetrics.RESULT_CACHE_FILL_HITS.count());
+        addMetric(metrics, ContainerMetrics.RESULT_CACHE_FILL_MISSES.count());
 
         addMetric(metrics, ContainerMetrics.RELEVANCE_AT_1, EnumSet.of(sum, count));
         addMetric(metrics, ContainerMetrics.RELEVANCE_AT_3, EnumSet.of(sum, count));
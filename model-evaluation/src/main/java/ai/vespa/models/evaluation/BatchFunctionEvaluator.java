@@ -0,0 +1,158 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package ai.vespa.models.evaluation;
+
+import com.yahoo.searchlib.rankingexpression.ExpressionFunction;
+import com.yahoo.searchlib.rankingexpression.evaluation.TensorValue;
+import com.yahoo.tensor.Tensor;
+import com.yahoo.tensor.TensorType;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * An evaluator which can be used to evaluate a single function once for each row of a batch of inputs.
+ * Inputs are bound by column, as one value per row for each argument, and all columns must have the same number of rows.
+ *
+ * ONNX models invoked by the function are evaluated once for the entire batch when they are configured for batching
+ * and their inputs and outputs have an unbound first (batch) dimension, and once per row otherwise.
+ *
+ * @author agent
+ */
+public class BatchFunctionEvaluator {
+
+    private final ExpressionFunction function;
+
+    /** The context prototype of the function, from which a context is copied for each row */
+    private final LazyArrayContext prototype;
+
+    private final Map<String, List<Tensor>> columns = new LinkedHashMap<>();
+    private int rows = -1;
+    private boolean evaluated = false;
+
+    BatchFunctionEvaluator(ExpressionFunction function, LazyArrayContext prototype) {
+        this.function = function;
+        this.prototype = prototype.copy();
+    }
+
+    /**
+     * Binds the given variable referred in this expression to the given values, one per row.
+     *
+     * @param name the variable to bind
+     * @param values the values this becomes bound to, one for each row
+     * @return this for chaining
+     */
+    public BatchFunctionEvaluator bind(String name, List<Tensor> values) {
+        if (evaluated)
+            throw new IllegalStateException("Cannot bind a new value in a used evaluator");
+        TensorType requiredType = function.getArgumentType(name);
+        if (requiredType == null)
+            throw new IllegalArgumentException("'" + name + "' is not a valid argument in " + function +
+                                               ". Expected arguments: " +
+                    function.argumentTypes().entrySet().stream().sorted(Map.Entry.comparingByKey())
+                            .map(e -> e.getKey() + ": " + e.getValue())
+                            .collect(Collectors.joining(", ")));
+        if (rows >= 0 && values.size() != rows)
+            throw new IllegalArgumentException("'" + name + "' has " + values.size() + " rows, but " + rows +
+                                               " rows are already bound");
+        for (Tensor value : values) {
+            if ( ! value.type().isAssignableTo(requiredType))
+                throw new IllegalArgumentException("'" + name + "' must be of type " + requiredType + ", not " + value.type());
+        }
+        columns.put(name, List.copyOf(values));
+        rows = values.size();
+        return this;
+    }
+
+    /**
+     * Binds the given variable referred in this expression to the given values, one per row.
+     * This is equivalent to binding each value as a tensor of the empty type.
+     *
+     * @param name the variable to bind
+     * @param values the values this becomes bound to, one for each row
+     * @return this for chaining
+     */
+    public BatchFunctionEvaluator bind(String name, double[] values) {
+        List<Tensor> tensors = new ArrayList<>(values.length);
+        for (double value : values)
+            tensors.add(Tensor.Builder.of(TensorType.empty).cell(value).build());
+        return bind(name, tensors);
+    }
+
+    /**
+     * Sets the default value to use for variables which are not bound
+     *
+     * @param value the default value
+     * @return this for chaining
+     */
+    public BatchFunctionEvaluator setMissingValue(Tensor value) {
+        if (evaluated)
+            throw new IllegalStateException("Cannot change the missing value in a used evaluator");
+        prototype.setMissingValue(value);
+        return this;
+    }
+
+    /**
+     * Sets the default value to use for variables which are not bound
+     *
+     * @param value the default value
+     * @return this for chaining
+     */
+    public BatchFunctionEvaluator setMissingValue(double value) {
+        return setMissingValue(Tensor.Builder.of(TensorType.empty).cell(value).build());
+    }
+
+    /** Evaluates the function for each row and returns the results in the order of the rows */
+    public List<Tensor> evaluate() {
+        if (rows < 0)
+            throw new IllegalStateException("No values are bound, so the number of rows is unknown");
+        function.argumentTypes().entrySet().stream().sorted(Map.Entry.comparingByKey())
+                .forEach(argument -> checkArgument(argument.getKey(), argument.getValue()));
+        evaluated = true;
+
+        List<LazyArrayContext> contexts = new ArrayList<>(rows);
+        for (int row = 0; row < rows; row++) {
+            LazyArrayContext context = prototype.copy();
+            for (Map.Entry<String, List<Tensor>> column : columns.entrySet())
+                context.put(column.getKey(), new TensorValue(column.getValue().get(row)));
+            contexts.add(context);
+        }
+        evaluateOnnxModels(contexts);
+        List<Tensor> results = new ArrayList<>(rows);
+        for (LazyArrayContext context : contexts)
+            results.add(function.getBody().evaluate(context).asTensor());
+        return results;
+    }
+
+    private void checkArgument(String name, TensorType type) {
+        if (prototype.isMissing(name))
+            throw new IllegalStateException("Missing argument '" + name + "': Must be bound to a value of type " + type);
+        if ( ! columns.containsKey(name) && ! prototype.defaultValue().type().isAssignableTo(type))
+            throw new IllegalStateException("Argument '" + name + "' must be bound to values of type " + type);
+    }
+
+    /** Evaluates the ONNX models of the function for all rows, and adds the results to the context of each row */
+    private void evaluateOnnxModels(List<LazyArrayContext> contexts) {
+        for (Map.Entry<String, OnnxModel> entry : prototype.onnxModels().entrySet()) {
+            String onnxFeature = entry.getKey();
+            OnnxModel onnxModel = entry.getValue();
+            List<Map<String, Tensor>> inputs = new ArrayList<>(contexts.size());
+            for (LazyArrayContext context : contexts) {
+                Map<String, Tensor> rowInputs = new HashMap<>();
+                for (String input : onnxModel.inputs().keySet())
+                    rowInputs.put(input, context.get(input).asTensor());
+                inputs.add(rowInputs);
+            }
+            List<Tensor> results = onnxModel.evaluate(inputs, FunctionEvaluator.onnxOutputName(function, onnxFeature));
+            for (int row = 0; row < contexts.size(); row++)
+                contexts.get(row).put(onnxFeature, new TensorValue(results.get(row)));
+        }
+    }
+
+    /** Returns the function evaluated by this */
+    public ExpressionFunction function() { return function; }
+
+}
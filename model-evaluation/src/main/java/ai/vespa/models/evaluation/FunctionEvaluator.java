@@ -122,24 +122,28 @@ public class FunctionEvaluator {
     private void evaluateOnnxModels() {
         for (Map.Entry<String, OnnxModel> entry : context().onnxModels().entrySet()) {
             String onnxFeature = entry.getKey();
-            String outputName = function.getName(); // Function name is output of model (sometimes)
-            int idx = onnxFeature.indexOf(").");
-            if (idx > 0 && idx + 2 < onnxFeature.length()) {
-                // explicitly specified as onnx(modelname).outputname ; pick the last part
-                outputName = onnxFeature.substring(idx+2);
-            }
             OnnxModel onnxModel = entry.getValue();
             if (context.get(onnxFeature).equals(context.defaultValue())) {
                 Map<String, Tensor> inputs = new HashMap<>();
                 for (Map.Entry<String, TensorType> input: onnxModel.inputs().entrySet()) {
                     inputs.put(input.getKey(), context.get(input.getKey()).asTensor());
                 }
-                Tensor result = onnxModel.evaluate(inputs, outputName);
+                Tensor result = onnxModel.evaluate(inputs, onnxOutputName(function, onnxFeature));
                 context.put(onnxFeature, new TensorValue(result));
             }
         }
     }
 
+    /** Returns the name of the output of the ONNX model invoked by the given feature in the given function */
+    static String onnxOutputName(ExpressionFunction function, String onnxFeature) {
+        int idx = onnxFeature.indexOf(").");
+        if (idx > 0 && idx + 2 < onnxFeature.length()) {
+            // explicitly specified as onnx(modelname).outputname ; pick the last part
+            return onnxFeature.substring(idx+2);
+        }
+        return function.getName(); // Function name is output of model (sometimes)
+    }
+
     /** Returns the function evaluated by this */
     public ExpressionFunction function() { return function; }
 
@@ -245,7 +245,9 @@ public final class LazyArrayContext extends Context implements ContextIndex {
             Value[] valueCopy = new Value[values.length];
             for (int i = 0; i < values.length; i++)
                 valueCopy[i] = values[i] instanceof LazyValue ? ((LazyValue) values[i]).copyFor(context) : values[i];
-            return new IndexedBindings(nameToIndex, valueCopy, arguments, onnxModels);
+            IndexedBindings copy = new IndexedBindings(nameToIndex, valueCopy, arguments, onnxModels);
+            copy.missingValue = missingValue;
+            return copy;
         }
 
     }
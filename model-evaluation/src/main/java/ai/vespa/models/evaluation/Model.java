@@ -61,7 +61,8 @@ public class Model implements AutoCloseable {
              Map.of(),
              Map.of(),
              List.of(),
-             List.of());
+             List.of(),
+             false);
     }
 
     static class OnnxReplacer extends ExpressionTransformer<TransformContext> {
@@ -125,7 +126,8 @@ public class Model implements AutoCloseable {
           Map<FunctionReference, ExpressionFunction> referencedFunctions,
           Map<String, TensorType> declaredTypes,
           List<Constant> constants,
-          List<OnnxModel> onnxModels) {
+          List<OnnxModel> onnxModels,
+          boolean compileExpressions) {
         this.name = name;
 
         var bindingExtractor = new BindingExtractor(referencedFunctions, onnxModels);
@@ -170,6 +172,7 @@ public class Model implements AutoCloseable {
         }
         this.contextPrototypes = Map.copyOf(contextBuilder);
         // Optimize free functions
+        expressionOptimizer.setCompiling(compileExpressions);
         this.functions = List.copyOf(functions.entrySet()
                                      .stream()
                                      .map(f -> optimize(f.getValue(),
@@ -245,21 +248,41 @@ public class Model implements AutoCloseable {
      * @throws IllegalArgumentException if the function is not present, or not uniquely identified by the names given
      */
     public FunctionEvaluator evaluatorOf(String ... names) {  // TODO: Parameter overloading?
+        return evaluatorOf(functionOf(names));
+    }
+
+    /**
+     * Returns an evaluator which can be used to evaluate the given function in a single thread once
+     * for each row of a batch of inputs.
+     *
+     * Usage:
+     * <code>List&lt;Tensor&gt; results = model.batchEvaluatorOf("myFunction").bind("foo", values).bind("bar", values).evaluate()</code>
+     *
+     * @param names the names identifying the function, as in {@link #evaluatorOf}
+     * @throws IllegalArgumentException if the function is not present, or not uniquely identified by the names given
+     */
+    public BatchFunctionEvaluator batchEvaluatorOf(String ... names) {
+        ExpressionFunction function = functionOf(names);
+        return new BatchFunctionEvaluator(function, requireContextPrototype(function.getName()));
+    }
+
+    /** Returns the function identified by the given names, see {@link #evaluatorOf} */
+    private ExpressionFunction functionOf(String ... names) {
         if (names.length == 0) {
             if (functions.size() > 1)
                 throwUndeterminedFunction("More than one function is available in " + this + ", but no name is given");
-            return evaluatorOf(functions.get(0));
+            return functions.get(0);
         }
         else if (names.length == 1) {
             String name = names[0];
             ExpressionFunction function = function(name);
-            if (function != null) return evaluatorOf(function);
+            if (function != null) return function;
 
             // Check if the name is a signature
             List<ExpressionFunction> functionsStartingByName =
                     functions.stream().filter(f -> f.getName().startsWith(name + ".")).toList();
             if (functionsStartingByName.size() == 1)
-                return evaluatorOf(functionsStartingByName.get(0));
+                return functionsStartingByName.get(0);
             if (functionsStartingByName.size() > 1)
                 throwUndeterminedFunction("Multiple functions start by '" + name + "' in " + this);
 
@@ -267,24 +290,24 @@ public class Model implements AutoCloseable {
             List<ExpressionFunction> functionsEndingByName =
                     functions.stream().filter(f -> f.getName().endsWith("." + name)).toList();
             if (functionsEndingByName.size() == 1)
-                return evaluatorOf(functionsEndingByName.get(0));
+                return functionsEndingByName.get(0);
             if (functionsEndingByName.size() > 1)
                 throwUndeterminedFunction("Multiple functions called '" + name + "' in " + this);
 
             // To handle TensorFlow conversion to ONNX
             if (name.startsWith("serving_default")) {
-                return evaluatorOf("default" + name.substring("serving_default".length()));
+                return functionOf("default" + name.substring("serving_default".length()));
             }
 
             // To handle backward compatibility with ONNX conversion to native Vespa ranking expressions
             if (name.startsWith("default.")) {
-                return evaluatorOf(name.substring("default.".length()));
+                return functionOf(name.substring("default.".length()));
             }
 
             throwUndeterminedFunction("No function '" + name + "' in " + this);
         }
         else if (names.length == 2) {
-            return evaluatorOf(names[0] + "." + names[1]);
+            return functionOf(names[0] + "." + names[1]);
         }
         throw new IllegalArgumentException("No more than 2 names can be given when choosing a function, got " +
                                            Arrays.toString(names));
@@ -5,6 +5,8 @@ import ai.vespa.modelintegration.evaluator.OnnxEvaluator;
 import ai.vespa.modelintegration.evaluator.OnnxEvaluatorOptions;
 import ai.vespa.modelintegration.evaluator.OnnxRuntime;
 import com.yahoo.searchlib.rankingexpression.rule.ExpressionNode;
+import com.yahoo.tensor.DimensionSizes;
+import com.yahoo.tensor.IndexedTensor;
 import com.yahoo.tensor.Tensor;
 import com.yahoo.tensor.TensorType;
 
@@ -66,6 +68,7 @@ class OnnxModel implements AutoCloseable {
 
     private OnnxEvaluator evaluator;
     private final Map<String, ExpressionNode> exprPerOutput = new HashMap<>();
+    private boolean batching = false;
 
     OnnxModel(String name, File modelFile, OnnxEvaluatorOptions options, OnnxRuntime onnx) {
         this.name = name;
@@ -78,6 +81,11 @@ class OnnxModel implements AutoCloseable {
         return name;
     }
 
+    /** Sets whether the first dimension of all inputs and outputs of this is a batch dimension. Default is false. */
+    void setBatching(boolean batching) {
+        this.batching = batching;
+    }
+
     public void load() {
         if (evaluator == null) {
             evaluator = onnx.evaluatorOf(modelFile.getPath(), options);
@@ -174,6 +182,43 @@ class OnnxModel implements AutoCloseable {
     }
 
     public Tensor evaluate(Map<String, Tensor> inputs, String output) {
+        return unmappedEvaluate(mapInputs(inputs), outputSpec(output).onnxName);
+    }
+
+    /**
+     * Evaluates this model for each of the given rows of inputs.
+     * The rows are evaluated in a single inference when this is configured for batching, all inputs and the output
+     * have an unbound first (batch) dimension, the row inputs can be concatenated along it, and the output can be
+     * split back into the rows along it. Otherwise, each row is evaluated by itself.
+     *
+     * @return the output for each row, in the order of the rows
+     */
+    List<Tensor> evaluate(List<Map<String, Tensor>> rows, String output) {
+        OutputSpec outputSpec = outputSpec(output);
+        List<Map<String, Tensor>> mappedRows = new ArrayList<>(rows.size());
+        for (var row : rows)
+            mappedRows.add(mapInputs(row));
+
+        long[] rowSizes = batching && rows.size() > 1 ? batchSizesOf(mappedRows, outputSpec) : null;
+        if (rowSizes != null) {
+            var batch = new HashMap<String, Tensor>();
+            for (var spec : inputSpecs) {
+                List<IndexedTensor> column = new ArrayList<>(rows.size());
+                for (var row : mappedRows)
+                    column.add((IndexedTensor) row.get(spec.onnxName));
+                batch.put(spec.onnxName, concatenate(column));
+            }
+            List<Tensor> results = split(unmappedEvaluate(batch, outputSpec.onnxName), rowSizes);
+            if (results != null) return results;
+        }
+
+        List<Tensor> results = new ArrayList<>(rows.size());
+        for (var row : mappedRows)
+            results.add(unmappedEvaluate(row, outputSpec.onnxName));
+        return results;
+    }
+
+    private Map<String, Tensor> mapInputs(Map<String, Tensor> inputs) {
         var mapped = new HashMap<String, Tensor>();
         for (var spec : inputSpecs) {
             Tensor val = inputs.get(spec.source);
@@ -182,16 +227,118 @@ class OnnxModel implements AutoCloseable {
             }
             mapped.put(spec.onnxName, val);
         }
-        String onnxName = null;
+        return mapped;
+    }
+
+    private OutputSpec outputSpec(String output) {
+        OutputSpec outputSpec = null;
         for (var spec : outputSpecs) {
             if (spec.outputAs.equals(output)) {
-                onnxName = spec.onnxName;
+                outputSpec = spec;
             }
         }
-        if (onnxName == null) {
+        if (outputSpec == null) {
             throw new IllegalArgumentException("evaluate ONNX model " + name() + ": no output available as: " + output);
         }
-        return unmappedEvaluate(mapped, onnxName);
+        return outputSpec;
+    }
+
+    /**
+     * Returns the size of the batch dimension of each row if the given rows can be evaluated as a single batch,
+     * or null if they cannot.
+     */
+    private long[] batchSizesOf(List<Map<String, Tensor>> rows, OutputSpec output) {
+        if (inputSpecs.isEmpty() || ! hasBatchDimension(output.expectedType)) return null;
+        long[] rowSizes = new long[rows.size()];
+        for (var spec : inputSpecs) {
+            if ( ! hasBatchDimension(spec.wantedType)) return null;
+            DimensionSizes first = null;
+            for (int i = 0; i < rows.size(); i++) {
+                if ( ! (rows.get(i).get(spec.onnxName) instanceof IndexedTensor tensor)) return null;
+                if (tensor.type().rank() != spec.wantedType.rank()) return null;
+                if ( ! tensor.type().dimensions().get(0).name().equals(spec.wantedType.dimensions().get(0).name())) return null;
+                DimensionSizes sizes = tensor.dimensionSizes();
+                if (first == null)
+                    first = sizes;
+                for (int d = 1; d < sizes.dimensions(); d++) {
+                    if (sizes.size(d) != first.size(d)) return null;
+                }
+                if (spec == inputSpecs.get(0))
+                    rowSizes[i] = sizes.size(0);
+                else if (rowSizes[i] != sizes.size(0))
+                    return null;
+            }
+        }
+        return rowSizes;
+    }
+
+    private static boolean hasBatchDimension(TensorType type) {
+        if (type == null || type.rank() == 0) return false;
+        TensorType.Dimension dimension = type.dimensions().get(0);
+        return dimension.isIndexed() && dimension.size().isEmpty();
+    }
+
+    /** Concatenates the given tensors, which have equal types except for the size of the first dimension, along it */
+    private static Tensor concatenate(List<IndexedTensor> tensors) {
+        long total = 0;
+        long cells = 0;
+        for (var tensor : tensors) {
+            total += tensor.dimensionSizes().size(0);
+            cells += tensor.size();
+        }
+        IndexedTensor first = tensors.get(0);
+        double[] values = new double[Math.toIntExact(cells)];
+        int offset = 0;
+        for (var tensor : tensors) {
+            for (long i = 0; i < tensor.size(); i++)
+                values[offset++] = tensor.get(i);
+        }
+        return IndexedTensor.Builder.of(withFirstDimensionSize(first.type(), total),
+                                        withFirstDimensionSize(first.dimensionSizes(), total),
+                                        values).build();
+    }
+
+    /**
+     * Splits the given tensor into tensors having the given sizes of the first dimension,
+     * or returns null if its first dimension does not have the total size of the rows.
+     */
+    private static List<Tensor> split(Tensor result, long[] rowSizes) {
+        long total = 0;
+        for (long rowSize : rowSizes)
+            total += rowSize;
+        if ( ! (result instanceof IndexedTensor tensor) || tensor.type().rank() == 0 || tensor.dimensionSizes().size(0) != total)
+            return null;
+        long cellsPerBatchEntry = total == 0 ? 0 : tensor.size() / total;
+        List<Tensor> results = new ArrayList<>(rowSizes.length);
+        long offset = 0;
+        for (long rowSize : rowSizes) {
+            double[] values = new double[Math.toIntExact(rowSize * cellsPerBatchEntry)];
+            for (int i = 0; i < values.length; i++)
+                values[i] = tensor.get(offset++);
+            results.add(IndexedTensor.Builder.of(withFirstDimensionSize(tensor.type(), rowSize),
+                                                 withFirstDimensionSize(tensor.dimensionSizes(), rowSize),
+                                                 values).build());
+        }
+        return results;
+    }
+
+    private static TensorType withFirstDimensionSize(TensorType type, long size) {
+        var builder = new TensorType.Builder(type.valueType());
+        for (var dimension : type.dimensions()) {
+            if (dimension == type.dimensions().get(0))
+                builder.indexed(dimension.name(), size);
+            else
+                builder.dimension(dimension);
+        }
+        return builder.build();
+    }
+
+    private static DimensionSizes withFirstDimensionSize(DimensionSizes sizes, long size) {
+        var builder = new DimensionSizes.Builder(sizes.dimensions());
+        builder.set(0, size);
+        for (int i = 1; i < sizes.dimensions(); i++)
+            builder.set(i, sizes.size(i));
+        return builder.build();
     }
 
     Tensor unmappedEvaluate(Map<String, Tensor> inputs, String onnxOutputName) {
@@ -178,7 +178,8 @@ public class RankProfilesConfigImporter {
             referencedFunctions.remove(ref);
         }
         try {
-            return new Model(profile.name(), functions, referencedFunctions, declaredTypes, constants, onnxModels);
+            return new Model(profile.name(), functions, referencedFunctions, declaredTypes, constants, onnxModels,
+                             profile.compileexpressions());
         }
         catch (RuntimeException e) {
             throw new IllegalArgumentException("Could not load model '" + profile.name() + "'", e);
@@ -213,6 +214,7 @@ public class RankProfilesConfigImporter {
             options.setIntraOpThreads(onnxModelConfig.stateless_intraop_threads());
             options.setGpuDevice(onnxModelConfig.gpu_device(), onnxModelConfig.gpu_device_required());
             var m =  new OnnxModel(name, file, options, onnx);
+            m.setBatching(onnxModelConfig.batching());
             for (var spec : onnxModelConfig.input()) {
                 m.addInputMapping(spec.name(), spec.source());
             }
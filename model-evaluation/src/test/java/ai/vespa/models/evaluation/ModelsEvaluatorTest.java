@@ -6,6 +6,7 @@ import com.yahoo.filedistribution.fileacquirer.MockFileAcquirer;
 import com.yahoo.path.Path;
 import com.yahoo.searchlib.rankingexpression.ExpressionFunction;
 import com.yahoo.searchlib.rankingexpression.RankingExpression;
+import com.yahoo.searchlib.rankingexpression.evaluation.compilation.CompiledNode;
 import com.yahoo.tensor.Tensor;
 import com.yahoo.tensor.TensorType;
 import com.yahoo.vespa.config.search.RankProfilesConfig;
@@ -18,7 +19,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * @author bratseth
@@ -37,6 +40,48 @@ public class ModelsEvaluatorTest {
         assertEquals(32.0, function.evaluate().asDouble(), delta);
     }
 
+    @Test
+    public void testBatchEvaluation() {
+        ModelsEvaluator models = createModels();
+        BatchFunctionEvaluator function = models.batchEvaluatorOf("macros", "secondphase");
+        function.bind("match", new double[] { 3, 1, 0 });
+        function.bind("rankBoost", new double[] { 5, 2, 0 });
+        List<Tensor> results = function.evaluate();
+        assertEquals(3, results.size());
+        assertEquals(32.0, results.get(0).asDouble(), delta);
+        assertEquals(12.0, results.get(1).asDouble(), delta);
+        assertEquals(0.0, results.get(2).asDouble(), delta);
+
+        function = models.batchEvaluatorOf("macros", "secondphase");
+        function.setMissingValue(5);
+        function.bind("match", new double[] { 3, 1 });
+        results = function.evaluate();
+        assertEquals(32.0, results.get(0).asDouble(), delta);
+        assertEquals(24.0, results.get(1).asDouble(), delta);
+
+        try {
+            models.batchEvaluatorOf("macros", "secondphase").bind("match", new double[] { 3, 1 })
+                                                             .bind("rankBoost", new double[] { 5 });
+            fail("Expected exception");
+        }
+        catch (IllegalArgumentException e) {
+            assertEquals("'rankBoost' has 1 rows, but 2 rows are already bound", Exceptions.toMessageString(e));
+        }
+    }
+
+    /** Tests a function defined as 4 * (var1 + var2) */
+    @Test
+    public void testCompilingExpressions() {
+        assertFalse(createModels().requireModel("macros").function("fourtimessum").getBody().getRoot() instanceof CompiledNode);
+
+        ModelsEvaluator models = createModels(true);
+        assertTrue(models.requireModel("macros").function("fourtimessum").getBody().getRoot() instanceof CompiledNode);
+        FunctionEvaluator function = models.evaluatorOf("macros", "fourtimessum");
+        function.bind("var1", 3);
+        function.bind("var2", 5);
+        assertEquals(32.0, function.evaluate().asDouble(), delta);
+    }
+
     /** Tests a function defined as 4 * (var1 + var2) */
     @Test
     public void testSettingMissingValue() {
@@ -135,9 +180,16 @@ public class ModelsEvaluatorTest {
     // TODO: Test argument-less function
     // TODO: Test with nested functions
 
-    @SuppressWarnings("deprecation")
     private ModelsEvaluator createModels() {
-        RankProfilesConfig config = ConfigGetter.getConfig(RankProfilesConfig.class, fileConfigId("rank-profiles.cfg"));
+        return createModels(false);
+    }
+
+    @SuppressWarnings("deprecation")
+    private ModelsEvaluator createModels(boolean compileExpressions) {
+        RankProfilesConfig.Builder builder = new RankProfilesConfig.Builder(ConfigGetter.getConfig(RankProfilesConfig.class,
+                                                                                                     fileConfigId("rank-profiles.cfg")));
+        builder.rankprofile.forEach(profile -> profile.compileexpressions(compileExpressions));
+        RankProfilesConfig config = builder.build();
         RankingConstantsConfig constantsConfig = ConfigGetter.getConfig(RankingConstantsConfig.class, fileConfigId("ranking-constants.cfg"));
         RankingExpressionsConfig expressionsConfig = ConfigGetter.getConfig(RankingExpressionsConfig.class, fileConfigId("ranking-expressions.cfg"));
         OnnxModelsConfig onnxModelsConfig = ConfigGetter.getConfig(OnnxModelsConfig.class, fileConfigId("onnx-models.cfg"));
@@ -14,6 +14,7 @@ import org.junit.Test;
 
 import java.io.File;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
@@ -51,6 +52,28 @@ public class OnnxEvaluatorTest {
         assertEquals(function.evaluate(), Tensor.from("tensor<float>(d0[2],d1[1]):[0.63931,0.67574]"));
     }
 
+    @Test
+    public void testBatchOnnxEvaluation() {
+        assumeTrue(OnnxRuntime.isRuntimeAvailable());
+        ModelsEvaluator models = createModels();
+
+        // Evaluated row by row as the model is not configured for batching
+        BatchFunctionEvaluator function = models.batchEvaluatorOf("add_mul", "output1");
+        function.bind("input1", List.of(Tensor.from("tensor<float>(d0[1]):[2]"), Tensor.from("tensor<float>(d0[1]):[4]")));
+        function.bind("input2", List.of(Tensor.from("tensor<float>(d0[1]):[3]"), Tensor.from("tensor<float>(d0[1]):[5]")));
+        List<Tensor> results = function.evaluate();
+        assertEquals(6.0, results.get(0).sum().asDouble(), delta);
+        assertEquals(20.0, results.get(1).sum().asDouble(), delta);
+
+        // Evaluated as a single batch, as configured in onnx-models.cfg
+        function = models.batchEvaluatorOf("one_layer");
+        function.bind("input", List.of(Tensor.from("tensor<float>(d0[1],d1[3]):[[0.1, 0.2, 0.3]]"),
+                                       Tensor.from("tensor<float>(d0[2],d1[3]):[[0.4,0.5,0.6],[0.1, 0.2, 0.3]]")));
+        results = function.evaluate();
+        assertEquals(Tensor.from("tensor<float>(d0[1],d1[1]):[0.63931]"), results.get(0));
+        assertEquals(Tensor.from("tensor<float>(d0[2],d1[1]):[0.67574,0.63931]"), results.get(1));
+    }
+
     @SuppressWarnings("deprecation")
     private ModelsEvaluator createModels() {
         RankProfilesConfig config = ConfigGetter.getConfig(RankProfilesConfig.class, fileConfigId("rank-profiles.cfg"));
@@ -13,7 +13,9 @@ import com.yahoo.tensor.IndexedTensor;
 import com.yahoo.tensor.Tensor;
 import com.yahoo.tensor.TensorType;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -44,6 +46,8 @@ public class BertBaseEmbedder extends AbstractComponent implements Embedder {
     private final Embedder.Runtime runtime;
     private final WordPieceEmbedder tokenizer;
     private final OnnxEvaluator evaluator;
+    private final EmbeddingBatcher<List<Integer>, Tensor> batcher;
+    private final EmbeddingCache cache;
 
     @Inject
     public BertBaseEmbedder(OnnxRuntime onnx, Embedder.Runtime runtime, BertBaseEmbedderConfig config) {
@@ -66,6 +70,11 @@ public class BertBaseEmbedder extends AbstractComponent implements Embedder {
         this.evaluator = onnx.evaluatorOf(config.transformerModel().toString(), options);
 
         validateModel();
+        boolean batchable = TokenBatch.isBatchable(evaluator.getInputInfo().get(inputIdsName));
+        batcher = new EmbeddingBatcher<>(batchable ? config.batchingMaxSize() : 1,
+                                         Duration.ofNanos(config.batchingMaxDelayMicros() * 1000L),
+                                         this::evaluateBatch);
+        cache = new EmbeddingCache(config.cacheMaxBytes(), runtime);
     }
 
     private void validateModel() {
@@ -106,11 +115,13 @@ public class BertBaseEmbedder extends AbstractComponent implements Embedder {
         if (!type.dimensions().get(0).isIndexed()) {
             throw new IllegalArgumentException("Error in embedding to type '" + type + "': dimension should be indexed.");
         }
-        List<Integer> tokens = embedWithSeparatorTokens(text, context, maxTokens);
-        runtime.sampleSequenceLength(tokens.size(), context);
-        var embedding = embedTokens(tokens, type);
-        runtime.sampleEmbeddingLatency((System.nanoTime() - start)/1_000_000d, context);
-        return embedding;
+        return cache.computeIfAbsent(text, context, type, () -> {
+            List<Integer> tokens = embedWithSeparatorTokens(text, context, maxTokens);
+            runtime.sampleSequenceLength(tokens.size(), context);
+            var embedding = embedTokens(tokens, type);
+            runtime.sampleEmbeddingLatency((System.nanoTime() - start)/1_000_000d, context);
+            return embedding;
+        });
     }
 
     @Override public void deconstruct() { evaluator.close(); }
@@ -120,23 +131,32 @@ public class BertBaseEmbedder extends AbstractComponent implements Embedder {
     Tensor embedTokens(List<Integer> tokens, TensorType type) {
         Tensor inputSequence = createTensorRepresentation(tokens, "d1");
         Tensor attentionMask = createAttentionMask(inputSequence);
-        Tensor tokenTypeIds = createTokenTypeIds(inputSequence);
+        Tensor tokenEmbeddings = batcher.evaluate(tokens);
+        return poolingStrategy.toSentenceEmbedding(type, tokenEmbeddings, attentionMask);
+    }
+
+    /**
+     * Returns the token embeddings of each of the given token sequences, evaluated in a single inference.
+     * Sequences of different lengths are padded to the longest one, and the padding is removed from the results.
+     */
+    private List<Tensor> evaluateBatch(List<List<Integer>> sequences) {
+        if (sequences.size() == 1) return List.of(evaluate(createTensorRepresentation(sequences.get(0), "d1").expand("d0")));
+        return TokenBatch.split(evaluate(TokenBatch.of(sequences, 0)), sequences.stream().mapToInt(List::size).toArray());
+    }
 
+    /** Returns the token embeddings of the given batch of token sequences */
+    private Tensor evaluate(Tensor inputSequences) {
+        Tensor attentionMask = createAttentionMask(inputSequences);
+        Tensor tokenTypeIds = createTokenTypeIds(inputSequences);
 
-        Map<String, Tensor> inputs;
-        if (!"".equals(tokenTypeIdsName)) {
-            inputs = Map.of(inputIdsName, inputSequence.expand("d0"),
-                                            attentionMaskName, attentionMask.expand("d0"),
-                                            tokenTypeIdsName, tokenTypeIds.expand("d0"));
-        } else {
-            inputs = Map.of(inputIdsName, inputSequence.expand("d0"),
-                                 attentionMaskName, attentionMask.expand("d0"));
-        }
+        Map<String, Tensor> inputs = new HashMap<>();
+        inputs.put(inputIdsName, inputSequences);
+        inputs.put(attentionMaskName, attentionMask);
+        if (!"".equals(tokenTypeIdsName))
+            inputs.put(tokenTypeIdsName, tokenTypeIds);
         Map<String, Tensor> outputs = evaluator.evaluate(inputs);
 
-        Tensor tokenEmbeddings = outputs.get(outputName);
-
-        return poolingStrategy.toSentenceEmbedding(type, tokenEmbeddings, attentionMask);
+        return outputs.get(outputName);
     }
 
     private List<Integer> embedWithSeparatorTokens(String text, Context context, int maxLength) {
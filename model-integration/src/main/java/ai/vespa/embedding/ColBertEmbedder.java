@@ -20,6 +20,7 @@ import com.yahoo.tensor.TensorAddress;
 import com.yahoo.tensor.TensorType;
 import com.yahoo.tensor.functions.Reduce;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.Map;
 import java.util.List;
 import java.util.ArrayList;
@@ -56,6 +57,8 @@ public class ColBertEmbedder extends AbstractComponent implements Embedder {
     private final long endSequenceToken;
     private final long maskSequenceToken;
 
+    private final EmbeddingBatcher<QueryInput, Tensor> queryBatcher;
+    private final EmbeddingCache queryCache;
 
     @Inject
     public ColBertEmbedder(OnnxRuntime onnx, Embedder.Runtime runtime, ColBertEmbedderConfig config) {
@@ -93,6 +96,11 @@ public class ColBertEmbedder extends AbstractComponent implements Embedder {
         onnxOpts.setThreads(config.transformerInterOpThreads(), config.transformerIntraOpThreads());
         evaluator = onnx.evaluatorOf(config.transformerModel().toString(), onnxOpts);
         validateModel();
+        boolean batchable = TokenBatch.isBatchable(evaluator.getInputInfo().get(inputIdsName));
+        queryBatcher = new EmbeddingBatcher<>(batchable ? config.batchingMaxSize() : 1,
+                                              Duration.ofNanos(config.batchingMaxDelayMicros() * 1000L),
+                                              this::evaluateQueries);
+        queryCache = new EmbeddingCache(config.cacheMaxBytes(), runtime);
     }
 
     public void validateModel() {
@@ -137,7 +145,10 @@ public class ColBertEmbedder extends AbstractComponent implements Embedder {
     protected Tensor embedQuery(String text, Context context, TensorType tensorType) {
         if (tensorType.valueType() == TensorType.Value.INT8)
             throw new IllegalArgumentException("ColBert query embed does not accept int8 tensor value type");
+        return queryCache.computeIfAbsent(text, context, tensorType, () -> computeQueryEmbedding(text, context, tensorType));
+    }
 
+    private Tensor computeQueryEmbedding(String text, Context context, TensorType tensorType) {
         long Q_TOKEN_ID = 1; // [unused0] token id used during training to differentiate query versus document.
 
         var start = System.nanoTime();
@@ -167,13 +178,7 @@ public class ColBertEmbedder extends AbstractComponent implements Embedder {
         for (int i = 0; i < padding; i++)
             attentionMask.add((long) 0);//Do not attend to mask paddings
 
-        Tensor inputIdsTensor = createTensorRepresentation(inputIds, "d1");
-        Tensor attentionMaskTensor = createTensorRepresentation(attentionMask, "d1");
-
-        var inputs = Map.of(inputIdsName, inputIdsTensor.expand("d0"),
-                attentionMaskName, attentionMaskTensor.expand("d0"));
-        Map<String, Tensor> outputs = evaluator.evaluate(inputs);
-        Tensor tokenEmbeddings = outputs.get(outputName);
+        Tensor tokenEmbeddings = queryBatcher.evaluate(new QueryInput(inputIds, attentionMask));
         IndexedTensor result = (IndexedTensor) tokenEmbeddings.reduce(Reduce.Aggregator.min, "d0");
 
         int dims = tensorType.indexedSubtype().dimensions().get(0).size().get().intValue();
@@ -186,6 +191,22 @@ public class ColBertEmbedder extends AbstractComponent implements Embedder {
         return resultTensor;
     }
 
+    /** Returns the token embeddings of each of the given queries, evaluated in a single inference */
+    private List<Tensor> evaluateQueries(List<QueryInput> queries) {
+        Map<String, Tensor> inputs;
+        if (queries.size() == 1) {
+            inputs = Map.of(inputIdsName, createTensorRepresentation(queries.get(0).inputIds(), "d1").expand("d0"),
+                            attentionMaskName, createTensorRepresentation(queries.get(0).attentionMask(), "d1").expand("d0"));
+        } else {
+            inputs = Map.of(inputIdsName, TokenBatch.of(queries.stream().map(QueryInput::inputIds).toList(), maskSequenceToken),
+                            attentionMaskName, TokenBatch.of(queries.stream().map(QueryInput::attentionMask).toList(), 0));
+        }
+        Map<String, Tensor> outputs = evaluator.evaluate(inputs);
+        Tensor tokenEmbeddings = outputs.get(outputName);
+        if (queries.size() == 1) return List.of(tokenEmbeddings);
+        return TokenBatch.split(tokenEmbeddings, queries.stream().mapToInt(query -> query.inputIds().size()).toArray());
+    }
+
     protected Tensor embedDocument(String text, Context context, TensorType tensorType) {
         long D_TOKEN_ID = 2; // [unused1] token id used during training to differentiate query versus document.
         var start = System.nanoTime();
@@ -305,6 +326,8 @@ public class ColBertEmbedder extends AbstractComponent implements Embedder {
         return builder.build();
     }
 
+    private record QueryInput(List<Long> inputIds, List<Long> attentionMask) {}
+
     private static final Set<Long> PUNCTUATION_TOKEN_IDS = new HashSet<>(
             Arrays.asList(999L, 1000L, 1001L, 1002L, 1003L, 1004L, 1005L, 1006L,
                     1007L, 1008L, 1009L, 1010L, 1011L, 1012L, 1013L, 1024L,
@@ -6,6 +6,7 @@ import ai.vespa.metrics.ContainerMetrics;
 import com.yahoo.component.annotation.Inject;
 import com.yahoo.language.Language;
 import com.yahoo.language.process.Embedder;
+import com.yahoo.metrics.simple.Counter;
 import com.yahoo.metrics.simple.Gauge;
 import com.yahoo.metrics.simple.MetricReceiver;
 import com.yahoo.metrics.simple.Point;
@@ -20,12 +21,16 @@ public class EmbedderRuntime implements Embedder.Runtime {
 
     private final Gauge embedLatency;
     private final Gauge sequenceLength;
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
     private final Map<MetricDimensions, Point> metricPointCache = new ConcurrentHashMap<>();
 
     @Inject
     public EmbedderRuntime(MetricReceiver metrics) {
         embedLatency = metrics.declareGauge(ContainerMetrics.EMBEDDER_LATENCY.baseName());
         sequenceLength = metrics.declareGauge(ContainerMetrics.EMBEDDER_SEQUENCE_LENGTH.baseName());
+        cacheHits = metrics.declareCounter(ContainerMetrics.EMBEDDER_CACHE_HITS.baseName());
+        cacheMisses = metrics.declareCounter(ContainerMetrics.EMBEDDER_CACHE_MISSES.baseName());
     }
 
     @Override
@@ -38,6 +43,11 @@ public class EmbedderRuntime implements Embedder.Runtime {
         sequenceLength.sample(length, metricPoint(ctx));
     }
 
+    @Override
+    public void sampleCacheLookup(boolean hit, Embedder.Context ctx) {
+        (hit ? cacheHits : cacheMisses).add(metricPoint(ctx));
+    }
+
     private Point metricPoint(Embedder.Context ctx) {
         var dimensions = new MetricDimensions(ctx.getEmbedderId(), ctx.getLanguage(), ctx.getDestination());
         return metricPointCache.computeIfAbsent(
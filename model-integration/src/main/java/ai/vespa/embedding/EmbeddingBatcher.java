@@ -0,0 +1,126 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package ai.vespa.embedding;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Coalesces concurrent evaluations into batches which are evaluated together.
+ *
+ * The first caller arriving when no batch is being collected becomes the leader of a new batch. It waits until
+ * the batch is full or the max delay has passed, and then evaluates the batch in its own thread. The other callers
+ * in the batch wait for the leader to complete. No threads are owned by this.
+ *
+ * @author agent
+ */
+public class EmbeddingBatcher<INPUT, OUTPUT> {
+
+    private final int maxSize;
+    private final long maxDelayNanos;
+    private final Function<List<INPUT>, List<OUTPUT>> evaluator;
+
+    private final Object monitor = new Object();
+
+    /** The batch currently collecting inputs, or null if none, guarded by the monitor */
+    private Batch<INPUT, OUTPUT> collecting = null;
+
+    /**
+     * Creates a batcher
+     *
+     * @param maxSize the max number of inputs in a batch, where 1 or less evaluates each input by itself
+     * @param maxDelay the max time to wait for more inputs to join a batch
+     * @param evaluator the function evaluating a batch, which must return the outputs in the order of the inputs
+     */
+    public EmbeddingBatcher(int maxSize, Duration maxDelay, Function<List<INPUT>, List<OUTPUT>> evaluator) {
+        this.maxSize = maxSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.evaluator = evaluator;
+    }
+
+    /** Returns whether inputs are evaluated in batches by this */
+    public boolean isBatching() { return maxSize > 1 && maxDelayNanos > 0; }
+
+    /** Evaluates the given input, possibly in a batch with inputs from concurrent callers */
+    public OUTPUT evaluate(INPUT input) {
+        if ( ! isBatching()) return evaluator.apply(List.of(input)).get(0);
+
+        Batch<INPUT, OUTPUT> batch;
+        int index;
+        boolean leader;
+        synchronized (monitor) {
+            leader = collecting == null;
+            if (leader)
+                collecting = new Batch<>();
+            batch = collecting;
+            index = batch.add(input);
+            if (batch.size() >= maxSize) {
+                collecting = null;
+                monitor.notifyAll();
+            }
+        }
+        if (leader) {
+            awaitInputs(batch);
+            batch.evaluate(evaluator);
+        }
+        return batch.result(index);
+    }
+
+    /** Waits until the given batch is full or the max delay has passed, and stops it from collecting more inputs */
+    private void awaitInputs(Batch<INPUT, OUTPUT> batch) {
+        synchronized (monitor) {
+            long deadline = System.nanoTime() + maxDelayNanos;
+            try {
+                for (long remaining = maxDelayNanos; collecting == batch && remaining > 0; remaining = deadline - System.nanoTime())
+                    TimeUnit.NANOSECONDS.timedWait(monitor, remaining);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (collecting == batch)
+                collecting = null;
+        }
+    }
+
+    private static class Batch<INPUT, OUTPUT> {
+
+        private final List<INPUT> inputs = new ArrayList<>();
+        private final CompletableFuture<List<OUTPUT>> outputs = new CompletableFuture<>();
+
+        int add(INPUT input) {
+            inputs.add(input);
+            return inputs.size() - 1;
+        }
+
+        int size() { return inputs.size(); }
+
+        void evaluate(Function<List<INPUT>, List<OUTPUT>> evaluator) {
+            try {
+                List<OUTPUT> result = evaluator.apply(inputs);
+                if (result.size() != inputs.size())
+                    throw new IllegalStateException("Expected " + inputs.size() + " outputs from batch evaluation, got " + result.size());
+                outputs.complete(result);
+            }
+            catch (Throwable e) {
+                outputs.completeExceptionally(e);
+            }
+        }
+
+        OUTPUT result(int index) {
+            try {
+                return outputs.join().get(index);
+            }
+            catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) throw cause;
+                if (e.getCause() instanceof Error cause) throw cause;
+                throw e;
+            }
+        }
+
+    }
+
+}
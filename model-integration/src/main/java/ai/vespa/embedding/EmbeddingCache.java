@@ -0,0 +1,104 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package ai.vespa.embedding;
+
+import com.yahoo.language.Language;
+import com.yahoo.language.process.Embedder;
+import com.yahoo.tensor.Tensor;
+import com.yahoo.tensor.TensorType;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * A cache of embeddings keyed on the embedded text, its language and the type of the embedding.
+ * The least recently used embeddings are evicted when the estimated size of the cached embeddings
+ * exceeds the max size of the cache.
+ *
+ * @author agent
+ */
+public class EmbeddingCache {
+
+    /** Estimated size of a cache entry, not including the text and the tensor cells */
+    private static final long entryOverhead = 128;
+
+    private final long maxBytes;
+    private final Embedder.Runtime runtime;
+
+    /** The cached embeddings in access order, guarded by this */
+    private final LinkedHashMap<Key, Tensor> embeddings = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** The estimated size of the cached embeddings, guarded by this */
+    private long bytes = 0;
+
+    /**
+     * Creates a cache
+     *
+     * @param maxBytes the max estimated size of the cached embeddings, where 0 or less disables caching
+     * @param runtime the runtime to report cache hits and misses to
+     */
+    public EmbeddingCache(long maxBytes, Embedder.Runtime runtime) {
+        this.maxBytes = maxBytes;
+        this.runtime = runtime;
+    }
+
+    /** Returns whether this caches anything */
+    public boolean isEnabled() { return maxBytes > 0; }
+
+    /**
+     * Returns the cached embedding of the given text, or computes, caches and returns it if it is not cached.
+     * The embedding is computed outside any lock, so concurrent misses for the same key may compute it more than once.
+     */
+    public Tensor computeIfAbsent(String text, Embedder.Context context, TensorType type, Supplier<Tensor> embedder) {
+        if ( ! isEnabled()) return embedder.get();
+
+        Key key = new Key(text, context.getLanguage(), type);
+        Tensor embedding;
+        synchronized (this) {
+            embedding = embeddings.get(key);
+        }
+        runtime.sampleCacheLookup(embedding != null, context);
+        if (embedding != null) return embedding;
+
+        embedding = embedder.get();
+        put(key, embedding);
+        return embedding;
+    }
+
+    private synchronized void put(Key key, Tensor embedding) {
+        long size = sizeOf(key, embedding);
+        if (size > maxBytes) return;
+        Tensor previous = embeddings.put(key, embedding);
+        if (previous != null)
+            bytes -= sizeOf(key, previous);
+        bytes += size;
+        for (Iterator<Map.Entry<Key, Tensor>> i = embeddings.entrySet().iterator(); bytes > maxBytes && i.hasNext(); ) {
+            Map.Entry<Key, Tensor> eldest = i.next();
+            bytes -= sizeOf(eldest.getKey(), eldest.getValue());
+            i.remove();
+        }
+    }
+
+    /** Returns the number of cached embeddings */
+    public synchronized int size() { return embeddings.size(); }
+
+    /** Returns the estimated size of the cached embeddings in bytes */
+    public synchronized long bytes() { return bytes; }
+
+    private static long sizeOf(Key key, Tensor embedding) {
+        return entryOverhead + 2L * key.text().length() + embedding.size() * bytesPerCell(embedding.type().valueType());
+    }
+
+    private static long bytesPerCell(TensorType.Value valueType) {
+        return switch (valueType) {
+            case DOUBLE -> 8;
+            case FLOAT -> 4;
+            case BFLOAT16 -> 2;
+            case INT8 -> 1;
+        };
+    }
+
+    private record Key(String text, Language language, TensorType type) {}
+
+}
@@ -0,0 +1,89 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package ai.vespa.embedding;
+
+import com.yahoo.tensor.DimensionSizes;
+import com.yahoo.tensor.IndexedTensor;
+import com.yahoo.tensor.Tensor;
+import com.yahoo.tensor.TensorType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Conversions between token sequences of different lengths and the padded tensors
+ * used to evaluate them in a single transformer model inference.
+ *
+ * @author agent
+ */
+public class TokenBatch {
+
+    private TokenBatch() { }
+
+    /**
+     * Returns a tensor of type tensor&lt;float&gt;(d0[sequences],d1[longest sequence]) containing the given sequences,
+     * where shorter sequences are padded at the end with the given padding value.
+     */
+    public static Tensor of(List<? extends List<? extends Number>> sequences, long padding) {
+        int length = 0;
+        for (var sequence : sequences)
+            length = Math.max(length, sequence.size());
+        TensorType type = new TensorType.Builder(TensorType.Value.FLOAT).indexed("d0", sequences.size())
+                                                                        .indexed("d1", length)
+                                                                        .build();
+        float[] values = new float[sequences.size() * length];
+        int offset = 0;
+        for (var sequence : sequences) {
+            int i = 0;
+            for (; i < sequence.size(); i++)
+                values[offset + i] = sequence.get(i).floatValue();
+            for (; i < length; i++)
+                values[offset + i] = padding;
+            offset += length;
+        }
+        return IndexedTensor.Builder.of(type, values).build();
+    }
+
+    /** Returns whether a model input of the given type accepts batches, i.e whether its first dimension is unbound */
+    public static boolean isBatchable(TensorType inputType) {
+        if (inputType == null || inputType.rank() == 0) return false;
+        TensorType.Dimension batchDimension = inputType.dimensions().get(0);
+        return batchDimension.isIndexed() && batchDimension.size().isEmpty();
+    }
+
+    /**
+     * Splits an output from a batch inference, having d0 as the batch dimension and d1 as the (padded) sequence
+     * dimension, into one tensor per sequence having d0 of size 1 and d1 of the given length of that sequence.
+     */
+    public static List<Tensor> split(Tensor output, int[] lengths) {
+        if ( ! (output instanceof IndexedTensor batch) || batch.type().rank() < 2)
+            throw new IllegalArgumentException("Expected a batch output of rank 2 or more, got " + output.type());
+        DimensionSizes sizes = batch.dimensionSizes();
+        if (sizes.size(0) != lengths.length)
+            throw new IllegalArgumentException("Expected a batch output of " + lengths.length + " sequences, got " + sizes.size(0));
+        long cellsPerToken = 1;
+        for (int i = 2; i < sizes.dimensions(); i++)
+            cellsPerToken *= sizes.size(i);
+        long cellsPerSequence = sizes.size(1) * cellsPerToken;
+
+        List<Tensor> tensors = new ArrayList<>(lengths.length);
+        for (int sequence = 0; sequence < lengths.length; sequence++) {
+            if (lengths[sequence] > sizes.size(1))
+                throw new IllegalArgumentException("Sequence " + sequence + " of length " + lengths[sequence] +
+                                                   " is longer than the batch output length " + sizes.size(1));
+            var type = new TensorType.Builder(batch.type().valueType());
+            var sequenceSizes = new DimensionSizes.Builder(sizes.dimensions());
+            for (int i = 0; i < sizes.dimensions(); i++) {
+                long size = i == 0 ? 1 : i == 1 ? lengths[sequence] : sizes.size(i);
+                type.indexed(batch.type().dimensions().get(i).name(), size);
+                sequenceSizes.set(i, size);
+            }
+            double[] values = new double[Math.toIntExact(lengths[sequence] * cellsPerToken)];
+            long offset = sequence * cellsPerSequence;
+            for (int i = 0; i < values.length; i++)
+                values[i] = batch.get(offset + i);
+            tensors.add(IndexedTensor.Builder.of(type.build(), sequenceSizes.build(), values).build());
+        }
+        return tensors;
+    }
+
+}
@@ -1,7 +1,10 @@
 // Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package ai.vespa.embedding.huggingface;
 
+import ai.vespa.embedding.EmbeddingBatcher;
+import ai.vespa.embedding.EmbeddingCache;
 import ai.vespa.embedding.PoolingStrategy;
+import ai.vespa.embedding.TokenBatch;
 import ai.vespa.modelintegration.evaluator.OnnxEvaluator;
 import ai.vespa.modelintegration.evaluator.OnnxEvaluatorOptions;
 import ai.vespa.modelintegration.evaluator.OnnxRuntime;
@@ -9,6 +12,7 @@ import com.yahoo.api.annotations.Beta;
 import com.yahoo.component.AbstractComponent;
 import com.yahoo.component.annotation.Inject;
 import com.yahoo.embedding.huggingface.HuggingFaceEmbedderConfig;
+import com.yahoo.language.huggingface.Encoding;
 import com.yahoo.language.huggingface.HuggingFaceTokenizer;
 import com.yahoo.language.process.Embedder;
 import com.yahoo.tensor.IndexedTensor;
@@ -17,6 +21,8 @@ import com.yahoo.tensor.TensorAddress;
 import com.yahoo.tensor.TensorType;
 
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.logging.Logger;
@@ -37,6 +43,8 @@ public class HuggingFaceEmbedder extends AbstractComponent implements Embedder {
     private final HuggingFaceTokenizer tokenizer;
     private final OnnxEvaluator evaluator;
     private final PoolingStrategy poolingStrategy;
+    private final EmbeddingBatcher<Encoding, Tensor> batcher;
+    private final EmbeddingCache cache;
 
     @Inject
     public HuggingFaceEmbedder(OnnxRuntime onnx, Embedder.Runtime runtime, HuggingFaceEmbedderConfig config) {
@@ -69,6 +77,11 @@ public class HuggingFaceEmbedder extends AbstractComponent implements Embedder {
         onnxOpts.setThreads(config.transformerInterOpThreads(), config.transformerIntraOpThreads());
         evaluator = onnx.evaluatorOf(config.transformerModel().toString(), onnxOpts);
         validateModel();
+        boolean batchable = TokenBatch.isBatchable(evaluator.getInputInfo().get(inputIdsName));
+        batcher = new EmbeddingBatcher<>(batchable ? config.batchingMaxSize() : 1,
+                                         Duration.ofNanos(config.batchingMaxDelayMicros() * 1000L),
+                                         this::evaluateBatch);
+        cache = new EmbeddingCache(config.cacheMaxBytes(), runtime);
     }
 
     public void validateModel() {
@@ -105,9 +118,39 @@ public class HuggingFaceEmbedder extends AbstractComponent implements Embedder {
 
     @Override
     public Tensor embed(String s, Context context, TensorType tensorType) {
+        return cache.computeIfAbsent(s, context, tensorType, () -> computeEmbedding(s, context, tensorType));
+    }
+
+    private Tensor computeEmbedding(String s, Context context, TensorType tensorType) {
         var start = System.nanoTime();
         var encoding = tokenizer.encode(s, context.getLanguage());
         runtime.sampleSequenceLength(encoding.ids().size(), context);
+        Tensor attentionMask = createTensorRepresentation(encoding.attentionMask(), "d1");
+        Tensor tokenEmbeddings = batcher.evaluate(encoding);
+        var result = poolingStrategy.toSentenceEmbedding(tensorType, tokenEmbeddings, attentionMask);
+        var normalized = normalize ? normalize(result, tensorType) : result;
+        runtime.sampleEmbeddingLatency((System.nanoTime() - start)/1_000_000d, context);
+        return normalized;
+    }
+
+    /**
+     * Returns the token embeddings of each of the given encodings, evaluated in a single inference.
+     * Encodings of different lengths are padded to the longest one, and the padding is removed from the results.
+     */
+    private List<Tensor> evaluateBatch(List<Encoding> encodings) {
+        if (encodings.size() == 1) return List.of(evaluate(encodings.get(0)));
+
+        boolean useTokenTypeIds = ! tokenTypeIdsName.isEmpty() && encodings.stream().noneMatch(e -> e.typeIds().isEmpty());
+        Map<String, Tensor> inputs = new HashMap<>();
+        inputs.put(inputIdsName, TokenBatch.of(encodings.stream().map(Encoding::ids).toList(), 0));
+        inputs.put(attentionMaskName, TokenBatch.of(encodings.stream().map(Encoding::attentionMask).toList(), 0));
+        if (useTokenTypeIds)
+            inputs.put(tokenTypeIdsName, TokenBatch.of(encodings.stream().map(Encoding::typeIds).toList(), 0));
+        Map<String, Tensor> outputs = evaluator.evaluate(inputs);
+        return TokenBatch.split(outputs.get(outputName), encodings.stream().mapToInt(e -> e.ids().size()).toArray());
+    }
+
+    private Tensor evaluate(Encoding encoding) {
         Tensor inputSequence = createTensorRepresentation(encoding.ids(), "d1");
         Tensor attentionMask = createTensorRepresentation(encoding.attentionMask(), "d1");
         Tensor tokenTypeIds = tokenTypeIdsName.isEmpty() ? null : createTensorRepresentation(encoding.typeIds(), "d1");
@@ -124,11 +167,7 @@ public class HuggingFaceEmbedder extends AbstractComponent implements Embedder {
         }
 
         Map<String, Tensor> outputs = evaluator.evaluate(inputs);
-        Tensor tokenEmbeddings = outputs.get(outputName);
-        var result = poolingStrategy.toSentenceEmbedding(tensorType, tokenEmbeddings, attentionMask);
-        var normalized = normalize ? normalize(result, tensorType) : result;
-        runtime.sampleEmbeddingLatency((System.nanoTime() - start)/1_000_000d, context);
-        return normalized;
+        return outputs.get(outputName);
     }
 
     Tensor normalize(Tensor embedding, TensorType tensorType) {
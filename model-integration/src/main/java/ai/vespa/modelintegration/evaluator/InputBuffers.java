@@ -0,0 +1,66 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+
+package ai.vespa.modelintegration.evaluator;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Direct buffers holding the inputs of an ONNX model evaluation, which are reused by later evaluations
+ * in the same thread. The buffers of a lease must not be used after the lease is closed, i.e. all ONNX
+ * tensors created from them must be closed first.
+ *
+ * @author agent
+ */
+class InputBuffers implements AutoCloseable {
+
+    /** Buffers larger than this are not kept for reuse */
+    static final int maxPooledBytes = 1 << 20;
+
+    private static final ThreadLocal<InputBuffers> pooled = ThreadLocal.withInitial(() -> new InputBuffers(true));
+
+    private final boolean isPooled;
+    private final List<ByteBuffer> buffers = new ArrayList<>();
+    private int used = 0;
+    private boolean leased = false;
+
+    private InputBuffers(boolean isPooled) {
+        this.isPooled = isPooled;
+    }
+
+    /** Returns the buffers of this thread, or new buffers if they are already leased (by an enclosing evaluation) */
+    static InputBuffers lease() {
+        InputBuffers buffers = pooled.get();
+        if (buffers.leased) buffers = new InputBuffers(false);
+        buffers.leased = true;
+        return buffers;
+    }
+
+    /** Returns a cleared direct buffer in native byte order with the given size, which is not used for anything else in this lease */
+    ByteBuffer get(int size) {
+        ByteBuffer buffer = used < buffers.size() ? buffers.get(used) : null;
+        if (buffer == null || buffer.capacity() < size) {
+            buffer = ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder());
+            if (isPooled && size <= maxPooledBytes) {
+                if (used < buffers.size())
+                    buffers.set(used, buffer);
+                else
+                    buffers.add(buffer);
+            }
+            else { // Not kept: Don't let later requests to this index grow the pool instead
+                return buffer;
+            }
+        }
+        used++;
+        return buffer.clear().limit(size);
+    }
+
+    @Override
+    public void close() {
+        used = 0;
+        leased = false;
+    }
+
+}
@@ -42,9 +42,10 @@ public class OnnxEvaluator implements AutoCloseable {
 
     public Tensor evaluate(Map<String, Tensor> inputs, String output) {
         Map<String, OnnxTensor> onnxInputs = null;
+        InputBuffers buffers = InputBuffers.lease();
         try {
             output = mapToInternalName(output);
-            onnxInputs = TensorConverter.toOnnxTensors(inputs, OnnxRuntime.ortEnvironment(), session.instance());
+            onnxInputs = TensorConverter.toOnnxTensors(inputs, OnnxRuntime.ortEnvironment(), session.instance(), buffers);
             try (OrtSession.Result result = session.instance().run(onnxInputs, Collections.singleton(output))) {
                 return TensorConverter.toVespaTensor(result.get(0));
             }
@@ -54,13 +55,15 @@ public class OnnxEvaluator implements AutoCloseable {
             if (onnxInputs != null) {
                 onnxInputs.values().forEach(OnnxTensor::close);
             }
+            buffers.close();
         }
     }
 
     public Map<String, Tensor> evaluate(Map<String, Tensor> inputs) {
         Map<String, OnnxTensor> onnxInputs = null;
+        InputBuffers buffers = InputBuffers.lease();
         try {
-            onnxInputs = TensorConverter.toOnnxTensors(inputs, OnnxRuntime.ortEnvironment(), session.instance());
+            onnxInputs = TensorConverter.toOnnxTensors(inputs, OnnxRuntime.ortEnvironment(), session.instance(), buffers);
             Map<String, Tensor> outputs = new HashMap<>();
             try (OrtSession.Result result = session.instance().run(onnxInputs)) {
                 for (Map.Entry<String, OnnxValue> output : result) {
@@ -75,6 +78,7 @@ public class OnnxEvaluator implements AutoCloseable {
             if (onnxInputs != null) {
                 onnxInputs.values().forEach(OnnxTensor::close);
             }
+            buffers.close();
         }
     }
 
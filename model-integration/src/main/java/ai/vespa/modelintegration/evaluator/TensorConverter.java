@@ -19,7 +19,6 @@ import com.yahoo.tensor.Tensor;
 import com.yahoo.tensor.TensorType;
 
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.nio.DoubleBuffer;
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
@@ -36,37 +35,47 @@ import java.util.stream.Collectors;
  */
 class TensorConverter {
 
-    static Map<String, OnnxTensor> toOnnxTensors(Map<String, Tensor> tensorMap, OrtEnvironment env, OrtSession session)
+    /**
+     * Converts the given tensors to ONNX tensors backed by the given buffers.
+     * The returned tensors must be closed before the buffers are.
+     */
+    static Map<String, OnnxTensor> toOnnxTensors(Map<String, Tensor> tensorMap, OrtEnvironment env, OrtSession session,
+                                                 InputBuffers buffers)
         throws OrtException
     {
         Map<String, OnnxTensor> result = new HashMap<>();
-        for (String name : tensorMap.keySet()) {
-            Tensor vespaTensor = tensorMap.get(name);
-            name = toOnnxName(name, session.getInputInfo().keySet());
-            TensorInfo onnxTensorInfo = toTensorInfo(session.getInputInfo().get(name).getInfo());
-            OnnxTensor onnxTensor = toOnnxTensor(vespaTensor, onnxTensorInfo, env);
-            result.put(name, onnxTensor);
-        }
-        return result;
+        try {
+            for (String name : tensorMap.keySet()) {
+                Tensor vespaTensor = tensorMap.get(name);
+                name = toOnnxName(name, session.getInputInfo().keySet());
+                TensorInfo onnxTensorInfo = toTensorInfo(session.getInputInfo().get(name).getInfo());
+                OnnxTensor onnxTensor = toOnnxTensor(vespaTensor, onnxTensorInfo, env, buffers);
+                result.put(name, onnxTensor);
+            }
+            return result;
+        }
+        catch (OrtException | RuntimeException e) {
+            result.values().forEach(OnnxTensor::close);
+            throw e;
+        }
     }
 
-    static OnnxTensor toOnnxTensor(Tensor vespaTensor, TensorInfo onnxTensorInfo, OrtEnvironment environment)
+    static OnnxTensor toOnnxTensor(Tensor vespaTensor, TensorInfo onnxTensorInfo, OrtEnvironment environment,
+                                   InputBuffers buffers)
         throws OrtException
     {
         if ( ! (vespaTensor instanceof IndexedTensor)) {
             throw new IllegalArgumentException("OnnxEvaluator currently only supports tensors with indexed dimensions");
         }
         IndexedTensor tensor = (IndexedTensor) vespaTensor;
-        ByteBuffer buffer = ByteBuffer.allocateDirect((int)tensor.size() * onnxTensorInfo.type.size).order(ByteOrder.nativeOrder());
+        ByteBuffer buffer = buffers.get((int)tensor.size() * onnxTensorInfo.type.size);
         if (onnxTensorInfo.type == OnnxJavaType.FLOAT) {
-            for (int i = 0; i < tensor.size(); i++)
-                buffer.putFloat(tensor.getFloat(i));
-            return OnnxTensor.createTensor(environment, buffer.rewind().asFloatBuffer(), tensor.shape());
+            FloatBuffer floats = buffer.asFloatBuffer().put(tensor.asFloatBuffer()).rewind();
+            return OnnxTensor.createTensor(environment, floats, tensor.shape());
         }
         if (onnxTensorInfo.type == OnnxJavaType.DOUBLE) {
-            for (int i = 0; i < tensor.size(); i++)
-                buffer.putDouble(tensor.get(i));
-            return OnnxTensor.createTensor(environment, buffer.rewind().asDoubleBuffer(), tensor.shape());
+            DoubleBuffer doubles = buffer.asDoubleBuffer().put(tensor.asDoubleBuffer()).rewind();
+            return OnnxTensor.createTensor(environment, doubles, tensor.shape());
         }
         if (onnxTensorInfo.type == OnnxJavaType.INT8) {
             for (int i = 0; i < tensor.size(); i++)
@@ -112,16 +121,23 @@ class TensorConverter {
         TensorType type = toVespaType(onnxTensor.getInfo());
         DimensionSizes sizes = sizesFromType(type);
 
+        // ONNX Runtime returns float and double values in a heap buffer copied from the output,
+        // so when it is backed by an array of the right size, that array is used as the tensor values
+        FloatBuffer floats = tensorInfo.type == OnnxJavaType.FLOAT ? onnxTensor.getFloatBuffer() : null;
+        if (floats != null && floats.hasArray() && floats.arrayOffset() == 0 && floats.array().length == sizes.totalSize())
+            return IndexedTensor.Builder.of(type, sizes, floats.array()).build();
+        DoubleBuffer doubles = tensorInfo.type == OnnxJavaType.DOUBLE ? onnxTensor.getDoubleBuffer() : null;
+        if (doubles != null && doubles.hasArray() && doubles.arrayOffset() == 0 && doubles.array().length == sizes.totalSize())
+            return IndexedTensor.Builder.of(type, sizes, doubles.array()).build();
+
         IndexedTensor.BoundBuilder builder = (IndexedTensor.BoundBuilder) Tensor.Builder.of(type, sizes);
         if (tensorInfo.type == OnnxJavaType.FLOAT) {
-            FloatBuffer buffer = onnxTensor.getFloatBuffer();
             for (long i = 0; i < sizes.totalSize(); i++)
-                builder.cellByDirectIndex(i, buffer.get());
+                builder.cellByDirectIndex(i, floats.get());
         }
         else if (tensorInfo.type == OnnxJavaType.DOUBLE) {
-            DoubleBuffer buffer = onnxTensor.getDoubleBuffer();
             for (long i = 0; i < sizes.totalSize(); i++)
-                builder.cellByDirectIndex(i, buffer.get());
+                builder.cellByDirectIndex(i, doubles.get());
         }
         else if (tensorInfo.type == OnnxJavaType.INT8) {
             ByteBuffer buffer = onnxTensor.getByteBuffer();
@@ -0,0 +1,76 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package ai.vespa.embedding;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author agent
+ */
+public class EmbeddingBatcherTest {
+
+    @Test
+    public void testConcurrentCallsAreBatched() throws Exception {
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        var batcher = new EmbeddingBatcher<Integer, Integer>(4, Duration.ofSeconds(10), inputs -> {
+            batchSizes.add(inputs.size());
+            return inputs.stream().map(i -> i * 10).toList();
+        });
+        assertTrue(batcher.isBatching());
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CyclicBarrier barrier = new CyclicBarrier(8);
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                int input = i;
+                results.add(executor.submit(() -> { barrier.await(); return batcher.evaluate(input); }));
+            }
+            for (int i = 0; i < 8; i++)
+                assertEquals(i * 10, (int)results.get(i).get());
+        }
+        finally {
+            executor.shutdown();
+        }
+        assertEquals(List.of(4, 4), batchSizes);
+    }
+
+    @Test
+    public void testSingleCallIsEvaluatedAfterMaxDelay() {
+        var batcher = new EmbeddingBatcher<Integer, Integer>(4, Duration.ofMillis(1), inputs -> inputs.stream().map(i -> i + 1).toList());
+        assertEquals(2, (int)batcher.evaluate(1));
+        assertEquals(3, (int)batcher.evaluate(2));
+    }
+
+    @Test
+    public void testBatchingCanBeDisabled() {
+        var batcher = new EmbeddingBatcher<Integer, Integer>(1, Duration.ofSeconds(10), inputs -> {
+            assertEquals(1, inputs.size());
+            return List.of(inputs.get(0) + 1);
+        });
+        assertFalse(batcher.isBatching());
+        assertEquals(2, (int)batcher.evaluate(1));
+    }
+
+    @Test
+    public void testFailuresArePropagated() {
+        var batcher = new EmbeddingBatcher<Integer, Integer>(4, Duration.ofMillis(1), inputs -> {
+            throw new IllegalArgumentException("bad input");
+        });
+        assertEquals("bad input", assertThrows(IllegalArgumentException.class, () -> batcher.evaluate(1)).getMessage());
+    }
+
+}
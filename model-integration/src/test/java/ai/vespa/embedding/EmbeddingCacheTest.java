@@ -0,0 +1,82 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package ai.vespa.embedding;
+
+import com.yahoo.language.Language;
+import com.yahoo.language.process.Embedder;
+import com.yahoo.tensor.Tensor;
+import com.yahoo.tensor.TensorType;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * @author agent
+ */
+public class EmbeddingCacheTest {
+
+    private static final TensorType type = TensorType.fromSpec("tensor<float>(x[4])");
+
+    @Test
+    public void testCaching() {
+        var runtime = new CountingRuntime();
+        var cache = new EmbeddingCache(10_000, runtime);
+        var context = new Embedder.Context("query(q)");
+        Tensor first = cache.computeIfAbsent("foo", context, type, () -> embedding(1));
+        assertSame(first, cache.computeIfAbsent("foo", context, type, () -> embedding(2)));
+        assertEquals(embedding(3), cache.computeIfAbsent("bar", context, type, () -> embedding(3)));
+        assertEquals(embedding(4), cache.computeIfAbsent("foo", context, TensorType.fromSpec("tensor(x[4])"), () -> embedding(4)));
+        assertEquals(embedding(5), cache.computeIfAbsent("foo", context.copy().setLanguage(Language.FRENCH), type, () -> embedding(5)));
+        assertEquals(1, runtime.hits.get());
+        assertEquals(4, runtime.misses.get());
+        assertEquals(4, cache.size());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEmbeddingsAreEvicted() {
+        var cache = new EmbeddingCache(3 * (128 + 2 * 3 + 4 * 4), Embedder.Runtime.testInstance());
+        var context = new Embedder.Context("query(q)");
+        cache.computeIfAbsent("aaa", context, type, () -> embedding(1));
+        cache.computeIfAbsent("bbb", context, type, () -> embedding(2));
+        cache.computeIfAbsent("ccc", context, type, () -> embedding(3));
+        assertEquals(3, cache.size());
+        assertEquals(3 * (128 + 2 * 3 + 4 * 4), cache.bytes());
+
+        cache.computeIfAbsent("aaa", context, type, () -> embedding(0)); // Use aaa, so bbb becomes least recently used
+        cache.computeIfAbsent("ddd", context, type, () -> embedding(4));
+        assertEquals(3, cache.size());
+        assertEquals(embedding(1), cache.computeIfAbsent("aaa", context, type, () -> embedding(0)));
+        assertEquals(embedding(0), cache.computeIfAbsent("bbb", context, type, () -> embedding(0)));
+    }
+
+    @Test
+    public void testDisabledCache() {
+        var runtime = new CountingRuntime();
+        var cache = new EmbeddingCache(0, runtime);
+        var context = new Embedder.Context("query(q)");
+        assertEquals(embedding(1), cache.computeIfAbsent("foo", context, type, () -> embedding(1)));
+        assertEquals(embedding(2), cache.computeIfAbsent("foo", context, type, () -> embedding(2)));
+        assertEquals(0, cache.size());
+        assertEquals(0, runtime.hits.get() + runtime.misses.get());
+    }
+
+    private static Tensor embedding(int value) {
+        return Tensor.Builder.of(type).cell(value, 0).cell(value, 1).cell(value, 2).cell(value, 3).build();
+    }
+
+    private static class CountingRuntime implements Embedder.Runtime {
+
+        final AtomicInteger hits = new AtomicInteger();
+        final AtomicInteger misses = new AtomicInteger();
+
+        @Override public void sampleEmbeddingLatency(double millis, Embedder.Context ctx) { }
+        @Override public void sampleSequenceLength(long length, Embedder.Context ctx) { }
+        @Override public void sampleCacheLookup(boolean hit, Embedder.Context ctx) {
+            (hit ? hits : misses).incrementAndGet();
+        }
+
+    }
+
+}
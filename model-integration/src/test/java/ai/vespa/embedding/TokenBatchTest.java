@@ -0,0 +1,40 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package ai.vespa.embedding;
+
+import com.yahoo.tensor.Tensor;
+import com.yahoo.tensor.TensorType;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author agent
+ */
+public class TokenBatchTest {
+
+    @Test
+    public void testPadding() {
+        assertEquals(Tensor.from("tensor<float>(d0[3],d1[3]):[[1,2,3],[4,0,0],[5,6,0]]"),
+                     TokenBatch.of(List.of(List.of(1L, 2L, 3L), List.of(4L), List.of(5L, 6L)), 0));
+    }
+
+    @Test
+    public void testSplitting() {
+        Tensor output = Tensor.from("tensor<float>(d0[2],d1[3],d2[2]):[[[1,2],[3,4],[5,6]],[[7,8],[0,0],[0,0]]]");
+        List<Tensor> sequences = TokenBatch.split(output, new int[] { 3, 1 });
+        assertEquals(Tensor.from("tensor<float>(d0[1],d1[3],d2[2]):[[[1,2],[3,4],[5,6]]]"), sequences.get(0));
+        assertEquals(Tensor.from("tensor<float>(d0[1],d1[1],d2[2]):[[[7,8]]]"), sequences.get(1));
+    }
+
+    @Test
+    public void testBatchable() {
+        assertTrue(TokenBatch.isBatchable(TensorType.fromSpec("tensor<float>(d0[],d1[])")));
+        assertFalse(TokenBatch.isBatchable(TensorType.fromSpec("tensor<float>(d0[1],d1[])")));
+        assertFalse(TokenBatch.isBatchable(null));
+    }
+
+}
@@ -0,0 +1,62 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+
+package ai.vespa.modelintegration.evaluator;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author agent
+ */
+class InputBuffersTest {
+
+    @Test
+    void buffers_are_reused_by_later_leases_in_the_same_thread() {
+        ByteBuffer first, second;
+        try (InputBuffers buffers = InputBuffers.lease()) {
+            first = buffers.get(64);
+            second = buffers.get(32);
+            assertNotSame(first, second);
+            assertTrue(first.isDirect());
+            assertEquals(ByteOrder.nativeOrder(), first.order());
+            assertEquals(64, first.remaining());
+            assertEquals(32, second.remaining());
+        }
+        try (InputBuffers buffers = InputBuffers.lease()) {
+            ByteBuffer smaller = buffers.get(16);
+            assertSame(first, smaller);
+            assertEquals(16, smaller.remaining());
+            assertEquals(2 * InputBuffers.maxPooledBytes, buffers.get(2 * InputBuffers.maxPooledBytes).remaining());
+        }
+    }
+
+    @Test
+    void nested_leases_do_not_share_buffers() {
+        try (InputBuffers outer = InputBuffers.lease()) {
+            ByteBuffer outerBuffer = outer.get(8);
+            try (InputBuffers inner = InputBuffers.lease()) {
+                assertNotSame(outer, inner);
+                assertNotSame(outerBuffer, inner.get(8));
+            }
+        }
+    }
+
+    @Test
+    void large_buffers_are_not_pooled() {
+        ByteBuffer large;
+        try (InputBuffers buffers = InputBuffers.lease()) {
+            large = buffers.get(InputBuffers.maxPooledBytes + 1);
+        }
+        try (InputBuffers buffers = InputBuffers.lease()) {
+            assertNotSame(large, buffers.get(InputBuffers.maxPooledBytes + 1));
+        }
+    }
+
+}
@@ -2,6 +2,7 @@
 package com.yahoo.searchlib.rankingexpression.evaluation;
 
 import com.yahoo.searchlib.rankingexpression.RankingExpression;
+import com.yahoo.searchlib.rankingexpression.evaluation.compilation.ExpressionCompiler;
 import com.yahoo.searchlib.rankingexpression.evaluation.gbdtoptimization.GBDTForestOptimizer;
 import com.yahoo.searchlib.rankingexpression.evaluation.gbdtoptimization.GBDTOptimizer;
 import com.yahoo.searchlib.rankingexpression.evaluation.tensoroptimization.TensorOptimizer;
@@ -32,12 +33,15 @@ import com.yahoo.searchlib.rankingexpression.evaluation.tensoroptimization.Tenso
  */
 public class ExpressionOptimizer {
 
+    private final ExpressionCompiler expressionCompiler = new ExpressionCompiler();
     private final GBDTOptimizer gbdtOptimizer = new GBDTOptimizer();
     private final GBDTForestOptimizer gbdtForestOptimizer = new GBDTForestOptimizer();
     private final TensorOptimizer tensorOptimizer = new TensorOptimizer();
 
     /** Gets an optimizer instance used by this by class name, or null if the optimizer is not known */
     public Optimizer getOptimizer(Class<?> clazz) {
+        if (clazz == expressionCompiler.getClass())
+            return expressionCompiler;
         if (clazz == gbdtOptimizer.getClass())
             return gbdtOptimizer;
         if (clazz == gbdtForestOptimizer.getClass())
@@ -47,9 +51,18 @@ public class ExpressionOptimizer {
         return null;
     }
 
+    /**
+     * Sets whether the parts of expressions which operate on doubles only should be compiled to bytecode
+     * rather than interpreted. This is disabled by default.
+     */
+    public void setCompiling(boolean compiling) {
+        expressionCompiler.setEnabled(compiling);
+    }
+
     public OptimizationReport optimize(RankingExpression expression, ContextIndex contextIndex) {
         OptimizationReport report = new OptimizationReport();
         // Note: Order of optimizations matter
+        expressionCompiler.optimize(expression, contextIndex, report);
         gbdtOptimizer.optimize(expression, contextIndex, report);
         gbdtForestOptimizer.optimize(expression, contextIndex, report);
         tensorOptimizer.optimize(expression, contextIndex, report);
@@ -0,0 +1,50 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.searchlib.rankingexpression.evaluation.compilation;
+
+import com.yahoo.searchlib.rankingexpression.evaluation.Context;
+import com.yahoo.searchlib.rankingexpression.evaluation.DoubleValue;
+
+import java.lang.invoke.MethodHandles;
+
+/**
+ * Superclass of the classes generated to evaluate an expression over doubles.
+ * Instances are immutable and may be used by multiple threads.
+ *
+ * @author agent
+ */
+abstract class CompiledExpression {
+
+    /** The constants which did not fit in the constant pool of the generated class, accessed by the generated code */
+    final double[] constants;
+
+    CompiledExpression(double[] constants) {
+        this.constants = constants;
+    }
+
+    /**
+     * Returns the value of the expression, looking up values by index in the given context.
+     *
+     * @throws UnsupportedOperationException if a value looked up does not have a double representation
+     */
+    abstract double evaluate(Context context);
+
+    /** Returns whether x and y are approximately equal. This is used by the generated code. */
+    static boolean approxEqual(double x, double y) {
+        return new DoubleValue(x).approxEqual(new DoubleValue(y)).asBoolean();
+    }
+
+    /**
+     * Defines the given class file as a hidden class in this package, and returns an instance of it
+     * having the given constants. The class is unloaded when the instance is no longer referenced.
+     */
+    static CompiledExpression define(byte[] classFile, double[] constants) {
+        try {
+            Class<?> generated = MethodHandles.lookup().defineHiddenClass(classFile, true).lookupClass();
+            return (CompiledExpression)generated.getDeclaredConstructor(double[].class).newInstance((Object)constants);
+        }
+        catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not instantiate a generated expression class", e);
+        }
+    }
+
+}
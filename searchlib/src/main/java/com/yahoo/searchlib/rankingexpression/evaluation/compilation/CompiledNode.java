@@ -0,0 +1,64 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.searchlib.rankingexpression.evaluation.compilation;
+
+import com.yahoo.searchlib.rankingexpression.Reference;
+import com.yahoo.searchlib.rankingexpression.evaluation.BooleanValue;
+import com.yahoo.searchlib.rankingexpression.evaluation.Context;
+import com.yahoo.searchlib.rankingexpression.evaluation.DoubleValue;
+import com.yahoo.searchlib.rankingexpression.evaluation.Value;
+import com.yahoo.searchlib.rankingexpression.rule.CompositeNode;
+import com.yahoo.searchlib.rankingexpression.rule.ExpressionNode;
+import com.yahoo.searchlib.rankingexpression.rule.SerializationContext;
+import com.yahoo.tensor.TensorType;
+import com.yahoo.tensor.evaluation.TypeContext;
+
+import java.util.Deque;
+
+/**
+ * An expression compiled to bytecode, which evaluates to the same value as the expression it is compiled from
+ * when all the values it references are doubles. If some value isn't, this falls back to evaluating the
+ * original expression.
+ *
+ * This serializes to, and has the type of, the original expression.
+ *
+ * @author agent
+ */
+public final class CompiledNode extends ExpressionNode {
+
+    private final ExpressionNode original;
+    private final transient CompiledExpression compiled;
+    private final boolean isBoolean;
+
+    CompiledNode(ExpressionNode original, CompiledExpression compiled, boolean isBoolean) {
+        this.original = original;
+        this.compiled = compiled;
+        this.isBoolean = isBoolean;
+    }
+
+    /** Returns the expression this is compiled from */
+    public ExpressionNode original() { return original; }
+
+    @Override
+    public TensorType type(TypeContext<Reference> context) { return original.type(context); }
+
+    @Override
+    public Value evaluate(Context context) {
+        if (compiled == null) return original.evaluate(context); // deserialized
+        try {
+            double value = compiled.evaluate(context);
+            return isBoolean ? new BooleanValue(value != 0) : new DoubleValue(value);
+        }
+        catch (UnsupportedOperationException e) { // some value has no double representation, e.g. a tensor
+            return original.evaluate(context);
+        }
+    }
+
+    @Override
+    public StringBuilder toString(StringBuilder string, SerializationContext context, Deque<String> path, CompositeNode parent) {
+        return original.toString(string, context, path, parent);
+    }
+
+    @Override
+    public int hashCode() { return original.hashCode(); }
+
+}
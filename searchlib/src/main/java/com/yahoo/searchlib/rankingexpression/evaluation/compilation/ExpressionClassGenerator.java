@@ -0,0 +1,527 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.searchlib.rankingexpression.evaluation.compilation;
+
+import com.yahoo.searchlib.rankingexpression.evaluation.Context;
+import com.yahoo.searchlib.rankingexpression.rule.Function;
+import com.yahoo.searchlib.rankingexpression.rule.Operator;
+import org.objectweb.asm.ClassTooLargeException;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodTooLargeException;
+import org.objectweb.asm.MethodVisitor;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Generates a subclass of {@link CompiledExpression} which evaluates a scalar expression by straight-line code.
+ *
+ * The code of each expression is emitted in a static method taking the context and an array of constants
+ * as arguments. Constants are loaded from the constant pool of the class while it has room, and from the array
+ * otherwise, such that expressions with many distinct constants, such as large GBDT forests, fit in a class.
+ * Subexpressions larger than {@link #maxInlinedSize} are emitted as separate methods, as HotSpot does not
+ * JIT compile methods larger than 8000 bytes. Since the size of a node counts its large children as the size of a call,
+ * long chains of operations, such as the sums of trees in a GBDT forest, are split into methods containing
+ * as many operations as fits.
+ *
+ * Classes are written with ASM, which computes the stack map frames and max stack sizes of the methods.
+ * Instances of this are used to generate a single class.
+ *
+ * @author agent
+ */
+class ExpressionClassGenerator {
+
+    /** The max size of a subexpression to emit in the method of its parent */
+    static final int maxInlinedSize = 2000;
+
+    /** The size of the code calling a subexpression emitted as a separate method */
+    private static final int callSize = 5;
+
+    /** The max number of slots of the constant pool used by double constants, leaving room for the rest */
+    private static final int maxPooledConstantSlots = 0xFFFF - 8192;
+
+    private static final String className = internalName(CompiledExpression.class.getPackageName()) + "/GeneratedExpression";
+    private static final String superName = internalName(CompiledExpression.class.getName());
+    private static final String contextName = internalName(Context.class.getName());
+    private static final String functionName = internalName(Function.class.getName());
+    private static final String evaluateDescriptor = "(L" + contextName + ";)D";
+    private static final String methodDescriptor = "(L" + contextName + ";[D)D";
+
+    private final ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_FRAMES);
+    private final Map<ScalarNode, Integer> sizes = new IdentityHashMap<>();
+    private final Deque<Method> pendingMethods = new ArrayDeque<>();
+    /** The bits of the constants loaded from the constant pool */
+    private final Set<Long> pooledConstants = new HashSet<>();
+    /** The bits of the constants loaded from the array of constants, and their index in it */
+    private final Map<Long, Integer> arrayConstants = new LinkedHashMap<>();
+    private int methods = 0;
+
+    /**
+     * Returns the class file of a class evaluating the given expression.
+     *
+     * @throws IllegalArgumentException if the expression is too large to fit in a class
+     */
+    byte[] generate(ScalarNode expression) {
+        allocateConstants(expression);
+        writer.visit(V17, ACC_FINAL | ACC_SUPER, className, null, superName, null);
+
+        MethodVisitor constructor = writer.visitMethod(ACC_PUBLIC, "<init>", "([D)V", null, null);
+        constructor.visitCode();
+        constructor.visitVarInsn(ALOAD, 0);
+        constructor.visitVarInsn(ALOAD, 1);
+        constructor.visitMethodInsn(INVOKESPECIAL, superName, "<init>", "([D)V", false);
+        constructor.visitInsn(RETURN);
+        constructor.visitMaxs(0, 0);
+        constructor.visitEnd();
+
+        String root = method(expression);
+        while ( ! pendingMethods.isEmpty())
+            emit(pendingMethods.poll());
+        MethodVisitor evaluate = writer.visitMethod(ACC_PUBLIC, "evaluate", evaluateDescriptor, null, null);
+        evaluate.visitCode();
+        evaluate.visitVarInsn(ALOAD, 1);
+        evaluate.visitVarInsn(ALOAD, 0);
+        evaluate.visitFieldInsn(GETFIELD, superName, "constants", "[D");
+        evaluate.visitMethodInsn(INVOKESTATIC, className, root, methodDescriptor, false);
+        evaluate.visitInsn(DRETURN);
+        evaluate.visitMaxs(0, 0);
+        evaluate.visitEnd();
+
+        writer.visitEnd();
+        try {
+            return writer.toByteArray();
+        }
+        catch (ClassTooLargeException | MethodTooLargeException e) {
+            throw new IllegalArgumentException("Expression is too large to compile: " + e.getMessage(), e);
+        }
+    }
+
+    /** Returns the constants to pass to the constructor of the generated class */
+    double[] constants() {
+        return arrayConstants.keySet().stream().mapToDouble(Double::longBitsToDouble).toArray();
+    }
+
+    /** Decides whether each distinct constant of the given expression is loaded from the constant pool or the array */
+    private void allocateConstants(ScalarNode expression) {
+        // Traverse iteratively, as chains of operations may be very long
+        Deque<ScalarNode> nodes = new ArrayDeque<>();
+        nodes.push(expression);
+        while ( ! nodes.isEmpty()) {
+            ScalarNode node = nodes.pop();
+            if (node instanceof ScalarNode.Constant constant) {
+                long bits = Double.doubleToRawLongBits(constant.value());
+                if (isBuiltin(constant.value()) || pooledConstants.contains(bits) || arrayConstants.containsKey(bits))
+                    continue;
+                if (2 * (pooledConstants.size() + 1) <= maxPooledConstantSlots)
+                    pooledConstants.add(bits);
+                else
+                    arrayConstants.put(bits, arrayConstants.size());
+            }
+            else if (node instanceof ScalarNode.Operation operation) {
+                nodes.push(operation.right());
+                nodes.push(operation.left());
+            }
+            else if (node instanceof ScalarNode.Negation negation) {
+                nodes.push(negation.argument());
+            }
+            else if (node instanceof ScalarNode.Not not) {
+                nodes.push(not.argument());
+            }
+            else if (node instanceof ScalarNode.Call call) {
+                nodes.push(call.y());
+                nodes.push(call.x());
+            }
+            else if (node instanceof ScalarNode.If ifNode) {
+                nodes.push(ifNode.whenFalse());
+                nodes.push(ifNode.whenTrue());
+                nodes.push(ifNode.condition());
+            }
+            else if (node instanceof ScalarNode.In in) {
+                in.set().forEach(nodes::push);
+                nodes.push(in.testValue());
+            }
+        }
+    }
+
+    /**
+     * Returns the name of a static method evaluating the given expression. The method is emitted later,
+     * such that long chains of methods calling each other are not emitted recursively.
+     */
+    private String method(ScalarNode node) {
+        Method method = new Method("e" + methods++, node);
+        pendingMethods.add(method);
+        return method.name();
+    }
+
+    private void emit(Method method) {
+        MethodVisitor code = writer.visitMethod(ACC_PRIVATE | ACC_STATIC, method.name(), methodDescriptor, null, null);
+        code.visitCode();
+        new MethodGenerator(code).emit(method.node());
+        code.visitInsn(DRETURN);
+        code.visitMaxs(0, 0);
+        code.visitEnd();
+    }
+
+    /**
+     * Returns the size in bytes of the code emitted for the given node,
+     * counting children which are emitted in separate methods by the size of calling them.
+     */
+    private int size(ScalarNode node) {
+        Integer size = sizes.get(node);
+        if (size != null) return size;
+
+        // Size the left operands of chains of operations iteratively, as these may be very long
+        List<ScalarNode.Operation> chain = new ArrayList<>();
+        for (ScalarNode left = node; left instanceof ScalarNode.Operation operation && ! sizes.containsKey(left); left = operation.left())
+            chain.add(operation);
+        for (int i = chain.size() - 1; i >= 0; i--)
+            sizes.put(chain.get(i), computeSize(chain.get(i)));
+
+        if ( ! sizes.containsKey(node))
+            sizes.put(node, computeSize(node));
+        return sizes.get(node);
+    }
+
+    private int computeSize(ScalarNode node) {
+        if (node instanceof ScalarNode.Constant constant) {
+            Integer index = arrayConstants.get(Double.doubleToRawLongBits(constant.value()));
+            return index == null ? 3 : 1 + pushIntSize(index) + 1;
+        }
+        if (node instanceof ScalarNode.Variable variable) return 1 + pushIntSize(variable.index()) + 3;
+        if (node instanceof ScalarNode.Operation operation) {
+            int operands = inlinedSize(operation.left()) + inlinedSize(operation.right());
+            return switch (operation.operator()) {
+                case and, or -> operands + 2 * truthSize + 2;
+                case approxEqual -> operands + 3 + booleanSize;
+                case power -> operands + 3;
+                default -> operands + (ScalarNode.Operation.isComparison(operation.operator()) ? 1 + booleanSize : 1);
+            };
+        }
+        if (node instanceof ScalarNode.Negation negation) return inlinedSize(negation.argument()) + 1;
+        if (node instanceof ScalarNode.Not not) return inlinedSize(not.argument()) + 5 + booleanSize;
+        if (node instanceof ScalarNode.Call call) return 3 + inlinedSize(call.x()) + inlinedSize(call.y()) + 3;
+        if (node instanceof ScalarNode.If ifNode)
+            return inlinedSize(ifNode.condition()) + 5 + inlinedSize(ifNode.whenTrue()) + 3 + inlinedSize(ifNode.whenFalse());
+        if (node instanceof ScalarNode.In in) {
+            int size = inlinedSize(in.testValue()) + 2 + 3 + booleanSize;
+            for (ScalarNode element : in.set())
+                size += 2 + inlinedSize(element) + 1 + 3;
+            return size;
+        }
+        throw new IllegalArgumentException("Unknown node " + node);
+    }
+
+    /** The size of the code turning a condition into a double or int */
+    private static final int booleanSize = 3 + 1 + 3 + 1;
+
+    /** The size of the code turning a double into an int which is 0 if it is 0, and 1 otherwise */
+    private static final int truthSize = 1 + 1 + booleanSize;
+
+    private int inlinedSize(ScalarNode node) {
+        int size = size(node);
+        return size > maxInlinedSize ? callSize : size;
+    }
+
+    /** Returns the size of the code emitted by pushInt(value) */
+    private static int pushIntSize(int value) {
+        if (value >= -1 && value <= 5) return 1;
+        if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) return 2;
+        if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) return 3;
+        if (value >= 0 && value < 1 << 30) return 3 + 2 + 1 + 3 + 1;
+        return 3;
+    }
+
+    /** Returns whether the given double is pushed by an instruction of its own rather than from the constant pool */
+    private static boolean isBuiltin(double value) {
+        return Double.doubleToRawLongBits(value) == 0L || value == 1.0;
+    }
+
+    private static String internalName(String name) {
+        return name.replace('.', '/');
+    }
+
+    private record Method(String name, ScalarNode node) {}
+
+    /** Emits the code of a single method */
+    private class MethodGenerator {
+
+        private final MethodVisitor code;
+
+        /** The next local variable slot which is free, after the context and constants arguments */
+        private int nextLocal = 2;
+
+        MethodGenerator(MethodVisitor code) {
+            this.code = code;
+        }
+
+        /** Emits code leaving the value of the given child on the stack, as a call if it is large */
+        void emitChild(ScalarNode node) {
+            if (size(node) > maxInlinedSize) {
+                String method = method(node);
+                code.visitVarInsn(ALOAD, 0);
+                code.visitVarInsn(ALOAD, 1);
+                code.visitMethodInsn(INVOKESTATIC, className, method, methodDescriptor, false);
+            }
+            else {
+                emit(node);
+            }
+        }
+
+        /** Emits code leaving the value of the given node on the stack */
+        void emit(ScalarNode node) {
+            if (node instanceof ScalarNode.Constant constant) {
+                emitConstant(constant.value());
+            }
+            else if (node instanceof ScalarNode.Variable variable) {
+                code.visitVarInsn(ALOAD, 0);
+                pushInt(variable.index());
+                code.visitMethodInsn(INVOKEVIRTUAL, contextName, "getDouble", "(I)D", false);
+            }
+            else if (node instanceof ScalarNode.Operation operation) {
+                emitOperations(operation);
+            }
+            else if (node instanceof ScalarNode.Negation negation) {
+                emitChild(negation.argument());
+                code.visitInsn(DNEG);
+            }
+            else if (node instanceof ScalarNode.Call call) {
+                code.visitFieldInsn(GETSTATIC, functionName, call.function().name(), "L" + functionName + ";");
+                emitChild(call.x());
+                emitChild(call.y());
+                code.visitMethodInsn(INVOKEVIRTUAL, functionName, "evaluate", "(DD)D", false);
+            }
+            else if (node instanceof ScalarNode.If ifNode) {
+                Label whenFalse = new Label();
+                Label end = new Label();
+                emitJump(ifNode.condition(), false, whenFalse);
+                emitChild(ifNode.whenTrue());
+                code.visitJumpInsn(GOTO, end);
+                code.visitLabel(whenFalse);
+                emitChild(ifNode.whenFalse());
+                code.visitLabel(end);
+            }
+            else if (node.isBoolean()) { // Not and In
+                emitBoolean(node);
+            }
+            else {
+                throw new IllegalArgumentException("Unknown node " + node);
+            }
+        }
+
+        /**
+         * Emits a chain of operations where each is the left operand of the next, inlining the left operands
+         * iteratively, as these may be very long.
+         */
+        private void emitOperations(ScalarNode.Operation operation) {
+            List<ScalarNode.Operation> chain = new ArrayList<>();
+            chain.add(operation);
+            while (chain.get(chain.size() - 1).left() instanceof ScalarNode.Operation left && size(left) <= maxInlinedSize)
+                chain.add(left);
+
+            emitChild(chain.get(chain.size() - 1).left());
+            for (int i = chain.size() - 1; i >= 0; i--) {
+                ScalarNode.Operation current = chain.get(i);
+                switch (current.operator()) {
+                    case and, or -> {
+                        emitTruth();
+                        emitChild(current.right());
+                        emitTruth();
+                        code.visitInsn(current.operator() == Operator.and ? IAND : IOR);
+                        code.visitInsn(I2D);
+                    }
+                    case plus -> arithmetic(current, DADD);
+                    case minus -> arithmetic(current, DSUB);
+                    case multiply -> arithmetic(current, DMUL);
+                    case divide -> arithmetic(current, DDIV);
+                    case modulo -> arithmetic(current, DREM);
+                    case power -> {
+                        emitChild(current.right());
+                        code.visitMethodInsn(INVOKESTATIC, "java/lang/Math", "pow", "(DD)D", false);
+                    }
+                    default -> { // comparisons
+                        emitChild(current.right());
+                        Label isFalse = new Label();
+                        emitComparisonJump(current.operator(), false, isFalse);
+                        emitBooleanValues(isFalse);
+                    }
+                }
+            }
+        }
+
+        private void emitConstant(double value) {
+            Integer index = arrayConstants.get(Double.doubleToRawLongBits(value));
+            if (index == null) {
+                pushDouble(value);
+            }
+            else {
+                code.visitVarInsn(ALOAD, 1);
+                pushInt(index);
+                code.visitInsn(DALOAD);
+            }
+        }
+
+        private void pushInt(int value) {
+            if (value >= -1 && value <= 5) {
+                code.visitInsn(ICONST_0 + value);
+            }
+            else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+                code.visitIntInsn(BIPUSH, value);
+            }
+            else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+                code.visitIntInsn(SIPUSH, value);
+            }
+            else if (value >= 0 && value < 1 << 30) { // compose from 15 bit halves rather than adding to the constant pool
+                code.visitIntInsn(SIPUSH, value >> 15);
+                code.visitIntInsn(BIPUSH, 15);
+                code.visitInsn(ISHL);
+                code.visitIntInsn(SIPUSH, value & 0x7FFF);
+                code.visitInsn(IOR);
+            }
+            else {
+                code.visitLdcInsn(value);
+            }
+        }
+
+        private void pushDouble(double value) {
+            if (Double.doubleToRawLongBits(value) == 0L)
+                code.visitInsn(DCONST_0);
+            else if (value == 1.0)
+                code.visitInsn(DCONST_1);
+            else
+                code.visitLdcInsn(value);
+        }
+
+        private void arithmetic(ScalarNode.Operation operation, int opcode) {
+            emitChild(operation.right());
+            code.visitInsn(opcode);
+        }
+
+        /** Replaces the double on top of the stack by the int 0 if it is 0, and 1 otherwise, as in asBoolean() */
+        private void emitTruth() {
+            Label isFalse = new Label();
+            Label end = new Label();
+            code.visitInsn(DCONST_0);
+            code.visitInsn(DCMPL);
+            code.visitJumpInsn(IFEQ, isFalse);
+            code.visitInsn(ICONST_1);
+            code.visitJumpInsn(GOTO, end);
+            code.visitLabel(isFalse);
+            code.visitInsn(ICONST_0);
+            code.visitLabel(end);
+        }
+
+        /** Emits code leaving 1.0 on the stack if the given boolean node is true, and 0.0 otherwise */
+        private void emitBoolean(ScalarNode node) {
+            Label isFalse = new Label();
+            emitInlinedJump(node, false, isFalse);
+            emitBooleanValues(isFalse);
+        }
+
+        /** Pushes 1.0 if reached by falling through, and 0.0 if jumped to the given label */
+        private void emitBooleanValues(Label isFalse) {
+            Label end = new Label();
+            code.visitInsn(DCONST_1);
+            code.visitJumpInsn(GOTO, end);
+            code.visitLabel(isFalse);
+            code.visitInsn(DCONST_0);
+            code.visitLabel(end);
+        }
+
+        /** Emits code jumping to the target if the truth of the given node is equal to jumpIf */
+        private void emitJump(ScalarNode node, boolean jumpIf, Label target) {
+            if (size(node) > maxInlinedSize) {
+                emitChild(node);
+                emitTruthJump(jumpIf, target);
+            }
+            else {
+                emitInlinedJump(node, jumpIf, target);
+            }
+        }
+
+        private void emitInlinedJump(ScalarNode node, boolean jumpIf, Label target) {
+            if (node instanceof ScalarNode.Operation operation && ScalarNode.Operation.isComparison(operation.operator())) {
+                emitChild(operation.left());
+                emitChild(operation.right());
+                emitComparisonJump(operation.operator(), jumpIf, target);
+            }
+            else if (node instanceof ScalarNode.Not not) {
+                emitJump(not.argument(), ! jumpIf, target);
+            }
+            else if (node instanceof ScalarNode.In in) {
+                emitMembershipJump(in, jumpIf, target);
+            }
+            else {
+                emit(node);
+                emitTruthJump(jumpIf, target);
+            }
+        }
+
+        /** Emits code jumping if the truth of the double on top of the stack is equal to jumpIf, as in asBoolean() */
+        private void emitTruthJump(boolean jumpIf, Label target) {
+            code.visitInsn(DCONST_0);
+            code.visitInsn(DCMPL);
+            code.visitJumpInsn(jumpIf ? IFNE : IFEQ, target);
+        }
+
+        /**
+         * Emits code comparing the two doubles on top of the stack and jumping if the result is equal to jumpIf.
+         * As in Java, comparisons involving NaN are false, except not equal.
+         */
+        private void emitComparisonJump(Operator operator, boolean jumpIf, Label target) {
+            switch (operator) {
+                case smaller -> compareAndJump(DCMPG, jumpIf ? IFLT : IFGE, target);
+                case smallerOrEqual -> compareAndJump(DCMPG, jumpIf ? IFLE : IFGT, target);
+                case larger -> compareAndJump(DCMPL, jumpIf ? IFGT : IFLE, target);
+                case largerOrEqual -> compareAndJump(DCMPL, jumpIf ? IFGE : IFLT, target);
+                case equal -> compareAndJump(DCMPL, jumpIf ? IFEQ : IFNE, target);
+                case notEqual -> compareAndJump(DCMPL, jumpIf ? IFNE : IFEQ, target);
+                case approxEqual -> {
+                    code.visitMethodInsn(INVOKESTATIC, superName, "approxEqual", "(DD)Z", false);
+                    code.visitJumpInsn(jumpIf ? IFNE : IFEQ, target);
+                }
+                default -> throw new IllegalArgumentException(operator + " is not a comparison");
+            }
+        }
+
+        private void compareAndJump(int comparison, int jump, Label target) {
+            code.visitInsn(comparison);
+            code.visitJumpInsn(jump, target);
+        }
+
+        private void emitMembershipJump(ScalarNode.In in, boolean jumpIf, Label target) {
+            emitChild(in.testValue());
+            int local = allocateDouble();
+            code.visitVarInsn(DSTORE, local);
+            Label isMember = jumpIf ? target : new Label();
+            for (ScalarNode element : in.set()) {
+                code.visitVarInsn(DLOAD, local);
+                emitChild(element);
+                compareAndJump(DCMPL, IFEQ, isMember);
+            }
+            if ( ! jumpIf) {
+                code.visitJumpInsn(GOTO, target);
+                code.visitLabel(isMember);
+            }
+            nextLocal -= 2;
+        }
+
+        private int allocateDouble() {
+            if (nextLocal + 2 > 0xFF)
+                throw new IllegalArgumentException("Too deeply nested set membership tests");
+            int local = nextLocal;
+            nextLocal += 2;
+            return local;
+        }
+
+    }
+
+}
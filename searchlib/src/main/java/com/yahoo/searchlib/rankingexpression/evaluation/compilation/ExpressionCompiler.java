@@ -0,0 +1,220 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.searchlib.rankingexpression.evaluation.compilation;
+
+import com.yahoo.searchlib.rankingexpression.RankingExpression;
+import com.yahoo.searchlib.rankingexpression.evaluation.BooleanValue;
+import com.yahoo.searchlib.rankingexpression.evaluation.ContextIndex;
+import com.yahoo.searchlib.rankingexpression.evaluation.DoubleCompatibleValue;
+import com.yahoo.searchlib.rankingexpression.evaluation.OptimizationReport;
+import com.yahoo.searchlib.rankingexpression.evaluation.Optimizer;
+import com.yahoo.searchlib.rankingexpression.evaluation.StringValue;
+import com.yahoo.searchlib.rankingexpression.evaluation.Value;
+import com.yahoo.searchlib.rankingexpression.rule.CompositeNode;
+import com.yahoo.searchlib.rankingexpression.rule.ConstantNode;
+import com.yahoo.searchlib.rankingexpression.rule.EmbracedNode;
+import com.yahoo.searchlib.rankingexpression.rule.ExpressionNode;
+import com.yahoo.searchlib.rankingexpression.rule.FunctionNode;
+import com.yahoo.searchlib.rankingexpression.rule.IfNode;
+import com.yahoo.searchlib.rankingexpression.rule.NegativeNode;
+import com.yahoo.searchlib.rankingexpression.rule.NotNode;
+import com.yahoo.searchlib.rankingexpression.rule.OperationNode;
+import com.yahoo.searchlib.rankingexpression.rule.Operator;
+import com.yahoo.searchlib.rankingexpression.rule.ReferenceNode;
+import com.yahoo.searchlib.rankingexpression.rule.SetMembershipNode;
+import com.yahoo.yolean.Exceptions;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * <p>Compiles the parts of ranking expressions which operate on doubles only (arithmetic, comparisons, conditions,
+ * set membership and scalar functions) to bytecode, replacing them by {@link CompiledNode}s. Subexpressions which
+ * cannot be compiled, such as tensor functions, are left to be interpreted, while their arguments may be compiled.
+ * This includes GBDT trees and forests, so when enabled this runs before the GBDT optimizers.</p>
+ *
+ * <p>Like the GBDT optimizers, compiled expressions look up values by index and must be evaluated using a context
+ * created from the ranking expression before it is optimized. The compiled code is part of the optimized expression,
+ * so it is reused by all evaluations of it.</p>
+ *
+ * <p>This is disabled by default.</p>
+ *
+ * @author agent
+ */
+public class ExpressionCompiler extends Optimizer {
+
+    public ExpressionCompiler() {
+        setEnabled(false);
+    }
+
+    /**
+     * Compiles the largest subexpressions of the given expression which can be compiled.
+     *
+     * @param expression the expression to destructively optimize
+     * @param context    a fast lookup context created from the given expression
+     * @param report     the optimization report to which actions of this is logged
+     */
+    @Override
+    public void optimize(RankingExpression expression, ContextIndex context, OptimizationReport report) {
+        if ( ! isEnabled()) return;
+
+        expression.setRoot(compile(expression.getRoot(), context, report));
+        report.note("Expression compilation done");
+    }
+
+    private ExpressionNode compile(ExpressionNode node, ContextIndex context, OptimizationReport report) {
+        try {
+            ScalarNode scalar = toScalar(node, context);
+            if (scalar instanceof ScalarNode.Constant || scalar instanceof ScalarNode.Variable) return node;
+            if (scalar.mayBeBoolean() && ! scalar.isBoolean()) // the compiled node must produce the same type of value
+                throw new IllegalArgumentException("Cannot compile " + node + ", which may produce both booleans and doubles");
+            ExpressionClassGenerator generator = new ExpressionClassGenerator();
+            byte[] classFile = generator.generate(scalar);
+            CompiledExpression compiled = CompiledExpression.define(classFile, generator.constants());
+            report.incMetric("Compiled expressions", 1);
+            return new CompiledNode(node, compiled, scalar.isBoolean());
+        }
+        catch (IllegalArgumentException e) {
+            if ( ! isScalar(node)) {
+                report.note("Not compiled: " + Exceptions.toMessageString(e));
+                return node;
+            }
+            // Some subexpression cannot be compiled: Compile the children instead
+            CompositeNode composite = (CompositeNode)node;
+            List<ExpressionNode> children = new ArrayList<>();
+            for (ExpressionNode child : composite.children())
+                children.add(compile(child, context, report));
+            return composite.setChildren(children);
+        }
+    }
+
+    /** Returns whether this is a node which is translated to a scalar node if its children can be */
+    private boolean isScalar(ExpressionNode node) {
+        return node instanceof OperationNode || node instanceof IfNode || node instanceof NotNode ||
+               node instanceof NegativeNode || node instanceof EmbracedNode || node instanceof FunctionNode ||
+               node instanceof SetMembershipNode;
+    }
+
+    /**
+     * Returns the scalar node equivalent to the given expression, provided all the values it references are doubles.
+     *
+     * @throws IllegalArgumentException if the expression cannot be compiled
+     */
+    private ScalarNode toScalar(ExpressionNode node, ContextIndex context) {
+        if (node instanceof ConstantNode constant) {
+            Value value = constant.getValue();
+            if ( ! (value instanceof DoubleCompatibleValue))
+                throw new IllegalArgumentException("Cannot compile a " + value.getClass().getSimpleName() + " constant: " + node);
+            return new ScalarNode.Constant(value.asDouble(), value instanceof BooleanValue);
+        }
+        if (node instanceof ReferenceNode reference) {
+            return new ScalarNode.Variable(indexOf(reference, context));
+        }
+        if (node instanceof EmbracedNode embraced) {
+            return toScalar(embraced.getValue(), context);
+        }
+        if (node instanceof NegativeNode negative) {
+            return new ScalarNode.Negation(toScalar(negative.getValue(), context));
+        }
+        if (node instanceof NotNode not) {
+            return new ScalarNode.Not(toScalar(not.getValue(), context));
+        }
+        if (node instanceof OperationNode operation) {
+            return toScalar(operation, context);
+        }
+        if (node instanceof IfNode ifNode) {
+            return new ScalarNode.If(toScalar(ifNode.getCondition(), context),
+                                     toScalar(ifNode.getTrueExpression(), context),
+                                     toScalar(ifNode.getFalseExpression(), context));
+        }
+        if (node instanceof FunctionNode function) {
+            List<ExpressionNode> arguments = function.children();
+            return new ScalarNode.Call(function.getFunction(),
+                                       arguments.size() > 0 ? toScalar(arguments.get(0), context) : new ScalarNode.Constant(0),
+                                       arguments.size() > 1 ? toScalar(arguments.get(1), context) : new ScalarNode.Constant(0));
+        }
+        if (node instanceof SetMembershipNode membership) {
+            ScalarNode testValue = toScalar(membership.getTestValue(), context);
+            if (testValue.mayBeBoolean()) // booleans are equal to all non-zero values
+                throw new IllegalArgumentException("Cannot compile a set membership test of a boolean: " + node);
+            if (membership.getSetValues().isEmpty())
+                throw new IllegalArgumentException("Cannot compile a membership test in an empty set: " + node);
+            List<ScalarNode> set = new ArrayList<>();
+            for (ExpressionNode element : membership.getSetValues())
+                set.add(toScalarOrString(element, context));
+            return new ScalarNode.In(testValue, set);
+        }
+        throw new IllegalArgumentException("Cannot compile " + node.getClass().getSimpleName() + ": " + node);
+    }
+
+    /** Converts a sequence of operations to a tree of binary operations in the same way as OperationNode evaluates it */
+    private ScalarNode toScalar(OperationNode node, ContextIndex context) {
+        Iterator<ExpressionNode> child = node.children().iterator();
+        Deque<Operand> stack = new ArrayDeque<>();
+        stack.push(new Operand(null, child.next()));
+        for (Iterator<Operator> it = node.operators().iterator(); it.hasNext() && child.hasNext();) {
+            Operator op = it.next();
+            while (stack.size() > 1 && ! op.hasPrecedenceOver(stack.peek().operator))
+                pop(stack, context);
+            stack.push(new Operand(op, child.next()));
+        }
+        while (stack.size() > 1)
+            pop(stack, context);
+        return stack.getFirst().toScalar(null, context);
+    }
+
+    private void pop(Deque<Operand> stack, ContextIndex context) {
+        Operand right = stack.pop();
+        Operand left = stack.peek();
+        left.scalar = new ScalarNode.Operation(right.operator,
+                                               left.toScalar(right.operator, context),
+                                               right.toScalar(right.operator, context));
+        left.node = null;
+    }
+
+    /** Returns the node as a scalar, where string constants are converted to their double (hash) value */
+    private ScalarNode toScalarOrString(ExpressionNode node, ContextIndex context) {
+        if (node instanceof ConstantNode constant && constant.getValue() instanceof StringValue string)
+            return new ScalarNode.Constant(string.asDouble());
+        return toScalar(node, context);
+    }
+
+    private int indexOf(ReferenceNode reference, ContextIndex context) {
+        try {
+            return context.getIndex(reference.toString());
+        }
+        catch (RuntimeException e) { // not known to the context: NullPointerException or IllegalArgumentException
+            throw new IllegalArgumentException("Cannot compile " + reference + ", which is not known to " + context);
+        }
+    }
+
+    /** An operand in a sequence of operations, which is converted to a scalar node when used */
+    private class Operand {
+
+        /** The operator applied between this and the preceding operand */
+        final Operator operator;
+
+        ExpressionNode node;
+        ScalarNode scalar;
+
+        Operand(Operator operator, ExpressionNode node) {
+            this.operator = operator;
+            this.node = node;
+        }
+
+        /**
+         * Returns this as a scalar node. String constants are only accepted as an operand of equality comparisons,
+         * which compare their double (hash) values.
+         */
+        ScalarNode toScalar(Operator usedBy, ContextIndex context) {
+            if (scalar != null) return scalar;
+            if (usedBy == Operator.equal || usedBy == Operator.notEqual)
+                return toScalarOrString(node, context);
+            return ExpressionCompiler.this.toScalar(node, context);
+        }
+
+    }
+
+}
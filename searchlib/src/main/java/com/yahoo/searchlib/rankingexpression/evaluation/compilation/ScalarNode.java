@@ -0,0 +1,75 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.searchlib.rankingexpression.evaluation.compilation;
+
+import com.yahoo.searchlib.rankingexpression.rule.Function;
+import com.yahoo.searchlib.rankingexpression.rule.Operator;
+
+import java.util.List;
+
+/**
+ * A node in an expression over doubles, which is what expression nodes are translated to before they are compiled.
+ * Operations are binary here, with the operator precedence of the expression already applied.
+ *
+ * @author agent
+ */
+interface ScalarNode {
+
+    /** Returns whether this produces a boolean, i.e. 1.0 for true and 0.0 for false */
+    default boolean isBoolean() { return false; }
+
+    /** Returns whether this may produce a boolean, depending on the values it is evaluated with */
+    default boolean mayBeBoolean() { return isBoolean(); }
+
+    record Constant(double value, boolean isBoolean) implements ScalarNode {
+
+        Constant(double value) { this(value, false); }
+
+    }
+
+    /** A value looked up by index in the context */
+    record Variable(int index) implements ScalarNode {}
+
+    record Operation(Operator operator, ScalarNode left, ScalarNode right) implements ScalarNode {
+
+        @Override
+        public boolean isBoolean() { return isComparison(operator) || operator == Operator.and || operator == Operator.or; }
+
+        static boolean isComparison(Operator operator) {
+            return switch (operator) {
+                case largerOrEqual, larger, smallerOrEqual, smaller, approxEqual, notEqual, equal -> true;
+                default -> false;
+            };
+        }
+
+    }
+
+    record Negation(ScalarNode argument) implements ScalarNode {}
+
+    record Not(ScalarNode argument) implements ScalarNode {
+
+        @Override
+        public boolean isBoolean() { return true; }
+
+    }
+
+    /** An invocation of a function, with 0 as the second argument if the function is unary */
+    record Call(Function function, ScalarNode x, ScalarNode y) implements ScalarNode {}
+
+    record If(ScalarNode condition, ScalarNode whenTrue, ScalarNode whenFalse) implements ScalarNode {
+
+        @Override
+        public boolean isBoolean() { return whenTrue.isBoolean() && whenFalse.isBoolean(); }
+
+        @Override
+        public boolean mayBeBoolean() { return whenTrue.mayBeBoolean() || whenFalse.mayBeBoolean(); }
+
+    }
+
+    record In(ScalarNode testValue, List<ScalarNode> set) implements ScalarNode {
+
+        @Override
+        public boolean isBoolean() { return true; }
+
+    }
+
+}
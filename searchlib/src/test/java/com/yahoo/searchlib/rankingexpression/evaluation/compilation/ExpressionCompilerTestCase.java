@@ -0,0 +1,157 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.searchlib.rankingexpression.evaluation.compilation;
+
+import com.yahoo.searchlib.rankingexpression.RankingExpression;
+import com.yahoo.searchlib.rankingexpression.evaluation.ArrayContext;
+import com.yahoo.searchlib.rankingexpression.evaluation.DoubleValue;
+import com.yahoo.searchlib.rankingexpression.evaluation.ExpressionOptimizer;
+import com.yahoo.searchlib.rankingexpression.evaluation.MapContext;
+import com.yahoo.searchlib.rankingexpression.evaluation.OptimizationReport;
+import com.yahoo.searchlib.rankingexpression.evaluation.TensorValue;
+import com.yahoo.searchlib.rankingexpression.evaluation.Value;
+import com.yahoo.searchlib.rankingexpression.parser.ParseException;
+import com.yahoo.tensor.Tensor;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author agent
+ */
+public class ExpressionCompilerTestCase {
+
+    private static final double[] values = { 0, 1, -1, 0.5, 2, 3.25, -0.0 };
+
+    @Test
+    public void testCompilingIsDisabledByDefault() throws ParseException {
+        RankingExpression expression = new RankingExpression("a * 2 + b");
+        new ExpressionOptimizer().optimize(expression, new ArrayContext(expression));
+        assertFalse(expression.getRoot() instanceof CompiledNode);
+    }
+
+    @Test
+    public void testScalarExpressions() throws ParseException {
+        assertCompiled("a * 2 + b - c / 4 % 3 ^ 2");
+        assertCompiled("-a + -(b - c)");
+        assertCompiled("a < b && b <= c || !(a == c)");
+        assertCompiled("a > b || a >= c != b ~= c");
+        assertCompiled("if (a < b, c, if (b in [0, 1, 2.0], a + 1, -c))");
+        assertCompiled("if (a, b, c) * if (!b, 1, 2)");
+        assertCompiled("max(a, b) + min(b, c) + pow(a, 2) + sqrt(fabs(c)) + atan2(a, b) + exp(c) + log(fabs(b) + 1)");
+        assertCompiled("sigmoid(a) + tanh(b) + floor(c * 1.5) + ceil(a / 3) + isNan(b) + relu(c)");
+        assertCompiled("if (a in [\"foo\", 1, 2], 1, 0) + (b == \"bar\")");
+    }
+
+    @Test
+    public void testBooleanResult() throws ParseException {
+        RankingExpression expression = new RankingExpression("a < b && b < c");
+        ArrayContext context = new ArrayContext(expression);
+        optimize(expression, context);
+        context.put("a", 1d);
+        context.put("b", 2d);
+        context.put("c", 3d);
+        Value result = expression.evaluate(context);
+        assertTrue(result.asBoolean());
+        assertEquals("true", result.toString());
+    }
+
+    @Test
+    public void testPartialCompilation() throws ParseException {
+        RankingExpression expression = new RankingExpression("reduce(t, sum) * (a + b * c)");
+        ArrayContext context = new ArrayContext(expression);
+        OptimizationReport report = optimize(expression, context);
+        assertEquals(1, report.getMetric("Compiled expressions"));
+        assertFalse(expression.getRoot() instanceof CompiledNode);
+
+        context.put("t", new TensorValue(Tensor.from("tensor(x[2]):[1, 2]")));
+        context.put("a", 2d);
+        context.put("b", 3d);
+        context.put("c", 4d);
+        assertEquals(42.0, expression.evaluate(context).asDouble(), 0);
+    }
+
+    @Test
+    public void testFallbackToInterpretation() throws ParseException {
+        RankingExpression expression = new RankingExpression("a * 2 + b");
+        ArrayContext context = new ArrayContext(expression);
+        optimize(expression, context);
+        assertTrue(expression.getRoot() instanceof CompiledNode);
+
+        context.put("a", new TensorValue(Tensor.from("tensor(x[2]):[1, 2]")));
+        context.put("b", 1d);
+        assertEquals(Tensor.from("tensor(x[2]):[3, 5]"), expression.evaluate(context).asTensor());
+
+        context.put("a", 3d);
+        assertEquals(7.0, expression.evaluate(context).asDouble(), 0);
+    }
+
+    @Test
+    public void testLargeForest() throws ParseException {
+        Random random = new Random(42);
+        StringBuilder forest = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            if (i > 0) forest.append(" + ");
+            forest.append(tree(random, 4));
+        }
+        RankingExpression expression = new RankingExpression(forest.toString());
+        RankingExpression interpreted = new RankingExpression(forest.toString());
+        ArrayContext context = new ArrayContext(expression, DoubleValue.NaN);
+        OptimizationReport report = optimize(expression, context);
+        assertEquals(1, report.getMetric("Compiled expressions"));
+        assertTrue(expression.getRoot() instanceof CompiledNode);
+
+        for (int i = 0; i < 100; i++) {
+            MapContext arguments = new MapContext(DoubleValue.NaN);
+            for (String feature : new String[] { "a", "b", "c", "d" }) {
+                double value = values[random.nextInt(values.length)];
+                arguments.put(feature, value);
+                context.put(feature, value);
+            }
+            assertEquals(interpreted.evaluate(arguments).asDouble(), expression.evaluate(context).asDouble(), 1e-9);
+        }
+    }
+
+    private String tree(Random random, int depth) {
+        if (depth == 0) return String.valueOf(random.nextDouble() - 0.5);
+        String feature = String.valueOf((char)('a' + random.nextInt(4)));
+        return "if (" + feature + " < " + values[random.nextInt(values.length)] + ", " +
+               tree(random, depth - 1) + ", " + tree(random, depth - 1) + ")";
+    }
+
+    /** Asserts that the given expression over a, b and c is compiled and produces the same results as when interpreted */
+    private void assertCompiled(String expressionString) throws ParseException {
+        RankingExpression expression = new RankingExpression(expressionString);
+        RankingExpression interpreted = new RankingExpression(expressionString);
+        ArrayContext context = new ArrayContext(expression);
+        OptimizationReport report = optimize(expression, context);
+        assertEquals(expressionString, 1, report.getMetric("Compiled expressions"));
+        assertTrue(expressionString, expression.getRoot() instanceof CompiledNode);
+
+        for (double a : values) {
+            for (double b : values) {
+                for (double c : values) {
+                    MapContext arguments = new MapContext();
+                    arguments.put("a", a);
+                    arguments.put("b", b);
+                    arguments.put("c", c);
+                    context.put("a", a);
+                    context.put("b", b);
+                    context.put("c", c);
+                    assertEquals(expressionString + " with a=" + a + ", b=" + b + ", c=" + c,
+                                 interpreted.evaluate(arguments).asDouble(), expression.evaluate(context).asDouble(), 0);
+                }
+            }
+        }
+    }
+
+    private OptimizationReport optimize(RankingExpression expression, ArrayContext context) {
+        ExpressionOptimizer optimizer = new ExpressionOptimizer();
+        optimizer.setCompiling(true);
+        return optimizer.optimize(expression, context);
+    }
+
+}
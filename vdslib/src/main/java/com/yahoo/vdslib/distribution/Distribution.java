@@ -169,17 +169,17 @@ public class Distribution {
         configSubscriber = null;
     }
 
-    private int getGroupSeed(BucketId bucket, ClusterState state, Group group) {
+    static int getGroupSeed(BucketId bucket, ClusterState state, Group group) {
         int seed = (int) lastNBits(bucket.getRawId(), state.getDistributionBitCount());
         seed ^= group.getDistributionHash();
         return seed;
     }
 
-    private int getDistributorSeed(BucketId bucket, ClusterState state) {
+    static int getDistributorSeed(BucketId bucket, ClusterState state) {
         return (int) lastNBits(bucket.getRawId(), state.getDistributionBitCount());
     }
 
-    private int getStorageSeed(BucketId bucket, ClusterState state) {
+    static int getStorageSeed(BucketId bucket, ClusterState state) {
         int seed = (int)lastNBits(bucket.getRawId(), state.getDistributionBitCount());
 
         if (bucket.getUsedBits() > 33) {
@@ -415,6 +415,15 @@ public class Distribution {
         }
     }
 
+    /**
+     * Returns a calculator of the ideal nodes of buckets in the given state, with the current config of this,
+     * which is faster than the per bucket methods of this when computing the ideal nodes of many buckets.
+     */
+    public IdealNodeCalculator createIdealNodeCalculator(ClusterState state, String upStates) {
+        Config cfg = config.getAcquire();
+        return new IdealNodeCalculator(state, cfg.nodeGraph, cfg.redundancy, upStates);
+    }
+
     public int getIdealDistributorNode(ClusterState state, BucketId bucket, String upStates) throws TooFewBucketBitsInUseException, NoDistributorsAvailableException {
         if (bucket.getUsedBits() < state.getDistributionBitCount()) {
             throw new TooFewBucketBitsInUseException("Cannot get ideal state for bucket " + bucket + " using " + bucket.getUsedBits()
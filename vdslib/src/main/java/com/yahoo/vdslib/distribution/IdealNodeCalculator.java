@@ -0,0 +1,347 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vdslib.distribution;
+
+import com.yahoo.document.BucketId;
+import com.yahoo.vdslib.state.ClusterState;
+import com.yahoo.vdslib.state.Node;
+import com.yahoo.vdslib.state.NodeState;
+import com.yahoo.vdslib.state.NodeType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Computes the ideal distributor and storage nodes of buckets in one cluster state, with the same results as
+ * {@link Distribution#getIdealDistributorNode} and {@link Distribution#getIdealStorageNodes}.
+ * The states of all nodes and the structure of the group tree are looked up once, when this is created,
+ * and scratch space is reused between buckets, such that no objects are allocated per bucket.
+ * Create one with {@link Distribution#createIdealNodeCalculator}. This is not thread safe.
+ *
+ * @author agent
+ */
+public class IdealNodeCalculator {
+
+    private final ClusterState state;
+    private final String upStates;
+    private final int redundancy;
+    private final GroupInfo root;
+
+    /** Whether each node, by index, is in one of the up states, and its capacity */
+    private final boolean[] distributorUp;
+    private final double[] distributorCapacity;
+    private final boolean[] storageUp;
+    private final double[] storageCapacity;
+
+    /** The leaf groups, and the number of copies in each, of the bucket being computed */
+    private final GroupInfo[] resultGroups;
+    private final int[] resultRedundancies;
+    private int resultCount;
+
+    /** Scratch space for the best storage nodes of each group */
+    private final int[] bestNodes;
+    private final double[] bestNodeScores;
+
+    /** The state of a generator which produces the same numbers as {@link RandomGen} */
+    private long random;
+
+    IdealNodeCalculator(ClusterState state, Group rootGroup, int redundancy, String upStates) {
+        this.state = state;
+        this.upStates = upStates;
+        this.redundancy = redundancy;
+        List<GroupInfo> leaves = new ArrayList<>();
+        this.root = new GroupInfo(rootGroup, redundancy, leaves);
+
+        int nodeCount = 0;
+        for (GroupInfo leaf : leaves)
+            for (int node : leaf.nodes)
+                nodeCount = Math.max(nodeCount, node + 1);
+        distributorUp = new boolean[nodeCount];
+        distributorCapacity = new double[nodeCount];
+        storageUp = new boolean[nodeCount];
+        storageCapacity = new double[nodeCount];
+        for (GroupInfo leaf : leaves) {
+            for (int node : leaf.nodes) {
+                NodeState distributor = state.getNodeState(new Node(NodeType.DISTRIBUTOR, node));
+                distributorUp[node] = distributor.getState().oneOf(upStates);
+                distributorCapacity[node] = distributor.getCapacity();
+                NodeState storage = state.getNodeState(new Node(NodeType.STORAGE, node));
+                storageUp[node] = storage.getState().oneOf(upStates);
+                storageCapacity[node] = storage.getCapacity();
+            }
+        }
+        root.computeDistributorsDown(state);
+
+        resultGroups = new GroupInfo[leaves.size()];
+        resultRedundancies = new int[leaves.size()];
+        bestNodes = new int[redundancy];
+        bestNodeScores = new double[redundancy];
+    }
+
+    /** Returns the number of copies of each bucket, which is the max number of ideal storage nodes of a bucket */
+    public int redundancy() { return redundancy; }
+
+    /**
+     * Writes the ideal distributor of each of the given buckets to the same position in the given array,
+     * or -1 for buckets which have no available distributor.
+     */
+    public void getIdealDistributorNodes(BucketId[] buckets, int[] distributors) throws Distribution.TooFewBucketBitsInUseException {
+        for (int i = 0; i < buckets.length; i++) {
+            checkUsedBits(buckets[i]);
+            distributors[i] = idealDistributorNode(buckets[i]);
+        }
+    }
+
+    /**
+     * Writes the ideal storage nodes of each of the given buckets to the given array, in order of preference, with
+     * {@link #redundancy()} positions for each bucket, and -1 in the positions of any missing nodes.
+     */
+    public void getIdealStorageNodes(BucketId[] buckets, int[] nodes) throws Distribution.TooFewBucketBitsInUseException {
+        for (int i = 0; i < buckets.length; i++) {
+            int count = getIdealStorageNodes(buckets[i], nodes, i * redundancy);
+            for (int j = count; j < redundancy; j++)
+                nodes[i * redundancy + j] = -1;
+        }
+    }
+
+    /** Returns the ideal distributor of the given bucket, as {@link Distribution#getIdealDistributorNode} */
+    public int getIdealDistributorNode(BucketId bucket) throws Distribution.TooFewBucketBitsInUseException,
+                                                               Distribution.NoDistributorsAvailableException {
+        checkUsedBits(bucket);
+        int distributor = idealDistributorNode(bucket);
+        if (distributor == -2)
+            throw new Distribution.NoDistributorsAvailableException("No distributors available in cluster state version " + state.getVersion());
+        if (distributor == -1)
+            throw new Distribution.NoDistributorsAvailableException("No available distributors in any of the given upstates '" + upStates + "'.");
+        return distributor;
+    }
+
+    /**
+     * Writes the ideal storage nodes of the given bucket, as {@link Distribution#getIdealStorageNodes}, to the given
+     * array, starting at the given offset, and returns the number of nodes written, which is at most {@link #redundancy()}.
+     */
+    public int getIdealStorageNodes(BucketId bucket, int[] nodes, int offset) throws Distribution.TooFewBucketBitsInUseException {
+        checkUsedBits(bucket);
+        resultCount = 0;
+        addIdealGroups(bucket, root, redundancy);
+
+        int seed = Distribution.getStorageSeed(bucket, state);
+        setSeed(seed);
+        int randomIndex = 0;
+        int count = 0;
+        for (int g = 0; g < resultCount; g++) {
+            int groupRedundancy = resultRedundancies[g];
+            for (int i = 0; i < groupRedundancy; i++) {
+                bestNodes[i] = -1;
+                bestNodeScores[i] = 0;
+            }
+            for (int node : resultGroups[g].nodes) {
+                if ( ! storageUp[node]) continue;
+
+                if (node != randomIndex) {
+                    if (node < randomIndex) {
+                        setSeed(seed);
+                        randomIndex = 0;
+                    }
+                    for (int k = randomIndex; k < node; ++k)
+                        nextDouble();
+                    randomIndex = node;
+                }
+                double score = nextDouble();
+                ++randomIndex;
+                if (storageCapacity[node] != 1.0)
+                    score = Math.pow(score, 1.0 / storageCapacity[node]);
+                if (score > bestNodeScores[groupRedundancy - 1]) {
+                    int i = 0;
+                    while ( ! (score > bestNodeScores[i])) i++;
+                    System.arraycopy(bestNodes, i, bestNodes, i + 1, groupRedundancy - 1 - i);
+                    System.arraycopy(bestNodeScores, i, bestNodeScores, i + 1, groupRedundancy - 1 - i);
+                    bestNodes[i] = node;
+                    bestNodeScores[i] = score;
+                }
+            }
+            for (int i = 0; i < groupRedundancy; i++)
+                if (bestNodes[i] != -1)
+                    nodes[offset + count++] = bestNodes[i];
+        }
+        return count;
+    }
+
+    private void checkUsedBits(BucketId bucket) throws Distribution.TooFewBucketBitsInUseException {
+        if (bucket.getUsedBits() < state.getDistributionBitCount())
+            throw new Distribution.TooFewBucketBitsInUseException("Cannot get ideal state for bucket " + bucket + " using " + bucket.getUsedBits()
+                                                                  + " bits when cluster uses " + state.getDistributionBitCount() + " distribution bits.");
+    }
+
+    /** Returns the ideal distributor of the given bucket, or -2 if all groups are down, or -1 if no node in the ideal group is up */
+    private int idealDistributorNode(BucketId bucket) {
+        GroupInfo group = idealDistributorGroup(bucket, root, redundancy);
+        if (group == null) return -2;
+
+        int seed = Distribution.getDistributorSeed(bucket, state);
+        setSeed(seed);
+        int randomIndex = 0;
+        int best = -1;
+        double bestScore = 0;
+        for (int node : group.nodes) {
+            if ( ! distributorUp[node]) continue;
+
+            if (node != randomIndex) {
+                if (node < randomIndex) {
+                    setSeed(seed);
+                    randomIndex = 0;
+                }
+                for (int k = randomIndex; k < node; ++k)
+                    nextDouble();
+                randomIndex = node;
+            }
+            double score = nextDouble();
+            ++randomIndex;
+            if (Math.abs(distributorCapacity[node] - 1.0) > 0.0000001)
+                score = Math.pow(score, 1.0 / distributorCapacity[node]);
+            if (score > bestScore) {
+                best = node;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    private GroupInfo idealDistributorGroup(BucketId bucket, GroupInfo parent, int redundancy) {
+        if (parent.isLeaf()) return parent;
+
+        int[] redundancyArray = parent.group.getDistribution().getRedundancyArray(redundancy);
+        setSeed(Distribution.getGroupSeed(bucket, state, parent.group));
+        int currentIndex = 0;
+        int kept = 0;
+        GroupInfo best = null;
+        double bestScore = 0;
+        for (GroupInfo subgroup : parent.subgroups) {
+            while (subgroup.index < currentIndex++) nextDouble();
+            double score = nextDouble();
+            if (Math.abs(subgroup.capacity - 1.0) > 0.0000001)
+                score = Math.pow(score, 1.0 / subgroup.capacity);
+
+            // Groups with the same score as an earlier group are dropped, as they are from the sorted set used by Distribution
+            boolean duplicate = false;
+            for (int i = 0; i < kept && ! duplicate; i++)
+                duplicate = Double.compare(parent.scores[i], score) == 0;
+            if (duplicate) continue;
+            parent.scores[kept++] = score;
+
+            if ( ! subgroup.allDistributorsDown && (best == null || Double.compare(score, bestScore) > 0)) {
+                best = subgroup;
+                bestScore = score;
+            }
+        }
+        if (best == null) return null;
+        return idealDistributorGroup(bucket, best, redundancyArray[0]);
+    }
+
+    private void addIdealGroups(BucketId bucket, GroupInfo parent, int redundancy) {
+        if (parent.isLeaf()) {
+            resultGroups[resultCount] = parent;
+            resultRedundancies[resultCount++] = redundancy;
+            return;
+        }
+
+        int[] redundancyArray = parent.group.getDistribution().getRedundancyArray(redundancy);
+        int size = redundancyArray.length;
+        GroupInfo[] best = parent.best;
+        double[] scores = parent.scores;
+        for (int i = 0; i < size; i++) {
+            best[i] = null;
+            scores[i] = 0;
+        }
+
+        setSeed(Distribution.getGroupSeed(bucket, state, parent.group));
+        int currentIndex = 0;
+        for (GroupInfo subgroup : parent.subgroups) {
+            while (subgroup.index < currentIndex++) nextDouble();
+            double score = nextDouble();
+            if (subgroup.capacity != 1)
+                score = Math.pow(score, 1.0 / subgroup.capacity);
+
+            // Insert after any with the same score, as the stable sort used by Distribution does
+            if (score > scores[size - 1]) {
+                int i = 0;
+                while (Double.compare(scores[i], score) >= 0) i++;
+                System.arraycopy(best, i, best, i + 1, size - 1 - i);
+                System.arraycopy(scores, i, scores, i + 1, size - 1 - i);
+                best[i] = subgroup;
+                scores[i] = score;
+            }
+        }
+
+        for (int i = 0; i < size; i++)
+            if (best[i] != null)
+                addIdealGroups(bucket, best[i], redundancyArray[i]);
+    }
+
+    private void setSeed(long seed) {
+        random = (seed ^ 0x5DEECE66DL) & ((1L << 48) - 1);
+        nextDouble(); // As RandomGen does
+    }
+
+    private int next(int bits) {
+        random = (random * 0x5DEECE66DL + 0xBL) & ((1L << 48) - 1);
+        return (int) (random >>> (48 - bits));
+    }
+
+    /** Returns the next double, as {@link java.util.Random#nextDouble} */
+    private double nextDouble() {
+        return (((long) next(26) << 27) + next(27)) * 0x1.0p-53;
+    }
+
+    /** A group in the group tree, with the values and scratch space used to compute ideal groups */
+    private static class GroupInfo {
+
+        final Group group;
+        final int index;
+        final double capacity;
+        final GroupInfo[] subgroups;
+        final int[] nodes;
+        boolean allDistributorsDown;
+
+        /** Scratch space for selecting among the subgroups of this, of which at most redundancy are selected */
+        final double[] scores;
+        final GroupInfo[] best;
+
+        GroupInfo(Group group, int redundancy, List<GroupInfo> leaves) {
+            this.group = group;
+            this.index = group.getIndex();
+            this.capacity = group.getCapacity();
+            if (group.isLeafGroup()) {
+                subgroups = new GroupInfo[0];
+                nodes = group.getNodes().stream().mapToInt(ConfiguredNode::index).toArray();
+                leaves.add(this);
+            }
+            else {
+                subgroups = group.getSubgroups().values().stream().map(subgroup -> new GroupInfo(subgroup, redundancy, leaves))
+                                 .toArray(GroupInfo[]::new);
+                nodes = new int[0];
+            }
+            scores = new double[Math.max(subgroups.length, redundancy)];
+            best = new GroupInfo[redundancy];
+        }
+
+        boolean isLeaf() { return group.isLeafGroup(); }
+
+        /** Sets whether all distributors are down, in the same way as Distribution, which uses the states "ui" */
+        boolean computeDistributorsDown(ClusterState state) {
+            allDistributorsDown = true;
+            if (isLeaf()) {
+                for (int node : nodes)
+                    if (state.getNodeState(new Node(NodeType.DISTRIBUTOR, node)).getState().oneOf("ui"))
+                        allDistributorsDown = false;
+            }
+            else {
+                for (GroupInfo subgroup : subgroups)
+                    if ( ! subgroup.computeDistributorsDown(state))
+                        allDistributorsDown = false;
+            }
+            return allDistributorsDown;
+        }
+
+    }
+
+}
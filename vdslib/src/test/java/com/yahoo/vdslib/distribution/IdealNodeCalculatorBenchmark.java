@@ -0,0 +1,66 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vdslib.distribution;
+
+import com.yahoo.document.BucketId;
+import com.yahoo.vdslib.state.ClusterState;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Compares the cost of computing the ideal distributor and storage nodes of many buckets with
+ * {@link Distribution}, one bucket at a time, and with an {@link IdealNodeCalculator}, in bulk.
+ *
+ * Run the main method with these optional, positional arguments: groups, nodes per group, and redundancy.
+ *
+ * @author agent
+ */
+public class IdealNodeCalculatorBenchmark {
+
+    private static final int rounds = 5;
+    private static final int bucketCount = 1 << 18;
+
+    public static void main(String[] args) throws Exception {
+        int groups = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int nodesPerGroup = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int redundancy = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        int nodes = groups * nodesPerGroup;
+        Distribution distribution = new Distribution(IdealNodeCalculatorTest.groupedConfig(redundancy, groups, 1, "1|".repeat(groups - 1) + "*", nodesPerGroup));
+        ClusterState state = new ClusterState("version:1 distributor:" + nodes + " .1.s:d storage:" + nodes + " .2.s:m");
+        BucketId[] buckets = new BucketId[bucketCount];
+        Random random = new Random(1);
+        for (int i = 0; i < buckets.length; i++)
+            buckets[i] = new BucketId(58, random.nextLong());
+
+        System.out.println(groups + " groups of " + nodesPerGroup + " nodes, redundancy " + redundancy);
+        int[] distributors = new int[buckets.length];
+        int[] storageNodes = new int[buckets.length * redundancy];
+        for (int round = 0; round < rounds; round++) { // the first rounds warm up
+            long checksum = 0;
+            long startNanos = System.nanoTime();
+            for (BucketId bucket : buckets) {
+                checksum += distribution.getIdealDistributorNode(state, bucket, "uim");
+                for (int node : distribution.getIdealStorageNodes(state, bucket, "uim"))
+                    checksum += node;
+            }
+            long distributionNanos = System.nanoTime() - startNanos;
+
+            startNanos = System.nanoTime();
+            IdealNodeCalculator calculator = distribution.createIdealNodeCalculator(state, "uim");
+            calculator.getIdealDistributorNodes(buckets, distributors);
+            calculator.getIdealStorageNodes(buckets, storageNodes);
+            long calculatorNanos = System.nanoTime() - startNanos;
+            for (int distributor : distributors)
+                checksum -= distributor;
+            for (int node : storageNodes)
+                if (node != -1) checksum -= node;
+
+            if (round == rounds - 1)
+                System.out.println(String.format(Locale.ENGLISH, "%8.1f ns/bucket per bucket %8.1f ns/bucket in bulk (checksum %d)",
+                                                 (double) distributionNanos / buckets.length,
+                                                 (double) calculatorNanos / buckets.length,
+                                                 checksum));
+        }
+    }
+
+}
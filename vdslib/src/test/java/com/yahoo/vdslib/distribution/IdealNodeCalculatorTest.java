@@ -0,0 +1,149 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vdslib.distribution;
+
+import com.yahoo.document.BucketId;
+import com.yahoo.vdslib.state.ClusterState;
+import com.yahoo.vespa.config.content.StorDistributionConfig;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * @author agent
+ */
+public class IdealNodeCalculatorTest {
+
+    /** Returns a config with the given number of groups of nodes at each level, where every other group has capacity 2 */
+    static StorDistributionConfig groupedConfig(int redundancy, int groupsPerLevel, int levels, String partitions, int nodesPerGroup) {
+        StorDistributionConfig.Builder builder = new StorDistributionConfig.Builder().redundancy(redundancy);
+        builder.group(new StorDistributionConfig.Group.Builder().name("invalid").index("invalid").partitions(partitions));
+        addGroups(builder, "", groupsPerLevel, levels, partitions, nodesPerGroup, new int[1]);
+        return new StorDistributionConfig(builder);
+    }
+
+    private static void addGroups(StorDistributionConfig.Builder builder, String parentIndex, int groupsPerLevel, int levels,
+                                  String partitions, int nodesPerGroup, int[] nextNode) {
+        for (int i = 0; i < groupsPerLevel; i++) {
+            String index = parentIndex.isEmpty() ? "" + i : parentIndex + "." + i;
+            StorDistributionConfig.Group.Builder group = new StorDistributionConfig.Group.Builder()
+                    .name("group" + index).index(index).capacity(1 + i % 2);
+            if (levels > 1)
+                group.partitions(partitions);
+            else
+                for (int j = 0; j < nodesPerGroup; j++)
+                    group.nodes(new StorDistributionConfig.Group.Nodes.Builder().index(nextNode[0] + j));
+            if (levels == 1)
+                nextNode[0] += nodesPerGroup;
+            builder.group(group);
+            if (levels > 1)
+                addGroups(builder, index, groupsPerLevel, levels - 1, partitions, nodesPerGroup, nextNode);
+        }
+    }
+
+    private static List<BucketId> buckets() {
+        List<BucketId> buckets = new ArrayList<>();
+        Random random = new Random(1);
+        for (int i = 0; i < 2000; i++)
+            buckets.add(new BucketId(58, random.nextLong()));
+        for (int i = 0; i < 100; i++)
+            buckets.add(new BucketId(16, i));
+        return buckets;
+    }
+
+    private static String idealDistributor(Distribution distribution, ClusterState state, BucketId bucket, String upStates) {
+        try {
+            return String.valueOf(distribution.getIdealDistributorNode(state, bucket, upStates));
+        }
+        catch (Exception e) {
+            return e.getMessage();
+        }
+    }
+
+    private static String idealDistributor(IdealNodeCalculator calculator, BucketId bucket) {
+        try {
+            return String.valueOf(calculator.getIdealDistributorNode(bucket));
+        }
+        catch (Exception e) {
+            return e.getMessage();
+        }
+    }
+
+    private static void assertSameAsDistribution(Distribution distribution, String state) throws Exception {
+        ClusterState clusterState = new ClusterState(state);
+        for (String upStates : new String[] { "uim", "ui", "u" }) {
+            IdealNodeCalculator calculator = distribution.createIdealNodeCalculator(clusterState, upStates);
+            int[] nodes = new int[calculator.redundancy()];
+            for (BucketId bucket : buckets()) {
+                String message = state + ", " + upStates + ", " + bucket;
+                assertEquals(message, idealDistributor(distribution, clusterState, bucket, upStates), idealDistributor(calculator, bucket));
+                int count = calculator.getIdealStorageNodes(bucket, nodes, 0);
+                List<Integer> storageNodes = Arrays.stream(nodes, 0, count).boxed().toList();
+                assertEquals(message, distribution.getIdealStorageNodes(clusterState, bucket, upStates), storageNodes);
+            }
+        }
+    }
+
+    @Test
+    public void ideal_nodes_are_those_of_the_distribution_without_groups() throws Exception {
+        Distribution distribution = new Distribution(Distribution.getDefaultDistributionConfig(3, 20));
+        assertSameAsDistribution(distribution, "distributor:20 storage:20");
+        assertSameAsDistribution(distribution, "bits:8 distributor:20 .2.s:d .5.s:m .7.c:2.5 storage:20 .1.s:m .3.s:d .4.c:0.5");
+        assertSameAsDistribution(distribution, "distributor:20 .0.s:d .1.s:d storage:1");
+    }
+
+    @Test
+    public void ideal_nodes_are_those_of_the_distribution_with_groups() throws Exception {
+        for (StorDistributionConfig config : List.of(groupedConfig(2, 3, 1, "1|*", 4),
+                                                     groupedConfig(4, 3, 2, "1|2|*", 3),
+                                                     groupedConfig(3, 2, 3, "*|*", 2))) {
+            Distribution distribution = new Distribution(config);
+            assertSameAsDistribution(distribution, "distributor:27 storage:27");
+            assertSameAsDistribution(distribution, "bits:12 distributor:27 .0.s:d .4.s:m .6.c:3 storage:27 .2.s:d .3.s:m .8.c:0.2");
+            // All distributors of the first groups are down
+            assertSameAsDistribution(distribution, "distributor:27 .0.s:d .1.s:d .2.s:d .3.s:d .4.s:d .5.s:d storage:27");
+            assertSameAsDistribution(distribution, "cluster:d distributor:27 storage:27");
+        }
+    }
+
+    @Test
+    public void bulk_ideal_nodes_are_those_of_single_buckets() throws Exception {
+        Distribution distribution = new Distribution(groupedConfig(4, 3, 2, "1|2|*", 3));
+        IdealNodeCalculator calculator = distribution.createIdealNodeCalculator(new ClusterState("distributor:2 storage:27 .0.s:d"), "ui");
+        BucketId[] buckets = buckets().toArray(BucketId[]::new);
+
+        int[] distributors = new int[buckets.length];
+        calculator.getIdealDistributorNodes(buckets, distributors);
+        int[] nodes = new int[buckets.length * calculator.redundancy()];
+        calculator.getIdealStorageNodes(buckets, nodes);
+
+        int[] expectedNodes = new int[calculator.redundancy()];
+        for (int i = 0; i < buckets.length; i++) {
+            String expectedDistributor = idealDistributor(calculator, buckets[i]);
+            assertEquals(expectedDistributor.matches("\\d+") ? expectedDistributor : "-1", String.valueOf(distributors[i]));
+
+            Arrays.fill(expectedNodes, -1);
+            calculator.getIdealStorageNodes(buckets[i], expectedNodes, 0);
+            int[] actualNodes = Arrays.copyOfRange(nodes, i * calculator.redundancy(), (i + 1) * calculator.redundancy());
+            assertArrayEquals(expectedNodes, actualNodes);
+        }
+    }
+
+    @Test
+    public void buckets_with_too_few_bits_are_rejected() throws Exception {
+        Distribution distribution = new Distribution(Distribution.getDefaultDistributionConfig(2, 10));
+        IdealNodeCalculator calculator = distribution.createIdealNodeCalculator(new ClusterState("bits:16 distributor:10 storage:10"), "uim");
+        BucketId bucket = new BucketId(15, 1);
+        assertThrows(Distribution.TooFewBucketBitsInUseException.class, () -> calculator.getIdealDistributorNode(bucket));
+        assertThrows(Distribution.TooFewBucketBitsInUseException.class, () -> calculator.getIdealStorageNodes(bucket, new int[2], 0));
+        assertThrows(Distribution.TooFewBucketBitsInUseException.class,
+                     () -> calculator.getIdealDistributorNodes(new BucketId[] { bucket }, new int[1]));
+    }
+
+}
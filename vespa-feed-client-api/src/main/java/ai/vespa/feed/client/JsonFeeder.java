@@ -14,6 +14,13 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InterruptedIOException;
 import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -45,14 +52,22 @@ public class JsonFeeder implements Closeable {
         t.setDaemon(true);
         return t;
     });
+    private final ExecutorService parserExecutor;
     private final FeedClient client;
     private final OperationParameters protoParameters;
+    private final int parserThreads;
     private final AtomicInteger globalInflightOperations = new AtomicInteger(0);
     private volatile boolean closed = false;
 
-    private JsonFeeder(FeedClient client, OperationParameters protoParameters) {
+    private JsonFeeder(FeedClient client, OperationParameters protoParameters, int parserThreads) {
         this.client = client;
         this.protoParameters = protoParameters;
+        this.parserThreads = parserThreads;
+        this.parserExecutor = parserThreads == 1 ? null : Executors.newFixedThreadPool(parserThreads, r -> {
+            Thread t = new Thread(r, "json-feeder-parser");
+            t.setDaemon(true);
+            return t;
+        });
     }
 
     public interface ResultCallback {
@@ -132,8 +147,11 @@ public class JsonFeeder implements Closeable {
      *     ]
      * </pre>
      * Note that {@code "id"} is an alias for the document put operation.
+     * The stream may also contain a sequence of such operations, e.g., one per line (JSONL).
      * Exceptional completion will use be an instance of {@link FeedException} or one of its sub-classes.
      * The input stream will be closed upon exhaustion, or error.
+     * When this was built with more than one parser thread, the stream is split into chunks of whole operations,
+     * which are parsed in parallel, and the parsed operations are submitted in input order.
      */
     public CompletableFuture<Void> feedMany(InputStream jsonStream, ResultCallback resultCallback) {
         return feedMany(jsonStream, 1 << 26, resultCallback);
@@ -147,14 +165,19 @@ public class JsonFeeder implements Closeable {
         return feedMany(jsonStream, new ResultCallback() { });
     }
 
+    /**
+     * Same as {@link #feedMany(InputStream, ResultCallback)}, buffering at most about the given number of bytes of input:
+     * With a single parser thread this is the size of the ring buffer, and with more it is split over the chunks in flight.
+     */
     CompletableFuture<Void> feedMany(InputStream jsonStream, int size, ResultCallback resultCallback) {
         if (closed) throw new IllegalStateException("Already closed");
         CompletableFuture<Void> overallResult = new CompletableFuture<>();
         CompletableFuture<Result> result;
         AtomicInteger localInflightOperations = new AtomicInteger(1); // The below dispatch loop itself is counted as a single pending operation
         AtomicBoolean finalCallbackInvoked = new AtomicBoolean();
-        try (RingBufferStream buffer = new RingBufferStream(jsonStream, size)) {
-            while ((result = buffer.next()) != null) {
+        try (OperationStream operations = parserExecutor == null ? new RingBufferStream(jsonStream, size)
+                                                                 : new ChunkedOperationStream(jsonStream, size)) {
+            while ((result = operations.next()) != null) {
                 localInflightOperations.incrementAndGet();
                 globalInflightOperations.incrementAndGet();
                 result.whenCompleteAsync((r, t) -> {
@@ -203,6 +226,7 @@ public class JsonFeeder implements Closeable {
         closed = true;
         awaitInflightOperations();
         client.close();
+        if (parserExecutor != null) parserExecutor.shutdown();
         resultExecutor.shutdown();
         try {
             if (!resultExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
@@ -229,7 +253,15 @@ public class JsonFeeder implements Closeable {
         return new FeedException(e);
     }
 
-    private class RingBufferStream extends InputStream {
+    /** A source of feed operations, which are submitted to the feed client as they are returned. */
+    private interface OperationStream extends Closeable {
+
+        /** Submits the next operation, and returns its result, or returns null if there are no more operations. */
+        CompletableFuture<Result> next() throws IOException;
+
+    }
+
+    private class RingBufferStream extends InputStream implements OperationStream {
 
         private final byte[] b = new byte[1];
         private final InputStream in;
@@ -289,6 +321,7 @@ public class JsonFeeder implements Closeable {
             }
         }
 
+        @Override
         public CompletableFuture<Result> next() throws IOException {
            return parserAndExecutor.next();
         }
@@ -385,6 +418,161 @@ public class JsonFeeder implements Closeable {
         }
     }
 
+    /**
+     * Splits the input into chunks of whole operations, on a single thread, with a light-weight scan which only
+     * tracks nesting and strings. The chunks are parsed in parallel on the parser executor, and the parsed
+     * operations are submitted in input order, so operations to the same document are also submitted in order.
+     * The input between operations, i.e., whitespace, and the separators and brackets of a JSON array, is kept
+     * in the chunks as whitespace, so offsets into a chunk translate directly to offsets into the input.
+     * A chunk is at most 1 MiB, and smaller when needed to keep the chunks in flight within the given buffer size,
+     * except that each chunk holds at least one whole operation.
+     */
+    private class ChunkedOperationStream implements OperationStream {
+
+        private final Deque<CompletableFuture<ParsedChunk>> chunks = new ArrayDeque<>();
+        private final int chunkSize;
+        private final byte[] buffer;
+        private final InputStream in;
+        private int bufferPosition = 0;
+        private int bufferLimit = 0;
+        private long offset = 0;
+        private byte[] chunk;
+        private int depth = 0;
+        private boolean inString = false;
+        private boolean escaped = false;
+        private boolean started = false;
+        private boolean array = false;
+        private boolean exhausted = false;
+        private Iterator<Operation> operations = Collections.emptyIterator();
+        private Exception failure = null;
+
+        ChunkedOperationStream(InputStream in, int size) {
+            this.in = in;
+            this.chunkSize = Math.max(1, Math.min(1 << 20, size / (2 * parserThreads)));
+            this.buffer = new byte[Math.min(1 << 16, chunkSize)];
+            this.chunk = new byte[chunkSize];
+        }
+
+        @Override
+        public CompletableFuture<Result> next() throws IOException {
+            while ( ! operations.hasNext()) {
+                if (failure instanceof IOException) throw (IOException) failure;
+                if (failure != null) throw (RuntimeException) failure;
+
+                while (chunks.size() < 2 * parserThreads && ! exhausted) {
+                    long chunkOffset = offset;
+                    byte[] data = readChunk();
+                    if (data != null)
+                        chunks.add(CompletableFuture.supplyAsync(() -> new ParsedChunk(data, chunkOffset), parserExecutor));
+                }
+                if (chunks.isEmpty()) return null;
+
+                ParsedChunk parsed = chunks.poll().join();
+                operations = parsed.operations.iterator();
+                failure = parsed.failure;
+            }
+            return operations.next().submit();
+        }
+
+        /** Reads whole operations until the chunk is full, or the input is exhausted, and returns them, or null if there were none. */
+        private byte[] readChunk() throws IOException {
+            int length = 0;
+            for (int next; (next = read()) >= 0; ) {
+                byte b = (byte) next;
+                if (length == chunk.length) chunk = Arrays.copyOf(chunk, 2 * length);
+
+                if (depth == 0) {
+                    switch (b) {
+                        case ' ': case '\t': case '\n': case '\r': break;
+                        case '{': depth = 1; started = true; break;
+                        case '[': if ( ! started) { array = true; b = ' '; } started = true; break;
+                        case ',': if (array) b = ' '; started = true; break;
+                        case ']': if (array) exhausted = true; started = true; break; // Trailing input is ignored, like when parsing on a single thread.
+                        default: started = true;
+                    }
+                    if (exhausted) break;
+                    chunk[length++] = b; // Any unexpected input is left for the parser to complain about.
+                    continue;
+                }
+
+                chunk[length++] = b;
+                if (inString) {
+                    if (escaped) escaped = false;
+                    else if (b == '\\') escaped = true;
+                    else if (b == '"') inString = false;
+                }
+                else switch (b) {
+                    case '"': inString = true; break;
+                    case '{': case '[': ++depth; break;
+                    case '}': case ']': if (--depth == 0 && length >= chunkSize) return Arrays.copyOf(chunk, length);
+                }
+            }
+            exhausted = true;
+            return isBlank(length) ? null : Arrays.copyOf(chunk, length);
+        }
+
+        private boolean isBlank(int length) {
+            for (int i = 0; i < length; i++)
+                if ( ! Character.isWhitespace(chunk[i])) return false;
+            return true;
+        }
+
+        private int read() throws IOException {
+            if (bufferPosition == bufferLimit) {
+                int read = in.read(buffer);
+                if (read < 0) return -1;
+                bufferPosition = 0;
+                bufferLimit = read;
+            }
+            ++offset;
+            return buffer[bufferPosition++] & 0xff;
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (CompletableFuture<ParsedChunk> chunk : chunks)
+                chunk.cancel(true);
+            in.close();
+        }
+
+    }
+
+    /** The operations parsed from a chunk of input, up to the first failure, if any. */
+    private class ParsedChunk {
+
+        private final List<Operation> operations = new ArrayList<>();
+        private Exception failure = null;
+
+        ParsedChunk(byte[] data, long offset) {
+            try {
+                ChunkParser parser = new ChunkParser(data, offset);
+                for (Operation operation; (operation = parser.parse()) != null; )
+                    operations.add(operation);
+            }
+            catch (Exception e) {
+                failure = e;
+            }
+        }
+
+    }
+
+    private class ChunkParser extends SingleOperationParserAndExecutor {
+
+        private final long chunkOffset;
+
+        ChunkParser(byte[] json, long chunkOffset) throws IOException {
+            super(json);
+            this.chunkOffset = chunkOffset;
+        }
+
+        @Override
+        long offset() { return chunkOffset + super.offset(); }
+
+        @Override
+        String location() { return "offset " + offset(); }
+
+    }
+
     private class SingleOperationParserAndExecutor extends OperationParserAndExecutor {
 
         private final byte[] json;
@@ -413,13 +601,28 @@ public class JsonFeeder implements Closeable {
 
         abstract String getDocumentJson(long start, long end);
 
-        OperationParseException parseException(String error) {
+        /** Returns the offset of the current token in the input */
+        long offset() {
+            return parser.getTokenLocation().getByteOffset();
+        }
+
+        /** Returns a description of the location of the current token in the input */
+        String location() {
             JsonLocation location = parser.getTokenLocation();
-            return new OperationParseException(error + " at offset " + location.getByteOffset() +
-                                               " (line " + location.getLineNr() + ", column " + location.getColumnNr() + ")");
+            return "offset " + offset() + " (line " + location.getLineNr() + ", column " + location.getColumnNr() + ")";
+        }
+
+        OperationParseException parseException(String error) {
+            return new OperationParseException(error + " at " + location());
         }
 
         CompletableFuture<Result> next() throws IOException {
+            Operation operation = parse();
+            return operation == null ? null : operation.submit();
+        }
+
+        /** Parses and returns the next operation, or returns null if there are no more operations */
+        Operation parse() throws IOException {
             JsonToken token = parser.nextToken();
             if (multipleOperations && ! arrayPrefixParsed && token == JsonToken.START_ARRAY) {
                 arrayPrefixParsed = true;
@@ -475,25 +678,19 @@ public class JsonFeeder implements Closeable {
             else if (end < start)
                 throw parseException("No 'fields' object for document");
 
-            String payload = getDocumentJson(start, end);
-            switch (type) {
-                case PUT:    return client.put   (id, payload, parameters);
-                case UPDATE: return client.update(id, payload, parameters);
-                case REMOVE: return client.remove(id, parameters);
-                default: throw new OperationParseException("Unexpected operation type '" + type + "'");
-            }
+            return new Operation(type, id, parameters, getDocumentJson(start, end));
         }
 
         private void expect(JsonToken token) throws IOException {
             if (parser.nextToken() != token)
-                throw new OperationParseException("Expected '" + token + "' at offset " + parser.getTokenLocation().getByteOffset() +
+                throw new OperationParseException("Expected '" + token + "' at offset " + offset() +
                         ", but found '" + parser.currentToken() + "' (" + parser.getText() + ")");
         }
 
         private String readString() throws IOException {
             String value = parser.nextTextValue();
             if (value == null)
-                throw new OperationParseException("Expected '" + JsonToken.VALUE_STRING + "' at offset " + parser.getTokenLocation().getByteOffset() +
+                throw new OperationParseException("Expected '" + JsonToken.VALUE_STRING + "' at offset " + offset() +
                                                   ", but found '" + parser.currentToken() + "' (" + parser.getText() + ")");
 
             return value;
@@ -502,7 +699,7 @@ public class JsonFeeder implements Closeable {
         private boolean readBoolean() throws IOException {
             Boolean value = parser.nextBooleanValue();
             if (value == null)
-                throw new OperationParseException("Expected '" + JsonToken.VALUE_FALSE + "' or '" + JsonToken.VALUE_TRUE + "' at offset " + parser.getTokenLocation().getByteOffset() +
+                throw new OperationParseException("Expected '" + JsonToken.VALUE_FALSE + "' or '" + JsonToken.VALUE_TRUE + "' at offset " + offset() +
                                                   ", but found '" + parser.currentToken() + "' (" + parser.getText() + ")");
 
             return value;
@@ -515,10 +712,36 @@ public class JsonFeeder implements Closeable {
 
     }
 
+    private class Operation {
+
+        private final OperationType type;
+        private final DocumentId id;
+        private final OperationParameters parameters;
+        private final String payload;
+
+        Operation(OperationType type, DocumentId id, OperationParameters parameters, String payload) {
+            this.type = type;
+            this.id = id;
+            this.parameters = parameters;
+            this.payload = payload;
+        }
+
+        CompletableFuture<Result> submit() {
+            switch (type) {
+                case PUT:    return client.put   (id, payload, parameters);
+                case UPDATE: return client.update(id, payload, parameters);
+                case REMOVE: return client.remove(id, parameters);
+                default: throw new OperationParseException("Unexpected operation type '" + type + "'");
+            }
+        }
+
+    }
+
     public static class Builder {
 
         final FeedClient client;
         OperationParameters parameters = OperationParameters.empty();
+        int parserThreads = 1;
 
         private Builder(FeedClient client) {
             this.client = requireNonNull(client);
@@ -539,8 +762,18 @@ public class JsonFeeder implements Closeable {
             return this;
         }
 
+        /**
+         * Sets the number of threads used to parse operations fed with {@link #feedMany}; the default is 1.
+         * With more than one thread, the input is split into chunks of operations which are parsed in parallel.
+         */
+        public Builder withParserThreads(int parserThreads) {
+            if (parserThreads < 1) throw new IllegalArgumentException("Number of parser threads must be positive, but was " + parserThreads);
+            this.parserThreads = parserThreads;
+            return this;
+        }
+
         public JsonFeeder build() {
-            return new JsonFeeder(client, parameters);
+            return new JsonFeeder(client, parameters, parserThreads);
         }
 
     }
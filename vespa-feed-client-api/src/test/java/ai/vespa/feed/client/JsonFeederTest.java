@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
@@ -20,6 +21,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -157,6 +159,73 @@ class JsonFeederTest {
         }
     }
 
+    @Test
+    public void operationsParsedInParallelAreDispatchedInInputOrder() throws IOException, ExecutionException, InterruptedException {
+        int docs = 1 << 14;
+        String fields = "{\"text\":\"" + "tricky \\\"}]{[,\\\\ ".repeat(8) + "\",\"nested\":{\"array\":[{},[]]}}";
+        for (boolean array : List.of(true, false)) {
+            String json = IntStream.range(0, docs)
+                                   .mapToObj(i -> "{\"put\":\"id:ns:type::abc" + i + "\",\"fields\":" + fields + "}")
+                                   .collect(joining(array ? ",\n" : "\n", array ? "[\n" : "", array ? "\n]\n" : "\n"));
+            MockClient client = new MockClient();
+            try (JsonFeeder feeder = JsonFeeder.builder(client).withParserThreads(3).build()) {
+                feeder.feedMany(new ByteArrayInputStream(json.getBytes(UTF_8))).get();
+            }
+            assertEquals(IntStream.range(0, docs).mapToObj(i -> DocumentId.of("id:ns:type::abc" + i)).collect(Collectors.toList()),
+                         List.copyOf(client.putOperations.keySet()));
+            client.assertPutOperation("abc" + (docs - 1), "{\"fields\":" + fields + "}");
+        }
+    }
+
+    @Test
+    public void operationsParsedInParallelBufferAtMostTheGivenSize() throws IOException {
+        int docs = 1 << 14, size = 1 << 12;
+        byte[] json = IntStream.range(0, docs)
+                               .mapToObj(i -> "{\"put\":\"id:ns:type::abc" + i + "\",\"fields\":{\"lul\":\"lal\"}}\n")
+                               .collect(joining()).getBytes(UTF_8);
+        AtomicLong bytesRead = new AtomicLong();
+        InputStream in = new FilterInputStream(new ByteArrayInputStream(json)) {
+            @Override public int read(byte[] b, int off, int len) throws IOException {
+                int read = super.read(b, off, len);
+                if (read > 0) bytesRead.addAndGet(read);
+                return read;
+            }
+        };
+        AtomicLong bytesReadAtFirstPut = new AtomicLong(-1);
+        MockClient client = new MockClient() {
+            @Override
+            public CompletableFuture<Result> put(DocumentId documentId, String documentJson, OperationParameters params) {
+                bytesReadAtFirstPut.compareAndSet(-1, bytesRead.get());
+                return super.put(documentId, documentJson, params);
+            }
+        };
+        AtomicBoolean completedSuccessfully = new AtomicBoolean();
+        try (JsonFeeder feeder = JsonFeeder.builder(client).withParserThreads(2).build()) {
+            feeder.feedMany(in, size, new JsonFeeder.ResultCallback() {
+                @Override public void onComplete() { completedSuccessfully.set(true); }
+            }).join();
+        }
+        assertTrue(completedSuccessfully.get());
+        assertEquals(docs, client.putOperations.size());
+        assertTrue(bytesReadAtFirstPut.get() <= 2 * size, "Read " + bytesReadAtFirstPut.get() + " bytes before the first put");
+    }
+
+    @Test
+    public void operationsParsedInParallelAreDispatchedUntilTheFirstError() throws IOException {
+        String json = "{\"put\":\"id:ns:type::abc1\",\"fields\":{}}\n" +
+                      "{\"put\":\"id:ns:type::abc2\",\"fields\":{}}\n" +
+                      "{\"put\":\"id:ns:type::abc3\",\"fields\":{},\"bad\":true}\n" +
+                      "{\"put\":\"id:ns:type::abc4\",\"fields\":{}}\n";
+        MockClient client = new MockClient();
+        try (JsonFeeder feeder = JsonFeeder.builder(client).withParserThreads(2).build()) {
+            ExecutionException expected = assertThrows(ExecutionException.class,
+                                                       () -> feeder.feedMany(new ByteArrayInputStream(json.getBytes(UTF_8))).get());
+            assertEquals(OperationParseException.class, expected.getCause().getClass());
+            assertEquals("Unexpected field name 'bad' at offset 116", expected.getCause().getMessage());
+        }
+        client.assertPutDocumentIds("abc1", "abc2");
+    }
+
     private static class MockClient implements FeedClient {
         final Map<DocumentId, String> putOperations = new LinkedHashMap<>();
         final Map<DocumentId, String> updateOperations = new LinkedHashMap<>();
@@ -171,6 +171,7 @@ public class CliClient {
         cliArgs.timeout().ifPresent(builder::withTimeout);
         cliArgs.route().ifPresent(builder::withRoute);
         cliArgs.traceLevel().ifPresent(builder::withTracelevel);
+        cliArgs.parserThreads().ifPresent(builder::withParserThreads);
         return builder.build();
     }
 
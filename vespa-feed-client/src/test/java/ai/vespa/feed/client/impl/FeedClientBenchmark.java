@@ -0,0 +1,154 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package ai.vespa.feed.client.impl;
+
+import ai.vespa.feed.client.FeedClient;
+import ai.vespa.feed.client.FeedException;
+import ai.vespa.feed.client.JsonFeeder;
+import ai.vespa.feed.client.OperationStats;
+import ai.vespa.feed.client.Result;
+
+import java.io.ByteArrayInputStream;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Feeds a synthetic corpus through the HTTP feed client into a {@link SimulatedCluster}, to tune the number of
+ * connections and streams per connection without a real cluster, and with network and server cost taken out.
+ * Reports operations per second, client CPU time and bytes allocated per operation, and samples of the number of
+ * inflight operations over time, which show how fast and where the dynamic throttler converges.
+ *
+ * Run the main method with these optional, positional arguments:
+ * documents, connections per endpoint, max streams per connection, server workers, server latency in ms,
+ * max requests queued at the server, fraction of 503 responses, and fraction of failed connections.
+ *
+ * @author agent
+ */
+public class FeedClientBenchmark {
+
+    private static final int rounds = 3;
+    private static final Duration sampleInterval = Duration.ofMillis(500);
+
+    private final byte[] corpus;
+    private final int documents;
+    private final int connections;
+    private final int streams;
+    private final SimulatedCluster.Profile profile;
+
+    FeedClientBenchmark(int documents, int connections, int streams, SimulatedCluster.Profile profile) {
+        this.documents = documents;
+        this.connections = connections;
+        this.streams = streams;
+        this.profile = profile;
+        StringBuilder json = new StringBuilder("[\n");
+        for (int i = 0; i < documents; i++)
+            json.append(i == 0 ? "" : ",\n")
+                .append("{\"put\":\"id:bench:music::").append(i).append("\",\"fields\":{")
+                .append("\"title\":\"Title ").append(i).append("\",")
+                .append("\"body\":\"").append("lorem ipsum dolor sit amet ".repeat(16)).append("\",")
+                .append("\"year\":").append(1900 + i % 125).append("}}");
+        corpus = json.append("\n]").toString().getBytes(UTF_8);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int documents = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int connections = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int streams = args.length > 2 ? Integer.parseInt(args[2]) : 128;
+        SimulatedCluster.Profile profile = new SimulatedCluster.Profile()
+                .setWorkers(args.length > 3 ? Integer.parseInt(args[3]) : 256)
+                .setLatency(Duration.ofMillis(args.length > 4 ? Integer.parseInt(args[4]) : 5))
+                .setMaxQueued(args.length > 5 ? Integer.parseInt(args[5]) : 1024)
+                .setUnavailableRate(args.length > 6 ? Double.parseDouble(args[6]) : 0)
+                .setIoExceptionRate(args.length > 7 ? Double.parseDouble(args[7]) : 0);
+        new FeedClientBenchmark(documents, connections, streams, profile).run();
+    }
+
+    void run() throws Exception {
+        System.out.println(documents + " documents of " + corpus.length / documents + " bytes, " + connections +
+                           " connections with " + streams + " streams each, against " + profile);
+        for (int round = 0; round < rounds; round++) // the first rounds warm up
+            feed(round == rounds - 1);
+    }
+
+    private void feed(boolean report) throws Exception {
+        FeedClientBuilderImpl builder = new FeedClientBuilderImpl(List.of(URI.create("https://dummy:8080/")))
+                .setConnectionsPerEndpoint(connections)
+                .setMaxStreamPerConnection(streams);
+        SimulatedCluster cluster = new SimulatedCluster(builder, profile);
+        FeedClient client = new HttpFeedClient(builder, cluster);
+        AtomicLong failures = new AtomicLong();
+        List<String> samples = new ArrayList<>();
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        long startNanos = System.nanoTime();
+        OperationStats[] previous = { client.stats() };
+        sampler.scheduleAtFixedRate(() -> {
+            OperationStats stats = client.stats();
+            long responses = stats.responses() - previous[0].responses();
+            double latencyMillis = responses == 0 ? 0 : (stats.averageLatencyMillis() * stats.responses() -
+                                                         previous[0].averageLatencyMillis() * previous[0].responses())
+                                                        / (double) responses;
+            samples.add(String.format(Locale.ENGLISH, "%8.1f s %8d inflight %,12.0f responses/s %8.0f ms average latency",
+                                      (System.nanoTime() - startNanos) * 1e-9,
+                                      stats.inflight(),
+                                      responses * 1e3 / sampleInterval.toMillis(),
+                                      latencyMillis));
+            previous[0] = stats;
+        }, sampleInterval.toMillis(), sampleInterval.toMillis(), TimeUnit.MILLISECONDS);
+
+        Map<Long, long[]> before = threadUsage();
+        try (JsonFeeder feeder = JsonFeeder.builder(client).build()) {
+            feeder.feedMany(new ByteArrayInputStream(corpus), new JsonFeeder.ResultCallback() {
+                @Override public void onNextResult(Result result, FeedException error) {
+                    if (error != null) failures.incrementAndGet();
+                }
+            }).join();
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        Map<Long, long[]> after = threadUsage();
+        sampler.shutdownNow();
+        if ( ! report) return;
+
+        long cpuNanos = 0, allocated = 0;
+        for (Map.Entry<Long, long[]> usage : after.entrySet()) {
+            long[] initial = before.getOrDefault(usage.getKey(), new long[2]);
+            cpuNanos += usage.getValue()[0] - initial[0];
+            allocated += usage.getValue()[1] - initial[1];
+        }
+        for (String sample : samples)
+            System.out.println(sample);
+        System.out.println(String.format(Locale.ENGLISH,
+                                         "%,10.0f ops/s %,10.1f us client CPU/op %,10.0f bytes allocated/op %8d failed",
+                                         documents * 1e9 / elapsedNanos,
+                                         cpuNanos * 1e-3 / documents,
+                                         (double) allocated / documents,
+                                         failures.get()));
+        System.out.println(client.stats());
+    }
+
+    /**
+     * Returns the CPU time and allocated bytes of each live thread, except the simulated server.
+     * Threads which terminate during a round are not counted.
+     */
+    private static Map<Long, long[]> threadUsage() {
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Map<Long, long[]> usage = new HashMap<>();
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals("simulated-cluster")) continue;
+            @SuppressWarnings("deprecation") long id = thread.getId();
+            usage.put(id, new long[] { threads.getThreadCpuTime(id), threads.getThreadAllocatedBytes(id) });
+        }
+        return usage;
+    }
+
+}
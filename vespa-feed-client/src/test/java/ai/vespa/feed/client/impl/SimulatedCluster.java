@@ -0,0 +1,153 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package ai.vespa.feed.client.impl;
+
+import ai.vespa.feed.client.HttpResponse;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * An in-process stand-in for a container cluster, which completes requests after a simulated delay.
+ *
+ * Requests first wait for one of the HTTP/2 streams of the client, as given by connections times max streams
+ * per connection, and then for one of the workers of the server, which each spend the configured latency per
+ * request. Requests which would have to wait for more than the configured number of queued requests at the
+ * server are rejected with 429, like the document/v1 API does, and the given fractions of the remaining requests
+ * fail with 503 or an {@link IOException}. All randomness is drawn from a seeded generator, so runs with the same
+ * parameters are reproducible, save for scheduling noise.
+ *
+ * @author agent
+ */
+class SimulatedCluster implements Cluster {
+
+    private static final byte[] okBody = "{\"message\":\"simulated\"}".getBytes(UTF_8);
+    private static final byte[] throttledBody = "{\"message\":\"simulated throttling\"}".getBytes(UTF_8);
+    private static final byte[] unavailableBody = "{\"message\":\"simulated unavailability\"}".getBytes(UTF_8);
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "simulated-cluster");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final PriorityQueue<Long> streamsFreeNanos = new PriorityQueue<>();
+    private final PriorityQueue<Long> workersFreeNanos = new PriorityQueue<>();
+    private final Profile profile;
+    private final Random random;
+
+    SimulatedCluster(FeedClientBuilderImpl builder, Profile profile) {
+        this(builder.connectionsPerEndpoint * builder.maxStreamsPerConnection * builder.endpoints.size(), profile);
+    }
+
+    SimulatedCluster(int streams, Profile profile) {
+        this.profile = profile;
+        this.random = new Random(profile.seed);
+        for (int i = 0; i < streams; i++) streamsFreeNanos.add(0L);
+        for (int i = 0; i < profile.workers; i++) workersFreeNanos.add(0L);
+    }
+
+    @Override
+    public void dispatch(HttpRequest request, CompletableFuture<HttpResponse> vessel) {
+        long nowNanos = System.nanoTime();
+        Outcome outcome = next(nowNanos);
+        executor.schedule(() -> outcome.complete(vessel), outcome.nanos - nowNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /** Returns the outcome of a request dispatched at the given time, reserving a stream and a worker for it. */
+    synchronized Outcome next(long nowNanos) {
+        long streamNanos = Math.max(nowNanos, streamsFreeNanos.peek());
+        // Workers are assigned in order, so they are all busy about this long, and the queue is about this many requests.
+        long queued = Math.max(0, (workersFreeNanos.peek() - streamNanos) * profile.workers / profile.latency.toNanos());
+        if (queued > profile.maxQueued) {
+            streamsFreeNanos.poll();
+            streamsFreeNanos.add(streamNanos); // Rejected right away, so the stream is free again.
+            return new Outcome(streamNanos, 429);
+        }
+
+        long serviceNanos = (long) (profile.latency.toNanos() * (1 + profile.jitter * -Math.log(1 - random.nextDouble())));
+        long doneNanos = Math.max(streamNanos, workersFreeNanos.poll()) + serviceNanos;
+        workersFreeNanos.add(doneNanos);
+        streamsFreeNanos.poll();
+        streamsFreeNanos.add(doneNanos);
+
+        double draw = random.nextDouble();
+        if (draw < profile.ioExceptionRate) return new Outcome(doneNanos, -1);
+        if (draw < profile.ioExceptionRate + profile.unavailableRate) return new Outcome(doneNanos, 503);
+        return new Outcome(doneNanos, 200);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    static class Outcome {
+
+        final long nanos;
+        final int code;
+
+        Outcome(long nanos, int code) {
+            this.nanos = nanos;
+            this.code = code;
+        }
+
+        void complete(CompletableFuture<HttpResponse> vessel) {
+            switch (code) {
+                case -1: vessel.completeExceptionally(new IOException("simulated connection failure")); break;
+                case 429: vessel.complete(HttpResponse.of(429, throttledBody)); break;
+                case 503: vessel.complete(HttpResponse.of(503, unavailableBody)); break;
+                default: vessel.complete(HttpResponse.of(200, okBody)); break;
+            }
+        }
+
+    }
+
+    /** Latency and error profile of a simulated cluster. */
+    static class Profile {
+
+        private int workers = 256;
+        private Duration latency = Duration.ofMillis(5);
+        private double jitter = 0.2;
+        private long maxQueued = 1024;
+        private double unavailableRate = 0;
+        private double ioExceptionRate = 0;
+        private long seed = 0;
+
+        /** Number of requests the server processes concurrently. */
+        Profile setWorkers(int workers) { this.workers = workers; return this; }
+
+        /** Minimum time a worker spends on each request. */
+        Profile setLatency(Duration latency) { this.latency = latency; return this; }
+
+        /** Mean of the exponentially distributed extra latency, as a fraction of the minimum latency. */
+        Profile setJitter(double jitter) { this.jitter = jitter; return this; }
+
+        /** Number of requests queued for workers at the server before further requests are throttled with 429. */
+        Profile setMaxQueued(long maxQueued) { this.maxQueued = maxQueued; return this; }
+
+        /** Fraction of requests which fail with 503. */
+        Profile setUnavailableRate(double rate) { this.unavailableRate = rate; return this; }
+
+        /** Fraction of requests which fail with an {@link IOException}. */
+        Profile setIoExceptionRate(double rate) { this.ioExceptionRate = rate; return this; }
+
+        /** Seed for the random latencies and errors. */
+        Profile setSeed(long seed) { this.seed = seed; return this; }
+
+        @Override
+        public String toString() {
+            return workers + " workers, " + latency.toMillis() + "ms latency, " + jitter + " jitter, " + maxQueued +
+                   " max queued, " + unavailableRate + " 503 rate, " + ioExceptionRate + " IOException rate";
+        }
+
+    }
+
+}
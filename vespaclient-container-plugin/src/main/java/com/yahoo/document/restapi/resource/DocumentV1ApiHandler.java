@@ -12,6 +12,7 @@ import com.yahoo.concurrent.SystemTimer;
 import com.yahoo.container.core.HandlerMetricContextUtil;
 import com.yahoo.container.core.documentapi.VespaDocumentAccess;
 import com.yahoo.container.jdisc.ContentChannelOutputStream;
+import com.yahoo.document.BucketIdFactory;
 import com.yahoo.document.Document;
 import com.yahoo.document.DocumentId;
 import com.yahoo.document.DocumentPut;
@@ -101,6 +102,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.Phaser;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Lock;
@@ -111,6 +113,7 @@ import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.logging.Logger;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static com.yahoo.documentapi.DocumentOperationParameters.parameters;
@@ -181,6 +184,8 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
     private static final String TO_TIMESTAMP = "toTimestamp";
     private static final String INCLUDE_REMOVES = "includeRemoves";
 
+    private static final BucketIdFactory bucketIdFactory = new BucketIdFactory();
+
     private final Clock clock;
     private final Duration visitTimeout;
     private final Metric metric;
@@ -190,12 +195,13 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
     private final DocumentAccess access;
     private final AsyncSession asyncSession;
     private final Map<String, StorageCluster> clusters;
-    private final Deque<Operation> operations;
+    private final List<DispatchShard> shards;
+    private final AtomicInteger nextShard = new AtomicInteger();
     private final Deque<BooleanSupplier> visitOperations = new ConcurrentLinkedDeque<>();
     private final AtomicLong enqueued = new AtomicLong();
     private final AtomicLong outstanding = new AtomicLong();
     private final Map<VisitorControlHandler, VisitorSession> visits = new ConcurrentHashMap<>();
-    private final ScheduledExecutorService dispatcher = Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("document-api-handler-"));
+    private final ScheduledExecutorService dispatcher;
     private final ScheduledExecutorService visitDispatcher = Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("document-api-handler-visit-"));
     private final Map<String, Map<Method, Handler>> handlers = defineApi();
 
@@ -223,11 +229,15 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
         this.access = access;
         this.asyncSession = access.createAsyncSession(new AsyncParameters());
         this.clusters = parseClusters(clusterListConfig, bucketSpacesConfig);
-        this.operations = new ConcurrentLinkedDeque<>();
+        int dispatchThreads = dispatchThreads(executorConfig);
+        this.shards = IntStream.range(0, dispatchThreads).mapToObj(DispatchShard::new).toList();
+        this.dispatcher = Executors.newScheduledThreadPool(dispatchThreads, new DaemonThreadFactory("document-api-handler-"));
         long resendDelayMS = SystemTimer.adjustTimeoutByDetectedHz(Duration.ofMillis(executorConfig.resendDelayMillis())).toMillis();
 
         // TODO: Here it would be better to have dedicated threads with different wait depending on blocked or empty.
-        this.dispatcher.scheduleWithFixedDelay(this::dispatchEnqueued, resendDelayMS, resendDelayMS, MILLISECONDS);
+        // A periodic task never overlaps with itself, so each shard is dispatched by at most one dispatcher thread at a time.
+        for (DispatchShard shard : shards)
+            this.dispatcher.scheduleWithFixedDelay(shard::dispatchEnqueued, resendDelayMS, resendDelayMS, MILLISECONDS);
         this.visitDispatcher.scheduleWithFixedDelay(this::dispatchVisitEnqueued, resendDelayMS, resendDelayMS, MILLISECONDS);
     }
 
@@ -288,16 +298,16 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
         // Shut down both dispatchers, so only we empty the queues of outstanding operations, and can be sure they're empty.
         dispatcher.shutdown();
         visitDispatcher.shutdown();
-        while ( ! (operations.isEmpty() && visitOperations.isEmpty()) && clock.instant().isBefore(doom)) {
+        while ( ! (enqueued.get() == 0 && visitOperations.isEmpty()) && clock.instant().isBefore(doom)) {
             dispatchEnqueued();
             dispatchVisitEnqueued();
         }
 
-        if ( ! operations.isEmpty())
-            log.log(WARNING, "Failed to empty request queue before shutdown timeout — " + operations.size() + " requests left");
+        if (enqueued.get() > 0)
+            log.log(WARNING, "Failed to empty request queue before shutdown timeout — " + enqueued.get() + " requests left");
 
         if ( ! visitOperations.isEmpty())
-            log.log(WARNING, "Failed to empty visitor operations queue before shutdown timeout — " + operations.size() + " operations left");
+            log.log(WARNING, "Failed to empty visitor operations queue before shutdown timeout — " + visitOperations.size() + " operations left");
 
         try {
             while (outstanding.get() > 0 && clock.instant().isBefore(doom))
@@ -436,7 +446,7 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
 
     private ContentChannel getDocument(HttpRequest request, DocumentPath path, ResponseHandler handler) {
         disallow(request, DRY_RUN);
-        enqueueAndDispatch(request, handler, () -> {
+        enqueueAndDispatch(request, handler, shardOf(path), () -> {
             DocumentOperationParameters rawParameters = parametersFromRequest(request, CLUSTER, FIELD_SET);
             if (rawParameters.fieldSet().isEmpty())
                 rawParameters = rawParameters.withFieldSet(path.documentType().orElseThrow() + ":[document]");
@@ -465,7 +475,7 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
         }
 
         return new ForwardingContentChannel(in -> {
-            enqueueAndDispatch(request, handler, () -> {
+            enqueueAndDispatch(request, handler, shardOf(path), () -> {
                 ParsedDocumentOperation parsed = parser.parsePut(in, path.id().toString());
                 DocumentPut put = (DocumentPut)parsed.operation();
                 getProperty(request, CONDITION).map(TestAndSetCondition::new).ifPresent(c -> put.setCondition(c));
@@ -490,7 +500,7 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
         }
 
         return new ForwardingContentChannel(in -> {
-            enqueueAndDispatch(request, handler, () -> {
+            enqueueAndDispatch(request, handler, shardOf(path), () -> {
                 ParsedDocumentOperation parsed = parser.parseUpdate(in, path.id().toString());
                 DocumentUpdate update = (DocumentUpdate)parsed.operation();
                 getProperty(request, CONDITION).map(TestAndSetCondition::new).ifPresent(update::setCondition);
@@ -514,7 +524,7 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
             return ignoredContent;
         }
 
-        enqueueAndDispatch(request, handler, () -> {
+        enqueueAndDispatch(request, handler, shardOf(path), () -> {
             DocumentRemove remove = new DocumentRemove(path.id());
             getProperty(request, CONDITION).map(TestAndSetCondition::new).ifPresent(remove::setCondition);
             DocumentOperationParameters parameters = parametersFromRequest(request, ROUTE)
@@ -547,28 +557,83 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
         return parameters;
     }
 
-    /** Dispatches enqueued requests until one is blocked. */
+    /** Dispatches enqueued requests of each shard until one is blocked. */
     void dispatchEnqueued() {
+        for (DispatchShard shard : shards)
+            shard.dispatchEnqueued();
+    }
+
+    /** Returns the number of threads to dispatch document operations with. */
+    static int dispatchThreads(DocumentOperationExecutorConfig executorConfig) {
+        if (executorConfig.dispatchThreads() > 0)
+            return executorConfig.dispatchThreads();
+
+        return Math.max(1, Math.min(16, Runtime.getRuntime().availableProcessors() / 4));
+    }
+
+    /**
+     * Returns the shard for operations on the document at the given path. This is given by the bucket of the
+     * document, so operations on the same document are dispatched in the order they were enqueued.
+     */
+    private DispatchShard shardOf(DocumentPath path) {
+        long bucket;
         try {
-            while (dispatchFirst());
+            bucket = bucketIdFactory.getBucketId(path.id()).withoutCountBits();
         }
-        catch (Exception e) {
-            log.log(WARNING, "Uncaught exception in /document/v1 dispatch thread", e);
+        catch (IllegalArgumentException e) {
+            bucket = 0; // Fails again when the operation is parsed, and is then rejected.
         }
+        bucket *= 0x9e3779b97f4a7c15L; // Spread buckets which differ only in their high bits.
+        return shards.get((int) Long.remainderUnsigned(bucket ^ (bucket >>> 32), shards.size()));
     }
 
-    /** Attempts to dispatch the first enqueued operations, and returns whether this was successful. */
-    private boolean dispatchFirst() {
-        Operation operation = operations.poll();
-        if (operation == null)
-            return false;
+    /** Returns the shard for operations which are not on a single document, in round-robin order. */
+    private DispatchShard anyShard() {
+        return shards.get(Math.floorMod(nextShard.getAndIncrement(), shards.size()));
+    }
 
-        if (operation.dispatch()) {
-            enqueued.decrementAndGet();
-            return true;
+    /** A queue of document operations, and the retry of these when they are throttled. */
+    private class DispatchShard {
+
+        private final Deque<Operation> operations = new ConcurrentLinkedDeque<>();
+        private final AtomicLong queued = new AtomicLong();
+        private final Metric.Context context;
+
+        DispatchShard(int index) {
+            this.context = metric.createContext(Map.of("shard", Integer.toString(index)));
         }
-        operations.push(operation);
-        return false;
+
+        void enqueue(Operation operation) {
+            queued.incrementAndGet();
+            operations.offer(operation);
+        }
+
+        /** Dispatches enqueued requests until one is blocked. */
+        void dispatchEnqueued() {
+            try {
+                while (dispatchFirst());
+            }
+            catch (Exception e) {
+                log.log(WARNING, "Uncaught exception in /document/v1 dispatch thread", e);
+            }
+            metric.set(MetricNames.QUEUED_OPERATIONS, queued.get(), context);
+        }
+
+        /** Attempts to dispatch the first enqueued operations, and returns whether this was successful. */
+        boolean dispatchFirst() {
+            Operation operation = operations.poll();
+            if (operation == null)
+                return false;
+
+            if (operation.dispatch()) {
+                queued.decrementAndGet();
+                enqueued.decrementAndGet();
+                return true;
+            }
+            operations.push(operation);
+            return false;
+        }
+
     }
 
     /** Dispatches enqueued requests until one is blocked. */
@@ -594,18 +659,23 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
         return false;
     }
 
+    private void enqueueAndDispatch(HttpRequest request, ResponseHandler handler, Supplier<BooleanSupplier> operationParser) {
+        enqueueAndDispatch(request, handler, anyShard(), operationParser);
+    }
+
     /**
-     * Enqueues the given request and operation, or responds with "overload" if the queue is full,
-     * and then attempts to dispatch an enqueued operation from the head of the queue.
+     * Enqueues the given request and operation in the given shard, or responds with "overload" if the
+     * queues are full, and then attempts to dispatch an enqueued operation from the head of the shard's queue.
      */
-    private void enqueueAndDispatch(HttpRequest request, ResponseHandler handler, Supplier<BooleanSupplier> operationParser) {
+    private void enqueueAndDispatch(HttpRequest request, ResponseHandler handler, DispatchShard shard,
+                                    Supplier<BooleanSupplier> operationParser) {
         if (enqueued.incrementAndGet() > maxThrottled) {
             enqueued.decrementAndGet();
             overload(request, "Rejecting execution due to overload: " + maxThrottled + " requests already enqueued", handler);
             return;
         }
-        operations.offer(new Operation(request, handler, operationParser));
-        dispatchFirst();
+        shard.enqueue(new Operation(request, handler, operationParser));
+        shard.dispatchFirst();
     }
 
 
@@ -997,6 +997,37 @@ public class DocumentV1ApiTest {
         });
     }
 
+    @Test
+    public void testOperationsOnSameDocumentAreQueuedInSameShard() {
+        handler.destroy();
+        handler = new DocumentV1ApiHandler(clock, Duration.ofMillis(1), metric, metrics, access, docConfig,
+                                           new DocumentOperationExecutorConfig.Builder().maxThrottled(4)
+                                                                                        .resendDelayMillis(1 << 30)
+                                                                                        .dispatchThreads(4)
+                                                                                        .build(),
+                                           clusterConfig, bucketConfig);
+        try (var driver = new RequestHandlerTestDriver(handler)) {
+            access.session.expect((id, parameters) -> new Result(Result.ResultType.TRANSIENT_ERROR, Result.toError(Result.ResultType.TRANSIENT_ERROR)));
+            var response1 = driver.sendRequest("http://localhost/document/v1/space/music/docid/one", DELETE);
+            var response2 = driver.sendRequest("http://localhost/document/v1/space/music/docid/one", DELETE);
+            handler.dispatchEnqueued();
+            Map<Map<String, ?>, Double> queued = metric.metrics().get("httpapi_queued_operations");
+            assertEquals(4, queued.size());
+            assertEquals(List.of(0.0, 0.0, 0.0, 2.0), queued.values().stream().sorted().toList());
+
+            access.session.expect((id, parameters) -> {
+                parameters.responseHandler().get().handleResponse(new DocumentIdResponse(0, doc1.getId()));
+                return new Result();
+            });
+            handler.dispatchEnqueued();
+            response1.readAll();
+            response2.readAll();
+            assertEquals(200, response1.getStatus());
+            assertEquals(200, response2.getStatus());
+            assertEquals(List.of(0.0, 0.0, 0.0, 0.0), queued.values().stream().sorted().toList());
+        }
+    }
+
     @Test
     public void testThroughput() throws InterruptedException {
         DocumentOperationExecutorConfig executorConfig = new DocumentOperationExecutorConfig.Builder().build();
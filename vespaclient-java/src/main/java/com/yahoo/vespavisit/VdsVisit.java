@@ -40,7 +40,7 @@ import java.util.stream.Collectors;
 public class VdsVisit {
 
     private VdsVisitParameters params;
-    private MessageBusParams mbparams = new MessageBusParams();
+    private MessageBusParams mbparams = new MessageBusParams().setLazyDocumentFields(true); // e.g., printing ids needs no fields
     private VisitorSession session;
 
     private final VisitorSessionAccessorFactory sessionAccessorFactory;
@@ -0,0 +1,104 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.tensor.benchmark;
+
+import com.yahoo.tensor.IndexedTensor;
+import com.yahoo.tensor.Tensor;
+import com.yahoo.tensor.TensorAddress;
+import com.yahoo.tensor.TensorType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of building tensors cell by cell, through the builders of
+ * IndexedTensor, MappedTensor and MixedTensor.
+ *
+ * @author agent
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BuilderBenchmark {
+
+    @Param({"double", "float"})
+    public String valueType;
+
+    @Param({"128", "1024"})
+    public int size;
+
+    private TensorType denseType;
+    private TensorType sparseType;
+    private TensorType mixedType;
+    private double[] values;
+    private TensorAddress[] sparseAddresses;
+    private TensorAddress[] mixedAddresses;
+
+    @Setup
+    public void setup() {
+        Tensors tensors = new Tensors(TensorType.Value.fromId(valueType));
+        denseType = tensors.vectorType(Tensors.Shape.dense, "x", size);
+        sparseType = tensors.vectorType(Tensors.Shape.sparse, "x", size);
+        mixedType = tensors.vectorType(Tensors.Shape.mixed, "x", size);
+        values = new double[size];
+        sparseAddresses = new TensorAddress[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = tensors.nextValue();
+            sparseAddresses[i] = TensorAddress.ofLabels(String.valueOf(i));
+        }
+        mixedAddresses = new TensorAddress[Tensors.mixedLabels * size];
+        for (int k = 0; k < Tensors.mixedLabels; k++)
+            for (int i = 0; i < size; i++)
+                mixedAddresses[k * size + i] = TensorAddress.ofLabels(String.valueOf(k), String.valueOf(i));
+    }
+
+    @Benchmark
+    public Tensor denseByIndexes() {
+        IndexedTensor.Builder builder = IndexedTensor.Builder.of(denseType);
+        for (int i = 0; i < size; i++)
+            builder.cell(values[i], i);
+        return builder.build();
+    }
+
+    @Benchmark
+    public Tensor denseByDirectIndex() {
+        IndexedTensor.BoundBuilder builder = (IndexedTensor.BoundBuilder)IndexedTensor.Builder.of(denseType);
+        for (int i = 0; i < size; i++)
+            builder.cellByDirectIndex(i, values[i]);
+        return builder.build();
+    }
+
+    @Benchmark
+    public Tensor denseFromArray() {
+        return IndexedTensor.Builder.of(denseType, values).build();
+    }
+
+    @Benchmark
+    public Tensor sparseByAddress() {
+        Tensor.Builder builder = Tensor.Builder.of(sparseType);
+        for (int i = 0; i < size; i++)
+            builder.cell(sparseAddresses[i], values[i]);
+        return builder.build();
+    }
+
+    @Benchmark
+    public Tensor mixedByAddress() {
+        Tensor.Builder builder = Tensor.Builder.of(mixedType);
+        for (int i = 0; i < mixedAddresses.length; i++)
+            builder.cell(mixedAddresses[i], values[i % size]);
+        return builder.build();
+    }
+
+}
@@ -0,0 +1,64 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.tensor.benchmark;
+
+import com.yahoo.tensor.Tensor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the concat tensor function: Concatenating along an existing dimension and along a new one.
+ *
+ * @author agent
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConcatBenchmark {
+
+    @Param({"dense", "mixed"})
+    public String shape;
+
+    @Param({"128", "1024"})
+    public int size;
+
+    private Tensor a;
+    private Tensor b;
+
+    @Setup
+    public void setup() {
+        Tensors tensors = new Tensors();
+        Tensors.Shape shape = Tensors.Shape.valueOf(this.shape);
+        a = tensors.vector(shape, "x", size);
+        b = tensors.vector(shape, "x", size);
+    }
+
+    @Benchmark
+    public Tensor existingDimension() {
+        return a.concat(b, "x");
+    }
+
+    @Benchmark
+    public Tensor newDimension() {
+        return a.concat(b, "y");
+    }
+
+    @Benchmark
+    public Tensor scalar() {
+        return a.concat(1.0, "x");
+    }
+
+}
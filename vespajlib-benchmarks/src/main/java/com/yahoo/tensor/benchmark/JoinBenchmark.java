@@ -0,0 +1,78 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.tensor.benchmark;
+
+import com.yahoo.tensor.Tensor;
+import com.yahoo.tensor.functions.ConstantTensor;
+import com.yahoo.tensor.functions.Join;
+import com.yahoo.tensor.functions.ScalarFunctions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the join tensor function: Joining tensors of the same type (cell-by-cell multiply),
+ * joining tensors with disjoint dimensions (outer product, for mixed tensors within each mapped label)
+ * and joining with a broadcast scalar.
+ *
+ * @author agent
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JoinBenchmark {
+
+    @Param({"dense", "sparse", "mixed"})
+    public String shape;
+
+    @Param({"128", "1024"})
+    public int size;
+
+    private Tensor a;
+    private Tensor b;
+    private Tensor y;
+    private Tensor scalar;
+
+    @Setup
+    public void setup() {
+        Tensors tensors = new Tensors();
+        Tensors.Shape shape = Tensors.Shape.valueOf(this.shape);
+        a = tensors.vector(shape, "x", size);
+        b = tensors.vector(shape, "x", size);
+        y = tensors.vector(shape, "y", 16);
+        scalar = Tensor.from(tensors.nextValue());
+    }
+
+    @Benchmark
+    public Tensor sameTypeMultiply() {
+        return a.multiply(b);
+    }
+
+    @Benchmark
+    public Tensor sameTypeFunction() {
+        return new Join<>(new ConstantTensor<>(a), new ConstantTensor<>(b), ScalarFunctions.add()).evaluate();
+    }
+
+    @Benchmark
+    public Tensor outerProduct() {
+        return a.multiply(y);
+    }
+
+    @Benchmark
+    public Tensor scalarBroadcast() {
+        return a.multiply(scalar);
+    }
+
+}
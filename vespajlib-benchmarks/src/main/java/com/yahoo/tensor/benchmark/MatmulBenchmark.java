@@ -0,0 +1,80 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.tensor.benchmark;
+
+import com.yahoo.tensor.Tensor;
+import com.yahoo.tensor.functions.ConstantTensor;
+import com.yahoo.tensor.functions.Join;
+import com.yahoo.tensor.functions.Reduce;
+import com.yahoo.tensor.functions.ScalarFunctions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of matrix products: The matmul tensor function, and the equivalent reduce of a join,
+ * which is how matmul is evaluated when it is not recognized as a dot product.
+ *
+ * @author agent
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MatmulBenchmark {
+
+    @Param({"dense", "sparse", "mixed"})
+    public String shape;
+
+    @Param({"32", "128"})
+    public int size;
+
+    private Tensor matrix;
+    private Tensor otherMatrix;
+    private Tensor vector;
+    private Tensor otherVector;
+
+    @Setup
+    public void setup() {
+        Tensors tensors = new Tensors();
+        Tensors.Shape shape = Tensors.Shape.valueOf(this.shape);
+        Tensors.Shape vectorShape = shape == Tensors.Shape.sparse ? Tensors.Shape.sparse : Tensors.Shape.dense;
+        matrix = tensors.matrix(shape, "i", size, "x", size);
+        otherMatrix = tensors.matrix(shape, "j", size, "x", size);
+        vector = tensors.vector(vectorShape, "x", size);
+        otherVector = tensors.vector(vectorShape, "x", size);
+    }
+
+    @Benchmark
+    public Tensor dotProduct() {
+        return vector.matmul(otherVector, "x");
+    }
+
+    @Benchmark
+    public Tensor matrixVector() {
+        return matrix.matmul(vector, "x");
+    }
+
+    @Benchmark
+    public Tensor matrixMatrix() {
+        return matrix.matmul(otherMatrix, "x");
+    }
+
+    @Benchmark
+    public Tensor matrixVectorAsReduceJoin() {
+        return new Reduce<>(new Join<>(new ConstantTensor<>(matrix), new ConstantTensor<>(vector), ScalarFunctions.multiply()),
+                            Reduce.Aggregator.sum, "x").evaluate();
+    }
+
+}
@@ -0,0 +1,71 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.tensor.benchmark;
+
+import com.yahoo.tensor.Tensor;
+import com.yahoo.tensor.functions.Reduce;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the reduce tensor function: Reducing all dimensions and reducing a single dimension
+ * of a matrix, with a simple (sum) and a comparing (max) aggregator.
+ *
+ * @author agent
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReduceBenchmark {
+
+    @Param({"dense", "sparse", "mixed"})
+    public String shape;
+
+    @Param({"128", "1024"})
+    public int size;
+
+    private Tensor vector;
+    private Tensor matrix;
+
+    @Setup
+    public void setup() {
+        Tensors tensors = new Tensors();
+        Tensors.Shape shape = Tensors.Shape.valueOf(this.shape);
+        vector = tensors.vector(shape, "x", size);
+        matrix = tensors.matrix(shape, "i", 32, "x", size);
+    }
+
+    @Benchmark
+    public Tensor sumAll() {
+        return vector.reduce(Reduce.Aggregator.sum);
+    }
+
+    @Benchmark
+    public Tensor maxAll() {
+        return vector.reduce(Reduce.Aggregator.max);
+    }
+
+    @Benchmark
+    public Tensor sumInnerDimension() {
+        return matrix.reduce(Reduce.Aggregator.sum, "x");
+    }
+
+    @Benchmark
+    public Tensor sumOuterDimension() {
+        return matrix.reduce(Reduce.Aggregator.sum, "i");
+    }
+
+}
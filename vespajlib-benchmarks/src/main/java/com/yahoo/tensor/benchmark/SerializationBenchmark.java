@@ -0,0 +1,90 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.tensor.benchmark;
+
+import com.yahoo.io.GrowableByteBuffer;
+import com.yahoo.tensor.Tensor;
+import com.yahoo.tensor.TensorType;
+import com.yahoo.tensor.serialization.JsonFormat;
+import com.yahoo.tensor.serialization.TypedBinaryFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the binary and JSON tensor codecs in com.yahoo.tensor.serialization.
+ *
+ * @author agent
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"dense", "sparse", "mixed"})
+    public String shape;
+
+    @Param({"double", "float"})
+    public String valueType;
+
+    @Param({"128", "1024"})
+    public int size;
+
+    private Tensor tensor;
+    private byte[] binary;
+    private byte[] json;
+    private byte[] shortJson;
+
+    @Setup
+    public void setup() {
+        Tensors tensors = new Tensors(TensorType.Value.fromId(valueType));
+        tensor = tensors.vector(Tensors.Shape.valueOf(shape), "x", size);
+        binary = TypedBinaryFormat.encode(tensor);
+        json = JsonFormat.encode(tensor, false, false);
+        shortJson = JsonFormat.encode(tensor, true, false);
+    }
+
+    @Benchmark
+    public byte[] encodeBinary() {
+        return TypedBinaryFormat.encode(tensor);
+    }
+
+    @Benchmark
+    public Tensor decodeBinary() {
+        return TypedBinaryFormat.decode(Optional.of(tensor.type()), GrowableByteBuffer.wrap(binary));
+    }
+
+    @Benchmark
+    public byte[] encodeJson() {
+        return JsonFormat.encode(tensor, false, false);
+    }
+
+    @Benchmark
+    public byte[] encodeShortJson() {
+        return JsonFormat.encode(tensor, true, false);
+    }
+
+    @Benchmark
+    public Tensor decodeJson() {
+        return JsonFormat.decode(tensor.type(), json);
+    }
+
+    @Benchmark
+    public Tensor decodeShortJson() {
+        return JsonFormat.decode(tensor.type(), shortJson);
+    }
+
+}
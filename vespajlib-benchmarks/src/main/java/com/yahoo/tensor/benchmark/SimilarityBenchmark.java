@@ -0,0 +1,112 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.tensor.benchmark;
+
+import com.yahoo.tensor.Tensor;
+import com.yahoo.tensor.TensorType;
+import com.yahoo.tensor.evaluation.Name;
+import com.yahoo.tensor.functions.ConstantTensor;
+import com.yahoo.tensor.functions.CosineSimilarity;
+import com.yahoo.tensor.functions.EuclideanDistance;
+import com.yahoo.tensor.functions.L2Normalize;
+import com.yahoo.tensor.functions.Matmul;
+import com.yahoo.tensor.functions.XwPlusB;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the similarity functions used to re-rank hits, over dense vectors.
+ * This runs without the Vector API module, so the functions are evaluated by the scalar vector kernels.
+ * The *AsPrimitive benchmarks evaluate the equivalent joins and reduces the functions are defined by,
+ * and {@link VectorApiSimilarityBenchmark} runs the same benchmarks with the Vector API enabled.
+ *
+ * @author agent
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SimilarityBenchmark {
+
+    @Param({"double", "float"})
+    public String valueType;
+
+    @Param({"128", "768"})
+    public int size;
+
+    /** The number of rows in the matrix multiplied by a vector, each of which is a vector of the benchmarked size */
+    private static final int rows = 16;
+
+    private CosineSimilarity<Name> cosineSimilarity;
+    private EuclideanDistance<Name> euclideanDistance;
+    private L2Normalize<Name> l2Normalize;
+    private Matmul<Name> matrixVector;
+    private XwPlusB<Name> xwPlusB;
+
+    @Setup
+    public void setup() {
+        Tensors tensors = new Tensors(TensorType.Value.fromId(valueType));
+        var a = new ConstantTensor<Name>(tensors.vector(Tensors.Shape.dense, "x", size));
+        var b = new ConstantTensor<Name>(tensors.vector(Tensors.Shape.dense, "x", size));
+        var matrix = new ConstantTensor<Name>(tensors.matrix(Tensors.Shape.dense, "d", rows, "x", size));
+        var bias = new ConstantTensor<Name>(tensors.vector(Tensors.Shape.dense, "d", rows));
+        cosineSimilarity = new CosineSimilarity<>(a, b, "x");
+        euclideanDistance = new EuclideanDistance<>(a, b, "x");
+        l2Normalize = new L2Normalize<>(a, "x");
+        matrixVector = new Matmul<>(matrix, a, "x");
+        xwPlusB = new XwPlusB<>(a, matrix, bias, "x");
+    }
+
+    @Benchmark
+    public Tensor cosineSimilarity() {
+        return cosineSimilarity.evaluate();
+    }
+
+    @Benchmark
+    public Tensor cosineSimilarityAsPrimitive() {
+        return cosineSimilarity.toPrimitive().evaluate();
+    }
+
+    @Benchmark
+    public Tensor euclideanDistance() {
+        return euclideanDistance.evaluate();
+    }
+
+    @Benchmark
+    public Tensor euclideanDistanceAsPrimitive() {
+        return euclideanDistance.toPrimitive().evaluate();
+    }
+
+    @Benchmark
+    public Tensor l2Normalize() {
+        return l2Normalize.evaluate();
+    }
+
+    @Benchmark
+    public Tensor l2NormalizeAsPrimitive() {
+        return l2Normalize.toPrimitive().evaluate();
+    }
+
+    @Benchmark
+    public Tensor matrixVector() {
+        return matrixVector.evaluate();
+    }
+
+    @Benchmark
+    public Tensor xwPlusB() {
+        return xwPlusB.evaluate();
+    }
+
+}
@@ -0,0 +1,97 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.tensor.benchmark;
+
+import com.yahoo.tensor.Tensor;
+import com.yahoo.tensor.TensorType;
+
+import java.util.Random;
+
+/**
+ * Creates the tensors used as benchmark input. Values are drawn from a fixed seed so that
+ * runs are comparable.
+ *
+ * @author agent
+ */
+class Tensors {
+
+    /** The number of mapped labels in the sparse dimension of mixed tensors */
+    static final int mixedLabels = 8;
+
+    /** The kind of dimensions the tensors of a benchmark have */
+    enum Shape {
+
+        /** Only indexed dimensions */
+        dense,
+
+        /** Only mapped dimensions */
+        sparse,
+
+        /** A mapped dimension with {@link #mixedLabels} labels, where each label holds a dense subspace */
+        mixed
+
+    }
+
+    private final Random random = new Random(1234567);
+    private final TensorType.Value valueType;
+
+    Tensors(TensorType.Value valueType) {
+        this.valueType = valueType;
+    }
+
+    Tensors() {
+        this(TensorType.Value.DOUBLE);
+    }
+
+    /** Returns the type of a vector of the given shape along dimension x */
+    TensorType vectorType(Shape shape, String dimension, int size) {
+        var builder = new TensorType.Builder(valueType);
+        switch (shape) {
+            case dense -> builder.indexed(dimension, size);
+            case sparse -> builder.mapped(dimension);
+            case mixed -> builder.mapped("k").indexed(dimension, size);
+        }
+        return builder.build();
+    }
+
+    /** Returns the type of a matrix of the given shape with the given row and column dimensions */
+    TensorType matrixType(Shape shape, String rowDimension, int rows, String columnDimension, int columns) {
+        var builder = new TensorType.Builder(valueType);
+        switch (shape) {
+            case dense -> builder.indexed(rowDimension, rows).indexed(columnDimension, columns);
+            case sparse -> builder.mapped(rowDimension).mapped(columnDimension);
+            case mixed -> builder.mapped(rowDimension).indexed(columnDimension, columns);
+        }
+        return builder.build();
+    }
+
+    /** Returns a vector with the given number of cells along the given dimension (per mapped label if mixed) */
+    Tensor vector(Shape shape, String dimension, int size) {
+        TensorType type = vectorType(shape, dimension, size);
+        Tensor.Builder builder = Tensor.Builder.of(type);
+        int labels = shape == Shape.mixed ? mixedLabels : 1;
+        for (int k = 0; k < labels; k++) {
+            for (int i = 0; i < size; i++) {
+                var cell = builder.cell().label(dimension, i);
+                if (shape == Shape.mixed)
+                    cell.label("k", k);
+                cell.value(random.nextDouble());
+            }
+        }
+        return builder.build();
+    }
+
+    /** Returns a fully populated matrix */
+    Tensor matrix(Shape shape, String rowDimension, int rows, String columnDimension, int columns) {
+        TensorType type = matrixType(shape, rowDimension, rows, columnDimension, columns);
+        Tensor.Builder builder = Tensor.Builder.of(type);
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                builder.cell().label(rowDimension, row).label(columnDimension, column).value(random.nextDouble());
+            }
+        }
+        return builder.build();
+    }
+
+    double nextValue() { return random.nextDouble(); }
+
+}
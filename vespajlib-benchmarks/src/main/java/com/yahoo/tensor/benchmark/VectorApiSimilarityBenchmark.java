@@ -0,0 +1,15 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.tensor.benchmark;
+
+import org.openjdk.jmh.annotations.Fork;
+
+/**
+ * The similarity benchmarks, run in a JVM with the Vector API module added,
+ * such that the functions are evaluated by the Vector API kernels.
+ *
+ * @author agent
+ */
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class VectorApiSimilarityBenchmark extends SimilarityBenchmark {
+
+}
@@ -0,0 +1,102 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.tensor.functions;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector kernels using the Java Vector API, which compiles to SIMD instructions of the preferred width
+ * of the platform. This is compiled separately as it requires the jdk.incubator.vector module,
+ * and is only instantiated by {@link VectorKernels} if that module is present.
+ *
+ * @author agent
+ */
+class VectorApiKernels extends VectorKernels {
+
+    private static final VectorSpecies<Double> doubles = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Float> floats = FloatVector.SPECIES_PREFERRED;
+
+    @Override
+    double dotProduct(double[] a, int aOffset, double[] b, int bOffset, int length) {
+        DoubleVector sum = DoubleVector.zero(doubles);
+        int i = 0;
+        for (int bound = doubles.loopBound(length); i < bound; i += doubles.length())
+            sum = sum.add(DoubleVector.fromArray(doubles, a, aOffset + i)
+                                      .mul(DoubleVector.fromArray(doubles, b, bOffset + i)));
+        double result = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++)
+            result += a[aOffset + i] * b[bOffset + i];
+        return result;
+    }
+
+    @Override
+    double dotProduct(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        FloatVector sum = FloatVector.zero(floats);
+        int i = 0;
+        for (int bound = floats.loopBound(length); i < bound; i += floats.length())
+            sum = sum.add(FloatVector.fromArray(floats, a, aOffset + i)
+                                     .mul(FloatVector.fromArray(floats, b, bOffset + i)));
+        double result = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++)
+            result += a[aOffset + i] * b[bOffset + i];
+        return result;
+    }
+
+    @Override
+    double squaredDistance(double[] a, double[] b) {
+        DoubleVector sum = DoubleVector.zero(doubles);
+        int i = 0;
+        for (int bound = doubles.loopBound(a.length); i < bound; i += doubles.length()) {
+            DoubleVector difference = DoubleVector.fromArray(doubles, a, i).sub(DoubleVector.fromArray(doubles, b, i));
+            sum = sum.add(difference.mul(difference));
+        }
+        double result = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < a.length; i++) {
+            double difference = a[i] - b[i];
+            result += difference * difference;
+        }
+        return result;
+    }
+
+    @Override
+    double squaredDistance(float[] a, float[] b) {
+        FloatVector sum = FloatVector.zero(floats);
+        int i = 0;
+        for (int bound = floats.loopBound(a.length); i < bound; i += floats.length()) {
+            FloatVector difference = FloatVector.fromArray(floats, a, i).sub(FloatVector.fromArray(floats, b, i));
+            sum = sum.add(difference.mul(difference));
+        }
+        double result = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < a.length; i++) {
+            float difference = a[i] - b[i];
+            result += difference * difference;
+        }
+        return result;
+    }
+
+    @Override
+    double[] divide(double[] a, double divisor) {
+        double[] result = new double[a.length];
+        int i = 0;
+        for (int bound = doubles.loopBound(a.length); i < bound; i += doubles.length())
+            DoubleVector.fromArray(doubles, a, i).div(divisor).intoArray(result, i);
+        for (; i < a.length; i++)
+            result[i] = a[i] / divisor;
+        return result;
+    }
+
+    @Override
+    float[] divide(float[] a, double divisor) {
+        float[] result = new float[a.length];
+        float floatDivisor = (float)divisor;
+        int i = 0;
+        for (int bound = floats.loopBound(a.length); i < bound; i += floats.length())
+            FloatVector.fromArray(floats, a, i).div(floatDivisor).intoArray(result, i);
+        for (; i < a.length; i++)
+            result[i] = a[i] / floatDivisor;
+        return result;
+    }
+
+}
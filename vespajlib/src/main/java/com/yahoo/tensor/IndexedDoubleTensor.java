@@ -1,6 +1,7 @@
 // Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.tensor;
 
+import java.nio.DoubleBuffer;
 import java.util.Arrays;
 
 /**
@@ -28,6 +29,12 @@ class IndexedDoubleTensor extends IndexedTensor {
     @Override
     public float getFloat(long valueIndex) { return (float)get(valueIndex); }
 
+    @Override
+    public DoubleBuffer asDoubleBuffer() { return DoubleBuffer.wrap(values).asReadOnlyBuffer(); }
+
+    /** Returns the array holding the values of this, which must not be modified */
+    double[] values() { return values; }
+
     @Override
     public IndexedTensor withType(TensorType type) {
         throwOnIncompatibleType(type);
@@ -2,7 +2,10 @@
 package com.yahoo.tensor;
 
 import com.google.common.collect.ImmutableMap;
+import com.yahoo.tensor.impl.DenseCellValues;
 
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
@@ -24,6 +27,19 @@ import java.util.Set;
  */
 public abstract class IndexedTensor implements Tensor {
 
+    static {
+        DenseCellValues.setAccessor(new DenseCellValues.Accessor() {
+            @Override
+            public double[] doubles(IndexedTensor tensor) {
+                return tensor instanceof IndexedDoubleTensor doubleTensor ? doubleTensor.values() : null;
+            }
+            @Override
+            public float[] floats(IndexedTensor tensor) {
+                return tensor instanceof IndexedFloatTensor floatTensor ? floatTensor.values() : null;
+            }
+        });
+    }
+
     /** The prescribed and possibly abstract type this is an instance of */
     private final TensorType type;
 
@@ -142,6 +158,28 @@ public abstract class IndexedTensor implements Tensor {
      */
     public abstract float getFloat(long valueIndex);
 
+    /**
+     * Returns a read-only buffer of the values of this as floats in <i>standard value order</i>.
+     * This is a view of the values of this if they are stored as floats, and a copy otherwise.
+     */
+    public FloatBuffer asFloatBuffer() {
+        FloatBuffer buffer = FloatBuffer.allocate((int)size());
+        for (int i = 0; i < buffer.capacity(); i++)
+            buffer.put(i, getFloat(i));
+        return buffer.asReadOnlyBuffer();
+    }
+
+    /**
+     * Returns a read-only buffer of the values of this as doubles in <i>standard value order</i>.
+     * This is a view of the values of this if they are stored as doubles, and a copy otherwise.
+     */
+    public DoubleBuffer asDoubleBuffer() {
+        DoubleBuffer buffer = DoubleBuffer.allocate((int)size());
+        for (int i = 0; i < buffer.capacity(); i++)
+            buffer.put(i, get(i));
+        return buffer.asReadOnlyBuffer();
+    }
+
     static long toValueIndex(long[] indexes, DimensionSizes sizes) {
         if (indexes.length == 1) return indexes[0]; // for speed
         if (indexes.length == 0) return 0; // for speed
@@ -4,6 +4,7 @@ package com.yahoo.tensor.functions;
 import com.yahoo.tensor.evaluation.EvaluationContext;
 import com.yahoo.tensor.evaluation.Name;
 import com.yahoo.tensor.evaluation.TypeContext;
+import com.yahoo.tensor.IndexedTensor;
 import com.yahoo.tensor.Tensor;
 import com.yahoo.tensor.TensorType;
 import com.yahoo.tensor.TensorType.Dimension;
@@ -60,16 +61,28 @@ public class CosineSimilarity<NAMETYPE extends Name> extends TensorFunction<NAME
         return toPrimitive().type(context);
     }
 
-    /** Evaluates this by first converting it to a primitive function */
+    /** Evaluates this directly if the arguments are dense vectors, and by converting it to a primitive function otherwise */
     @Override
     public Tensor evaluate(EvaluationContext<NAMETYPE> context) {
-        return toPrimitive().evaluate(context);
+        Tensor a = arg1.evaluate(context);
+        Tensor b = arg2.evaluate(context);
+        if (DenseVectors.areVectors(a, b, dimension)) {
+            IndexedTensor aVector = (IndexedTensor)a;
+            IndexedTensor bVector = (IndexedTensor)b;
+            double ab = DenseVectors.dotProduct(aVector, bVector);
+            double aa = DenseVectors.dotProduct(aVector, aVector);
+            double bb = DenseVectors.dotProduct(bVector, bVector);
+            return Tensor.from(ab / Math.sqrt(aa * bb));
+        }
+        return toPrimitive(new ConstantTensor<>(a), new ConstantTensor<>(b)).evaluate(context);
     }
 
     @Override
     public PrimitiveTensorFunction<NAMETYPE> toPrimitive() {
-        TensorFunction<NAMETYPE> a = arg1.toPrimitive();
-        TensorFunction<NAMETYPE> b = arg2.toPrimitive();
+        return toPrimitive(arg1.toPrimitive(), arg2.toPrimitive());
+    }
+
+    private PrimitiveTensorFunction<NAMETYPE> toPrimitive(TensorFunction<NAMETYPE> a, TensorFunction<NAMETYPE> b) {
         var aa = new Join<>(a, a, ScalarFunctions.multiply());
         var ab = new Join<>(a, b, ScalarFunctions.multiply());
         var bb = new Join<>(b, b, ScalarFunctions.multiply());
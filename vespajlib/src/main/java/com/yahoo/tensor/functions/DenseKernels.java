@@ -0,0 +1,226 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.tensor.functions;
+
+import com.yahoo.tensor.DimensionSizes;
+import com.yahoo.tensor.IndexedTensor;
+import com.yahoo.tensor.Tensor;
+import com.yahoo.tensor.TensorType;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.DoubleBinaryOperator;
+
+/**
+ * Join and reduce of indexed tensors, done by looping over the cell values with strides.
+ * This avoids boxing values and creating an address per cell, which is what the general implementations do.
+ * Cells are visited in the same order as in the general implementations, so the results are identical.
+ *
+ * @author agent
+ */
+class DenseKernels {
+
+    private DenseKernels() {}
+
+    /**
+     * Returns whether {@link #join} can join the two given tensors. This is false if the tensors are smaller than
+     * the joined type in some bound dimension, as the result must then be padded.
+     */
+    static boolean canJoin(IndexedTensor a, IndexedTensor b, TensorType joinedType) {
+        for (TensorType.Dimension dimension : joinedType.dimensions()) {
+            if (dimension.size().isEmpty()) continue;
+            if ( ! hasSize(dimension.name(), dimension.size().get(), a)) return false;
+            if ( ! hasSize(dimension.name(), dimension.size().get(), b)) return false;
+        }
+        return true;
+    }
+
+    private static boolean hasSize(String dimension, long size, IndexedTensor tensor) {
+        var index = tensor.type().indexOfDimension(dimension);
+        return index.isEmpty() || tensor.dimensionSizes().size(index.get()) == size;
+    }
+
+    /** Joins two indexed tensors accepted by {@link #canJoin} into the given type, which must be the join type of the two */
+    static Tensor join(IndexedTensor a, IndexedTensor b, TensorType joinedType, DoubleBinaryOperator combinator) {
+        DimensionSizes joinedSizes = Join.joinedSize(joinedType, a, b);
+        double[] values = new double[(int)joinedSizes.totalSize()];
+        if (values.length > 0)
+            join(a, strides(a, joinedType), b, strides(b, joinedType), joinedSizes, values, combinator);
+        return IndexedTensor.Builder.of(joinedType, joinedSizes, values).build();
+    }
+
+    private static void join(IndexedTensor a, long[] aStrides, IndexedTensor b, long[] bStrides,
+                             DimensionSizes sizes, double[] values, DoubleBinaryOperator combinator) {
+        int rank = sizes.dimensions();
+        if (rank == 0) {
+            values[0] = combinator.applyAsDouble(a.get(0), b.get(0));
+            return;
+        }
+        int inner = rank - 1;
+        long innerSize = sizes.size(inner);
+        long aInnerStride = aStrides[inner];
+        long bInnerStride = bStrides[inner];
+        long[] position = new long[rank];
+        long aOffset = 0;
+        long bOffset = 0;
+        int index = 0;
+        do {
+            for (long i = 0; i < innerSize; i++)
+                values[index++] = combinator.applyAsDouble(a.get(aOffset + i * aInnerStride),
+                                                           b.get(bOffset + i * bInnerStride));
+            // Advance the position in the outer dimensions, and the offsets in the arguments along with it
+            int dimension = inner - 1;
+            for (; dimension >= 0; dimension--) {
+                position[dimension]++;
+                aOffset += aStrides[dimension];
+                bOffset += bStrides[dimension];
+                if (position[dimension] < sizes.size(dimension)) break;
+                aOffset -= aStrides[dimension] * position[dimension];
+                bOffset -= bStrides[dimension] * position[dimension];
+                position[dimension] = 0;
+            }
+            if (dimension < 0) break;
+        } while (true);
+    }
+
+    /**
+     * Returns whether {@link #reduce} can reduce the given tensor into the given type with the given aggregator.
+     * This is false if the tensor is smaller than the reduced type in some bound dimension, as the result must
+     * then be padded.
+     */
+    static boolean canReduce(IndexedTensor argument, TensorType reducedType, Reduce.Aggregator aggregator) {
+        if (aggregator == Reduce.Aggregator.median) return false;
+        for (TensorType.Dimension dimension : reducedType.dimensions()) {
+            if (dimension.size().isEmpty()) continue;
+            if ( ! hasSize(dimension.name(), dimension.size().get(), argument)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Reduces some, but not all, dimensions of an indexed tensor.
+     *
+     * @param argument the tensor to reduce, which must not be empty
+     * @param reducedType the type of the result, containing the dimensions of the argument which are not reduced
+     * @param aggregator the aggregator to use, which must be one accepted by {@link #canReduce}
+     */
+    static Tensor reduce(IndexedTensor argument, TensorType reducedType, Reduce.Aggregator aggregator) {
+        TensorType type = argument.type();
+        DimensionSizes argumentSizes = argument.dimensionSizes();
+        DimensionSizes.Builder reducedSizesBuilder = new DimensionSizes.Builder(reducedType.rank());
+        for (int i = 0; i < reducedType.rank(); i++)
+            reducedSizesBuilder.set(i, argumentSizes.size(type.indexOfDimension(reducedType.dimensions().get(i).name()).get()));
+        DimensionSizes reducedSizes = reducedSizesBuilder.build();
+
+        double[] values = new double[(int)reducedSizes.totalSize()];
+        initialize(values, aggregator);
+        reduce(argument, argumentSizes, resultStrides(type, reducedType, reducedSizes), values, aggregator);
+        if (aggregator == Reduce.Aggregator.avg) {
+            long count = argument.size() / values.length;
+            for (int i = 0; i < values.length; i++)
+                values[i] /= count;
+        }
+        return IndexedTensor.Builder.of(reducedType, reducedSizes, values).build();
+    }
+
+    private static void initialize(double[] values, Reduce.Aggregator aggregator) {
+        double initialValue = switch (aggregator) {
+            case max -> Double.NEGATIVE_INFINITY;
+            case min -> Double.POSITIVE_INFINITY;
+            case prod -> 1.0;
+            default -> 0.0;
+        };
+        if (initialValue != 0.0)
+            Arrays.fill(values, initialValue);
+    }
+
+    /**
+     * Aggregates all cells of the argument, in standard value order, into the result values.
+     *
+     * @param resultStrides the stride in the result of each dimension of the argument, 0 for reduced dimensions
+     */
+    private static void reduce(IndexedTensor argument, DimensionSizes sizes, long[] resultStrides,
+                               double[] values, Reduce.Aggregator aggregator) {
+        int rank = sizes.dimensions();
+        int inner = rank - 1;
+        int innerSize = (int)sizes.size(inner);
+        int innerStride = (int)resultStrides[inner];
+        long[] position = new long[rank];
+        long argumentOffset = 0;
+        int resultOffset = 0;
+        do {
+            switch (aggregator) {
+                case sum, avg -> {
+                    for (int i = 0; i < innerSize; i++)
+                        values[resultOffset + i * innerStride] += argument.get(argumentOffset + i);
+                }
+                case count -> {
+                    for (int i = 0; i < innerSize; i++)
+                        values[resultOffset + i * innerStride] += 1;
+                }
+                case prod -> {
+                    for (int i = 0; i < innerSize; i++)
+                        values[resultOffset + i * innerStride] *= argument.get(argumentOffset + i);
+                }
+                case max -> {
+                    for (int i = 0; i < innerSize; i++) {
+                        double value = argument.get(argumentOffset + i);
+                        if (value > values[resultOffset + i * innerStride])
+                            values[resultOffset + i * innerStride] = value;
+                    }
+                }
+                case min -> {
+                    for (int i = 0; i < innerSize; i++) {
+                        double value = argument.get(argumentOffset + i);
+                        if (value < values[resultOffset + i * innerStride])
+                            values[resultOffset + i * innerStride] = value;
+                    }
+                }
+                default -> throw new IllegalArgumentException("Aggregator " + aggregator + " is not supported");
+            }
+            argumentOffset += innerSize;
+            int dimension = inner - 1;
+            for (; dimension >= 0; dimension--) {
+                position[dimension]++;
+                resultOffset += resultStrides[dimension];
+                if (position[dimension] < sizes.size(dimension)) break;
+                resultOffset -= resultStrides[dimension] * position[dimension];
+                position[dimension] = 0;
+            }
+            if (dimension < 0) break;
+        } while (true);
+    }
+
+    /** Returns the strides of the given tensor for each dimension of the given type, 0 for dimensions not in the tensor */
+    private static long[] strides(IndexedTensor tensor, TensorType type) {
+        long[] tensorStrides = strides(tensor.dimensionSizes());
+        long[] strides = new long[type.rank()];
+        List<TensorType.Dimension> dimensions = type.dimensions();
+        for (int i = 0; i < strides.length; i++) {
+            int index = tensor.type().indexOfDimension(dimensions.get(i).name()).orElse(-1);
+            strides[i] = index < 0 ? 0 : tensorStrides[index];
+        }
+        return strides;
+    }
+
+    /** Returns the strides in the reduced tensor for each dimension of the argument type, 0 for reduced dimensions */
+    private static long[] resultStrides(TensorType argumentType, TensorType reducedType, DimensionSizes reducedSizes) {
+        long[] reducedStrides = strides(reducedSizes);
+        long[] strides = new long[argumentType.rank()];
+        for (int i = 0; i < strides.length; i++) {
+            int index = reducedType.indexOfDimension(argumentType.dimensions().get(i).name()).orElse(-1);
+            strides[i] = index < 0 ? 0 : reducedStrides[index];
+        }
+        return strides;
+    }
+
+    private static long[] strides(DimensionSizes sizes) {
+        long[] strides = new long[sizes.dimensions()];
+        long stride = 1;
+        for (int i = strides.length - 1; i >= 0; i--) {
+            strides[i] = stride;
+            stride *= sizes.size(i);
+        }
+        return strides;
+    }
+
+}
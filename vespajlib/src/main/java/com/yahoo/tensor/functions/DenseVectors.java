@@ -0,0 +1,79 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.tensor.functions;
+
+import com.yahoo.tensor.DimensionSizes;
+import com.yahoo.tensor.IndexedTensor;
+import com.yahoo.tensor.Tensor;
+import com.yahoo.tensor.TensorType;
+import com.yahoo.tensor.impl.DenseCellValues;
+
+/**
+ * Evaluation of functions over indexed tensors by running {@link VectorKernels} directly on their cell values.
+ *
+ * @author agent
+ */
+class DenseVectors {
+
+    private DenseVectors() {}
+
+    /**
+     * Returns whether the given tensors are both vectors in the given bound dimension, of the same size,
+     * holding their values in arrays of the same type.
+     */
+    static boolean areVectors(Tensor a, Tensor b, String dimension) {
+        if ( ! isVector(a, dimension) || ! isVector(b, dimension)) return false;
+        if (((IndexedTensor)a).size() != ((IndexedTensor)b).size()) return false;
+        return haveSameCellValueArrays((IndexedTensor)a, (IndexedTensor)b);
+    }
+
+    /** Returns whether the given tensor is a vector in the given bound dimension, holding its values in an array */
+    static boolean isVector(Tensor tensor, String dimension) {
+        if ( ! (tensor instanceof IndexedTensor indexed)) return false;
+        if (tensor.type().rank() != 1) return false;
+        TensorType.Dimension vectorDimension = tensor.type().dimensions().get(0);
+        if ( ! vectorDimension.name().equals(dimension)) return false;
+        if (vectorDimension.type() != TensorType.Dimension.Type.indexedBound) return false;
+        return DenseCellValues.doubles(indexed) != null || DenseCellValues.floats(indexed) != null;
+    }
+
+    /** Returns whether the cell values of both these tensors are held in double arrays, or both in float arrays */
+    static boolean haveSameCellValueArrays(IndexedTensor a, IndexedTensor b) {
+        if (DenseCellValues.doubles(a) != null && DenseCellValues.doubles(b) != null) return true;
+        if (DenseCellValues.floats(a) != null && DenseCellValues.floats(b) != null) return true;
+        return false;
+    }
+
+    /**
+     * Returns the dot product of the given number of values of a and b starting at the given offsets.
+     * The tensors must be accepted by {@link #haveSameCellValueArrays}.
+     */
+    static double dotProduct(IndexedTensor a, int aOffset, IndexedTensor b, int bOffset, int length) {
+        double[] aDoubles = DenseCellValues.doubles(a);
+        if (aDoubles != null)
+            return VectorKernels.instance().dotProduct(aDoubles, aOffset, DenseCellValues.doubles(b), bOffset, length);
+        return VectorKernels.instance().dotProduct(DenseCellValues.floats(a), aOffset, DenseCellValues.floats(b), bOffset, length);
+    }
+
+    /** Returns the dot product of two vectors accepted by {@link #areVectors} */
+    static double dotProduct(IndexedTensor a, IndexedTensor b) {
+        return dotProduct(a, 0, b, 0, (int)a.size());
+    }
+
+    /** Returns the sum of the squared differences of two vectors accepted by {@link #areVectors} */
+    static double squaredDistance(IndexedTensor a, IndexedTensor b) {
+        double[] aDoubles = DenseCellValues.doubles(a);
+        if (aDoubles != null)
+            return VectorKernels.instance().squaredDistance(aDoubles, DenseCellValues.doubles(b));
+        return VectorKernels.instance().squaredDistance(DenseCellValues.floats(a), DenseCellValues.floats(b));
+    }
+
+    /** Returns a vector accepted by {@link #isVector} with all values divided by the given divisor, having the given type */
+    static Tensor divide(IndexedTensor vector, double divisor, TensorType resultType) {
+        DimensionSizes sizes = vector.dimensionSizes();
+        double[] doubles = DenseCellValues.doubles(vector);
+        if (doubles != null)
+            return IndexedTensor.Builder.of(resultType, sizes, VectorKernels.instance().divide(doubles, divisor)).build();
+        return IndexedTensor.Builder.of(resultType, sizes, VectorKernels.instance().divide(DenseCellValues.floats(vector), divisor)).build();
+    }
+
+}
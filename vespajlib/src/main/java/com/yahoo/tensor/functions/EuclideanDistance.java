@@ -4,6 +4,7 @@ package com.yahoo.tensor.functions;
 import com.yahoo.tensor.evaluation.EvaluationContext;
 import com.yahoo.tensor.evaluation.Name;
 import com.yahoo.tensor.evaluation.TypeContext;
+import com.yahoo.tensor.IndexedTensor;
 import com.yahoo.tensor.Tensor;
 import com.yahoo.tensor.TensorType;
 import com.yahoo.tensor.TensorType.Dimension;
@@ -60,16 +61,22 @@ public class EuclideanDistance<NAMETYPE extends Name> extends TensorFunction<NAM
         return toPrimitive().type(context);
     }
 
-    /** Evaluates this by first converting it to a primitive function */
+    /** Evaluates this directly if the arguments are dense vectors, and by converting it to a primitive function otherwise */
     @Override
     public Tensor evaluate(EvaluationContext<NAMETYPE> context) {
-        return toPrimitive().evaluate(context);
+        Tensor a = arg1.evaluate(context);
+        Tensor b = arg2.evaluate(context);
+        if (DenseVectors.areVectors(a, b, dimension))
+            return Tensor.from(Math.sqrt(DenseVectors.squaredDistance((IndexedTensor)a, (IndexedTensor)b)));
+        return toPrimitive(new ConstantTensor<>(a), new ConstantTensor<>(b)).evaluate(context);
     }
 
     @Override
     public PrimitiveTensorFunction<NAMETYPE> toPrimitive() {
-        TensorFunction<NAMETYPE> primitive1 = arg1.toPrimitive();
-        TensorFunction<NAMETYPE> primitive2 = arg2.toPrimitive();
+        return toPrimitive(arg1.toPrimitive(), arg2.toPrimitive());
+    }
+
+    private PrimitiveTensorFunction<NAMETYPE> toPrimitive(TensorFunction<NAMETYPE> primitive1, TensorFunction<NAMETYPE> primitive2) {
         // this should match the C++ optimized "l2_distance"
         var diffs = new Join<>(primitive1, primitive2, ScalarFunctions.subtract());
         var squaredDiffs = new Map<>(diffs, ScalarFunctions.square());
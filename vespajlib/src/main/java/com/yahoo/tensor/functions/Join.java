@@ -95,7 +95,9 @@ public class Join<NAMETYPE extends Name> extends PrimitiveTensorFunction<NAMETYP
 
     static Tensor evaluate(Tensor a, Tensor b, TensorType joinedType, DoubleBinaryOperator combinator) {
         // Choose join algorithm
-        if (hasSingleIndexedDimension(a) && hasSingleIndexedDimension(b) && a.type().dimensions().get(0).name().equals(b.type().dimensions().get(0).name()))
+        if (a instanceof IndexedTensor && b instanceof IndexedTensor && DenseKernels.canJoin((IndexedTensor)a, (IndexedTensor)b, joinedType))
+            return DenseKernels.join((IndexedTensor)a, (IndexedTensor)b, joinedType, combinator);
+        else if (hasSingleIndexedDimension(a) && hasSingleIndexedDimension(b) && a.type().dimensions().get(0).name().equals(b.type().dimensions().get(0).name()))
             return indexedVectorJoin((IndexedTensor)a, (IndexedTensor)b, joinedType, combinator);
         else if (joinedType.dimensions().size() == a.type().dimensions().size() && joinedType.dimensions().size() == b.type().dimensions().size())
             return singleSpaceJoin(a, b, joinedType, combinator);
@@ -183,7 +185,7 @@ public class Join<NAMETYPE extends Name> extends PrimitiveTensorFunction<NAMETYP
         }
     }
 
-    private static DimensionSizes joinedSize(TensorType joinedType, IndexedTensor a, IndexedTensor b) {
+    static DimensionSizes joinedSize(TensorType joinedType, IndexedTensor a, IndexedTensor b) {
         DimensionSizes.Builder builder = new DimensionSizes.Builder(joinedType.dimensions().size());
         for (int i = 0; i < builder.dimensions(); i++) {
             String dimensionName = joinedType.dimensions().get(i).name();
@@ -1,6 +1,10 @@
 // Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.tensor.functions;
 
+import com.yahoo.tensor.IndexedTensor;
+import com.yahoo.tensor.Tensor;
+import com.yahoo.tensor.TensorType;
+import com.yahoo.tensor.evaluation.EvaluationContext;
 import com.yahoo.tensor.evaluation.Name;
 
 import java.util.Collections;
@@ -30,9 +34,24 @@ public class L2Normalize<NAMETYPE extends Name> extends CompositeTensorFunction<
         return new L2Normalize<>(arguments.get(0), dimension);
     }
 
+    /** Evaluates this directly if the argument is a dense vector, and by converting it to a primitive function otherwise */
+    @Override
+    public Tensor evaluate(EvaluationContext<NAMETYPE> context) {
+        Tensor tensor = argument.evaluate(context);
+        if (DenseVectors.isVector(tensor, dimension)) {
+            IndexedTensor vector = (IndexedTensor)tensor;
+            TensorType resultType = Join.outputType(vector.type(), TensorType.empty);
+            return DenseVectors.divide(vector, Math.sqrt(DenseVectors.dotProduct(vector, vector)), resultType);
+        }
+        return toPrimitive(new ConstantTensor<>(tensor)).evaluate(context);
+    }
+
     @Override
     public PrimitiveTensorFunction<NAMETYPE> toPrimitive() {
-        TensorFunction<NAMETYPE> primitiveArgument = argument.toPrimitive();
+        return toPrimitive(argument.toPrimitive());
+    }
+
+    private PrimitiveTensorFunction<NAMETYPE> toPrimitive(TensorFunction<NAMETYPE> primitiveArgument) {
         return new Join<>(primitiveArgument,
                           new Map<>(new Reduce<>(new Map<>(primitiveArgument, ScalarFunctions.square()),
                                                  Reduce.Aggregator.sum,
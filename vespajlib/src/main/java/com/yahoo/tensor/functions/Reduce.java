@@ -120,13 +120,16 @@ public class Reduce<NAMETYPE extends Name> extends PrimitiveTensorFunction<NAMET
         if (dimensions.isEmpty() || dimensions.size() == argument.type().dimensions().size())
             if (argument.isEmpty())
                 return Tensor.from(0.0);
-            else if (argument.type().dimensions().size() == 1 && argument instanceof IndexedTensor)
-                return reduceIndexedVector((IndexedTensor)argument, aggregator);
+            else if (argument instanceof IndexedTensor)
+                return reduceAllIndexed((IndexedTensor)argument, aggregator);
             else
                 return reduceAllGeneral(argument, aggregator);
 
         TensorType reducedType = outputType(argument.type(), dimensions);
 
+        if (argument instanceof IndexedTensor && ! argument.isEmpty() && DenseKernels.canReduce((IndexedTensor)argument, reducedType, aggregator))
+            return DenseKernels.reduce((IndexedTensor)argument, reducedType, aggregator);
+
         // Reduce cells
         Map<TensorAddress, ValueAggregator> aggregatingCells = new HashMap<>();
         for (Iterator<Tensor.Cell> i = argument.cellIterator(); i.hasNext(); ) {
@@ -163,9 +166,9 @@ public class Reduce<NAMETYPE extends Name> extends PrimitiveTensorFunction<NAMET
         return Tensor.Builder.of(TensorType.empty).cell((valueAggregator.aggregatedValue())).build();
     }
 
-    private static Tensor reduceIndexedVector(IndexedTensor argument, Aggregator aggregator) {
+    private static Tensor reduceAllIndexed(IndexedTensor argument, Aggregator aggregator) {
         ValueAggregator valueAggregator = ValueAggregator.ofType(aggregator);
-        for (int i = 0; i < argument.dimensionSizes().size(0); i++)
+        for (long i = 0; i < argument.size(); i++)
             valueAggregator.aggregate(argument.get(i));
         return Tensor.Builder.of(TensorType.empty).cell((valueAggregator.aggregatedValue())).build();
     }
@@ -119,28 +119,61 @@ public class ReduceJoin<NAMETYPE extends Name> extends CompositeTensorFunction<N
     /**
      * Evaluates the reduce-join. Special handling for common cases where the
      * reduce dimension is the innermost dimension in both tensors.
+     * The tensors must be ones accepted by {@link #canOptimize}.
      */
-    private Tensor evaluate(IndexedTensor a, IndexedTensor b, TensorType joinedType) {
+    Tensor evaluate(IndexedTensor a, IndexedTensor b, TensorType joinedType) {
         TensorType reducedType = Reduce.outputType(joinedType, dimensions);
+        // The values of the joined tensor would have been stored with this precision before being reduced
+        boolean floatPrecision = joinedType.valueType() != TensorType.Value.DOUBLE;
 
         if (reduceDimensionIsInnermost(a, b)) {
+            boolean dotProduct = isDotProduct(a, b);
             if (a.type().dimensions().size() == 1 && b.type().dimensions().size() == 1) {
-                return vectorVectorProduct(a, b, reducedType);
+                return vectorVectorProduct(a, b, reducedType, floatPrecision, dotProduct);
             }
             if (a.type().dimensions().size() == 1 && b.type().dimensions().size() == 2) {
-                return vectorMatrixProduct(a, b, reducedType, false);
+                return vectorMatrixProduct(a, b, reducedType, false, floatPrecision, dotProduct);
             }
             if (a.type().dimensions().size() == 2 && b.type().dimensions().size() == 1) {
-                return vectorMatrixProduct(b, a, reducedType, true);
+                return vectorMatrixProduct(b, a, reducedType, true, floatPrecision, dotProduct);
             }
             if (a.type().dimensions().size() == 2 && b.type().dimensions().size() == 2) {
-                return matrixMatrixProduct(a, b, reducedType);
+                return matrixMatrixProduct(a, b, reducedType, floatPrecision, dotProduct);
             }
         }
-        return evaluateGeneral(a, b, reducedType);
+        return evaluateGeneral(a, b, reducedType, floatPrecision);
     }
 
-    private Tensor vectorVectorProduct(IndexedTensor a, IndexedTensor b, TensorType reducedType) {
+    /** Returns whether this is a sum of products over values which can be passed directly to vector kernels */
+    private boolean isDotProduct(IndexedTensor a, IndexedTensor b) {
+        return aggregator == Reduce.Aggregator.sum &&
+               combinator instanceof ScalarFunctions.Multiply &&
+               DenseVectors.haveSameCellValueArrays(a, b);
+    }
+
+    private double combine(double a, double b, boolean floatPrecision) {
+        double value = combinator.applyAsDouble(a, b);
+        return floatPrecision ? (float)value : value;
+    }
+
+    /** Returns the aggregate of combining the given number of values in a and b, starting at the given offsets */
+    private double combineAndAggregate(IndexedTensor a, long aOffset, IndexedTensor b, long bOffset, long length,
+                                       boolean swapped, boolean floatPrecision, boolean dotProduct,
+                                       Reduce.ValueAggregator agg) {
+        if (dotProduct)
+            return DenseVectors.dotProduct(a, (int)aOffset, b, (int)bOffset, (int)length);
+
+        agg.reset();
+        for (long i = 0; i < length; ++i) {
+            double va = a.get(aOffset + i);
+            double vb = b.get(bOffset + i);
+            agg.aggregate(swapped ? combine(vb, va, floatPrecision) : combine(va, vb, floatPrecision));
+        }
+        return agg.aggregatedValue();
+    }
+
+    private Tensor vectorVectorProduct(IndexedTensor a, IndexedTensor b, TensorType reducedType,
+                                       boolean floatPrecision, boolean dotProduct) {
         if ( a.type().dimensions().size() != 1 || b.type().dimensions().size() != 1) {
             throw new IllegalArgumentException("Wrong dimension sizes for tensors for vector-vector product");
         }
@@ -148,16 +181,12 @@ public class ReduceJoin<NAMETYPE extends Name> extends CompositeTensorFunction<N
         long commonSize = Math.min(a.dimensionSizes().size(0), b.dimensionSizes().size(0));
 
         Reduce.ValueAggregator agg = Reduce.ValueAggregator.ofType(aggregator);
-        for (int ic = 0; ic < commonSize; ++ic) {
-            double va = a.get(ic);
-            double vb = b.get(ic);
-            agg.aggregate(combinator.applyAsDouble(va, vb));
-        }
-        builder.cellByDirectIndex(0, agg.aggregatedValue());
+        builder.cellByDirectIndex(0, combineAndAggregate(a, 0, b, 0, commonSize, false, floatPrecision, dotProduct, agg));
         return builder.build();
     }
 
-    private Tensor vectorMatrixProduct(IndexedTensor a, IndexedTensor b, TensorType reducedType, boolean swapped) {
+    private Tensor vectorMatrixProduct(IndexedTensor a, IndexedTensor b, TensorType reducedType, boolean swapped,
+                                       boolean floatPrecision, boolean dotProduct) {
         if ( a.type().dimensions().size() != 1 || b.type().dimensions().size() != 2) {
             throw new IllegalArgumentException("Wrong dimension sizes for tensors for vector-matrix product");
         }
@@ -165,21 +194,21 @@ public class ReduceJoin<NAMETYPE extends Name> extends CompositeTensorFunction<N
         DimensionSizes sizesA = a.dimensionSizes();
         DimensionSizes sizesB = b.dimensionSizes();
 
+        long rows = sizesB.size(0);
+        long rowSize = sizesB.size(1);
+        long commonSize = Math.min(sizesA.size(0), rowSize);
+
         Reduce.ValueAggregator agg = Reduce.ValueAggregator.ofType(aggregator);
-        for (int ib = 0; ib < sizesB.size(0); ++ib) {
-            agg.reset();
-            for (int ic = 0; ic < Math.min(sizesA.size(0), sizesB.size(1)); ++ic) {
-                double va = a.get(ic);
-                double vb = b.get(ib * sizesB.size(1) + ic);
-                double result = swapped ? combinator.applyAsDouble(vb, va) : combinator.applyAsDouble(va, vb);
-                agg.aggregate(result);
-            }
-            builder.cellByDirectIndex(ib, agg.aggregatedValue());
+        for (int ib = 0; ib < rows; ++ib) {
+            long rowOffset = ib * rowSize;
+            builder.cellByDirectIndex(ib, combineAndAggregate(a, 0, b, rowOffset, commonSize,
+                                                              swapped, floatPrecision, dotProduct, agg));
         }
         return builder.build();
     }
 
-    private Tensor matrixMatrixProduct(IndexedTensor a, IndexedTensor b, TensorType reducedType) {
+    private Tensor matrixMatrixProduct(IndexedTensor a, IndexedTensor b, TensorType reducedType,
+                                       boolean floatPrecision, boolean dotProduct) {
         if ( a.type().dimensions().size() != 2 || b.type().dimensions().size() != 2) {
             throw new IllegalArgumentException("Wrong dimension sizes for tensors for matrix-matrix product");
         }
@@ -191,22 +220,26 @@ public class ReduceJoin<NAMETYPE extends Name> extends CompositeTensorFunction<N
         long strideA = iaToReduced < ibToReduced ? sizesB.size(0) : 1;
         long strideB = ibToReduced < iaToReduced ? sizesA.size(0) : 1;
 
+        long rowsA = sizesA.size(0);
+        long rowsB = sizesB.size(0);
+        long rowSizeA = sizesA.size(1);
+        long rowSizeB = sizesB.size(1);
+        long commonSize = Math.min(rowSizeA, rowSizeB);
+
         Reduce.ValueAggregator agg = Reduce.ValueAggregator.ofType(aggregator);
-        for (int ia = 0; ia < sizesA.size(0); ++ia) {
-            for (int ib = 0; ib < sizesB.size(0); ++ib) {
-                agg.reset();
-                for (int ic = 0; ic < Math.min(sizesA.size(1), sizesB.size(1)); ++ic) {
-                    double va = a.get(ia * sizesA.size(1) + ic);
-                    double vb = b.get(ib * sizesB.size(1) + ic);
-                    agg.aggregate(combinator.applyAsDouble(va, vb));
-                }
-                builder.cellByDirectIndex(ia * strideA + ib * strideB, agg.aggregatedValue());
+        for (int ia = 0; ia < rowsA; ++ia) {
+            long rowOffsetA = ia * rowSizeA;
+            for (int ib = 0; ib < rowsB; ++ib) {
+                long rowOffsetB = ib * rowSizeB;
+                builder.cellByDirectIndex(ia * strideA + ib * strideB,
+                                          combineAndAggregate(a, rowOffsetA, b, rowOffsetB, commonSize,
+                                                              false, floatPrecision, dotProduct, agg));
             }
         }
         return builder.build();
     }
 
-    private Tensor evaluateGeneral(IndexedTensor a, IndexedTensor b, TensorType reducedType) {
+    private Tensor evaluateGeneral(IndexedTensor a, IndexedTensor b, TensorType reducedType, boolean floatPrecision) {
         IndexedTensor.BoundBuilder builder = (IndexedTensor.BoundBuilder)IndexedTensor.Builder.of(reducedType);
         TensorType onlyInA = Reduce.outputType(a.type(), dimensions);
         TensorType onlyInB = Reduce.outputType(b.type(), dimensions);
@@ -235,7 +268,7 @@ public class ReduceJoin<NAMETYPE extends Name> extends CompositeTensorFunction<N
                 for (ic.reset(); ic.hasNext(); ic.next()) {
                     double va = a.get(toDirectIndex(ia, ic, stridesA, mapOnlyAToA, mapCommonToA));
                     double vb = b.get(toDirectIndex(ib, ic, stridesB, mapOnlyBToB, mapCommonToB));
-                    agg.aggregate(combinator.applyAsDouble(va, vb));
+                    agg.aggregate(combine(va, vb, floatPrecision));
                 }
                 builder.cellByDirectIndex(toDirectIndex(ia, ib, stridesResult, mapOnlyAToResult, mapOnlyBToResult),
                                           agg.aggregatedValue());
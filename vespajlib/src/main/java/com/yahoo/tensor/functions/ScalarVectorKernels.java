@@ -0,0 +1,64 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.tensor.functions;
+
+/**
+ * Vector kernels as plain loops. Intermediate values are rounded to the precision of the cell values,
+ * such that results are the same as when evaluating the equivalent joins and reduces.
+ *
+ * @author agent
+ */
+class ScalarVectorKernels extends VectorKernels {
+
+    @Override
+    double dotProduct(double[] a, int aOffset, double[] b, int bOffset, int length) {
+        double sum = 0;
+        for (int i = 0; i < length; i++)
+            sum += a[aOffset + i] * b[bOffset + i];
+        return sum;
+    }
+
+    @Override
+    double dotProduct(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        double sum = 0;
+        for (int i = 0; i < length; i++)
+            sum += a[aOffset + i] * b[bOffset + i];
+        return sum;
+    }
+
+    @Override
+    double squaredDistance(double[] a, double[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            double difference = a[i] - b[i];
+            sum += difference * difference;
+        }
+        return sum;
+    }
+
+    @Override
+    double squaredDistance(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            float difference = a[i] - b[i];
+            sum += difference * difference;
+        }
+        return sum;
+    }
+
+    @Override
+    double[] divide(double[] a, double divisor) {
+        double[] result = new double[a.length];
+        for (int i = 0; i < a.length; i++)
+            result[i] = a[i] / divisor;
+        return result;
+    }
+
+    @Override
+    float[] divide(float[] a, double divisor) {
+        float[] result = new float[a.length];
+        for (int i = 0; i < a.length; i++)
+            result[i] = (float)(a[i] / divisor);
+        return result;
+    }
+
+}
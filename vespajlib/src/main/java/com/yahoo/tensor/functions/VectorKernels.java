@@ -0,0 +1,62 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.tensor.functions;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Loops over dense cell values used to evaluate tensor functions which reduce over a single dimension.
+ * <p>
+ * There are two implementations: One using the Java Vector API, which is used when the jdk.incubator.vector
+ * module is present (i.e. when the JVM is started with --add-modules=jdk.incubator.vector), and a scalar one
+ * which is used otherwise. The choice is made once, when this class is initialized.
+ * Float values are summed as floats by the Vector API implementation, so results may differ slightly between
+ * the implementations.
+ *
+ * @author agent
+ */
+abstract class VectorKernels {
+
+    private static final Logger log = Logger.getLogger(VectorKernels.class.getName());
+
+    private static final String vectorApiModule = "jdk.incubator.vector";
+    private static final String vectorApiKernels = "com.yahoo.tensor.functions.VectorApiKernels";
+
+    private static final VectorKernels instance = create();
+
+    /** Returns the implementation to use in this JVM */
+    static VectorKernels instance() { return instance; }
+
+    /** Returns the sum of the products of the given number of values in a and b, starting at the given offsets */
+    abstract double dotProduct(double[] a, int aOffset, double[] b, int bOffset, int length);
+
+    /** Returns the sum of the products of the given number of values in a and b, starting at the given offsets */
+    abstract double dotProduct(float[] a, int aOffset, float[] b, int bOffset, int length);
+
+    /** Returns the sum of the squared differences of the values in a and b, which must have the same length */
+    abstract double squaredDistance(double[] a, double[] b);
+
+    /** Returns the sum of the squared differences of the values in a and b, which must have the same length */
+    abstract double squaredDistance(float[] a, float[] b);
+
+    /** Returns a new array containing the values of a divided by the given divisor */
+    abstract double[] divide(double[] a, double divisor);
+
+    /** Returns a new array containing the values of a divided by the given divisor */
+    abstract float[] divide(float[] a, double divisor);
+
+    private static VectorKernels create() {
+        if (ModuleLayer.boot().findModule(vectorApiModule).isPresent()) {
+            try {
+                VectorKernels kernels = (VectorKernels)Class.forName(vectorApiKernels).getDeclaredConstructor().newInstance();
+                log.fine("Using the Java Vector API for tensor functions");
+                return kernels;
+            }
+            catch (ReflectiveOperationException | LinkageError e) {
+                log.log(Level.INFO, "Could not use the Java Vector API for tensor functions: Using scalar code", e);
+            }
+        }
+        return new ScalarVectorKernels();
+    }
+
+}
@@ -1,6 +1,8 @@
 // Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.tensor.functions;
 
+import com.yahoo.tensor.Tensor;
+import com.yahoo.tensor.evaluation.EvaluationContext;
 import com.yahoo.tensor.evaluation.Name;
 
 import java.util.List;
@@ -43,6 +45,14 @@ public class XwPlusB<NAMETYPE extends Name> extends CompositeTensorFunction<NAME
                           ScalarFunctions.add());
     }
 
+    /** Evaluates this with the product computed as a matmul, which avoids creating the joined tensor when possible */
+    @Override
+    public Tensor evaluate(EvaluationContext<NAMETYPE> context) {
+        Tensor product = new Matmul<>(x, w, dimension).evaluate(context);
+        Tensor bias = b.evaluate(context);
+        return Join.evaluate(product, bias, Join.outputType(product.type(), bias.type()), ScalarFunctions.add());
+    }
+
     @Override
     public String toString(ToStringContext<NAMETYPE> context) {
         return "xw_plus_b(" + x.toString(context) + ", " +
@@ -0,0 +1,40 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.tensor.impl;
+
+import com.yahoo.tensor.IndexedTensor;
+
+/**
+ * Gives optimized tensor function implementations outside the tensor package read access
+ * to the arrays holding the cell values of indexed tensors. This is not public API.
+ * The arrays returned are the ones backing the tensors and must not be modified.
+ *
+ * @author agent
+ */
+public class DenseCellValues {
+
+    private static volatile Accessor accessor;
+
+    private DenseCellValues() {}
+
+    /** Returns the cell values of the given tensor in standard value order if they are stored as doubles, and null otherwise */
+    public static double[] doubles(IndexedTensor tensor) { return accessor.doubles(tensor); }
+
+    /** Returns the cell values of the given tensor in standard value order if they are stored as floats, and null otherwise */
+    public static float[] floats(IndexedTensor tensor) { return accessor.floats(tensor); }
+
+    /** Sets the accessor to use. This is called once by the tensor package. */
+    public static synchronized void setAccessor(Accessor accessor) {
+        if (DenseCellValues.accessor != null)
+            throw new IllegalStateException("The dense cell value accessor is already set");
+        DenseCellValues.accessor = accessor;
+    }
+
+    public interface Accessor {
+
+        double[] doubles(IndexedTensor tensor);
+
+        float[] floats(IndexedTensor tensor);
+
+    }
+
+}
@@ -253,12 +253,8 @@ public class JsonFormat {
         if ( ! (builder instanceof IndexedTensor.BoundBuilder indexedBuilder))
             throw new IllegalArgumentException("An array of values can only be used with a dense tensor. Use a map instead");
         if (values.type() == Type.STRING) {
-            double[] decoded = decodeHexString(values.asString(), builder.type().valueType());
-            if (decoded.length == 0)
+            if (decodeHexString(values.asString(), indexedBuilder) == 0)
                 throw new IllegalArgumentException("The values string does not contain any values");
-            for (int i = 0; i < decoded.length; i++) {
-                indexedBuilder.cellByDirectIndex(i, decoded[i]);
-            }
             return;
         }
         if (values.type() != Type.ARRAY)
@@ -326,7 +322,7 @@ public class JsonFormat {
                            decodeValuesInBlock(value, mixedBuilder));
     }
 
-    private static byte decodeHex(String input, int index) {
+    private static byte decodeHex(CharSequence input, int index) {
         int d = Character.digit(input.charAt(index), 16);
         if (d < 0) {
             throw new IllegalArgumentException("Invalid digit '"+input.charAt(index)+"' at index "+index+" in input "+input);
@@ -401,6 +397,35 @@ public class JsonFormat {
         };
     }
 
+    /**
+     * Decodes a hex string of cells of the value type of the given builder into the builder, in standard value order,
+     * without first decoding the cells into an array. This returns the number of cells decoded.
+     */
+    public static int decodeHexString(CharSequence input, IndexedTensor.DirectIndexBuilder builder) {
+        TensorType.Value valueType = builder.type().valueType();
+        int digits = switch (valueType) {
+            case INT8 -> 2;
+            case BFLOAT16 -> 4;
+            case FLOAT -> 8;
+            case DOUBLE -> 16;
+        };
+        int cells = input.length() / digits;
+        for (int i = 0, idx = 0; i < cells; i++) {
+            long v = 0;
+            for (int j = 0; j < digits; j++) {
+                v <<= 4;
+                v += decodeHex(input, idx++);
+            }
+            switch (valueType) {
+                case INT8 -> builder.cellByDirectIndex(i, (float) (byte) v);
+                case BFLOAT16 -> builder.cellByDirectIndex(i, Float.intBitsToFloat((int) v << 16));
+                case FLOAT -> builder.cellByDirectIndex(i, Float.intBitsToFloat((int) v));
+                case DOUBLE -> builder.cellByDirectIndex(i, Double.longBitsToDouble(v));
+            }
+        }
+        return cells;
+    }
+
     private static void decodeMaybeNestedValuesInBlock(Inspector arrayField, double[] target, MutableInteger index) {
         if (arrayField.entries() == 0) {
             throw new IllegalArgumentException("The block value array does not contain any values");
@@ -2,6 +2,7 @@
 package com.yahoo.slime;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.function.Consumer;
 
@@ -306,6 +307,32 @@ public class BinaryViewTest {
         }
     }
 
+    @Test public void testBinaryViewOfArrayRangeParity() {
+        for (int i = 0; i < numShapes; ++i) {
+            var slime = makeSlime(i);
+            ctx = "case " + i + ": '" + slime.toString() + "'";
+            byte[] data = BinaryFormat.encode(slime);
+            byte[] padded = new byte[data.length + 10];
+            Arrays.fill(padded, (byte) 0xff);
+            System.arraycopy(data, 0, padded, 7, data.length);
+            try {
+                checkParity(slime.get(), BinaryView.inspect(padded, 7, data.length));
+            } catch (Exception e) {
+                fail(ctx + ", got exception: " + e);
+            }
+        }
+    }
+
+    @Test public void testUnderflowAtEndOfArrayRange() {
+        byte[] data = BinaryFormat.encode(makeSlime(numShapes - 1));
+        try {
+            BinaryView.inspect(data, 0, data.length - 1);
+            fail("expected exception");
+        } catch (IllegalArgumentException e) {
+            assertEquals("bad input: underflow", e.getMessage());
+        }
+    }
+
     void assertFail(byte[] data, String reason) {
         try {
             var view = BinaryView.inspect(data);
@@ -3,9 +3,12 @@ package com.yahoo.tensor;
 
 import org.junit.Test;
 
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
@@ -84,6 +87,26 @@ public class IndexedTensorTestCase {
         }
     }
     
+    @Test
+    public void testCellBuffers() {
+        IndexedTensor floats = IndexedTensor.Builder.of(TensorType.fromSpec("tensor<float>(x[3])"),
+                                                        new float[] {1.0f, 2.0f, 3.0f}).build();
+        IndexedTensor doubles = IndexedTensor.Builder.of(TensorType.fromSpec("tensor<double>(x[3])"),
+                                                         new double[] {1.0, 2.0, 3.0}).build();
+        for (IndexedTensor tensor : List.of(floats, doubles)) {
+            FloatBuffer floatBuffer = tensor.asFloatBuffer();
+            DoubleBuffer doubleBuffer = tensor.asDoubleBuffer();
+            assertEquals(3, floatBuffer.remaining());
+            assertEquals(3, doubleBuffer.remaining());
+            assertTrue(floatBuffer.isReadOnly());
+            assertTrue(doubleBuffer.isReadOnly());
+            for (int i = 0; i < 3; i++) {
+                assertEquals(i + 1.0f, floatBuffer.get(), 0.0f);
+                assertEquals(i + 1.0, doubleBuffer.get(), 0.0);
+            }
+        }
+    }
+
     @Test
     public void testBoundBuilding() {
         TensorType type = new TensorType.Builder().indexed("v", vSize)
@@ -0,0 +1,121 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.tensor.functions;
+
+import com.yahoo.tensor.IndexedTensor;
+import com.yahoo.tensor.MappedTensor;
+import com.yahoo.tensor.Tensor;
+import com.yahoo.tensor.TensorType;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the dense kernels by comparing with the same functions computed on mapped tensors.
+ *
+ * @author agent
+ */
+public class DenseKernelsTestCase {
+
+    @Test
+    public void testJoin() {
+        assertJoin("tensor(x[3])", "tensor(x[3])");
+        assertJoin("tensor(x[3])", "tensor(y[2])");
+        assertJoin("tensor(x[2],y[3])", "tensor(y[3])");
+        assertJoin("tensor(y[3])", "tensor(x[2],y[3])");
+        assertJoin("tensor(x[2],y[3])", "tensor(y[3],z[4])");
+        assertJoin("tensor(x[2],z[4])", "tensor(y[3])");
+        assertJoin("tensor<float>(x[2],y[3])", "tensor(x[2])");
+        assertJoin("tensor()", "tensor(x[2],y[3])");
+        assertJoin("tensor()", "tensor()");
+    }
+
+    @Test
+    public void testReduce() {
+        for (var aggregator : Reduce.Aggregator.values()) {
+            assertReduce("tensor(x[2],y[3],z[4])", aggregator, "x");
+            assertReduce("tensor(x[2],y[3],z[4])", aggregator, "y");
+            assertReduce("tensor(x[2],y[3],z[4])", aggregator, "z");
+            assertReduce("tensor(x[2],y[3],z[4])", aggregator, "x", "z");
+            assertReduce("tensor<float>(x[2],y[3])", aggregator, "y");
+        }
+    }
+
+    @Test
+    public void testRequiresMatchingSizes() {
+        IndexedTensor a = (IndexedTensor)Tensor.from("tensor(x[]):[1,2,3]");
+        IndexedTensor b = (IndexedTensor)Tensor.from("tensor(x[4]):[1,2,3,4]");
+        TensorType joinedType = Join.outputType(a.type(), b.type());
+        assertFalse(DenseKernels.canJoin(a, b, joinedType));
+        assertTrue(DenseKernels.canJoin(b, b, joinedType));
+
+        IndexedTensor c = (IndexedTensor)a.multiply(Tensor.from("tensor(x[4],y[2]):[[1,2],[3,4],[5,6],[7,8]]"));
+        TensorType reducedType = Reduce.outputType(c.type(), List.of("y"));
+        assertFalse(DenseKernels.canReduce(c, reducedType, Reduce.Aggregator.sum));
+        assertFalse(DenseKernels.canReduce(b, TensorType.fromSpec("tensor(x[4])"), Reduce.Aggregator.median));
+    }
+
+    private void assertJoin(String aType, String bType) {
+        Tensor a = tensor(aType, 1);
+        Tensor b = tensor(bType, 2);
+        assertTrue(a instanceof IndexedTensor && b instanceof IndexedTensor);
+        assertEqualCells(mapped(a).multiply(mapped(b)), a.multiply(b));
+        assertEqualCells(mapped(a).subtract(mapped(b)), a.subtract(b));
+        assertEqualCells(mapped(b).divide(mapped(a)), b.divide(a));
+    }
+
+    private void assertReduce(String type, Reduce.Aggregator aggregator, String ... dimensions) {
+        Tensor tensor = tensor(type, 1);
+        assertEqualCells(mapped(tensor).reduce(aggregator, dimensions), tensor.reduce(aggregator, dimensions));
+    }
+
+    private void assertEqualCells(Tensor expectedMapped, Tensor actual) {
+        assertTrue(actual instanceof IndexedTensor);
+        Tensor.Builder expected = Tensor.Builder.of(actual.type());
+        for (var cells = expectedMapped.cellIterator(); cells.hasNext(); ) {
+            var cell = cells.next();
+            expected.cell(cell.getKey(), cell.getValue());
+        }
+        assertEquals(expected.build(), actual);
+    }
+
+    /** Returns a tensor of the given type with distinct, nonzero values */
+    private Tensor tensor(String type, int seed) {
+        TensorType tensorType = TensorType.fromSpec(type);
+        Tensor.Builder builder = Tensor.Builder.of(tensorType);
+        long size = 1;
+        for (var dimension : tensorType.dimensions())
+            size *= dimension.size().get();
+        long[] indexes = new long[tensorType.rank()];
+        for (long i = 0; i < size; i++) {
+            long remaining = i;
+            for (int d = indexes.length - 1; d >= 0; d--) {
+                long dimensionSize = tensorType.dimensions().get(d).size().get();
+                indexes[d] = remaining % dimensionSize;
+                remaining /= dimensionSize;
+            }
+            builder.cell(seed + i * 0.5 + 1, indexes);
+        }
+        return builder.build();
+    }
+
+    /** Returns the given tensor as a mapped tensor, such that functions are computed by the general implementations */
+    private Tensor mapped(Tensor tensor) {
+        TensorType.Builder typeBuilder = new TensorType.Builder(tensor.type().valueType());
+        for (var dimension : tensor.type().dimensions())
+            typeBuilder.mapped(dimension.name());
+        Tensor.Builder builder = Tensor.Builder.of(typeBuilder.build());
+        for (var cells = tensor.cellIterator(); cells.hasNext(); ) {
+            var cell = cells.next();
+            builder.cell(cell.getKey(), cell.getValue());
+        }
+        Tensor mapped = builder.build();
+        if (tensor.type().rank() > 0)
+            assertTrue(mapped instanceof MappedTensor);
+        return mapped;
+    }
+
+}
@@ -0,0 +1,107 @@
+// Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.tensor.functions;
+
+import com.yahoo.tensor.Tensor;
+import com.yahoo.tensor.TensorType;
+import com.yahoo.tensor.evaluation.Name;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests the vector kernels in use (which is the Vector API implementation if its module is added to the JVM)
+ * against the scalar implementation, and the functions evaluated with them against their primitive equivalents.
+ *
+ * @author agent
+ */
+public class VectorKernelsTestCase {
+
+    private final Random random = new Random(1);
+    private final VectorKernels scalar = new ScalarVectorKernels();
+    private final VectorKernels kernels = VectorKernels.instance();
+
+    @Test
+    public void testKernels() {
+        for (int length : new int[] { 0, 1, 3, 7, 8, 15, 16, 17, 33, 100, 768 }) {
+            double[] a = doubles(length);
+            double[] b = doubles(length);
+            assertEquals(scalar.dotProduct(a, 0, b, 0, length), kernels.dotProduct(a, 0, b, 0, length), 1e-9);
+            assertEquals(scalar.squaredDistance(a, b), kernels.squaredDistance(a, b), 1e-9);
+            assertArrayEquals(scalar.divide(a, 3.0), kernels.divide(a, 3.0), 1e-9);
+
+            float[] af = floats(length);
+            float[] bf = floats(length);
+            assertEquals(scalar.dotProduct(af, 0, bf, 0, length), kernels.dotProduct(af, 0, bf, 0, length), 1e-3);
+            assertEquals(scalar.squaredDistance(af, bf), kernels.squaredDistance(af, bf), 1e-3);
+            assertArrayEquals(scalar.divide(af, 3.0), kernels.divide(af, 3.0), 1e-6f);
+
+            if (length > 2) {
+                int offset = length / 2;
+                assertEquals(scalar.dotProduct(a, 1, b, offset, length - offset),
+                             kernels.dotProduct(a, 1, b, offset, length - offset), 1e-9);
+                assertEquals(scalar.dotProduct(af, 1, bf, offset, length - offset),
+                             kernels.dotProduct(af, 1, bf, offset, length - offset), 1e-3);
+            }
+        }
+    }
+
+    @Test
+    public void testFunctions() {
+        for (String valueType : new String[] { "double", "float", "bfloat16", "int8" }) {
+            for (int size : new int[] { 1, 5, 16, 100 }) {
+                var a = new ConstantTensor<Name>(tensor("tensor<" + valueType + ">(x[" + size + "])"));
+                var b = new ConstantTensor<Name>(tensor("tensor<" + valueType + ">(x[" + size + "])"));
+                var matrix = new ConstantTensor<Name>(tensor("tensor<" + valueType + ">(x[" + size + "],y[3])"));
+                var bias = new ConstantTensor<Name>(tensor("tensor<" + valueType + ">(y[3])"));
+                assertEvaluatesAsPrimitive(new CosineSimilarity<>(a, b, "x"));
+                assertEvaluatesAsPrimitive(new EuclideanDistance<>(a, b, "x"));
+                assertEvaluatesAsPrimitive(new L2Normalize<>(a, "x"));
+                assertEvaluatesAsPrimitive(new Matmul<>(a, b, "x"));
+                assertEvaluatesAsPrimitive(new Matmul<>(a, matrix, "x"));
+                assertEvaluatesAsPrimitive(new XwPlusB<>(a, matrix, bias, "x"));
+            }
+        }
+    }
+
+    private void assertEvaluatesAsPrimitive(TensorFunction<Name> function) {
+        Tensor result = function.evaluate();
+        Tensor expected = function.toPrimitive().evaluate();
+        assertEquals(function.toString(), expected.type(), result.type());
+        assertEquals(function.toString(), expected, result);
+    }
+
+    private Tensor tensor(String typeSpec) {
+        TensorType type = TensorType.fromSpec(typeSpec);
+        Tensor.Builder builder = Tensor.Builder.of(type);
+        long size = type.dimensions().stream().mapToLong(dimension -> dimension.size().get()).reduce(1, (x, y) -> x * y);
+        for (long i = 0; i < size; i++) {
+            long[] indexes = new long[type.rank()];
+            long remaining = i;
+            for (int d = type.rank() - 1; d >= 0; d--) {
+                long dimensionSize = type.dimensions().get(d).size().get();
+                indexes[d] = remaining % dimensionSize;
+                remaining /= dimensionSize;
+            }
+            builder.cell(random.nextInt(200) - 100, indexes);
+        }
+        return builder.build();
+    }
+
+    private double[] doubles(int length) {
+        double[] values = new double[length];
+        for (int i = 0; i < length; i++)
+            values[i] = random.nextDouble() * 2 - 1;
+        return values;
+    }
+
+    private float[] floats(int length) {
+        float[] values = new float[length];
+        for (int i = 0; i < length; i++)
+            values[i] = random.nextFloat() * 2 - 1;
+        return values;
+    }
+
+}
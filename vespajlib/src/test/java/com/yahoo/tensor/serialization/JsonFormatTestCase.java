@@ -1,6 +1,7 @@
 // Copyright Vespa.ai. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.tensor.serialization;
 
+import com.yahoo.tensor.IndexedTensor;
 import com.yahoo.tensor.Tensor;
 import com.yahoo.tensor.TensorType;
 import com.yahoo.text.JSON;
@@ -560,6 +561,19 @@ public class JsonFormatTestCase {
         assertEquals(expected, decoded);
     }
 
+    @Test
+    public void testDecodeHexStringIntoBuilder() {
+        String[] hexStrings = { "027FFF80002A", "422849803580c37f", "4228000049800008c37f0000", "4045000000000000c06fe00000000000" };
+        String[] types = { "tensor<int8>(x[6])", "tensor<bfloat16>(x[4])", "tensor<float>(x[3])", "tensor<double>(x[2])" };
+        for (int i = 0; i < types.length; i++) {
+            TensorType type = TensorType.fromSpec(types[i]);
+            var builder = (IndexedTensor.BoundBuilder) Tensor.Builder.of(type);
+            assertEquals(type.dimensions().get(0).size().get().intValue(), JsonFormat.decodeHexString(hexStrings[i], builder));
+            assertEquals(IndexedTensor.Builder.of(type, JsonFormat.decodeHexString(hexStrings[i], type.valueType())).build(),
+                         builder.build());
+        }
+    }
+
     @Test
     public void testMixedTensorInMixedForm() {
         Tensor.Builder builder = Tensor.Builder.of(TensorType.fromSpec("tensor(x{},y[3])"));